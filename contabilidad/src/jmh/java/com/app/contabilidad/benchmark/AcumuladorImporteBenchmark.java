@@ -0,0 +1,57 @@
+package com.app.contabilidad.benchmark;
+
+import com.app.contabilidad.domain.entities.AcumuladorImporte;
+import com.app.contabilidad.domain.entities.Movimiento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la suma de importes con reduce(BigDecimal::add) frente al acumulador en céntimos.
+ * El profiler de GC debe mostrar que el acumulador no asigna memoria por fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AcumuladorImporteBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private List<BigDecimal> importes;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        importes = LibroSintetico.generar(tamano).stream().map(Movimiento::getCantidad).toList();
+    }
+
+    @Benchmark
+    public BigDecimal reduceBigDecimal() {
+        return importes.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal acumuladorCentimos() {
+        AcumuladorImporte acumulador = new AcumuladorImporte();
+        for (BigDecimal importe : importes) {
+            acumulador.sumar(importe);
+        }
+        return acumulador.getTotal();
+    }
+}
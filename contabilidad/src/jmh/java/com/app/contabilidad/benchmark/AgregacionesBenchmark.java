@@ -0,0 +1,69 @@
+package com.app.contabilidad.benchmark;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.dto.ResumenMensualDTO;
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.services.MovimientoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las agregaciones del dominio y del caso de uso sobre libros sintéticos de
+ * 10k, 100k y 1M movimientos servidos por un repositorio en memoria.
+ * La caché se invalida antes de cada llamada para medir siempre el cálculo completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AgregacionesBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private MovimientoService movimientoService;
+    private CacheVersionada cache;
+    private GestionarMovimientosUseCase gestionarMovimientosUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        movimientoService = new MovimientoService(new MovimientoRepositoryEnMemoria(LibroSintetico.generar(tamano)));
+        cache = new CacheVersionada(16);
+        gestionarMovimientosUseCase = new GestionarMovimientosUseCase(movimientoService, cache, null);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> sumarPorCategoria() {
+        return movimientoService.sumarPorCategoria(Movimiento.TipoMovimiento.GASTO);
+    }
+
+    @Benchmark
+    public Map<String, TotalesMovimientos> agruparPorMes() {
+        return movimientoService.agruparPorMes();
+    }
+
+    @Benchmark
+    public List<ResumenMensualDTO> obtenerResumenPorMes() {
+        cache.invalidar();
+        return gestionarMovimientosUseCase.obtenerResumenPorMes();
+    }
+}
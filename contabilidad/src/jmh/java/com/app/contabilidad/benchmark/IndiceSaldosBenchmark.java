@@ -0,0 +1,92 @@
+package com.app.contabilidad.benchmark;
+
+import com.app.contabilidad.domain.entities.AcumuladorImporte;
+import com.app.contabilidad.domain.entities.IndiceSaldos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el saldo a fecha de una página del listado (50 fechas) sumando el libro completo
+ * para cada fecha frente al índice de saldos, y mide lo que cuesta mantener el índice en una escritura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndiceSaldosBenchmark {
+    private static final int FECHAS_POR_PAGINA = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private List<Movimiento> movimientos;
+    private IndiceSaldos indice;
+    private LocalDate[] fechas;
+    private Movimiento escrito;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        movimientos = LibroSintetico.generar(tamano);
+        indice = new IndiceSaldos();
+        movimientos.forEach(indice::anadir);
+        SplittableRandom random = new SplittableRandom(7);
+        fechas = new LocalDate[FECHAS_POR_PAGINA];
+        for (int i = 0; i < fechas.length; i++) {
+            fechas[i] = movimientos.get(random.nextInt(movimientos.size())).getFecha();
+        }
+        escrito = movimientos.get(movimientos.size() / 2);
+    }
+
+    @Benchmark
+    public BigDecimal saldosRecorriendoLibro() {
+        BigDecimal suma = BigDecimal.ZERO;
+        for (LocalDate fecha : fechas) {
+            AcumuladorImporte beneficios = new AcumuladorImporte();
+            AcumuladorImporte gastos = new AcumuladorImporte();
+            for (Movimiento movimiento : movimientos) {
+                if (!movimiento.getFecha().isAfter(fecha)) {
+                    (movimiento.getTipo() == Movimiento.TipoMovimiento.GASTO ? gastos : beneficios)
+                            .sumar(movimiento.getCantidad());
+                }
+            }
+            suma = suma.add(beneficios.getTotal().subtract(gastos.getTotal()));
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long saldosIndice() {
+        long suma = 0;
+        for (LocalDate fecha : fechas) {
+            suma += indice.saldoA(fecha);
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long actualizarIndice() {
+        // Una edición: se descuenta el estado anterior y se suma el nuevo
+        indice.quitar(escrito);
+        indice.anadir(escrito);
+        return indice.saldoA(escrito.getFecha());
+    }
+}
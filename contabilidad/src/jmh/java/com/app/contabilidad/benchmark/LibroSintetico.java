@@ -0,0 +1,54 @@
+package com.app.contabilidad.benchmark;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de libros de movimientos sintéticos y reproducibles para los benchmarks.
+ * Reparte los movimientos en cinco años, doce categorías y un 70 % de gastos.
+ */
+public final class LibroSintetico {
+    private static final long SEMILLA = 42L;
+    private static final LocalDate INICIO = LocalDate.of(2020, 1, 1);
+    private static final int DIAS = 5 * 365;
+    private static final String[] CATEGORIAS = {
+            "Alimentación", "Vivienda", "Transporte", "Ocio", "Salud", "Educación",
+            "Ropa", "Suministros", "Seguros", "Regalos", "Nómina", "Inversiones"
+    };
+
+    private LibroSintetico() {
+    }
+
+    /**
+     * Categorías que usan los libros generados
+     */
+    public static List<String> categorias() {
+        return List.of(CATEGORIAS);
+    }
+
+    /**
+     * Genera tamano movimientos con ids consecutivos desde 1
+     */
+    public static List<Movimiento> generar(int tamano) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        List<Movimiento> movimientos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            boolean gasto = random.nextInt(10) < 7;
+            movimientos.add(Movimiento.builder()
+                    .id((long) i + 1)
+                    .descripcion("Movimiento " + i)
+                    .cantidad(BigDecimal.valueOf(random.nextLong(1, 500_000), 2))
+                    .tipo(gasto ? Movimiento.TipoMovimiento.GASTO : Movimiento.TipoMovimiento.BENEFICIO)
+                    .fecha(INICIO.plusDays(random.nextInt(DIAS)))
+                    .categoria(CATEGORIAS[random.nextInt(CATEGORIAS.length)])
+                    .notas(i % 4 == 0 ? "Nota del movimiento " + i : null)
+                    .build());
+        }
+        return movimientos;
+    }
+}
@@ -0,0 +1,262 @@
+package com.app.contabilidad.benchmark;
+
+import com.app.contabilidad.domain.entities.AcumuladorImporte;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Implementación en memoria del puerto de persistencia para los benchmarks.
+ * Los totales se calculan recorriendo la lista en cada llamada con acumuladores en céntimos,
+ * de modo que el benchmark mide el coste de la agregación en Java y no el de la base de datos.
+ */
+public class MovimientoRepositoryEnMemoria implements MovimientoRepositoryPort {
+    private static final Comparator<Movimiento> ORDEN_FECHA_ID =
+            Comparator.comparing(Movimiento::getFecha).thenComparing(Movimiento::getId);
+
+    private final List<Movimiento> movimientos;
+    private long siguienteId;
+    private long version;
+
+    public MovimientoRepositoryEnMemoria(List<Movimiento> movimientos) {
+        this.movimientos = new ArrayList<>(movimientos);
+        this.movimientos.sort(ORDEN_FECHA_ID);
+        this.siguienteId = this.movimientos.stream().mapToLong(Movimiento::getId).max().orElse(0L) + 1;
+    }
+
+    @Override
+    public Movimiento guardar(Movimiento movimiento) {
+        movimiento.setId(siguienteId++);
+        movimientos.add(movimiento);
+        version++;
+        return movimiento;
+    }
+
+    @Override
+    public int guardarTodos(List<Movimiento> nuevos) {
+        nuevos.forEach(this::guardar);
+        return nuevos.size();
+    }
+
+    @Override
+    public Optional<Movimiento> obtenerPorId(Long id) {
+        return movimientos.stream().filter(m -> m.getId().equals(id)).findFirst();
+    }
+
+    @Override
+    public List<Movimiento> obtenerTodos() {
+        return new ArrayList<>(movimientos);
+    }
+
+    @Override
+    public void recorrerTodos(Consumer<Movimiento> consumidor) {
+        movimientos.forEach(consumidor);
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(CursorMovimiento despuesDe, int limite) {
+        return obtenerPagina(new FiltroMovimientos(), despuesDe, limite);
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(FiltroMovimientos filtro, CursorMovimiento despuesDe, int limite) {
+        List<Movimiento> pagina = movimientos.stream()
+                .filter(filtro::cumple)
+                .sorted(ORDEN_FECHA_ID.reversed())
+                .filter(m -> despuesDe == null || ORDEN_FECHA_ID.compare(m, Movimiento.builder()
+                        .fecha(despuesDe.getFecha()).id(despuesDe.getId()).build()) < 0)
+                .limit(limite + 1L)
+                .toList();
+        if (pagina.size() <= limite) {
+            return new PaginaMovimientos(pagina, null);
+        }
+        List<Movimiento> recortada = pagina.subList(0, limite);
+        return new PaginaMovimientos(recortada, CursorMovimiento.de(recortada.get(limite - 1)));
+    }
+
+    @Override
+    public ActualizacionMovimiento actualizar(Movimiento movimiento) {
+        Movimiento anterior = obtenerPorId(movimiento.getId()).orElseThrow();
+        eliminar(movimiento.getId());
+        movimientos.add(movimiento);
+        return new ActualizacionMovimiento(anterior, movimiento);
+    }
+
+    @Override
+    public void eliminar(Long id) {
+        movimientos.removeIf(m -> m.getId().equals(id));
+        version++;
+    }
+
+    @Override
+    public List<Movimiento> eliminar(FiltroMovimientos filtro) {
+        List<Movimiento> eliminados = movimientos.stream().filter(filtro::cumple).toList();
+        movimientos.removeAll(eliminados);
+        version++;
+        return eliminados;
+    }
+
+    @Override
+    public List<ActualizacionMovimiento> recategorizar(FiltroMovimientos filtro, String categoria) {
+        return actualizarTodos(filtro, movimiento -> movimiento.setCategoria(categoria));
+    }
+
+    @Override
+    public List<ActualizacionMovimiento> desplazarFechas(FiltroMovimientos filtro, int dias) {
+        return actualizarTodos(filtro, movimiento -> movimiento.setFecha(movimiento.getFecha().plusDays(dias)));
+    }
+
+    private List<ActualizacionMovimiento> actualizarTodos(FiltroMovimientos filtro, Consumer<Movimiento> cambio) {
+        List<ActualizacionMovimiento> actualizaciones = new ArrayList<>();
+        for (int i = 0; i < movimientos.size(); i++) {
+            Movimiento anterior = movimientos.get(i);
+            if (filtro.cumple(anterior)) {
+                Movimiento nuevo = new Movimiento(anterior.getId(), anterior.getDescripcion(), anterior.getCantidad(),
+                        anterior.getTipo(), anterior.getFecha(), anterior.getCategoria(), anterior.getNotas(), null);
+                cambio.accept(nuevo);
+                movimientos.set(i, nuevo);
+                actualizaciones.add(new ActualizacionMovimiento(anterior, nuevo));
+            }
+        }
+        version++;
+        return actualizaciones;
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorTipo(Movimiento.TipoMovimiento tipo) {
+        return movimientos.stream().filter(m -> m.getTipo() == tipo).toList();
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorCategoria(String categoria) {
+        return movimientos.stream().filter(m -> m.getCategoria().equals(categoria)).toList();
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorRango(LocalDate desde, LocalDate hasta,
+                                            Movimiento.TipoMovimiento tipo, String categoria) {
+        return movimientos.stream()
+                .filter(m -> !m.getFecha().isBefore(desde) && !m.getFecha().isAfter(hasta))
+                .filter(m -> tipo == null || m.getTipo() == tipo)
+                .filter(m -> categoria == null || m.getCategoria().equals(categoria))
+                .toList();
+    }
+
+    @Override
+    public ResultadoBusqueda buscar(String texto, int pagina, int tamano) {
+        String buscado = texto.toLowerCase();
+        List<ResultadoBusqueda.Coincidencia> coincidencias = movimientos.stream()
+                .filter(m -> m.getDescripcion().toLowerCase().contains(buscado))
+                .map(m -> new ResultadoBusqueda.Coincidencia(m, 1))
+                .toList();
+        int desde = Math.min(pagina * tamano, coincidencias.size());
+        return new ResultadoBusqueda(coincidencias.subList(desde, Math.min(desde + tamano, coincidencias.size())),
+                coincidencias.size());
+    }
+
+    @Override
+    public List<String> obtenerCategorias() {
+        return movimientos.stream().map(Movimiento::getCategoria).distinct().toList();
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales() {
+        AcumuladorImporte[] porTipo = nuevosAcumuladores();
+        movimientos.forEach(m -> porTipo[m.getTipo().ordinal()].sumar(m.getCantidad()));
+        return aTotales(porTipo);
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales(FiltroMovimientos filtro) {
+        AcumuladorImporte[] porTipo = nuevosAcumuladores();
+        movimientos.stream().filter(filtro::cumple).forEach(m -> porTipo[m.getTipo().ordinal()].sumar(m.getCantidad()));
+        return aTotales(porTipo);
+    }
+
+    @Override
+    public Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes() {
+        Map<YearMonth, AcumuladorImporte[]> porMes = new TreeMap<>();
+        for (Movimiento m : movimientos) {
+            porMes.computeIfAbsent(YearMonth.from(m.getFecha()), mes -> nuevosAcumuladores())
+                    [m.getTipo().ordinal()].sumar(m.getCantidad());
+        }
+        Map<YearMonth, TotalesMovimientos> totales = new TreeMap<>();
+        porMes.forEach((mes, porTipo) -> totales.put(mes, aTotales(porTipo)));
+        return totales;
+    }
+
+    @Override
+    public Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoria(int anioDesde, int anioHasta) {
+        Map<YearMonth, Map<String, AcumuladorImporte[]>> porMes = new TreeMap<>();
+        for (Movimiento m : movimientos) {
+            int anio = m.getFecha().getYear();
+            if (anio >= anioDesde && anio <= anioHasta) {
+                porMes.computeIfAbsent(YearMonth.from(m.getFecha()), mes -> new TreeMap<>())
+                        .computeIfAbsent(m.getCategoria(), c -> nuevosAcumuladores())
+                        [m.getTipo().ordinal()].sumar(m.getCantidad());
+            }
+        }
+        Map<YearMonth, Map<String, TotalesMovimientos>> totales = new TreeMap<>();
+        porMes.forEach((mes, porCategoria) -> {
+            Map<String, TotalesMovimientos> totalesMes = new TreeMap<>();
+            porCategoria.forEach((categoria, porTipo) -> totalesMes.put(categoria, aTotales(porTipo)));
+            totales.put(mes, totalesMes);
+        });
+        return totales;
+    }
+
+    @Override
+    public Map<String, BigDecimal> obtenerTotalesPorCategoria(Movimiento.TipoMovimiento tipo) {
+        Map<String, AcumuladorImporte> porCategoria = new HashMap<>();
+        for (Movimiento m : movimientos) {
+            if (m.getTipo() == tipo) {
+                porCategoria.computeIfAbsent(m.getCategoria(), c -> new AcumuladorImporte()).sumar(m.getCantidad());
+            }
+        }
+        Map<String, BigDecimal> totales = new HashMap<>();
+        porCategoria.forEach((categoria, acumulador) -> totales.put(categoria, acumulador.getTotal()));
+        return totales;
+    }
+
+    @Override
+    public long obtenerVersion() {
+        return version;
+    }
+
+    @Override
+    public long reconstruirAgregados() {
+        return 0;
+    }
+
+    private AcumuladorImporte[] nuevosAcumuladores() {
+        return new AcumuladorImporte[]{new AcumuladorImporte(), new AcumuladorImporte()};
+    }
+
+    private TotalesMovimientos aTotales(AcumuladorImporte[] porTipo) {
+        AcumuladorImporte gastos = porTipo[Movimiento.TipoMovimiento.GASTO.ordinal()];
+        AcumuladorImporte beneficios = porTipo[Movimiento.TipoMovimiento.BENEFICIO.ordinal()];
+        return TotalesMovimientos.builder()
+                .totalGastos(gastos.getTotal())
+                .cantidadGastos(gastos.getCantidad())
+                .totalBeneficios(beneficios.getTotal())
+                .cantidadBeneficios(beneficios.getCantidad())
+                .build();
+    }
+}
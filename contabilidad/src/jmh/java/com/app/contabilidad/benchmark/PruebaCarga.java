@@ -0,0 +1,167 @@
+package com.app.contabilidad.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga en bucle cerrado contra una instancia arrancada de la aplicación.
+ * Cada cliente (un hilo virtual) pide las rutas por turnos sin pausa durante el tiempo indicado
+ * y se informa, por ruta y en total, del rendimiento y de los percentiles de latencia.
+ * Argumentos (clave=valor): url, clientes, calentamiento y duracion (segundos), rutas (separadas por comas).
+ * Una ruta precedida de "POST:" envía el alta de un movimiento como formulario (por ejemplo POST:/movimientos).
+ */
+public final class PruebaCarga {
+    private static final String RUTAS_DEFECTO = "/movimientos,/movimientos/resumen,/movimientos/api/estadisticas";
+    private static final String PREFIJO_POST = "POST:";
+    private static final String ALTA = "descripcion=Carga&cantidad=12.34&tipo=GASTO&fecha=%s&categoria=Otros";
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            opciones.put(partes[0], partes.length > 1 ? partes[1] : "");
+        }
+        String url = opciones.getOrDefault("url", "http://localhost:8080");
+        int clientes = Integer.parseInt(opciones.getOrDefault("clientes", "64"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "10"));
+        int duracion = Integer.parseInt(opciones.getOrDefault("duracion", "30"));
+        List<String> rutas = List.of(opciones.getOrDefault("rutas", RUTAS_DEFECTO).split(","));
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("Calentamiento: %d clientes durante %d s%n", clientes, calentamiento);
+        ejecutar(cliente, url, rutas, clientes, calentamiento);
+        System.out.printf("Medición: %d clientes durante %d s contra %s%n", clientes, duracion, url);
+        Medicion medicion = ejecutar(cliente, url, rutas, clientes, duracion);
+
+        System.out.printf("%-40s %10s %8s %9s %9s %9s %9s %7s%n",
+                "ruta", "peticiones", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errores");
+        long[] todas = new long[0];
+        for (int r = 0; r < rutas.size(); r++) {
+            long[] latencias = medicion.latencias(r);
+            imprimir(rutas.get(r), latencias, duracion, medicion.errores[r].sum());
+            todas = concatenar(todas, latencias);
+        }
+        imprimir("TOTAL", todas, duracion, Arrays.stream(medicion.errores).mapToLong(LongAdder::sum).sum());
+    }
+
+    private static Medicion ejecutar(HttpClient cliente, String url, List<String> rutas, int clientes,
+                                     int segundos) throws InterruptedException {
+        Medicion medicion = new Medicion(rutas.size(), clientes);
+        List<HttpRequest> peticiones = rutas.stream().map(ruta -> peticion(url, ruta)).toList();
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                int numeroCliente = c;
+                hilos.submit(() -> {
+                    int r = numeroCliente % peticiones.size();
+                    while (System.nanoTime() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticiones.get(r),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() >= 400) {
+                                medicion.errores[r].increment();
+                            } else {
+                                medicion.registrar(numeroCliente, r, System.nanoTime() - inicio);
+                            }
+                        } catch (Exception e) {
+                            medicion.errores[r].increment();
+                        }
+                        r = (r + 1) % peticiones.size();
+                    }
+                    return null;
+                });
+            }
+        }
+        return medicion;
+    }
+
+    private static HttpRequest peticion(String url, String ruta) {
+        if (!ruta.startsWith(PREFIJO_POST)) {
+            return HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(60)).build();
+        }
+        return HttpRequest.newBuilder(URI.create(url + ruta.substring(PREFIJO_POST.length())))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(ALTA, LocalDate.now())))
+                .build();
+    }
+
+    private static void imprimir(String ruta, long[] latencias, int duracion, long errores) {
+        Arrays.sort(latencias);
+        System.out.printf("%-40s %10d %8.1f %9.2f %9.2f %9.2f %9.2f %7d%n", ruta, latencias.length,
+                (double) latencias.length / duracion, percentil(latencias, 0.50), percentil(latencias, 0.90),
+                percentil(latencias, 0.99), percentil(latencias, 1.0), errores);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicion = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, posicion)] / 1_000_000.0;
+    }
+
+    private static long[] concatenar(long[] a, long[] b) {
+        long[] resultado = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, resultado, a.length, b.length);
+        return resultado;
+    }
+
+    /**
+     * Latencias (ns) por cliente y ruta, sin sincronización: cada cliente solo escribe en las suyas
+     */
+    private static final class Medicion {
+        private final long[][][] latencias;
+        private final int[][] tamanos;
+        private final LongAdder[] errores;
+
+        Medicion(int rutas, int clientes) {
+            latencias = new long[clientes][rutas][256];
+            tamanos = new int[clientes][rutas];
+            errores = new LongAdder[rutas];
+            for (int r = 0; r < rutas; r++) {
+                errores[r] = new LongAdder();
+            }
+        }
+
+        void registrar(int cliente, int ruta, long nanos) {
+            long[] propias = latencias[cliente][ruta];
+            int tamano = tamanos[cliente][ruta];
+            if (tamano == propias.length) {
+                propias = Arrays.copyOf(propias, tamano * 2);
+                latencias[cliente][ruta] = propias;
+            }
+            propias[tamano] = nanos;
+            tamanos[cliente][ruta] = tamano + 1;
+        }
+
+        long[] latencias(int ruta) {
+            List<long[]> partes = new ArrayList<>();
+            for (int c = 0; c < latencias.length; c++) {
+                partes.add(Arrays.copyOf(latencias[c][ruta], tamanos[c][ruta]));
+            }
+            return partes.stream().reduce(new long[0], PruebaCarga::concatenar);
+        }
+    }
+}
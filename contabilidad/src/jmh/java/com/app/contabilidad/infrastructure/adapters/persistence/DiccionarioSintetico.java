@@ -0,0 +1,23 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.benchmark.LibroSintetico;
+
+import java.util.List;
+
+/**
+ * Diccionario de categorías precargado con las de LibroSintetico, sin base de datos
+ */
+final class DiccionarioSintetico {
+
+    private DiccionarioSintetico() {
+    }
+
+    static DiccionarioCategorias crear() {
+        DiccionarioCategorias diccionario = new DiccionarioCategorias(null, null);
+        List<String> categorias = LibroSintetico.categorias();
+        for (int i = 0; i < categorias.size(); i++) {
+            diccionario.registrar((short) (i + 1), categorias.get(i));
+        }
+        return diccionario;
+    }
+}
@@ -0,0 +1,79 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las búsquedas del índice invertido sobre libros sintéticos de 10k, 100k y 1M movimientos.
+ * Las descripciones usan un vocabulario de 2000 términos con frecuencias log-uniformes: el término
+ * más común aparece en torno a un cuarto de los movimientos y los de la cola en unos pocos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndiceBusquedaBenchmark {
+    private static final int VOCABULARIO = 2000;
+    private static final int TAMANO_PAGINA = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private IndiceBusqueda indice;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<MovimientoEntity> entidades = new ArrayList<>(tamano);
+        for (int i = 1; i <= tamano; i++) {
+            entidades.add(MovimientoEntity.builder()
+                    .id((long) i)
+                    .descripcion(palabra(random) + " " + palabra(random) + " " + palabra(random))
+                    .notas(i % 4 == 0 ? "nota " + palabra(random) : null)
+                    .build());
+        }
+        indice = new IndiceBusqueda(null, null);
+        indice.indexarTodos(entidades);
+    }
+
+    @Benchmark
+    public IndiceBusqueda.Resultado buscarTerminoFrecuente() {
+        return indice.buscar("palabra0", 0, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public IndiceBusqueda.Resultado buscarTerminoRaro() {
+        return indice.buscar("palabra1500", 0, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public IndiceBusqueda.Resultado buscarVariosTerminos() {
+        return indice.buscar("palabra0 palabra3 palabra40", 0, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public IndiceBusqueda.Resultado buscarPaginaProfunda() {
+        return indice.buscar("palabra3", 100, TAMANO_PAGINA);
+    }
+
+    private static String palabra(SplittableRandom random) {
+        return "palabra" + ((int) Math.pow(VOCABULARIO + 1, random.nextDouble()) - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.benchmark.LibroSintetico;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide los totales del libro columnar sobre libros sintéticos de 10k, 100k y 1M movimientos.
+ * Construido sin Spring, el umbral de paralelismo queda a 0 y las sumas se reparten entre núcleos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LibroColumnarBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private LibroColumnar libroColumnar;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DiccionarioCategorias diccionario = DiccionarioSintetico.crear();
+        MovimientoRepositoryAdapter adapter = new MovimientoRepositoryAdapter(null, null, null, null,
+                diccionario, null, null, Optional.empty());
+        libroColumnar = new LibroColumnar(null, null, diccionario);
+        libroColumnar.guardarTodos(LibroSintetico.generar(tamano).stream().map(adapter::toEntity).toList());
+    }
+
+    @Benchmark
+    public TotalesMovimientos obtenerTotales() {
+        return libroColumnar.obtenerTotales();
+    }
+
+    @Benchmark
+    public Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes() {
+        return libroColumnar.obtenerTotalesPorMes();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> obtenerTotalesPorCategoria() {
+        return libroColumnar.obtenerTotalesPorCategoria(MovimientoEntity.TipoMovimiento.GASTO);
+    }
+}
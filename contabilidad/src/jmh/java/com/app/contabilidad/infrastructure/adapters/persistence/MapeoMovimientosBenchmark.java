@@ -0,0 +1,63 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.benchmark.LibroSintetico;
+import com.app.contabilidad.domain.entities.Movimiento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el mapeo dominio ↔ JPA del adaptador de persistencia (toEntity / toDomain)
+ * convirtiendo el libro sintético completo en cada invocación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MapeoMovimientosBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tamano;
+
+    private MovimientoRepositoryAdapter adapter;
+    private List<Movimiento> movimientos;
+    private List<MovimientoEntity> entidades;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        adapter = new MovimientoRepositoryAdapter(null, null, null, null,
+                DiccionarioSintetico.crear(), null, null, Optional.empty());
+        movimientos = LibroSintetico.generar(tamano);
+        entidades = movimientos.stream().map(adapter::toEntity).toList();
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole blackhole) {
+        for (Movimiento movimiento : movimientos) {
+            blackhole.consume(adapter.toEntity(movimiento));
+        }
+    }
+
+    @Benchmark
+    public void toDomain(Blackhole blackhole) {
+        for (MovimientoEntity entidad : entidades) {
+            blackhole.consume(adapter.toDomain(entidad));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.app.contabilidad.application.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de lectura invalidada por una versión global de los datos.
+ * Cada escritura incrementa la versión; una entrada solo se reutiliza si se calculó con la versión vigente.
+ * Si se indica la versión de los datos (la del libro), cada entrada queda además ligada a la que había al
+ * calcularla: una escritura confirmada deja obsoletas las entradas anteriores aunque todavía no se haya
+ * invalidado la caché, así que nunca se sirve un resultado anterior a la versión que ya ven los clientes.
+ * El número de entradas está acotado y se expulsa la usada hace más tiempo (LRU).
+ */
+public class CacheVersionada {
+    private final AtomicLong version = new AtomicLong();
+    private final LongSupplier versionDatos;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+    private final Map<String, Entrada> entradas;
+
+    public CacheVersionada(int tamanoMaximo) {
+        this(tamanoMaximo, () -> 0);
+    }
+
+    public CacheVersionada(int tamanoMaximo, LongSupplier versionDatos) {
+        if (tamanoMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser positivo");
+        }
+        this.versionDatos = versionDatos;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > tamanoMaximo) {
+                    expulsiones.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el valor en caché para la clave si es de la versión actual; si no, lo calcula y lo guarda
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String clave, Supplier<T> calculo) {
+        long versionActual = version.get();
+        long versionDatosActual = versionDatos.getAsLong();
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.version == versionActual && entrada.versionDatos == versionDatosActual) {
+                aciertos.increment();
+                return (T) entrada.valor;
+            }
+        }
+
+        fallos.increment();
+        T valor = calculo.get();
+        synchronized (entradas) {
+            // Se guarda con las versiones leídas antes de calcular: si hubo una escritura entretanto, quedará obsoleta
+            Entrada actual = entradas.get(clave);
+            if (actual == null || (actual.version <= versionActual && actual.versionDatos <= versionDatosActual)) {
+                entradas.put(clave, new Entrada(versionActual, versionDatosActual, valor));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Invalida todas las entradas incrementando la versión de los datos
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getExpulsiones() {
+        return expulsiones.sum();
+    }
+
+    public int getTamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    private static final class Entrada {
+        private final long version;
+        private final long versionDatos;
+        private final Object valor;
+
+        private Entrada(long version, long versionDatos, Object valor) {
+            this.version = version;
+            this.versionDatos = versionDatos;
+            this.valor = valor;
+        }
+    }
+}
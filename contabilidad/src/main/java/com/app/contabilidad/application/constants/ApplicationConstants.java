@@ -19,8 +19,31 @@ public final class ApplicationConstants {
     public static final String ATTR_CATEGORIAS = "categorias";
     public static final String ATTR_CATEGORIA_ACTUAL = "categoriaActual";
     public static final String ATTR_ID = "id";
+    public static final String ATTR_VERSION = "version";
     public static final String ATTR_MENSAJE = "mensaje";
     public static final String ATTR_ERROR = "error";
+    public static final String ATTR_SIGUIENTE_CURSOR = "siguienteCursor";
+    public static final String ATTR_CURSOR_ACTUAL = "cursorActual";
+    public static final String ATTR_SALDOS = "saldos";
+
+    // Paginación
+    public static final int PAGINA_TAMANO_DEFECTO = 50;
+    public static final int PAGINA_TAMANO_MAXIMO = 500;
+
+    // Serie de saldos diarios: rango por defecto (hasta hoy) y máximo, en días
+    public static final int SALDOS_DIAS_DEFECTO = 365;
+    public static final int SALDOS_DIAS_MAXIMO = 3660;
+
+    // Tabla dinámica categoría × mes: número máximo de años por consulta
+    public static final int PIVOTE_ANIOS_MAXIMO = 20;
+
+    // Importación masiva
+    public static final int IMPORTACION_MAX_ERRORES = 1000;
+
+    // Operaciones masivas sobre movimientos existentes
+    public static final String OPERACION_ELIMINAR = "eliminar";
+    public static final String OPERACION_RECATEGORIZAR = "recategorizar";
+    public static final String OPERACION_DESPLAZAR_FECHAS = "desplazar-fechas";
 
     // Propiedades del resumen
     public static final String RESUMEN_TOTAL_GASTOS = "totalGastos";
@@ -38,7 +61,7 @@ public final class ApplicationConstants {
     public static final String MOV_CATEGORIA = "categoria";
     public static final String MOV_NOTAS = "notas";
 
-    // Categorías
+    // Categorías iniciales (se dan de alta en la tabla de categorías cuando está vacía)
     public static final String[] CATEGORIAS_LISTA = {
             "Alimentación",
             "Transporte",
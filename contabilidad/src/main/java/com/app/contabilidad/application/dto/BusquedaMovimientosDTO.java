@@ -0,0 +1,25 @@
+package com.app.contabilidad.application.dto;
+
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una página de resultados de búsqueda ordenados por relevancia
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BusquedaMovimientosDTO {
+    private String consulta;
+    private int pagina; // Desde 0
+    private int tamano;
+    private long total;
+    private List<ResultadoBusqueda.Coincidencia> resultados;
+}
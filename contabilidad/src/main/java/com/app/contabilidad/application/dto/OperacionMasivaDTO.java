@@ -0,0 +1,28 @@
+package com.app.contabilidad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO de una operación masiva: la operación (eliminar, recategorizar o desplazar-fechas), los movimientos
+ * afectados (lista de ids y/o filtro por categoría, tipo y fechas) y el dato nuevo que requiere la operación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OperacionMasivaDTO {
+    private String operacion;
+    private List<Long> ids;
+    private String categoria;
+    private String tipo;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private String nuevaCategoria; // Solo para recategorizar
+    private Integer dias; // Solo para desplazar-fechas; negativos hacia el pasado
+}
@@ -0,0 +1,22 @@
+package com.app.contabilidad.application.dto;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una página de movimientos y el cursor para pedir la siguiente
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaMovimientosDTO {
+    private List<Movimiento> movimientos;
+    private String siguiente; // Cursor "YYYY-MM-DD_id", nulo si no hay más páginas
+}
@@ -0,0 +1,42 @@
+package com.app.contabilidad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con la tabla dinámica de gastos y beneficios por categoría y mes de un rango de años.
+ * Las listas por mes van alineadas con 'meses', que incluye todos los meses del rango aunque no tengan movimientos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PivoteCategoriasDTO {
+    private int anioDesde;
+    private int anioHasta;
+    private List<String> meses; // Formato "YYYY-MM"
+    private List<FilaCategoria> categorias;
+    private List<BigDecimal> gastosPorMes;
+    private List<BigDecimal> beneficiosPorMes;
+
+    /**
+     * Importes de una categoría en cada mes del rango y sus totales
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class FilaCategoria {
+        private String categoria;
+        private List<BigDecimal> gastos;
+        private List<BigDecimal> beneficios;
+        private BigDecimal totalGastos;
+        private BigDecimal totalBeneficios;
+        private long cantidadMovimientos;
+    }
+}
@@ -0,0 +1,35 @@
+package com.app.contabilidad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de movimientos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoImportacionDTO {
+    private long filasProcesadas;
+    private long importadas;
+    private long rechazadas;
+    @Builder.Default
+    private List<ErrorFila> errores = new ArrayList<>(); // Limitado a ApplicationConstants.IMPORTACION_MAX_ERRORES
+
+    /**
+     * Error de una fila concreta del fichero (numeradas desde 1, incluyendo la cabecera)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        private long fila;
+        private String mensaje;
+    }
+}
@@ -0,0 +1,18 @@
+package com.app.contabilidad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una operación masiva: la operación aplicada y los movimientos afectados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoOperacionMasivaDTO {
+    private String operacion;
+    private int afectados;
+}
@@ -0,0 +1,39 @@
+package com.app.contabilidad.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO con la serie diaria del saldo acumulado en un rango de fechas (ambas incluidas)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SerieSaldosDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private BigDecimal saldoInicial; // Saldo al cierre del día anterior a 'desde'
+    private BigDecimal flujo; // Beneficios - gastos del rango
+    private BigDecimal saldoFinal;
+    private List<SaldoDiario> dias;
+
+    /**
+     * Flujo neto de un día y saldo al cierre de ese día
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SaldoDiario {
+        private LocalDate fecha;
+        private BigDecimal flujo;
+        private BigDecimal saldo;
+    }
+}
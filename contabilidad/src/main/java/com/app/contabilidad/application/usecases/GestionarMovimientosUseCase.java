@@ -2,37 +2,96 @@ package com.app.contabilidad.application.usecases;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.constants.ApplicationConstants;
+import com.app.contabilidad.application.dto.BusquedaMovimientosDTO;
 import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.application.dto.OperacionMasivaDTO;
+import com.app.contabilidad.application.dto.PaginaMovimientosDTO;
+import com.app.contabilidad.application.dto.PivoteCategoriasDTO;
+import com.app.contabilidad.application.dto.ResultadoOperacionMasivaDTO;
+import com.app.contabilidad.application.dto.ResumenMovimientosDTO;
+import com.app.contabilidad.application.dto.SerieSaldosDTO;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CambioMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
 import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.SerieSaldos;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
 import com.app.contabilidad.domain.services.MovimientoService;
 
 /**
  * Caso de uso para gestionar movimientos (gastos y beneficios)
+ * Las lecturas de totales y resúmenes se sirven desde una caché que se invalida en cada escritura,
+ * y cada escritura confirmada publica su variación de los totales a los suscriptores.
  */
 public class GestionarMovimientosUseCase {
+    private static final String CACHE_TOTALES = "totales";
+    private static final String CACHE_TOTALES_CATEGORIA = "totalesPorCategoria:";
+    private static final String CACHE_RESUMEN_MENSUAL = "resumenMensual";
+    private static final String CACHE_PIVOTE = "pivote:";
+    private static final String CACHE_TOTALES_FILTRADOS = "totalesFiltrados:";
+
     private final MovimientoService movimientoService;
+    private final CacheVersionada cache;
+    private final NotificadorCambiosPort notificadorCambios;
 
-    public GestionarMovimientosUseCase(MovimientoService movimientoService) {
+    public GestionarMovimientosUseCase(MovimientoService movimientoService, CacheVersionada cache,
+                                       NotificadorCambiosPort notificadorCambios) {
         this.movimientoService = movimientoService;
+        this.cache = cache;
+        this.notificadorCambios = notificadorCambios;
     }
 
     /**
      * Crea un nuevo movimiento
      */
     public Movimiento crearMovimiento(CrearMovimientoDTO dto) {
-        Movimiento movimiento = Movimiento.builder()
+        Movimiento creado = movimientoService.crearMovimiento(aMovimiento(dto));
+        cache.invalidar();
+        notificadorCambios.publicar(List.of(CambioMovimiento.alta(creado)));
+        return creado;
+    }
+
+    /**
+     * Crea un lote de movimientos nuevos en una sola transacción y publica sus altas sumadas por
+     * mes, categoría y tipo. Al volver, cada movimiento tiene asignado su identificador.
+     */
+    public int crearMovimientos(List<Movimiento> movimientos) {
+        int creados = movimientoService.crearMovimientos(movimientos);
+        publicarMasivo(movimientos.stream().map(CambioMovimiento::alta).toList());
+        return creados;
+    }
+
+    /**
+     * Convierte los datos del formulario o de la API en un movimiento nuevo (sin fecha, el de hoy)
+     */
+    static Movimiento aMovimiento(CrearMovimientoDTO dto) {
+        return Movimiento.builder()
                 .descripcion(dto.getDescripcion())
                 .cantidad(dto.getCantidad())
-                .tipo(Movimiento.TipoMovimiento.valueOf(dto.getTipo().toUpperCase()))
+                .tipo(dto.getTipo() != null ? Movimiento.TipoMovimiento.valueOf(dto.getTipo().toUpperCase()) : null)
                 .fecha(dto.getFecha() != null ? dto.getFecha() : LocalDate.now())
                 .categoria(dto.getCategoria())
                 .notas(dto.getNotas())
                 .build();
-
-        return movimientoService.crearMovimiento(movimiento);
     }
 
     /**
@@ -42,6 +101,70 @@ public class GestionarMovimientosUseCase {
         return movimientoService.obtenerTodosLosMovimientos();
     }
 
+    /**
+     * Recorre todos los movimientos en orden cronológico (para exportaciones), uno a uno
+     */
+    public void recorrerMovimientos(Consumer<Movimiento> consumidor) {
+        movimientoService.recorrerMovimientos(consumidor);
+    }
+
+    /**
+     * Obtiene una página de movimientos (más recientes primero) tras el cursor indicado.
+     * Sin cursor devuelve la primera página; el límite se acota a PAGINA_TAMANO_MAXIMO.
+     */
+    public PaginaMovimientosDTO listarPagina(String cursor, Integer limite) {
+        return aPaginaDTO(movimientoService.obtenerPagina(aCursor(cursor), aTamano(limite)));
+    }
+
+    /**
+     * Obtiene una página como listarPagina, pero con las notas de cada movimiento (la de la API JSON)
+     */
+    public PaginaMovimientosDTO listarPaginaConNotas(String cursor, Integer limite) {
+        return aPaginaDTO(movimientoService.obtenerPaginaConNotas(aCursor(cursor), aTamano(limite)));
+    }
+
+    /**
+     * Obtiene una página de los movimientos que cumplen el filtro, con el mismo orden, cursor y límite que listarPagina
+     */
+    public PaginaMovimientosDTO listarPagina(FiltroMovimientos filtro, String cursor, Integer limite) {
+        return aPaginaDTO(movimientoService.obtenerPagina(filtro, aCursor(cursor), aTamano(limite)));
+    }
+
+    private static CursorMovimiento aCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : CursorMovimiento.desdeTexto(cursor);
+    }
+
+    private static int aTamano(Integer limite) {
+        return limite == null ? ApplicationConstants.PAGINA_TAMANO_DEFECTO
+                : Math.min(limite, ApplicationConstants.PAGINA_TAMANO_MAXIMO);
+    }
+
+    private static PaginaMovimientosDTO aPaginaDTO(PaginaMovimientos pagina) {
+        return PaginaMovimientosDTO.builder()
+                .movimientos(pagina.getMovimientos())
+                .siguiente(pagina.haySiguiente() ? pagina.getSiguiente().aTexto() : null)
+                .build();
+    }
+
+    /**
+     * Busca movimientos por texto en descripción y notas y devuelve la página indicada (desde 0)
+     * ordenada por relevancia; el tamaño se acota a PAGINA_TAMANO_MAXIMO.
+     */
+    public BusquedaMovimientosDTO buscar(String consulta, Integer pagina, Integer limite) {
+        int numeroPagina = pagina == null ? 0 : pagina;
+        int tamano = limite == null ? ApplicationConstants.PAGINA_TAMANO_DEFECTO
+                : Math.min(limite, ApplicationConstants.PAGINA_TAMANO_MAXIMO);
+
+        ResultadoBusqueda resultado = movimientoService.buscarMovimientos(consulta, numeroPagina, tamano);
+        return BusquedaMovimientosDTO.builder()
+                .consulta(consulta)
+                .pagina(numeroPagina)
+                .tamano(tamano)
+                .total(resultado.getTotal())
+                .resultados(resultado.getCoincidencias())
+                .build();
+    }
+
     /**
      * Obtiene un movimiento específico
      */
@@ -50,9 +173,9 @@ public class GestionarMovimientosUseCase {
     }
 
     /**
-     * Actualiza un movimiento
+     * Actualiza un movimiento si su versión sigue siendo la indicada (ConflictoVersionException si no)
      */
-    public Movimiento actualizarMovimiento(Long id, CrearMovimientoDTO dto) {
+    public Movimiento actualizarMovimiento(Long id, CrearMovimientoDTO dto, long version) {
         Movimiento movimiento = Movimiento.builder()
                 .id(id)
                 .descripcion(dto.getDescripcion())
@@ -61,16 +184,115 @@ public class GestionarMovimientosUseCase {
                 .fecha(dto.getFecha() != null ? dto.getFecha() : LocalDate.now())
                 .categoria(dto.getCategoria())
                 .notas(dto.getNotas())
+                .version(version)
                 .build();
 
-        return movimientoService.actualizarMovimiento(movimiento);
+        // La escritura devuelve también el estado anterior, que es lo que se descuenta de los totales
+        ActualizacionMovimiento actualizacion = movimientoService.actualizarMovimiento(movimiento);
+        cache.invalidar();
+        notificadorCambios.publicar(List.of(CambioMovimiento.baja(actualizacion.getAnterior()),
+                CambioMovimiento.alta(actualizacion.getActualizado())));
+        return actualizacion.getActualizado();
     }
 
     /**
      * Elimina un movimiento
      */
     public void eliminarMovimiento(Long id) {
+        Optional<Movimiento> anterior = movimientoService.obtenerMovimiento(id);
         movimientoService.eliminarMovimiento(id);
+        cache.invalidar();
+        anterior.ifPresent(m -> notificadorCambios.publicar(List.of(CambioMovimiento.baja(m))));
+    }
+
+    /**
+     * Aplica una operación masiva descrita por el DTO y devuelve cuántos movimientos ha afectado
+     */
+    public ResultadoOperacionMasivaDTO ejecutarOperacionMasiva(OperacionMasivaDTO dto) {
+        FiltroMovimientos filtro = aFiltro(dto);
+        String operacion = dto.getOperacion() == null ? "" : dto.getOperacion().trim().toLowerCase();
+        int afectados = switch (operacion) {
+            case ApplicationConstants.OPERACION_ELIMINAR -> eliminarMovimientos(filtro);
+            case ApplicationConstants.OPERACION_RECATEGORIZAR -> recategorizarMovimientos(filtro, dto.getNuevaCategoria());
+            case ApplicationConstants.OPERACION_DESPLAZAR_FECHAS -> {
+                if (dto.getDias() == null) {
+                    throw new IllegalArgumentException(DomainConstants.DESPLAZAMIENTO_NO_VALIDO);
+                }
+                yield desplazarFechas(filtro, dto.getDias());
+            }
+            default -> throw new IllegalArgumentException("Operación masiva desconocida: " + dto.getOperacion());
+        };
+        return new ResultadoOperacionMasivaDTO(operacion, afectados);
+    }
+
+    /**
+     * Elimina en una sola operación los movimientos que cumplen el filtro
+     */
+    public int eliminarMovimientos(FiltroMovimientos filtro) {
+        List<Movimiento> eliminados = movimientoService.eliminarMovimientos(filtro);
+        publicarMasivo(eliminados.stream().map(CambioMovimiento::baja).toList());
+        return eliminados.size();
+    }
+
+    /**
+     * Cambia en una sola operación la categoría de los movimientos que cumplen el filtro
+     */
+    public int recategorizarMovimientos(FiltroMovimientos filtro, String categoria) {
+        return publicarActualizaciones(movimientoService.recategorizarMovimientos(filtro, categoria));
+    }
+
+    /**
+     * Mueve en una sola operación la fecha de los movimientos que cumplen el filtro
+     */
+    public int desplazarFechas(FiltroMovimientos filtro, int dias) {
+        return publicarActualizaciones(movimientoService.desplazarFechas(filtro, dias));
+    }
+
+    private int publicarActualizaciones(List<ActualizacionMovimiento> actualizaciones) {
+        List<CambioMovimiento> cambios = new ArrayList<>(actualizaciones.size() * 2);
+        for (ActualizacionMovimiento actualizacion : actualizaciones) {
+            cambios.add(CambioMovimiento.baja(actualizacion.getAnterior()));
+            cambios.add(CambioMovimiento.alta(actualizacion.getActualizado()));
+        }
+        publicarMasivo(cambios);
+        return actualizaciones.size();
+    }
+
+    /**
+     * Invalida la caché y publica los cambios de una operación masiva sumados por mes, categoría y tipo,
+     * para no enviar un cambio por movimiento; los que se compensan del todo no se publican
+     */
+    private void publicarMasivo(List<CambioMovimiento> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        cache.invalidar();
+        Map<ClaveCambio, CambioMovimiento> agrupados = new LinkedHashMap<>();
+        for (CambioMovimiento cambio : cambios) {
+            agrupados.merge(new ClaveCambio(cambio.getMes(), cambio.getCategoria(), cambio.getTipo()), cambio,
+                    (suma, otro) -> new CambioMovimiento(suma.getMes(), suma.getCategoria(), suma.getTipo(),
+                            suma.getImporte().add(otro.getImporte()), suma.getCantidad() + otro.getCantidad()));
+        }
+        List<CambioMovimiento> publicados = agrupados.values().stream()
+                .filter(cambio -> cambio.getCantidad() != 0 || cambio.getImporte().signum() != 0)
+                .toList();
+        if (!publicados.isEmpty()) {
+            notificadorCambios.publicar(publicados);
+        }
+    }
+
+    private record ClaveCambio(YearMonth mes, String categoria, Movimiento.TipoMovimiento tipo) {
+    }
+
+    private FiltroMovimientos aFiltro(OperacionMasivaDTO dto) {
+        return FiltroMovimientos.builder()
+                .ids(dto.getIds() == null ? null : new LinkedHashSet<>(dto.getIds()))
+                .categoria(dto.getCategoria() == null || dto.getCategoria().isBlank() ? null : dto.getCategoria())
+                .tipo(dto.getTipo() == null || dto.getTipo().isBlank()
+                        ? null : Movimiento.TipoMovimiento.valueOf(dto.getTipo().trim().toUpperCase()))
+                .desde(dto.getDesde())
+                .hasta(dto.getHasta())
+                .build();
     }
 
     /**
@@ -80,76 +302,226 @@ public class GestionarMovimientosUseCase {
         return movimientoService.obtenerMovimientosPorCategoria(categoria);
     }
 
+    /**
+     * Obtiene los nombres de las categorías disponibles
+     */
+    public List<String> listarCategorias() {
+        return movimientoService.obtenerCategorias();
+    }
+
     /**
      * Calcula el total de gastos
      */
     public BigDecimal calcularTotalGastos() {
-        return movimientoService.calcularTotalGastos();
+        return obtenerTotales().getTotalGastos();
     }
 
     /**
      * Calcula el total de beneficios
      */
     public BigDecimal calcularTotalBeneficios() {
-        return movimientoService.calcularTotalBeneficios();
+        return obtenerTotales().getTotalBeneficios();
     }
 
     /**
      * Calcula el balance neto
      */
     public BigDecimal calcularBalance() {
-        return movimientoService.calcularBalance();
+        return obtenerTotales().getBalance();
+    }
+
+    /**
+     * Obtiene el resumen global (totales y número de movimientos) con una única consulta agregada
+     */
+    public ResumenMovimientosDTO obtenerResumen() {
+        return aResumen(obtenerTotales());
+    }
+
+    /**
+     * Obtiene el resumen (totales y número de movimientos) de los movimientos que cumplen el filtro,
+     * con una consulta agregada que se sirve desde la caché mientras no cambien los datos
+     */
+    public ResumenMovimientosDTO obtenerResumen(FiltroMovimientos filtro) {
+        return aResumen(cache.obtener(CACHE_TOTALES_FILTRADOS + filtro, () -> movimientoService.obtenerTotales(filtro)));
+    }
+
+    private static ResumenMovimientosDTO aResumen(TotalesMovimientos totales) {
+        return ResumenMovimientosDTO.builder()
+                .totalGastos(totales.getTotalGastos())
+                .totalBeneficios(totales.getTotalBeneficios())
+                .balance(totales.getBalance())
+                .cantidadMovimientos(totales.getCantidadMovimientos())
+                .cantidadGastos(totales.getCantidadGastos())
+                .cantidadBeneficios(totales.getCantidadBeneficios())
+                .build();
     }
 
     /**
      * Devuelve totales por categoría para un tipo de movimiento (GASTO o BENEFICIO)
      */
     public java.util.Map<String, java.math.BigDecimal> obtenerTotalesPorCategoria(com.app.contabilidad.domain.entities.Movimiento.TipoMovimiento tipo) {
-        return movimientoService.sumarPorCategoria(tipo);
+        return cache.obtener(CACHE_TOTALES_CATEGORIA + tipo.name(),
+                () -> java.util.Collections.unmodifiableMap(movimientoService.sumarPorCategoria(tipo)));
+    }
+
+    /**
+     * Saldo acumulado al cierre de cada una de las fechas indicadas (para la columna "saldo a fecha")
+     */
+    public Map<LocalDate, BigDecimal> obtenerSaldosA(Collection<LocalDate> fechas) {
+        return movimientoService.calcularSaldosA(fechas);
+    }
+
+    /**
+     * Serie diaria del saldo acumulado entre dos fechas, ambas incluidas. Sin 'hasta' se usa hoy y sin
+     * 'desde', los SALDOS_DIAS_DEFECTO días anteriores; el rango no puede superar SALDOS_DIAS_MAXIMO días.
+     */
+    public SerieSaldosDTO obtenerSerieSaldos(LocalDate desde, LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(ApplicationConstants.SALDOS_DIAS_DEFECTO - 1);
+        if (!inicio.isAfter(fin) && ChronoUnit.DAYS.between(inicio, fin) >= ApplicationConstants.SALDOS_DIAS_MAXIMO) {
+            throw new IllegalArgumentException("El rango no puede superar " + ApplicationConstants.SALDOS_DIAS_MAXIMO + " días");
+        }
+
+        SerieSaldos serie = movimientoService.obtenerSerieSaldos(inicio, fin);
+        List<SerieSaldosDTO.SaldoDiario> dias = new ArrayList<>(serie.getSaldos().size());
+        BigDecimal anterior = serie.getSaldoInicial();
+        LocalDate fecha = inicio;
+        for (BigDecimal saldo : serie.getSaldos()) {
+            dias.add(new SerieSaldosDTO.SaldoDiario(fecha, saldo.subtract(anterior), saldo));
+            anterior = saldo;
+            fecha = fecha.plusDays(1);
+        }
+        return SerieSaldosDTO.builder()
+                .desde(inicio)
+                .hasta(fin)
+                .saldoInicial(serie.getSaldoInicial())
+                .flujo(serie.getFlujo())
+                .saldoFinal(anterior)
+                .dias(dias)
+                .build();
+    }
+
+    /**
+     * Tabla dinámica categoría × mes × tipo entre dos años, ambos incluidos, servida desde la caché mientras
+     * no cambien los datos. Sin 'hasta' se usa el año actual y sin 'desde', el mismo que 'hasta';
+     * el rango no puede superar PIVOTE_ANIOS_MAXIMO años.
+     */
+    public PivoteCategoriasDTO obtenerPivoteCategorias(Integer desde, Integer hasta) {
+        int fin = hasta != null ? hasta : LocalDate.now().getYear();
+        int inicio = desde != null ? desde : fin;
+        if (inicio > fin || fin - inicio >= ApplicationConstants.PIVOTE_ANIOS_MAXIMO) {
+            throw new IllegalArgumentException("El rango de años no es válido o supera "
+                    + ApplicationConstants.PIVOTE_ANIOS_MAXIMO + " años");
+        }
+        return cache.obtener(CACHE_PIVOTE + inicio + "-" + fin, () -> calcularPivoteCategorias(inicio, fin));
+    }
+
+    /**
+     * Reparte los totales por mes y categoría en filas por categoría (en orden alfabético) con una columna por mes
+     */
+    private PivoteCategoriasDTO calcularPivoteCategorias(int desde, int hasta) {
+        Map<String, Map<String, TotalesMovimientos>> totalesPorMes = movimientoService.agruparPorMesYCategoria(desde, hasta);
+
+        List<String> meses = new ArrayList<>();
+        for (YearMonth mes = YearMonth.of(desde, 1); mes.getYear() <= hasta; mes = mes.plusMonths(1)) {
+            meses.add(String.format("%04d-%02d", mes.getYear(), mes.getMonthValue()));
+        }
+        Map<String, PivoteCategoriasDTO.FilaCategoria> filas = new TreeMap<>();
+        List<BigDecimal> gastosPorMes = new ArrayList<>(meses.size());
+        List<BigDecimal> beneficiosPorMes = new ArrayList<>(meses.size());
+        for (int i = 0; i < meses.size(); i++) {
+            BigDecimal gastosMes = BigDecimal.ZERO;
+            BigDecimal beneficiosMes = BigDecimal.ZERO;
+            for (Map.Entry<String, TotalesMovimientos> entrada : totalesPorMes.getOrDefault(meses.get(i), Map.of()).entrySet()) {
+                TotalesMovimientos totales = entrada.getValue();
+                PivoteCategoriasDTO.FilaCategoria fila = filas.computeIfAbsent(entrada.getKey(),
+                        categoria -> nuevaFila(categoria, meses.size()));
+                fila.getGastos().set(i, totales.getTotalGastos());
+                fila.getBeneficios().set(i, totales.getTotalBeneficios());
+                fila.setTotalGastos(fila.getTotalGastos().add(totales.getTotalGastos()));
+                fila.setTotalBeneficios(fila.getTotalBeneficios().add(totales.getTotalBeneficios()));
+                fila.setCantidadMovimientos(fila.getCantidadMovimientos() + totales.getCantidadMovimientos());
+                gastosMes = gastosMes.add(totales.getTotalGastos());
+                beneficiosMes = beneficiosMes.add(totales.getTotalBeneficios());
+            }
+            gastosPorMes.add(gastosMes);
+            beneficiosPorMes.add(beneficiosMes);
+        }
+        return PivoteCategoriasDTO.builder()
+                .anioDesde(desde)
+                .anioHasta(hasta)
+                .meses(meses)
+                .categorias(new ArrayList<>(filas.values()))
+                .gastosPorMes(gastosPorMes)
+                .beneficiosPorMes(beneficiosPorMes)
+                .build();
+    }
+
+    private static PivoteCategoriasDTO.FilaCategoria nuevaFila(String categoria, int meses) {
+        return PivoteCategoriasDTO.FilaCategoria.builder()
+                .categoria(categoria)
+                .gastos(new ArrayList<>(java.util.Collections.nCopies(meses, BigDecimal.ZERO)))
+                .beneficios(new ArrayList<>(java.util.Collections.nCopies(meses, BigDecimal.ZERO)))
+                .totalGastos(BigDecimal.ZERO)
+                .totalBeneficios(BigDecimal.ZERO)
+                .build();
+    }
+
+    /**
+     * Devuelve la versión del libro; no consulta la base de datos, así que sirve para
+     * responder a peticiones condicionales antes de calcular nada
+     */
+    public long obtenerVersionLibro() {
+        return movimientoService.obtenerVersion();
+    }
+
+    /**
+     * Recalcula los agregados de totales y devuelve cuántos se han generado
+     */
+    public long reconstruirAgregados() {
+        long agregados = movimientoService.reconstruirAgregados();
+        cache.invalidar();
+        notificadorCambios.resincronizar();
+        return agregados;
     }
 
     /**
      * Obtiene el resumen de movimientos por mes
      */
     public List<com.app.contabilidad.application.dto.ResumenMensualDTO> obtenerResumenPorMes() {
-        java.util.Map<String, List<Movimiento>> movimientosPorMes = movimientoService.agruparPorMes();
+        return cache.obtener(CACHE_RESUMEN_MENSUAL, this::calcularResumenPorMes);
+    }
+
+    /**
+     * Calcula el resumen mensual a partir de los totales agrupados por mes
+     */
+    private List<com.app.contabilidad.application.dto.ResumenMensualDTO> calcularResumenPorMes() {
+        java.util.Map<String, TotalesMovimientos> totalesPorMes = movimientoService.agruparPorMes();
         
-        List<com.app.contabilidad.application.dto.ResumenMensualDTO> resumenes = new java.util.ArrayList<>();
+        List<com.app.contabilidad.application.dto.ResumenMensualDTO> resumenes = new java.util.ArrayList<>(totalesPorMes.size());
         
-        movimientosPorMes.forEach((mes, movimientos) -> {
-            BigDecimal totalGastos = movimientos.stream()
-                    .filter(m -> m.getTipo() == Movimiento.TipoMovimiento.GASTO)
-                    .map(Movimiento::getCantidad)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal totalBeneficios = movimientos.stream()
-                    .filter(m -> m.getTipo() == Movimiento.TipoMovimiento.BENEFICIO)
-                    .map(Movimiento::getCantidad)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            long cantidadGastos = movimientos.stream()
-                    .filter(m -> m.getTipo() == Movimiento.TipoMovimiento.GASTO)
-                    .count();
-            
-            long cantidadBeneficios = movimientos.stream()
-                    .filter(m -> m.getTipo() == Movimiento.TipoMovimiento.BENEFICIO)
-                    .count();
-            
+        totalesPorMes.forEach((mes, totales) ->
             resumenes.add(com.app.contabilidad.application.dto.ResumenMensualDTO.builder()
                     .mes(mes)
                     .mesFormato(formatearMes(mes))
-                    .totalGastos(totalGastos)
-                    .totalBeneficios(totalBeneficios)
-                    .balance(totalBeneficios.subtract(totalGastos))
-                    .cantidadGastos(cantidadGastos)
-                    .cantidadBeneficios(cantidadBeneficios)
-                    .totalMovimientos(cantidadGastos + cantidadBeneficios)
-                    .build());
-        });
+                    .totalGastos(totales.getTotalGastos())
+                    .totalBeneficios(totales.getTotalBeneficios())
+                    .balance(totales.getBalance())
+                    .cantidadGastos(totales.getCantidadGastos())
+                    .cantidadBeneficios(totales.getCantidadBeneficios())
+                    .totalMovimientos(totales.getCantidadMovimientos())
+                    .build()));
         
         // Ordenar por mes descendente (más recientes primero)
         resumenes.sort((a, b) -> b.getMes().compareTo(a.getMes()));
-        return resumenes;
+        return java.util.Collections.unmodifiableList(resumenes);
+    }
+
+    /**
+     * Totales globales por tipo, servidos desde la caché mientras no cambien los datos
+     */
+    private TotalesMovimientos obtenerTotales() {
+        return cache.obtener(CACHE_TOTALES, movimientoService::obtenerTotales);
     }
 
     /**
@@ -0,0 +1,237 @@
+package com.app.contabilidad.application.usecases;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.constants.ApplicationConstants;
+import com.app.contabilidad.application.dto.ResultadoImportacionDTO;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
+import com.app.contabilidad.domain.services.MovimientoService;
+
+/**
+ * Caso de uso para importar movimientos masivamente desde un CSV (por ejemplo, un extracto bancario)
+ * El fichero se lee registro a registro y los movimientos válidos se guardan en lotes de tamaño configurable,
+ * de modo que la memoria usada no depende del tamaño del fichero.
+ * Un campo entre comillas puede contener saltos de línea (como los que escribe la exportación); dentro de él
+ * se leen como '\n'.
+ * Columnas: fecha, descripcion, cantidad, tipo, categoria, notas (separadas por ';' o ',').
+ * Si el tipo está vacío se deduce del signo de la cantidad (negativa = GASTO).
+ */
+public class ImportarMovimientosUseCase {
+    private static final DateTimeFormatter FECHA_ES = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    private final MovimientoService movimientoService;
+    private final CacheVersionada cache;
+    private final NotificadorCambiosPort notificadorCambios;
+    private final int tamanoLote;
+
+    public ImportarMovimientosUseCase(MovimientoService movimientoService, CacheVersionada cache,
+                                      NotificadorCambiosPort notificadorCambios, int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.movimientoService = movimientoService;
+        this.cache = cache;
+        this.notificadorCambios = notificadorCambios;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa los movimientos del CSV. Las filas no válidas se informan sin detener la importación;
+     * si falla el guardado de un lote, se informan como rechazadas todas sus filas.
+     */
+    public ResultadoImportacionDTO importarCsv(Reader reader) throws IOException {
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        List<Movimiento> lote = new ArrayList<>(tamanoLote);
+        long primeraFilaLote = 0;
+        long numeroFila = 0;
+        char separador = 0;
+
+        try (BufferedReader lector = new BufferedReader(reader)) {
+            long lineasLeidas = 0;
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroFila = ++lineasLeidas;
+                if (comillasAbiertas(linea, false)) {
+                    // El registro sigue en las líneas siguientes hasta que se cierren las comillas
+                    StringBuilder registro = new StringBuilder(linea);
+                    boolean abiertas = true;
+                    String continuacion;
+                    while (abiertas && (continuacion = lector.readLine()) != null) {
+                        lineasLeidas++;
+                        registro.append('\n').append(continuacion);
+                        abiertas = comillasAbiertas(continuacion, true);
+                    }
+                    linea = registro.toString();
+                }
+                if (linea.isBlank()) {
+                    continue;
+                }
+                if (separador == 0) {
+                    separador = linea.indexOf(';') >= 0 ? ';' : ',';
+                    if (linea.trim().toLowerCase().startsWith(ApplicationConstants.MOV_FECHA)) {
+                        continue; // cabecera
+                    }
+                }
+
+                resultado.setFilasProcesadas(resultado.getFilasProcesadas() + 1);
+                try {
+                    Movimiento movimiento = parsearFila(dividir(linea, separador));
+                    if (!movimiento.esValido()) {
+                        throw new IllegalArgumentException(DomainConstants.MOVIMIENTO_NO_VALIDO);
+                    }
+                    if (lote.isEmpty()) {
+                        primeraFilaLote = numeroFila;
+                    }
+                    lote.add(movimiento);
+                } catch (RuntimeException e) {
+                    registrarError(resultado, numeroFila, e.getMessage(), 1);
+                }
+
+                if (lote.size() >= tamanoLote) {
+                    guardarLote(lote, primeraFilaLote, numeroFila, resultado);
+                }
+            }
+            if (!lote.isEmpty()) {
+                guardarLote(lote, primeraFilaLote, numeroFila, resultado);
+            }
+        } finally {
+            // Los lotes ya guardados quedan confirmados aunque la lectura falle a mitad de fichero
+            if (resultado.getImportadas() > 0) {
+                notificadorCambios.resincronizar();
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda un lote en una transacción y vacía la lista para reutilizarla
+     */
+    private void guardarLote(List<Movimiento> lote, long desdeFila, long hastaFila, ResultadoImportacionDTO resultado) {
+        try {
+            resultado.setImportadas(resultado.getImportadas() + movimientoService.crearMovimientos(lote));
+            // Cada lote queda confirmado por separado: las lecturas no esperan al final del fichero
+            cache.invalidar();
+        } catch (RuntimeException e) {
+            registrarError(resultado, desdeFila, "Lote de filas " + desdeFila + "-" + hastaFila
+                    + " no guardado: " + e.getMessage(), lote.size());
+        }
+        lote.clear();
+    }
+
+    /**
+     * Suma las filas rechazadas y guarda el mensaje mientras no se supere el máximo de errores informados
+     */
+    private void registrarError(ResultadoImportacionDTO resultado, long fila, String mensaje, long filasRechazadas) {
+        resultado.setRechazadas(resultado.getRechazadas() + filasRechazadas);
+        if (resultado.getErrores().size() < ApplicationConstants.IMPORTACION_MAX_ERRORES) {
+            resultado.getErrores().add(new ResultadoImportacionDTO.ErrorFila(fila, mensaje));
+        }
+    }
+
+    /**
+     * Convierte las columnas de una fila en un movimiento
+     */
+    private Movimiento parsearFila(List<String> columnas) {
+        if (columnas.size() < 5) {
+            throw new IllegalArgumentException("Se esperaban al menos 5 columnas y hay " + columnas.size());
+        }
+        BigDecimal cantidad = parsearCantidad(columnas.get(2));
+        String tipoTexto = columnas.get(3).trim();
+        Movimiento.TipoMovimiento tipo;
+        if (tipoTexto.isEmpty()) {
+            tipo = cantidad.signum() < 0 ? Movimiento.TipoMovimiento.GASTO : Movimiento.TipoMovimiento.BENEFICIO;
+        } else {
+            tipo = Movimiento.TipoMovimiento.valueOf(tipoTexto.toUpperCase());
+        }
+        String notas = columnas.size() > 5 && !columnas.get(5).isBlank() ? columnas.get(5).trim() : null;
+
+        return Movimiento.builder()
+                .fecha(parsearFecha(columnas.get(0).trim()))
+                .descripcion(columnas.get(1).trim())
+                .cantidad(cantidad.abs())
+                .tipo(tipo)
+                .categoria(columnas.get(4).trim())
+                .notas(notas)
+                .build();
+    }
+
+    /**
+     * Admite fechas ISO (2025-01-31) y en formato español (31/01/2025)
+     */
+    private LocalDate parsearFecha(String texto) {
+        try {
+            return texto.indexOf('/') >= 0 ? LocalDate.parse(texto, FECHA_ES) : LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida: " + texto);
+        }
+    }
+
+    /**
+     * Admite "1234.56", "1234,56" y "1.234,56", con o sin símbolo de euro
+     */
+    private BigDecimal parsearCantidad(String texto) {
+        String limpio = texto.replace("€", "").replace(" ", "").trim();
+        if (limpio.indexOf(',') >= 0) {
+            limpio = limpio.replace(".", "").replace(',', '.');
+        }
+        try {
+            return new BigDecimal(limpio);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cantidad no válida: " + texto);
+        }
+    }
+
+    /**
+     * Indica si las comillas siguen abiertas al final de la línea, partiendo de si lo estaban al principio
+     * ("" dentro de un campo entre comillas cuenta dos veces y no cambia el resultado)
+     */
+    private static boolean comillasAbiertas(String linea, boolean abiertas) {
+        for (int i = 0; i < linea.length(); i++) {
+            if (linea.charAt(i) == '"') {
+                abiertas = !abiertas;
+            }
+        }
+        return abiertas;
+    }
+
+    /**
+     * Divide una línea CSV respetando los campos entre comillas dobles ("" escapa una comilla)
+     */
+    private List<String> dividir(String linea, char separador) {
+        List<String> columnas = new ArrayList<>(6);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == separador && !entreComillas) {
+                columnas.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        columnas.add(actual.toString());
+        return columnas;
+    }
+}
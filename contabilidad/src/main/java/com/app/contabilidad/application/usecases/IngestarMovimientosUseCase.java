@@ -0,0 +1,249 @@
+package com.app.contabilidad.application.usecases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.exceptions.IngestaSaturadaException;
+import com.app.contabilidad.domain.exceptions.IngestaSinConfirmarException;
+
+/**
+ * Caso de uso para dar de alta movimientos sueltos a ritmo alto (por ejemplo, la sincronización con el banco)
+ * agrupándolos en lotes: cada alta validada entra en una cola acotada y un hilo de volcado la guarda junto
+ * con las que lleguen a la vez, en una sola transacción por lote, cuando el lote se llena o cuando pasa
+ * el tiempo máximo de espera desde la primera.
+ * La confirmación es duradera: quien encola recibe el movimiento (con su id) solo cuando la transacción
+ * de su lote se ha confirmado, así que un alta confirmada nunca se pierde aunque la aplicación se caiga.
+ * Si la cola sigue llena tras el tiempo de espera para encolar, se rechaza el alta con
+ * IngestaSaturadaException para que el cliente reduzca el ritmo y reintente. La espera de la confirmación
+ * también está acotada: si se agota con el alta aún en la cola, se retira y se rechaza igual.
+ */
+public class IngestarMovimientosUseCase implements AutoCloseable {
+    // Cada cuánto comprueba el hilo de volcado, con la cola vacía, si se está cerrando
+    private static final long ESPERA_CIERRE_MS = 50;
+
+    private final GestionarMovimientosUseCase gestionarMovimientosUseCase;
+    private final BlockingQueue<Pendiente> cola;
+    private final int tamanoLote;
+    private final long esperaMaximaNanos;
+    private final long esperaEncolarMs;
+    private final long esperaConfirmacionMs;
+    private final Thread volcador;
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder guardados = new LongAdder();
+    private final LongAdder fallidos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private volatile boolean cerrada;
+
+    public IngestarMovimientosUseCase(GestionarMovimientosUseCase gestionarMovimientosUseCase, int capacidad,
+                                      int tamanoLote, long esperaMaximaMs, long esperaEncolarMs,
+                                      long esperaConfirmacionMs) {
+        if (capacidad <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("La capacidad de la cola y el tamaño de lote deben ser positivos");
+        }
+        if (esperaMaximaMs < 0 || esperaEncolarMs < 0 || esperaConfirmacionMs < 0) {
+            throw new IllegalArgumentException("Los tiempos de espera de la ingesta no pueden ser negativos");
+        }
+        this.gestionarMovimientosUseCase = gestionarMovimientosUseCase;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.esperaEncolarMs = esperaEncolarMs;
+        this.esperaConfirmacionMs = esperaConfirmacionMs;
+        this.volcador = Thread.ofVirtual().name("ingesta-volcado").start(this::volcarEnBucle);
+    }
+
+    /**
+     * Encola el alta y espera, como mucho esperaConfirmacionMs, a que se confirme la transacción de su lote.
+     * Si el tiempo se agota con el alta aún en la cola, se retira (no llegará a guardarse) y se lanza
+     * IngestaSaturadaException; si ya estaba en un lote (o se interrumpe la espera), no se sabe si se
+     * guardará y se lanza IngestaSinConfirmarException.
+     */
+    public Movimiento crearMovimiento(CrearMovimientoDTO dto) {
+        Pendiente pendiente = encolarPendiente(GestionarMovimientosUseCase.aMovimiento(dto));
+        try {
+            return pendiente.confirmacion().get(esperaConfirmacionMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (cola.remove(pendiente)) {
+                rechazados.increment();
+                throw new IngestaSaturadaException();
+            }
+            throw new IngestaSinConfirmarException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestaSinConfirmarException(e);
+        }
+    }
+
+    /**
+     * Valida el movimiento y lo encola; el futuro se completa con el movimiento guardado cuando se
+     * confirma su lote, o con el error que impidió guardarlo
+     */
+    public CompletableFuture<Movimiento> encolar(Movimiento movimiento) {
+        return encolarPendiente(movimiento).confirmacion();
+    }
+
+    private Pendiente encolarPendiente(Movimiento movimiento) {
+        if (!movimiento.esValido()) {
+            throw new IllegalArgumentException(DomainConstants.MOVIMIENTO_NO_VALIDO);
+        }
+        if (cerrada) {
+            throw new IllegalStateException(DomainConstants.INGESTA_CERRADA);
+        }
+        Pendiente pendiente = new Pendiente(movimiento, new CompletableFuture<>());
+        boolean encolado;
+        try {
+            encolado = cola.offer(pendiente, esperaEncolarMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(DomainConstants.INGESTA_CERRADA, e);
+        }
+        if (!encolado) {
+            rechazados.increment();
+            throw new IngestaSaturadaException();
+        }
+        // Si el cierre ya vació la cola, nadie más la va a leer: se retira el alta en lugar de dejarla esperando
+        if (cerrada && cola.remove(pendiente)) {
+            throw new IllegalStateException(DomainConstants.INGESTA_CERRADA);
+        }
+        return pendiente;
+    }
+
+    /**
+     * Deja de aceptar altas, espera a que se vuelquen las encoladas y detiene el hilo de volcado
+     */
+    @Override
+    public void close() throws InterruptedException {
+        cerrada = true;
+        volcador.join();
+        List<Pendiente> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            volcar(restantes);
+        }
+    }
+
+    /**
+     * Altas encoladas pendientes de volcar
+     */
+    public int getPendientes() {
+        return cola.size();
+    }
+
+    /**
+     * Lotes volcados a la base de datos
+     */
+    public long getLotes() {
+        return lotes.sum();
+    }
+
+    public long getGuardados() {
+        return guardados.sum();
+    }
+
+    /**
+     * Altas que se encolaron pero no pudieron guardarse
+     */
+    public long getFallidos() {
+        return fallidos.sum();
+    }
+
+    /**
+     * Altas rechazadas por tener la cola llena o por no volcarse a tiempo
+     */
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+
+    /**
+     * Bucle del hilo de volcado: espera la primera alta, reúne las que lleguen hasta llenar el lote
+     * o agotar el tiempo máximo de espera, y guarda el lote
+     */
+    private void volcarEnBucle() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        try {
+            while (!cerrada || !cola.isEmpty()) {
+                Pendiente primera = cola.poll(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                long limite = System.nanoTime() + esperaMaximaNanos;
+                while (lote.size() < tamanoLote) {
+                    if (cola.drainTo(lote, tamanoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                volcar(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Guarda el lote en una transacción y confirma cada alta. Si el lote falla, se guarda cada alta
+     * por separado para que una sola fila problemática no haga fallar a las demás.
+     */
+    private void volcar(List<Pendiente> lote) {
+        List<Movimiento> movimientos = lote.stream().map(Pendiente::movimiento).toList();
+        try {
+            gestionarMovimientosUseCase.crearMovimientos(movimientos);
+            lotes.increment();
+            guardados.add(lote.size());
+            lote.forEach(pendiente -> pendiente.confirmacion().complete(pendiente.movimiento()));
+            return;
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                fallar(lote.getFirst(), e);
+                return;
+            }
+        }
+        for (Pendiente pendiente : lote) {
+            Movimiento movimiento = pendiente.movimiento();
+            // El intento en lote pudo asignar ids que la transacción deshecha no llegó a usar
+            movimiento.setId(null);
+            movimiento.setVersion(null);
+            try {
+                gestionarMovimientosUseCase.crearMovimientos(List.of(movimiento));
+                lotes.increment();
+                guardados.increment();
+                pendiente.confirmacion().complete(movimiento);
+            } catch (RuntimeException e) {
+                fallar(pendiente, e);
+            }
+        }
+    }
+
+    private void fallar(Pendiente pendiente, RuntimeException e) {
+        fallidos.increment();
+        pendiente.confirmacion().completeExceptionally(e);
+    }
+
+    /**
+     * Alta encolada y el futuro con el que se le confirma
+     */
+    private record Pendiente(Movimiento movimiento, CompletableFuture<Movimiento> confirmacion) {
+    }
+}
@@ -16,16 +16,35 @@ public final class DomainConstants {
     public static final String CATEGORIA_REQUERIDA = "La categoría es requerida";
     public static final String TIPO_REQUERIDO = "El tipo de movimiento es requerido";
     public static final String FECHA_REQUERIDA = "La fecha es requerida";
+    public static final String VERSION_REQUERIDA = "La versión del movimiento es requerida";
+
+    // Importes
+    public static final int ESCALA_IMPORTE = 2;
+
+    // Operaciones masivas
+    public static final int DESPLAZAMIENTO_MAXIMO_DIAS = 3660;
+    public static final String FILTRO_MASIVO_VACIO = "Una operación masiva necesita una lista de ids o algún filtro";
+    public static final String DESPLAZAMIENTO_NO_VALIDO =
+            "El desplazamiento debe ser de 1 a " + DESPLAZAMIENTO_MAXIMO_DIAS + " días, hacia delante o hacia atrás";
 
     // Mensajes de éxito
     public static final String MOVIMIENTO_CREADO = "Movimiento creado exitosamente";
     public static final String MOVIMIENTO_ACTUALIZADO = "Movimiento actualizado exitosamente";
     public static final String MOVIMIENTO_ELIMINADO = "Movimiento eliminado exitosamente";
+    public static final String OPERACION_MASIVA_APLICADA = "Operación aplicada a %d movimientos";
 
     // Mensajes de error
     public static final String ERROR_CREAR_MOVIMIENTO = "Error al crear el movimiento: ";
     public static final String ERROR_ACTUALIZAR_MOVIMIENTO = "Error al actualizar el movimiento: ";
     public static final String ERROR_ELIMINAR_MOVIMIENTO = "Error al eliminar el movimiento: ";
+    public static final String ERROR_OPERACION_MASIVA = "Error en la operación masiva: ";
+    public static final String MOVIMIENTO_NO_EXISTE = "El movimiento no existe";
+    public static final String MOVIMIENTO_MODIFICADO =
+            "El movimiento se ha modificado mientras lo editabas; revisa los datos actuales y vuelve a guardar";
+    public static final String INGESTA_SATURADA = "La cola de ingesta está llena; reintenta en unos segundos";
+    public static final String INGESTA_CERRADA = "La ingesta de movimientos se está deteniendo";
+    public static final String INGESTA_SIN_CONFIRMAR =
+            "El alta no se ha confirmado a tiempo y puede guardarse igualmente; revisa el listado antes de repetirla";
 
     // Textos de categorías
     public static final String CATEGORIA_ALIMENTACION = "Alimentación";
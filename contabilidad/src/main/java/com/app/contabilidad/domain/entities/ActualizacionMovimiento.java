@@ -0,0 +1,17 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una edición: el estado que tenía el movimiento justo antes de sobrescribirlo
+ * y el que queda guardado. El anterior puede no traer las notas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActualizacionMovimiento {
+    private Movimiento anterior;
+    private Movimiento actualizado;
+}
@@ -0,0 +1,47 @@
+package com.app.contabilidad.domain.entities;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+import java.math.BigDecimal;
+
+/**
+ * Acumulador de importes en céntimos sobre un long, sin crear un BigDecimal por cada suma.
+ * Si un importe tiene fracciones de céntimo o la suma desborda el long, pasa a acumular
+ * en BigDecimal de forma exacta. El total se devuelve siempre como BigDecimal.
+ */
+public class AcumuladorImporte {
+    private long centimos;
+    private BigDecimal exacto;
+    private long cantidad;
+
+    /**
+     * Suma un importe y cuenta un movimiento más
+     */
+    public void sumar(BigDecimal importe) {
+        cantidad++;
+        if (exacto == null) {
+            try {
+                centimos = Math.addExact(centimos,
+                        importe.movePointRight(DomainConstants.ESCALA_IMPORTE).longValueExact());
+                return;
+            } catch (ArithmeticException e) {
+                exacto = BigDecimal.valueOf(centimos, DomainConstants.ESCALA_IMPORTE);
+            }
+        }
+        exacto = exacto.add(importe);
+    }
+
+    /**
+     * Total acumulado como BigDecimal exacto (escala 2 mientras no haya desbordamiento)
+     */
+    public BigDecimal getTotal() {
+        return exacto != null ? exacto : BigDecimal.valueOf(centimos, DomainConstants.ESCALA_IMPORTE);
+    }
+
+    /**
+     * Número de importes sumados
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+}
@@ -0,0 +1,41 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Variación que una escritura produce en los totales: el mes, la categoría y el tipo afectados,
+ * el importe a sumar (negativo si se descuenta) y el número de movimientos que se suma o resta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioMovimiento {
+    private YearMonth mes;
+    private String categoria;
+    private Movimiento.TipoMovimiento tipo;
+    private BigDecimal importe;
+    private int cantidad;
+
+    /**
+     * Cambio que suma un movimiento a sus totales
+     */
+    public static CambioMovimiento alta(Movimiento movimiento) {
+        return new CambioMovimiento(YearMonth.from(movimiento.getFecha()), movimiento.getCategoria(),
+                movimiento.getTipo(), movimiento.getCantidad(), 1);
+    }
+
+    /**
+     * Cambio que descuenta un movimiento de sus totales
+     */
+    public static CambioMovimiento baja(Movimiento movimiento) {
+        return new CambioMovimiento(YearMonth.from(movimiento.getFecha()), movimiento.getCategoria(),
+                movimiento.getTipo(), movimiento.getCantidad().negate(), -1);
+    }
+}
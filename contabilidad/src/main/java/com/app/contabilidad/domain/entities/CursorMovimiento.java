@@ -0,0 +1,52 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Posición de un movimiento en el orden (fecha DESC, id DESC) usada para la paginación por cursor.
+ * Se representa como texto con el formato "YYYY-MM-DD_id".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorMovimiento {
+    private static final String SEPARADOR = "_";
+
+    private LocalDate fecha;
+    private Long id;
+
+    /**
+     * Crea el cursor que apunta a un movimiento
+     */
+    public static CursorMovimiento de(Movimiento movimiento) {
+        return new CursorMovimiento(movimiento.getFecha(), movimiento.getId());
+    }
+
+    /**
+     * Interpreta un cursor en formato "YYYY-MM-DD_id"
+     */
+    public static CursorMovimiento desdeTexto(String texto) {
+        int separador = texto.lastIndexOf(SEPARADOR);
+        if (separador < 0) {
+            throw new IllegalArgumentException("Cursor no válido: " + texto);
+        }
+        try {
+            return new CursorMovimiento(LocalDate.parse(texto.substring(0, separador)),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + texto, e);
+        }
+    }
+
+    /**
+     * Representación textual del cursor
+     */
+    public String aTexto() {
+        return fecha + SEPARADOR + id;
+    }
+}
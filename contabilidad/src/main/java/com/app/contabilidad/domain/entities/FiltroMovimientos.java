@@ -0,0 +1,69 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Filtro de movimientos por ids, categoría, tipo y rango de fechas (ambas incluidas).
+ * Un criterio nulo no se aplica, así que el filtro vacío incluye todo el libro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FiltroMovimientos {
+    private Set<Long> ids;
+    private String categoria;
+    private Movimiento.TipoMovimiento tipo;
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    /**
+     * Filtro de una sola categoría
+     */
+    public static FiltroMovimientos deCategoria(String categoria) {
+        return FiltroMovimientos.builder().categoria(categoria).build();
+    }
+
+    /**
+     * Filtro de una lista de movimientos concretos
+     */
+    public static FiltroMovimientos deIds(Collection<Long> ids) {
+        return FiltroMovimientos.builder().ids(new LinkedHashSet<>(ids)).build();
+    }
+
+    /**
+     * Indica si no tiene ningún criterio, es decir, si incluye todo el libro
+     */
+    public boolean esVacio() {
+        return ids == null && categoria == null && tipo == null && desde == null && hasta == null;
+    }
+
+    /**
+     * Indica si el movimiento cumple todos los criterios del filtro
+     */
+    public boolean cumple(Movimiento movimiento) {
+        return (ids == null || ids.contains(movimiento.getId()))
+                && (categoria == null || categoria.equals(movimiento.getCategoria()))
+                && (tipo == null || tipo == movimiento.getTipo())
+                && (desde == null || !movimiento.getFecha().isBefore(desde))
+                && (hasta == null || !movimiento.getFecha().isAfter(hasta));
+    }
+
+    /**
+     * Indica si el rango de fechas abarca meses completos (o no tiene límites) y no se filtra por ids,
+     * de modo que los totales pueden salir de agregados mensuales sin recorrer los movimientos
+     */
+    public boolean abarcaMesesCompletos() {
+        return ids == null
+                && (desde == null || desde.getDayOfMonth() == 1)
+                && (hasta == null || hasta.getDayOfMonth() == hasta.lengthOfMonth());
+    }
+}
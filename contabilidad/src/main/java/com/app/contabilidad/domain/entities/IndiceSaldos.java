@@ -0,0 +1,150 @@
+package com.app.contabilidad.domain.entities;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Índice de sumas acumuladas del flujo neto diario (beneficios - gastos, en céntimos) sobre un
+ * árbol de Fenwick: el saldo a una fecha y el flujo entre dos fechas se calculan en O(log n),
+ * siendo n el número de días cubiertos, y cada alta, baja o modificación se aplica también en O(log n).
+ * Los días cubiertos forman un intervalo que duplica su tamaño (reconstruyendo el árbol en O(n))
+ * cuando llega una fecha fuera de él. No es seguro para hilos.
+ */
+public class IndiceSaldos {
+    private static final int DIAS_INICIALES = 1024;
+    // Unos 23.000 años: evita reservar arrays enormes por una fecha absurda
+    private static final int DIAS_MAXIMOS = 1 << 23;
+
+    // Día (epoch day) de la primera posición
+    private long origen;
+    // Flujo neto de cada día y árbol de Fenwick sobre esos flujos (posiciones desde 1)
+    private long[] netos = new long[0];
+    private long[] arbol = new long[1];
+    private long total;
+
+    /**
+     * Suma al índice el importe de un movimiento (positivo si es beneficio, negativo si es gasto)
+     */
+    public void anadir(Movimiento movimiento) {
+        sumar(movimiento.getFecha(), centimos(movimiento));
+    }
+
+    /**
+     * Descuenta del índice el importe de un movimiento
+     */
+    public void quitar(Movimiento movimiento) {
+        sumar(movimiento.getFecha(), -centimos(movimiento));
+    }
+
+    /**
+     * Suma un flujo en céntimos al día indicado
+     */
+    public void sumar(LocalDate dia, long centimos) {
+        int posicion = cubrir(dia.toEpochDay());
+        netos[posicion] = Math.addExact(netos[posicion], centimos);
+        total = Math.addExact(total, centimos);
+        for (int i = posicion + 1; i < arbol.length; i += i & -i) {
+            arbol[i] += centimos;
+        }
+    }
+
+    /**
+     * Saldo en céntimos al cierre del día indicado (suma de todos los flujos hasta ese día incluido)
+     */
+    public long saldoA(LocalDate dia) {
+        long desplazamiento = dia.toEpochDay() - origen;
+        if (desplazamiento < 0) {
+            return 0;
+        }
+        if (desplazamiento >= netos.length) {
+            return total;
+        }
+        long saldo = 0;
+        for (int i = (int) desplazamiento + 1; i > 0; i -= i & -i) {
+            saldo += arbol[i];
+        }
+        return saldo;
+    }
+
+    /**
+     * Flujo neto en céntimos entre dos días, ambos incluidos
+     */
+    public long flujoEntre(LocalDate desde, LocalDate hasta) {
+        return saldoA(hasta) - saldoA(desde.minusDays(1));
+    }
+
+    /**
+     * Saldo al cierre de cada día del rango (ambos incluidos): O(log n) para el primer día
+     * y O(1) para cada uno de los siguientes
+     */
+    public long[] saldosDiarios(LocalDate desde, LocalDate hasta) {
+        long[] saldos = new long[Math.toIntExact(ChronoUnit.DAYS.between(desde, hasta) + 1)];
+        long saldo = saldoA(desde.minusDays(1));
+        long dia = desde.toEpochDay();
+        for (int i = 0; i < saldos.length; i++, dia++) {
+            long desplazamiento = dia - origen;
+            if (desplazamiento >= 0 && desplazamiento < netos.length) {
+                saldo += netos[(int) desplazamiento];
+            }
+            saldos[i] = saldo;
+        }
+        return saldos;
+    }
+
+    /**
+     * Posición del día en los arrays, ampliando el intervalo cubierto si hace falta
+     */
+    private int cubrir(long dia) {
+        if (netos.length == 0) {
+            // El primer día queda en el centro para poder crecer hacia ambos lados sin reconstruir
+            origen = dia - DIAS_INICIALES / 2;
+            netos = new long[DIAS_INICIALES];
+            arbol = new long[DIAS_INICIALES + 1];
+        }
+        long desplazamiento = dia - origen;
+        if (desplazamiento >= 0 && desplazamiento < netos.length) {
+            return (int) desplazamiento;
+        }
+
+        long necesarios = Math.max(origen + netos.length, dia + 1) - Math.min(origen, dia);
+        int capacidad = netos.length;
+        while (capacidad < necesarios) {
+            if (capacidad >= DIAS_MAXIMOS) {
+                throw new IllegalArgumentException("La fecha " + LocalDate.ofEpochDay(dia)
+                        + " está demasiado lejos del resto de movimientos");
+            }
+            capacidad *= 2;
+        }
+        // Se crece hacia el lado de la nueva fecha
+        long nuevoOrigen = dia < origen ? origen + netos.length - capacidad : origen;
+        long[] nuevos = new long[capacidad];
+        System.arraycopy(netos, 0, nuevos, (int) (origen - nuevoOrigen), netos.length);
+        origen = nuevoOrigen;
+        netos = nuevos;
+        construirArbol();
+        return (int) (dia - origen);
+    }
+
+    /**
+     * Construye el árbol de Fenwick a partir de los flujos diarios en O(n)
+     */
+    private void construirArbol() {
+        arbol = new long[netos.length + 1];
+        for (int i = 1; i <= netos.length; i++) {
+            arbol[i] += netos[i - 1];
+            int padre = i + (i & -i);
+            if (padre <= netos.length) {
+                arbol[padre] += arbol[i];
+            }
+        }
+    }
+
+    private static long centimos(Movimiento movimiento) {
+        long centimos = movimiento.getCantidad().setScale(DomainConstants.ESCALA_IMPORTE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        return movimiento.getTipo() == Movimiento.TipoMovimiento.GASTO ? -centimos : centimos;
+    }
+}
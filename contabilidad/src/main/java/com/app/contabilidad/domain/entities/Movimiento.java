@@ -24,6 +24,11 @@ public class Movimiento {
     private LocalDate fecha;
     private String categoria;
     private String notas;
+    /**
+     * Versión para el bloqueo optimista: cambia con cada edición. Nula al crear, y en una edición
+     * nula significa sobrescribir sin comprobarla.
+     */
+    private Long version;
 
     public enum TipoMovimiento {
         GASTO, BENEFICIO
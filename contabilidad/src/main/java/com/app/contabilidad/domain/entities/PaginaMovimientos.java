@@ -0,0 +1,28 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de movimientos ordenada por (fecha DESC, id DESC).
+ * El cursor siguiente es nulo cuando no quedan más movimientos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaMovimientos {
+    private List<Movimiento> movimientos;
+    private CursorMovimiento siguiente;
+
+    /**
+     * Indica si hay más movimientos tras esta página
+     */
+    public boolean haySiguiente() {
+        return siguiente != null;
+    }
+}
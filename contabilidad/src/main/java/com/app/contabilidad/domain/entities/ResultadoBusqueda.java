@@ -0,0 +1,33 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados de una búsqueda de texto, ordenada por relevancia,
+ * con el número total de movimientos que coinciden
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoBusqueda {
+    private List<Coincidencia> coincidencias;
+    private long total;
+
+    /**
+     * Movimiento encontrado y su puntuación de relevancia (mayor es más relevante)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Coincidencia {
+        private Movimiento movimiento;
+        private double puntuacion;
+    }
+}
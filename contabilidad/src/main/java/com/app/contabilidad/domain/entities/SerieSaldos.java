@@ -0,0 +1,25 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Saldo acumulado día a día en un rango de fechas: el saldo al cierre del día anterior al rango,
+ * el flujo neto (beneficios - gastos) del rango y el saldo al cierre de cada día desde 'desde'
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SerieSaldos {
+    private LocalDate desde;
+    private BigDecimal saldoInicial;
+    private BigDecimal flujo;
+    private List<BigDecimal> saldos;
+}
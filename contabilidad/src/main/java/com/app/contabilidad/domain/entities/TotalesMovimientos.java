@@ -0,0 +1,39 @@
+package com.app.contabilidad.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales agregados de movimientos (importe y número de movimientos por tipo).
+ * Parte de la capa de dominio de la arquitectura hexagonal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TotalesMovimientos {
+    @Builder.Default
+    private BigDecimal totalGastos = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal totalBeneficios = BigDecimal.ZERO;
+    private long cantidadGastos;
+    private long cantidadBeneficios;
+
+    /**
+     * Calcula el balance neto (beneficios - gastos)
+     */
+    public BigDecimal getBalance() {
+        return totalBeneficios.subtract(totalGastos);
+    }
+
+    /**
+     * Número total de movimientos
+     */
+    public long getCantidadMovimientos() {
+        return cantidadGastos + cantidadBeneficios;
+    }
+}
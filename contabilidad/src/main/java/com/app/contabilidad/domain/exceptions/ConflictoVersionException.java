@@ -0,0 +1,20 @@
+package com.app.contabilidad.domain.exceptions;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+/**
+ * Se lanza al editar un movimiento con una versión que ya no es la guardada: otra edición
+ * se ha aplicado entre la lectura y la escritura, y sobrescribirla perdería sus cambios.
+ */
+public class ConflictoVersionException extends RuntimeException {
+    private final Long id;
+
+    public ConflictoVersionException(Long id) {
+        super(DomainConstants.MOVIMIENTO_MODIFICADO + " (id " + id + ")");
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,14 @@
+package com.app.contabilidad.domain.exceptions;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+/**
+ * Se lanza cuando la cola de ingesta sigue llena tras el tiempo de espera: quien escribe más
+ * rápido de lo que se vuelca a la base de datos debe esperar y reintentar.
+ */
+public class IngestaSaturadaException extends RuntimeException {
+
+    public IngestaSaturadaException() {
+        super(DomainConstants.INGESTA_SATURADA);
+    }
+}
@@ -0,0 +1,18 @@
+package com.app.contabilidad.domain.exceptions;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+/**
+ * Se lanza cuando se agota la espera de la confirmación de un alta que ya está en un lote en curso:
+ * no se ha confirmado, pero puede acabar guardándose, así que repetirla a ciegas podría duplicarla.
+ */
+public class IngestaSinConfirmarException extends RuntimeException {
+
+    public IngestaSinConfirmarException() {
+        super(DomainConstants.INGESTA_SIN_CONFIRMAR);
+    }
+
+    public IngestaSinConfirmarException(Throwable causa) {
+        super(DomainConstants.INGESTA_SIN_CONFIRMAR, causa);
+    }
+}
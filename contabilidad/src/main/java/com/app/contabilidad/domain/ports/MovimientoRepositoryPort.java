@@ -1,13 +1,29 @@
 package com.app.contabilidad.domain.ports;
 
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
 import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Puerto (interfaz) que define el contrato para persistencia de movimientos.
  * Parte de la capa de dominio de la arquitectura hexagonal.
+ * Las consultas de listados (páginas, por tipo, por categoría y por rango) pueden devolver los movimientos
+ * sin notas; obtenerPorId, obtenerTodos, recorrerTodos y buscar los devuelven siempre completos,
+ * y obtenerNotas completa las de una página ya leída.
  */
 public interface MovimientoRepositoryPort {
     /**
@@ -15,6 +31,12 @@ public interface MovimientoRepositoryPort {
      */
     Movimiento guardar(Movimiento movimiento);
 
+    /**
+     * Guarda un lote de movimientos nuevos en una sola transacción con inserciones por lotes
+     * y asigna a cada uno su identificador. Devuelve el número de movimientos guardados.
+     */
+    int guardarTodos(List<Movimiento> movimientos);
+
     /**
      * Obtiene un movimiento por su ID
      */
@@ -26,15 +48,70 @@ public interface MovimientoRepositoryPort {
     List<Movimiento> obtenerTodos();
 
     /**
-     * Actualiza un movimiento
+     * Recorre todos los movimientos en orden (fecha, id) sin cargarlos a la vez en memoria,
+     * entregándolos uno a uno al consumidor
+     */
+    void recorrerTodos(Consumer<Movimiento> consumidor);
+
+    /**
+     * Recorre todos los movimientos en orden (fecha, id) como recorrerTodos, pero solo con tipo, categoría,
+     * fecha y cantidad, para agregaciones que no necesitan el resto de columnas
+     */
+    default void recorrerImportes(Consumer<Movimiento> consumidor) {
+        recorrerTodos(consumidor);
+    }
+
+    /**
+     * Notas de los movimientos indicados, por id; los que no tienen notas (o no existen) no aparecen
+     */
+    default Map<Long, String> obtenerNotas(Collection<Long> ids) {
+        Map<Long, String> notas = new HashMap<>();
+        ids.forEach(id -> obtenerPorId(id).map(Movimiento::getNotas).ifPresent(nota -> notas.put(id, nota)));
+        return notas;
+    }
+
+    /**
+     * Obtiene una página de movimientos ordenados por (fecha DESC, id DESC) a partir de un cursor.
+     * Con cursor nulo devuelve la primera página; el coste no depende de la posición de la página.
+     */
+    PaginaMovimientos obtenerPagina(CursorMovimiento despuesDe, int limite);
+
+    /**
+     * Obtiene una página de los movimientos que cumplen el filtro, en el mismo orden y con el mismo cursor
+     * que obtenerPagina(CursorMovimiento, int)
      */
-    Movimiento actualizar(Movimiento movimiento);
+    PaginaMovimientos obtenerPagina(FiltroMovimientos filtro, CursorMovimiento despuesDe, int limite);
+
+    /**
+     * Actualiza un movimiento y devuelve su estado anterior junto al nuevo. La versión es obligatoria
+     * (IllegalArgumentException si falta) y la escritura solo se aplica cuando coincide con la guardada
+     * (ConflictoVersionException si no); la comprobación y la escritura son atómicas.
+     * IllegalArgumentException si el movimiento no existe.
+     */
+    ActualizacionMovimiento actualizar(Movimiento movimiento);
 
     /**
      * Elimina un movimiento
      */
     void eliminar(Long id);
 
+    /**
+     * Elimina en una sola operación los movimientos que cumplen el filtro y devuelve su estado
+     * anterior (sin notas), que es lo que se descuenta de los totales
+     */
+    List<Movimiento> eliminar(FiltroMovimientos filtro);
+
+    /**
+     * Cambia en una sola operación la categoría de los movimientos que cumplen el filtro
+     */
+    List<ActualizacionMovimiento> recategorizar(FiltroMovimientos filtro, String categoria);
+
+    /**
+     * Mueve en una sola operación la fecha de los movimientos que cumplen el filtro
+     * (días positivos hacia el futuro, negativos hacia el pasado)
+     */
+    List<ActualizacionMovimiento> desplazarFechas(FiltroMovimientos filtro, int dias);
+
     /**
      * Obtiene movimientos por tipo
      */
@@ -44,4 +121,67 @@ public interface MovimientoRepositoryPort {
      * Obtiene movimientos por categoría
      */
     List<Movimiento> obtenerPorCategoria(String categoria);
+
+    /**
+     * Obtiene los movimientos con fecha entre desde y hasta (ambas incluidas), ordenados por fecha
+     */
+    default List<Movimiento> obtenerPorRango(LocalDate desde, LocalDate hasta) {
+        return obtenerPorRango(desde, hasta, null, null);
+    }
+
+    /**
+     * Obtiene los movimientos con fecha entre desde y hasta (ambas incluidas), ordenados por fecha,
+     * filtrando opcionalmente por tipo y por categoría (un filtro nulo no se aplica)
+     */
+    List<Movimiento> obtenerPorRango(LocalDate desde, LocalDate hasta,
+                                     Movimiento.TipoMovimiento tipo, String categoria);
+
+    /**
+     * Busca movimientos cuya descripción o notas contengan alguno de los términos del texto
+     * (sin distinguir mayúsculas ni tildes) y devuelve la página indicada (desde 0) ordenada por relevancia
+     */
+    ResultadoBusqueda buscar(String texto, int pagina, int tamano);
+
+    /**
+     * Obtiene los nombres de todas las categorías dadas de alta
+     */
+    List<String> obtenerCategorias();
+
+    /**
+     * Obtiene los totales (importe y número de movimientos) por tipo en una sola consulta
+     */
+    TotalesMovimientos obtenerTotales();
+
+    /**
+     * Obtiene los totales por tipo de los movimientos que cumplen el filtro con una sola consulta agregada,
+     * sin cargar los movimientos
+     */
+    TotalesMovimientos obtenerTotales(FiltroMovimientos filtro);
+
+    /**
+     * Obtiene los totales por tipo agrupados por mes (año-mes), ordenados cronológicamente
+     */
+    Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes();
+
+    /**
+     * Obtiene la suma de cantidades por categoría para un tipo de movimiento
+     */
+    Map<String, BigDecimal> obtenerTotalesPorCategoria(Movimiento.TipoMovimiento tipo);
+
+    /**
+     * Obtiene los totales por tipo de cada categoría y mes de los años indicados (ambos incluidos),
+     * ordenados cronológicamente
+     */
+    Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoria(int anioDesde, int anioHasta);
+
+    /**
+     * Obtiene la versión del libro: crece con cada escritura confirmada y se conserva entre reinicios
+     */
+    long obtenerVersion();
+
+    /**
+     * Recalcula desde cero los agregados que respaldan las consultas de totales,
+     * corrigiendo cualquier desviación. Devuelve el número de agregados generados.
+     */
+    long reconstruirAgregados();
 }
@@ -0,0 +1,23 @@
+package com.app.contabilidad.domain.ports;
+
+import com.app.contabilidad.domain.entities.CambioMovimiento;
+
+import java.util.List;
+
+/**
+ * Puerto (interfaz) para avisar a los interesados de los cambios en los totales
+ * tras cada escritura confirmada.
+ * Parte de la capa de dominio de la arquitectura hexagonal.
+ */
+public interface NotificadorCambiosPort {
+    /**
+     * Publica los cambios de una escritura; no debe bloquear a quien escribe
+     */
+    void publicar(List<CambioMovimiento> cambios);
+
+    /**
+     * Avisa de que los totales han cambiado de forma no incremental (importaciones,
+     * reconstrucciones) y hay que volver a leerlos completos
+     */
+    void resincronizar();
+}
@@ -1,20 +1,49 @@
 package com.app.contabilidad.domain.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.IndiceSaldos;
 import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.SerieSaldos;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
 import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
 
 /**
  * Servicio de dominio que contiene la lógica de negocio relacionada con movimientos.
  * Parte de la capa de dominio de la arquitectura hexagonal.
+ * Mantiene en memoria un índice de saldos por día (IndiceSaldos) que se construye en la primera
+ * consulta de saldos y desde entonces se actualiza en cada escritura hecha a través del servicio.
  */
 public class MovimientoService {
     private final MovimientoRepositoryPort movimientoRepository;
+    // Protege el índice de saldos: las consultas lo leen con el de lectura y las escrituras solo toman
+    // el de escritura para aplicarle su cambio, no durante la transacción del repositorio
+    private final ReentrantReadWriteLock cerrojoSaldos = new ReentrantReadWriteLock();
+    // Escrituras empezadas y terminadas: un índice recién construido solo se publica si ninguna
+    // estaba a medias ni ha empezado mientras se leían los movimientos
+    private final AtomicLong escriturasIniciadas = new AtomicLong();
+    private final AtomicLong escriturasTerminadas = new AtomicLong();
+    private volatile IndiceSaldos indiceSaldos;
 
     public MovimientoService(MovimientoRepositoryPort movimientoRepository) {
         this.movimientoRepository = movimientoRepository;
@@ -27,34 +56,57 @@ public class MovimientoService {
         if (!movimiento.esValido()) {
             throw new IllegalArgumentException("El movimiento no es válido");
         }
-        return movimientoRepository.guardar(movimiento);
+        return escribir(() -> movimientoRepository.guardar(movimiento), IndiceSaldos::anadir);
+    }
+
+    /**
+     * Crea un lote de movimientos en una sola transacción; todos deben ser válidos
+     */
+    public int crearMovimientos(List<Movimiento> movimientos) {
+        if (movimientos.stream().anyMatch(m -> !m.esValido())) {
+            throw new IllegalArgumentException("El movimiento no es válido");
+        }
+        if (movimientos.isEmpty()) {
+            return 0;
+        }
+        return escribir(() -> movimientoRepository.guardarTodos(movimientos),
+                (indice, guardados) -> movimientos.forEach(indice::anadir));
+    }
+
+    /**
+     * Obtiene los totales de gastos y beneficios en una sola consulta
+     */
+    public TotalesMovimientos obtenerTotales() {
+        return movimientoRepository.obtenerTotales();
+    }
+
+    /**
+     * Obtiene los totales por tipo de los movimientos que cumplen el filtro sin cargarlos
+     */
+    public TotalesMovimientos obtenerTotales(FiltroMovimientos filtro) {
+        validar(filtro);
+        return movimientoRepository.obtenerTotales(filtro);
     }
 
     /**
      * Obtiene el total de gastos
      */
     public BigDecimal calcularTotalGastos() {
-        return movimientoRepository.obtenerPorTipo(Movimiento.TipoMovimiento.GASTO)
-                .stream()
-                .map(Movimiento::getCantidad)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return obtenerTotales().getTotalGastos();
     }
 
     /**
      * Obtiene el total de beneficios
      */
     public BigDecimal calcularTotalBeneficios() {
-        return movimientoRepository.obtenerPorTipo(Movimiento.TipoMovimiento.BENEFICIO)
-                .stream()
-                .map(Movimiento::getCantidad)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return obtenerTotales().getTotalBeneficios();
     }
 
     /**
      * Calcula el balance neto (beneficios - gastos)
      */
     public BigDecimal calcularBalance() {
-        return calcularTotalBeneficios().subtract(calcularTotalGastos());
+        return obtenerTotales().getBalance();
     }
 
     /**
@@ -64,6 +116,46 @@ public class MovimientoService {
         return movimientoRepository.obtenerTodos();
     }
 
+    /**
+     * Recorre todos los movimientos uno a uno, sin materializar la lista completa
+     */
+    public void recorrerMovimientos(Consumer<Movimiento> consumidor) {
+        movimientoRepository.recorrerTodos(consumidor);
+    }
+
+    /**
+     * Obtiene una página de movimientos (más recientes primero) a partir de un cursor
+     */
+    public PaginaMovimientos obtenerPagina(CursorMovimiento despuesDe, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        return movimientoRepository.obtenerPagina(despuesDe, limite);
+    }
+
+    /**
+     * Obtiene una página como obtenerPagina, con las notas de sus movimientos, que los listados no leen
+     * (una sola consulta más, limitada a los ids de la página)
+     */
+    public PaginaMovimientos obtenerPaginaConNotas(CursorMovimiento despuesDe, int limite) {
+        PaginaMovimientos pagina = obtenerPagina(despuesDe, limite);
+        Map<Long, String> notas = movimientoRepository.obtenerNotas(
+                pagina.getMovimientos().stream().map(Movimiento::getId).toList());
+        pagina.getMovimientos().forEach(movimiento -> movimiento.setNotas(notas.get(movimiento.getId())));
+        return pagina;
+    }
+
+    /**
+     * Obtiene una página de los movimientos que cumplen el filtro (más recientes primero) a partir de un cursor
+     */
+    public PaginaMovimientos obtenerPagina(FiltroMovimientos filtro, CursorMovimiento despuesDe, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        validar(filtro);
+        return movimientoRepository.obtenerPagina(filtro, despuesDe, limite);
+    }
+
     /**
      * Obtiene un movimiento por ID
      */
@@ -79,40 +171,283 @@ public class MovimientoService {
     }
 
     /**
-     * Actualiza un movimiento
+     * Busca movimientos por texto en descripción y notas, ordenados por relevancia
+     */
+    public ResultadoBusqueda buscarMovimientos(String texto, int pagina, int tamano) {
+        if (texto == null || texto.isBlank()) {
+            throw new IllegalArgumentException("El texto de búsqueda no puede estar vacío");
+        }
+        if (pagina < 0 || tamano <= 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa y el tamaño debe ser positivo");
+        }
+        return movimientoRepository.buscar(texto, pagina, tamano);
+    }
+
+    /**
+     * Obtiene los nombres de las categorías disponibles
+     */
+    public List<String> obtenerCategorias() {
+        return movimientoRepository.obtenerCategorias();
+    }
+
+    /**
+     * Obtiene los movimientos de un rango de fechas, filtrando opcionalmente por tipo y categoría
+     */
+    public List<Movimiento> obtenerMovimientosPorRango(LocalDate desde, LocalDate hasta,
+                                                       Movimiento.TipoMovimiento tipo, String categoria) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+        return movimientoRepository.obtenerPorRango(desde, hasta, tipo, categoria);
+    }
+
+    /**
+     * Actualiza un movimiento con una sola escritura. Debe traer la versión leída: si ya no es la guardada
+     * lanza ConflictoVersionException sin modificar nada
      */
-    public Movimiento actualizarMovimiento(Movimiento movimiento) {
+    public ActualizacionMovimiento actualizarMovimiento(Movimiento movimiento) {
         if (!movimiento.esValido()) {
             throw new IllegalArgumentException("El movimiento no es válido");
         }
-        return movimientoRepository.actualizar(movimiento);
+        if (movimiento.getId() == null) {
+            throw new IllegalArgumentException(DomainConstants.MOVIMIENTO_NO_EXISTE);
+        }
+        if (movimiento.getVersion() == null) {
+            throw new IllegalArgumentException(DomainConstants.VERSION_REQUERIDA);
+        }
+        // La propia escritura devuelve el estado anterior, que es lo que el índice de saldos descuenta
+        return escribir(() -> movimientoRepository.actualizar(movimiento), (indice, actualizacion) -> {
+            indice.quitar(actualizacion.getAnterior());
+            indice.anadir(actualizacion.getActualizado());
+        });
     }
 
     /**
      * Elimina un movimiento
      */
     public void eliminarMovimiento(Long id) {
-        movimientoRepository.eliminar(id);
+        escribir(() -> {
+            Optional<Movimiento> anterior = indiceSaldos != null ? movimientoRepository.obtenerPorId(id) : Optional.empty();
+            movimientoRepository.eliminar(id);
+            return anterior;
+        }, (indice, anterior) -> anterior.ifPresent(indice::quitar));
     }
 
     /**
-     * Suma las cantidades por categoría filtrando por tipo (GASTO o BENEFICIO)
+     * Elimina en una sola operación los movimientos que cumplen el filtro, que no puede estar vacío
      */
-    public Map<String, java.math.BigDecimal> sumarPorCategoria(Movimiento.TipoMovimiento tipo) {
-        return movimientoRepository.obtenerPorTipo(tipo).stream()
-                .collect(Collectors.groupingBy(Movimiento::getCategoria,
-                        Collectors.reducing(java.math.BigDecimal.ZERO, Movimiento::getCantidad, java.math.BigDecimal::add)));
+    public List<Movimiento> eliminarMovimientos(FiltroMovimientos filtro) {
+        validarMasivo(filtro);
+        return escribir(() -> movimientoRepository.eliminar(filtro),
+                (indice, eliminados) -> eliminados.forEach(indice::quitar));
     }
 
     /**
-     * Agrupa todos los movimientos por mes (año-mes)
-     * Retorna un Map donde la clave es el formato "YYYY-MM" y el valor es una lista de movimientos
+     * Cambia en una sola operación la categoría de los movimientos que cumplen el filtro.
+     * Los saldos no dependen de la categoría, así que el índice de saldos no cambia.
      */
-    public Map<String, List<Movimiento>> agruparPorMes() {
-        return movimientoRepository.obtenerTodos().stream()
-                .collect(Collectors.groupingBy(m -> {
-                    java.time.LocalDate fecha = m.getFecha();
-                    return String.format("%04d-%02d", fecha.getYear(), fecha.getMonthValue());
+    public List<ActualizacionMovimiento> recategorizarMovimientos(FiltroMovimientos filtro, String categoria) {
+        validarMasivo(filtro);
+        if (categoria == null || categoria.trim().isEmpty()) {
+            throw new IllegalArgumentException(DomainConstants.CATEGORIA_REQUERIDA);
+        }
+        return movimientoRepository.recategorizar(filtro, categoria.trim());
+    }
+
+    /**
+     * Mueve en una sola operación la fecha de los movimientos que cumplen el filtro
+     */
+    public List<ActualizacionMovimiento> desplazarFechas(FiltroMovimientos filtro, int dias) {
+        validarMasivo(filtro);
+        if (dias == 0 || Math.abs(dias) > DomainConstants.DESPLAZAMIENTO_MAXIMO_DIAS) {
+            throw new IllegalArgumentException(DomainConstants.DESPLAZAMIENTO_NO_VALIDO);
+        }
+        return escribir(() -> movimientoRepository.desplazarFechas(filtro, dias),
+                (indice, actualizaciones) -> actualizaciones.forEach(actualizacion -> {
+                    indice.quitar(actualizacion.getAnterior());
+                    indice.anadir(actualizacion.getActualizado());
                 }));
     }
+
+    /**
+     * Suma las cantidades por categoría filtrando por tipo (GASTO o BENEFICIO)
+     */
+    public Map<String, BigDecimal> sumarPorCategoria(Movimiento.TipoMovimiento tipo) {
+        return movimientoRepository.obtenerTotalesPorCategoria(tipo);
+    }
+
+    /**
+     * Obtiene la versión actual del libro de movimientos
+     */
+    public long obtenerVersion() {
+        return movimientoRepository.obtenerVersion();
+    }
+
+    /**
+     * Recalcula los agregados de totales a partir de los movimientos
+     */
+    public long reconstruirAgregados() {
+        // El índice de saldos también se reconstruye, en la siguiente consulta
+        descartarSaldos();
+        return movimientoRepository.reconstruirAgregados();
+    }
+
+    /**
+     * Saldo (beneficios - gastos acumulados) al cierre de cada uno de los días indicados, en O(log n) por día
+     */
+    public Map<LocalDate, BigDecimal> calcularSaldosA(Collection<LocalDate> dias) {
+        return leerSaldos(indice -> {
+            Map<LocalDate, BigDecimal> saldos = new TreeMap<>();
+            dias.forEach(dia -> saldos.computeIfAbsent(dia, d -> aImporte(indice.saldoA(d))));
+            return saldos;
+        });
+    }
+
+    /**
+     * Saldo al cierre de cada día de un rango (ambos incluidos), junto con el saldo previo y el flujo neto del rango
+     */
+    public SerieSaldos obtenerSerieSaldos(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+        return leerSaldos(indice -> {
+            long[] diarios = indice.saldosDiarios(desde, hasta);
+            List<BigDecimal> saldos = new ArrayList<>(diarios.length);
+            for (long saldo : diarios) {
+                saldos.add(aImporte(saldo));
+            }
+            return SerieSaldos.builder()
+                    .desde(desde)
+                    .saldoInicial(aImporte(indice.saldoA(desde.minusDays(1))))
+                    .flujo(aImporte(indice.flujoEntre(desde, hasta)))
+                    .saldos(saldos)
+                    .build();
+        });
+    }
+
+    /**
+     * Agrupa los totales de movimientos por mes (año-mes)
+     * Retorna un Map donde la clave es el formato "YYYY-MM" y el valor son los totales de ese mes
+     */
+    public Map<String, TotalesMovimientos> agruparPorMes() {
+        Map<String, TotalesMovimientos> totalesPorMes = new LinkedHashMap<>();
+        movimientoRepository.obtenerTotalesPorMes().forEach((mes, totales) ->
+                totalesPorMes.put(String.format("%04d-%02d", mes.getYear(), mes.getMonthValue()), totales));
+        return totalesPorMes;
+    }
+
+    /**
+     * Totales por tipo de cada categoría y mes (clave "YYYY-MM") entre dos años, ambos incluidos
+     */
+    public Map<String, Map<String, TotalesMovimientos>> agruparPorMesYCategoria(int anioDesde, int anioHasta) {
+        if (anioDesde > anioHasta) {
+            throw new IllegalArgumentException("El rango de años no es válido");
+        }
+        Map<String, Map<String, TotalesMovimientos>> totalesPorMes = new LinkedHashMap<>();
+        movimientoRepository.obtenerTotalesPorMesYCategoria(anioDesde, anioHasta).forEach((mes, totales) ->
+                totalesPorMes.put(String.format("%04d-%02d", mes.getYear(), mes.getMonthValue()), totales));
+        return totalesPorMes;
+    }
+
+    /**
+     * Una operación masiva con el filtro vacío afectaría a todo el libro: se exige algún criterio
+     */
+    private void validarMasivo(FiltroMovimientos filtro) {
+        if (filtro.esVacio()) {
+            throw new IllegalArgumentException(DomainConstants.FILTRO_MASIVO_VACIO);
+        }
+        validar(filtro);
+    }
+
+    private void validar(FiltroMovimientos filtro) {
+        if (filtro.getDesde() != null && filtro.getHasta() != null && filtro.getDesde().isAfter(filtro.getHasta())) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+    }
+
+    /**
+     * Consulta el índice de saldos, construyéndolo antes desde el repositorio si aún no existe.
+     * Si alguna escritura se cruza con la lectura de los movimientos, el índice construido puede no
+     * incluirla (o incluirla y recibir además su cambio), así que no se publica: la consulta se responde
+     * con lo leído y la siguiente vuelve a construirlo.
+     */
+    private <T> T leerSaldos(Function<IndiceSaldos, T> consulta) {
+        cerrojoSaldos.readLock().lock();
+        try {
+            if (indiceSaldos != null) {
+                return consulta.apply(indiceSaldos);
+            }
+        } finally {
+            cerrojoSaldos.readLock().unlock();
+        }
+        cerrojoSaldos.writeLock().lock();
+        try {
+            if (indiceSaldos == null) {
+                long terminadas = escriturasTerminadas.get();
+                IndiceSaldos nuevo = new IndiceSaldos();
+                movimientoRepository.recorrerImportes(nuevo::anadir);
+                // Se publica antes de comprobar: una escritura que empiece después de la comprobación
+                // ya lo encuentra y le aplica su cambio en cuanto se suelte el cerrojo
+                indiceSaldos = nuevo;
+                if (escriturasIniciadas.get() != terminadas) {
+                    indiceSaldos = null;
+                    return consulta.apply(nuevo);
+                }
+            }
+            return consulta.apply(indiceSaldos);
+        } finally {
+            cerrojoSaldos.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hace una escritura en el repositorio sin cerrojo y después aplica su cambio al índice de saldos
+     */
+    private <T> T escribir(Supplier<T> escritura, BiConsumer<IndiceSaldos, T> cambio) {
+        escriturasIniciadas.incrementAndGet();
+        try {
+            T resultado = escritura.get();
+            actualizarSaldos(indice -> cambio.accept(indice, resultado));
+            return resultado;
+        } finally {
+            escriturasTerminadas.incrementAndGet();
+        }
+    }
+
+    /**
+     * Aplica una escritura ya confirmada al índice de saldos, si está construido, con el cerrojo de
+     * escritura tomado solo mientras dura el cambio. Si falla a medias (por ejemplo, por una fecha fuera
+     * de rango) se descarta y se reconstruye en la siguiente consulta, sin hacer fallar la escritura.
+     */
+    private void actualizarSaldos(Consumer<IndiceSaldos> cambio) {
+        if (indiceSaldos == null) {
+            return;
+        }
+        cerrojoSaldos.writeLock().lock();
+        try {
+            if (indiceSaldos != null) {
+                cambio.accept(indiceSaldos);
+            }
+        } catch (RuntimeException e) {
+            indiceSaldos = null;
+        } finally {
+            cerrojoSaldos.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el índice de saldos para que se reconstruya en la siguiente consulta
+     */
+    private void descartarSaldos() {
+        cerrojoSaldos.writeLock().lock();
+        try {
+            indiceSaldos = null;
+        } finally {
+            cerrojoSaldos.writeLock().unlock();
+        }
+    }
+
+    private static BigDecimal aImporte(long centimos) {
+        return BigDecimal.valueOf(centimos, DomainConstants.ESCALA_IMPORTE);
+    }
 }
@@ -0,0 +1,57 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Entidad JPA con el agregado materializado (año-mes, categoría, tipo) → suma y número de movimientos.
+ * Se mantiene de forma incremental en cada escritura de MovimientoRepositoryAdapter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "agregados_mensuales")
+@IdClass(AgregadoMensualEntity.Clave.class)
+public class AgregadoMensualEntity {
+    @Id
+    private int anio;
+
+    @Id
+    private int mes;
+
+    @Id
+    @Column(name = "categoria_id", nullable = false)
+    private Short categoriaId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MovimientoEntity.TipoMovimiento tipo;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private long cantidad;
+
+    /**
+     * Clave compuesta del agregado
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private int anio;
+        private int mes;
+        private Short categoriaId;
+        private MovimientoEntity.TipoMovimiento tipo;
+    }
+}
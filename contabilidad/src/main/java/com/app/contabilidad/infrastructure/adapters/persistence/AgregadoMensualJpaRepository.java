@@ -0,0 +1,139 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository de Spring Data JPA para los agregados mensuales materializados
+ */
+@Repository
+public interface AgregadoMensualJpaRepository extends JpaRepository<AgregadoMensualEntity, AgregadoMensualEntity.Clave> {
+    /**
+     * Suma un delta (importe y número de movimientos) a un agregado existente sin dejar su número de
+     * movimientos por debajo de cero. Devuelve 0 si el agregado no existe o no tiene tantos movimientos.
+     */
+    @Modifying
+    @Query("UPDATE AgregadoMensualEntity a SET a.total = a.total + :total, a.cantidad = a.cantidad + :cantidad "
+            + "WHERE a.anio = :anio AND a.mes = :mes AND a.categoriaId = :categoriaId AND a.tipo = :tipo "
+            + "AND a.cantidad + :cantidad >= 0")
+    int incrementar(@Param("anio") int anio, @Param("mes") int mes, @Param("categoriaId") Short categoriaId,
+                    @Param("tipo") MovimientoEntity.TipoMovimiento tipo,
+                    @Param("total") BigDecimal total, @Param("cantidad") long cantidad);
+
+    /**
+     * Suma un delta a un agregado, creándolo si no existe, en una sola sentencia atómica: dos transacciones
+     * que dan de alta a la vez el primer movimiento de un agregado no chocan por la clave primaria
+     * (un UPDATE seguido de un INSERT si no actualiza nada sí lo haría).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_mensuales (anio, mes, categoria_id, tipo, total, cantidad) "
+            + "VALUES (:anio, :mes, :categoriaId, :tipo, :total, :cantidad) "
+            + "ON DUPLICATE KEY UPDATE total = total + VALUES(total), cantidad = cantidad + VALUES(cantidad)",
+            nativeQuery = true)
+    void sumar(@Param("anio") int anio, @Param("mes") int mes, @Param("categoriaId") Short categoriaId,
+               @Param("tipo") String tipo, @Param("total") BigDecimal total, @Param("cantidad") long cantidad);
+
+    /**
+     * Elimina un agregado que se ha quedado sin movimientos
+     */
+    @Modifying
+    @Query("DELETE FROM AgregadoMensualEntity a "
+            + "WHERE a.anio = :anio AND a.mes = :mes AND a.categoriaId = :categoriaId AND a.tipo = :tipo "
+            + "AND a.cantidad = 0")
+    void eliminarSiVacio(@Param("anio") int anio, @Param("mes") int mes, @Param("categoriaId") Short categoriaId,
+                         @Param("tipo") MovimientoEntity.TipoMovimiento tipo);
+
+    /**
+     * Elimina todos los agregados
+     */
+    @Modifying
+    @Query("DELETE FROM AgregadoMensualEntity a")
+    void eliminarTodos();
+
+    /**
+     * Recalcula todos los agregados a partir de la tabla de movimientos
+     */
+    @Modifying
+    @Query("INSERT INTO AgregadoMensualEntity (anio, mes, categoriaId, tipo, total, cantidad) "
+            + "SELECT YEAR(m.fecha), MONTH(m.fecha), m.categoriaId, m.tipo, SUM(m.cantidad), COUNT(m) "
+            + "FROM MovimientoEntity m GROUP BY YEAR(m.fecha), MONTH(m.fecha), m.categoriaId, m.tipo")
+    int recalcularDesdeMovimientos();
+
+    /**
+     * Número de movimientos contabilizados en los agregados
+     */
+    @Query("SELECT COALESCE(SUM(a.cantidad), 0) FROM AgregadoMensualEntity a")
+    long contarMovimientos();
+
+    /**
+     * Suma las cantidades y cuenta los movimientos agrupados por tipo
+     */
+    @Query("SELECT a.tipo AS tipo, SUM(a.total) AS total, SUM(a.cantidad) AS cantidad "
+            + "FROM AgregadoMensualEntity a GROUP BY a.tipo")
+    List<TotalPorTipo> sumarPorTipo();
+
+    /**
+     * Suma las cantidades y cuenta los movimientos agrupados por año, mes y tipo
+     */
+    @Query("SELECT a.anio AS anio, a.mes AS mes, a.tipo AS tipo, SUM(a.total) AS total, SUM(a.cantidad) AS cantidad "
+            + "FROM AgregadoMensualEntity a GROUP BY a.anio, a.mes, a.tipo ORDER BY a.anio, a.mes")
+    List<TotalMensualPorTipo> sumarPorMesYTipo();
+
+    /**
+     * Agregados (año, mes, categoría, tipo) de los años indicados, en orden cronológico;
+     * la tabla ya está agrupada a ese nivel, así que no hace falta GROUP BY
+     */
+    @Query("SELECT a.anio AS anio, a.mes AS mes, a.categoriaId AS categoriaId, a.tipo AS tipo, a.total AS total, "
+            + "a.cantidad AS cantidad FROM AgregadoMensualEntity a WHERE a.anio BETWEEN :desde AND :hasta "
+            + "ORDER BY a.anio, a.mes")
+    List<TotalMensualPorCategoria> obtenerPorAnios(@Param("desde") int desde, @Param("hasta") int hasta);
+
+    /**
+     * Suma las cantidades de un tipo agrupadas por categoría
+     */
+    @Query("SELECT a.categoriaId AS categoriaId, SUM(a.total) AS total "
+            + "FROM AgregadoMensualEntity a WHERE a.tipo = :tipo GROUP BY a.categoriaId")
+    List<TotalPorCategoria> sumarPorCategoria(@Param("tipo") MovimientoEntity.TipoMovimiento tipo);
+
+    /**
+     * Proyección con el total y el número de movimientos de un tipo
+     */
+    interface TotalPorTipo {
+        MovimientoEntity.TipoMovimiento getTipo();
+
+        BigDecimal getTotal();
+
+        long getCantidad();
+    }
+
+    /**
+     * Proyección con el total y el número de movimientos de un tipo en un mes
+     */
+    interface TotalMensualPorTipo extends TotalPorTipo {
+        int getAnio();
+
+        int getMes();
+    }
+
+    /**
+     * Proyección con el total y el número de movimientos de un tipo y una categoría en un mes
+     */
+    interface TotalMensualPorCategoria extends TotalMensualPorTipo {
+        Short getCategoriaId();
+    }
+
+    /**
+     * Proyección con el total de una categoría
+     */
+    interface TotalPorCategoria {
+        Short getCategoriaId();
+
+        BigDecimal getTotal();
+    }
+}
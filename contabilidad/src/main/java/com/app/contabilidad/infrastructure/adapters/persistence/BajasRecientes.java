@@ -0,0 +1,38 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Versión con la que se eliminaron los últimos movimientos borrados, para las copias en memoria que se
+ * actualizan tras cada commit. Esos cambios se aplican fuera de cualquier orden común, así que el de una
+ * edición confirmada justo antes de un borrado puede llegar después de él; con esto se descarta en lugar
+ * de devolver a la copia una fila que ya no existe. Solo se recuerdan los borrados más recientes: un cambio
+ * retrasado llega tras unos pocos commits, no tras miles.
+ * No es seguro para hilos: se usa bajo el bloqueo de escritura de la copia a la que pertenece.
+ */
+final class BajasRecientes {
+    private static final int MAXIMO_BAJAS = 65_536;
+
+    private final Map<Long, Long> versiones = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAXIMO_BAJAS;
+        }
+    };
+
+    /**
+     * Anota que el movimiento se borró cuando tenía la versión indicada
+     */
+    void registrar(long id, long version) {
+        versiones.merge(id, version, Math::max);
+    }
+
+    /**
+     * Indica si un cambio con esa versión es anterior al borrado del movimiento y hay que descartarlo
+     */
+    boolean descarta(long id, long version) {
+        Long borrado = versiones.get(id);
+        return borrado != null && version <= borrado;
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad JPA que mapea la tabla de categorías.
+ * Los movimientos y los agregados referencian la categoría por su id numérico (SMALLINT)
+ * en lugar de repetir el nombre en cada fila.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "categorias")
+public class CategoriaEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String nombre;
+}
@@ -0,0 +1,27 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository de Spring Data JPA para la entidad CategoriaEntity
+ */
+@Repository
+public interface CategoriaJpaRepository extends JpaRepository<CategoriaEntity, Short> {
+    /**
+     * Da de alta una categoría en la transacción en curso; si otra transacción la ha creado
+     * (o la está creando) no hace nada en lugar de fallar por el índice único del nombre
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO categorias (nombre) VALUES (:nombre)", nativeQuery = true)
+    void insertarSiNoExiste(@Param("nombre") String nombre);
+
+    /**
+     * Id de una categoría por su nombre, o null si no existe
+     */
+    @Query("SELECT c.id FROM CategoriaEntity c WHERE c.nombre = :nombre")
+    Short buscarId(@Param("nombre") String nombre);
+}
@@ -0,0 +1,120 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta los viajes a la base de datos (cada execute/executeQuery/executeUpdate/executeBatch de JDBC)
+ * que se hacen mientras hay una medición abierta en el hilo, sean de Hibernate o de JdbcTemplate.
+ * La medición se abre por petición HTTP y se propaga a los hilos que lanzan sus lecturas en paralelo.
+ */
+public final class ContadorConsultas {
+    private static final ThreadLocal<LongAdder> MEDICION = new ThreadLocal<>();
+
+    private ContadorConsultas() {
+    }
+
+    /**
+     * Abre una medición en el hilo actual; debe cerrarse con terminar
+     */
+    public static LongAdder iniciar() {
+        LongAdder medicion = new LongAdder();
+        MEDICION.set(medicion);
+        return medicion;
+    }
+
+    public static void terminar() {
+        MEDICION.remove();
+    }
+
+    /**
+     * Envuelve una tarea para que sus consultas cuenten en la medición del hilo que la lanza
+     */
+    public static <T> Callable<T> propagar(Callable<T> tarea) {
+        LongAdder medicion = MEDICION.get();
+        if (medicion == null) {
+            return tarea;
+        }
+        return () -> {
+            LongAdder anterior = MEDICION.get();
+            MEDICION.set(medicion);
+            try {
+                return tarea.call();
+            } finally {
+                if (anterior == null) {
+                    MEDICION.remove();
+                } else {
+                    MEDICION.set(anterior);
+                }
+            }
+        };
+    }
+
+    /**
+     * Envuelve el DataSource para que las sentencias que ejecute se cuenten
+     */
+    public static DataSource envolver(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return conProxy(Connection.class, super.getConnection(), ContadorConsultas::conexion);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return conProxy(Connection.class, super.getConnection(username, password), ContadorConsultas::conexion);
+            }
+        };
+    }
+
+    private static Object conexion(Object conexion, Method metodo, Object[] args) throws Throwable {
+        Object resultado = invocar(conexion, metodo, args);
+        return switch (resultado) {
+            case CallableStatement sentencia -> conProxy(CallableStatement.class, sentencia, ContadorConsultas::sentencia);
+            case PreparedStatement sentencia -> conProxy(PreparedStatement.class, sentencia, ContadorConsultas::sentencia);
+            case Statement sentencia -> conProxy(Statement.class, sentencia, ContadorConsultas::sentencia);
+            case null, default -> resultado;
+        };
+    }
+
+    private static Object sentencia(Object sentencia, Method metodo, Object[] args) throws Throwable {
+        if (metodo.getName().startsWith("execute")) {
+            LongAdder medicion = MEDICION.get();
+            if (medicion != null) {
+                medicion.increment();
+            }
+        }
+        return invocar(sentencia, metodo, args);
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T conProxy(Class<T> tipo, Object destino, Interceptor interceptor) {
+        InvocationHandler manejador = (proxy, metodo, args) -> interceptor.invocar(destino, metodo, args);
+        return (T) Proxy.newProxyInstance(ContadorConsultas.class.getClassLoader(), new Class<?>[]{tipo}, manejador);
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invocar(Object destino, Method metodo, Object[] args) throws Throwable;
+    }
+}
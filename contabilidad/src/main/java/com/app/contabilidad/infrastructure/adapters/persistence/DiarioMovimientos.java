@@ -0,0 +1,396 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.Movimiento;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Almacén de movimientos en un diario de solo añadir repartido en segmentos proyectados en memoria.
+ * Cada alta o modificación escribe el movimiento completo en un registro nuevo que sustituye al
+ * anterior del mismo id, y cada borrado escribe un registro de baja. Un índice en memoria guarda,
+ * por id, la posición de su registro vigente.
+ * Al abrir se reproducen los segmentos en orden para reconstruir el índice; un registro final con
+ * el CRC incorrecto (una escritura a medias antes de una caída) se descarta. La compactación
+ * copia los registros vigentes a segmentos nuevos y borra los antiguos.
+ * No es seguro para hilos: quien lo usa debe sincronizar los accesos.
+ *
+ * Formato del registro (1024 bytes, big-endian; 4 caben en una página, así que no quedan partidos):
+ * crc (int) · clase de registro (byte) · tipo (byte) · relleno (short) · secuencia (long) · id (long)
+ * · día desde la época (int) · céntimos (long) · descripción, categoría y notas (short con la
+ * longitud en bytes UTF-8, -1 si es nulo, y los bytes en un hueco de tamaño fijo).
+ * La secuencia del registro vigente de un movimiento es su versión para el bloqueo optimista.
+ */
+final class DiarioMovimientos implements AutoCloseable {
+    static final int TAMANO_REGISTRO = 1024;
+
+    static final byte REGISTRO_LIBRE = 0;
+    static final byte REGISTRO_ALTA = 1;
+    static final byte REGISTRO_BAJA = 2;
+    // Marca con la secuencia vigente, para que la versión no retroceda si una compactación no deja registros
+    static final byte REGISTRO_VERSION = 3;
+
+    private static final int POS_CRC = 0;
+    private static final int POS_CLASE = 4;
+    private static final int POS_TIPO = 5;
+    private static final int POS_SECUENCIA = 8;
+    private static final int POS_ID = 16;
+    private static final int POS_DIA = 24;
+    private static final int POS_CENTIMOS = 28;
+    private static final int POS_DESCRIPCION = 36;
+    private static final int MAX_DESCRIPCION = 256;
+    private static final int POS_CATEGORIA = POS_DESCRIPCION + Short.BYTES + MAX_DESCRIPCION;
+    private static final int MAX_CATEGORIA = 128;
+    private static final int POS_NOTAS = POS_CATEGORIA + Short.BYTES + MAX_CATEGORIA;
+    private static final int MAX_NOTAS = TAMANO_REGISTRO - POS_NOTAS - Short.BYTES;
+    private static final Movimiento.TipoMovimiento[] TIPOS = Movimiento.TipoMovimiento.values();
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+    private final List<SegmentoDiario> segmentos = new ArrayList<>();
+    // Posición global del registro vigente de cada id: índice del segmento * registrosPorSegmento + registro
+    private LibroColumnar.IndiceIds posiciones = new LibroColumnar.IndiceIds(1024);
+    private int vivos;
+    private int muertos;
+    private long secuencia;
+    private long ultimoId;
+
+    private DiarioMovimientos(Path directorio, int registrosPorSegmento) {
+        this.directorio = directorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+    }
+
+    /**
+     * Abre el diario del directorio (creándolo si no existe) reproduciendo sus segmentos
+     */
+    static DiarioMovimientos abrir(Path directorio, int registrosPorSegmento) throws IOException {
+        if (registrosPorSegmento <= 0 || registrosPorSegmento > Integer.MAX_VALUE / TAMANO_REGISTRO) {
+            throw new IllegalArgumentException("El número de registros por segmento no es válido");
+        }
+        Files.createDirectories(directorio);
+        DiarioMovimientos diario = new DiarioMovimientos(directorio, registrosPorSegmento);
+        int[] numeros = SegmentoDiario.numerosEn(directorio);
+        for (int i = 0; i < numeros.length; i++) {
+            SegmentoDiario segmento = SegmentoDiario.abrir(directorio, numeros[i], registrosPorSegmento);
+            diario.segmentos.add(segmento);
+            diario.reproducir(segmento, diario.segmentos.size() - 1, i == numeros.length - 1);
+        }
+        if (diario.segmentos.isEmpty()) {
+            // Un diario nuevo parte de la hora actual para no repetir versiones de uno anterior
+            diario.secuencia = System.currentTimeMillis();
+            diario.segmentos.add(SegmentoDiario.abrir(directorio, 1, registrosPorSegmento));
+        }
+        return diario;
+    }
+
+    int getVivos() {
+        return vivos;
+    }
+
+    /**
+     * Registros que ya no son el vigente de ningún id (versiones sustituidas, bajas y marcas)
+     */
+    int getMuertos() {
+        return muertos;
+    }
+
+    int getSegmentos() {
+        return segmentos.size();
+    }
+
+    int getRegistrosPorSegmento() {
+        return registrosPorSegmento;
+    }
+
+    /**
+     * Secuencia del último registro escrito: crece con cada escritura y se conserva al reabrir
+     */
+    long getVersion() {
+        return secuencia;
+    }
+
+    Optional<Movimiento> leer(long id) {
+        int posicion = posiciones.obtener(id);
+        return posicion < 0 ? Optional.empty() : Optional.of(decodificar(posicion));
+    }
+
+    /**
+     * Escribe los movimientos (asignando id a los nuevos) y los lleva a disco si sincronizar es true.
+     * Se codifican todos antes de escribir ninguno, así que uno no válido no deja el lote a medias.
+     */
+    void escribir(List<Movimiento> movimientos, boolean sincronizar) {
+        List<byte[]> registros = new ArrayList<>(movimientos.size());
+        long siguienteId = ultimoId;
+        long siguienteSecuencia = secuencia;
+        for (Movimiento movimiento : movimientos) {
+            long id = movimiento.getId() != null ? movimiento.getId() : ++siguienteId;
+            siguienteId = Math.max(siguienteId, id);
+            registros.add(codificar(REGISTRO_ALTA, ++siguienteSecuencia, id, movimiento));
+        }
+        for (int i = 0; i < movimientos.size(); i++) {
+            Movimiento movimiento = movimientos.get(i);
+            if (movimiento.getId() == null) {
+                movimiento.setId(++ultimoId);
+            }
+            ultimoId = Math.max(ultimoId, movimiento.getId());
+            aplicarAlta(movimiento.getId(), anadir(registros.get(i)));
+        }
+        secuencia = siguienteSecuencia;
+        if (sincronizar) {
+            forzar();
+        }
+    }
+
+    /**
+     * Escribe la baja de un movimiento; devuelve false si no existía
+     */
+    boolean borrar(long id, boolean sincronizar) {
+        if (posiciones.obtener(id) < 0) {
+            return false;
+        }
+        anadir(codificar(REGISTRO_BAJA, ++secuencia, id, null));
+        aplicarBaja(id);
+        if (sincronizar) {
+            forzar();
+        }
+        return true;
+    }
+
+    /**
+     * Recorre los movimientos vigentes en el orden en que se escribieron
+     */
+    void recorrer(Consumer<Movimiento> consumidor) {
+        for (int s = 0; s < segmentos.size(); s++) {
+            SegmentoDiario segmento = segmentos.get(s);
+            for (int r = 0; r < segmento.getUsados(); r++) {
+                int posicion = s * registrosPorSegmento + r;
+                if (esVigente(segmento, r, posicion)) {
+                    consumidor.accept(decodificar(posicion));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia los registros vigentes a segmentos nuevos y borra los anteriores. Los segmentos nuevos
+     * llevan números posteriores y se fuerzan a disco antes de borrar nada, y los antiguos se borran
+     * del más viejo al más reciente: si el proceso cae a medias, la reproducción llega al mismo estado.
+     */
+    void compactar() throws IOException {
+        List<SegmentoDiario> antiguos = new ArrayList<>(segmentos);
+        LibroColumnar.IndiceIds antiguasPosiciones = posiciones;
+        int siguienteNumero = antiguos.get(antiguos.size() - 1).getNumero() + 1;
+        segmentos.clear();
+        segmentos.add(SegmentoDiario.abrir(directorio, siguienteNumero, registrosPorSegmento));
+        posiciones = new LibroColumnar.IndiceIds(Math.max(1024, vivos));
+        vivos = 0;
+        muertos = 0;
+
+        anadir(codificar(REGISTRO_VERSION, ++secuencia, 0, null));
+        muertos++;
+        byte[] registro = new byte[TAMANO_REGISTRO];
+        for (int s = 0; s < antiguos.size(); s++) {
+            SegmentoDiario segmento = antiguos.get(s);
+            for (int r = 0; r < segmento.getUsados(); r++) {
+                int desplazamiento = r * TAMANO_REGISTRO;
+                if (segmento.getDatos().get(desplazamiento + POS_CLASE) != REGISTRO_ALTA) {
+                    continue;
+                }
+                long id = segmento.getDatos().getLong(desplazamiento + POS_ID);
+                if (antiguasPosiciones.obtener(id) != s * registrosPorSegmento + r) {
+                    continue;
+                }
+                // Se copia tal cual: la secuencia del registro es la versión del movimiento y no debe cambiar
+                segmento.getDatos().get(desplazamiento, registro);
+                aplicarAlta(id, anadir(registro));
+            }
+        }
+        forzar();
+        for (SegmentoDiario segmento : antiguos) {
+            segmento.borrar();
+        }
+    }
+
+    /**
+     * Lleva a disco los registros escritos y aún no forzados
+     */
+    void forzar() {
+        for (int s = segmentos.size() - 1; s >= 0; s--) {
+            segmentos.get(s).forzar();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        forzar();
+        for (SegmentoDiario segmento : segmentos) {
+            segmento.close();
+        }
+    }
+
+    /**
+     * Añade un registro codificado al segmento activo, abriendo uno nuevo si está lleno,
+     * y devuelve su posición global
+     */
+    private int anadir(byte[] registro) {
+        SegmentoDiario activo = segmentos.get(segmentos.size() - 1);
+        if (activo.isLleno()) {
+            activo.forzar();
+            try {
+                activo = SegmentoDiario.abrir(directorio, activo.getNumero() + 1, registrosPorSegmento);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo crear un segmento del diario", e);
+            }
+            segmentos.add(activo);
+        }
+        return (segmentos.size() - 1) * registrosPorSegmento + activo.anadir(registro);
+    }
+
+    private void aplicarAlta(long id, int posicion) {
+        if (posiciones.obtener(id) >= 0) {
+            muertos++;
+        } else {
+            vivos++;
+        }
+        posiciones.poner(id, posicion);
+    }
+
+    private void aplicarBaja(long id) {
+        if (posiciones.obtener(id) >= 0) {
+            // Dejan de valer el registro vigente y la propia baja
+            posiciones.eliminar(id);
+            vivos--;
+            muertos += 2;
+        } else {
+            muertos++;
+        }
+    }
+
+    /**
+     * Aplica al índice los registros de un segmento. Un registro con el CRC incorrecto solo se
+     * admite al final del último segmento (escritura interrumpida): se borra y se escribe encima.
+     */
+    private void reproducir(SegmentoDiario segmento, int indice, boolean ultimo) {
+        ByteBuffer datos = segmento.getDatos();
+        int r = 0;
+        for (; r < segmento.getCapacidad(); r++) {
+            int desplazamiento = r * TAMANO_REGISTRO;
+            byte clase = datos.get(desplazamiento + POS_CLASE);
+            if (clase == REGISTRO_LIBRE) {
+                break;
+            }
+            if (datos.getInt(desplazamiento + POS_CRC) != crc(datos.slice(desplazamiento, TAMANO_REGISTRO))) {
+                if (!ultimo) {
+                    throw new IllegalStateException("Registro dañado en el segmento " + segmento.getNumero()
+                            + " del diario, posición " + r);
+                }
+                segmento.vaciar(r);
+                break;
+            }
+            secuencia = Math.max(secuencia, datos.getLong(desplazamiento + POS_SECUENCIA));
+            long id = datos.getLong(desplazamiento + POS_ID);
+            switch (clase) {
+                case REGISTRO_ALTA -> {
+                    ultimoId = Math.max(ultimoId, id);
+                    aplicarAlta(id, indice * registrosPorSegmento + r);
+                }
+                case REGISTRO_BAJA -> aplicarBaja(id);
+                default -> muertos++;
+            }
+        }
+        segmento.setUsados(r);
+    }
+
+    private boolean esVigente(SegmentoDiario segmento, int registro, int posicion) {
+        ByteBuffer datos = segmento.getDatos();
+        int desplazamiento = registro * TAMANO_REGISTRO;
+        return datos.get(desplazamiento + POS_CLASE) == REGISTRO_ALTA
+                && posiciones.obtener(datos.getLong(desplazamiento + POS_ID)) == posicion;
+    }
+
+    private Movimiento decodificar(int posicion) {
+        ByteBuffer datos = segmentos.get(posicion / registrosPorSegmento).getDatos();
+        int desplazamiento = (posicion % registrosPorSegmento) * TAMANO_REGISTRO;
+        return Movimiento.builder()
+                .id(datos.getLong(desplazamiento + POS_ID))
+                .tipo(TIPOS[datos.get(desplazamiento + POS_TIPO)])
+                .fecha(LocalDate.ofEpochDay(datos.getInt(desplazamiento + POS_DIA)))
+                .cantidad(BigDecimal.valueOf(datos.getLong(desplazamiento + POS_CENTIMOS), DomainConstants.ESCALA_IMPORTE))
+                .descripcion(leerTexto(datos, desplazamiento + POS_DESCRIPCION))
+                .categoria(leerTexto(datos, desplazamiento + POS_CATEGORIA))
+                .notas(leerTexto(datos, desplazamiento + POS_NOTAS))
+                .version(datos.getLong(desplazamiento + POS_SECUENCIA))
+                .build();
+    }
+
+    private static byte[] codificar(byte clase, long secuencia, long id, Movimiento movimiento) {
+        byte[] registro = new byte[TAMANO_REGISTRO];
+        ByteBuffer buffer = ByteBuffer.wrap(registro);
+        buffer.put(POS_CLASE, clase);
+        buffer.putLong(POS_SECUENCIA, secuencia);
+        buffer.putLong(POS_ID, id);
+        if (movimiento != null) {
+            buffer.put(POS_TIPO, (byte) movimiento.getTipo().ordinal());
+            buffer.putInt(POS_DIA, Math.toIntExact(movimiento.getFecha().toEpochDay()));
+            buffer.putLong(POS_CENTIMOS, centimos(movimiento.getCantidad()));
+            escribirTexto(buffer, POS_DESCRIPCION, MAX_DESCRIPCION, movimiento.getDescripcion(), "La descripción");
+            escribirTexto(buffer, POS_CATEGORIA, MAX_CATEGORIA, movimiento.getCategoria(), "La categoría");
+            escribirTexto(buffer, POS_NOTAS, MAX_NOTAS, movimiento.getNotas(), "Las notas");
+        }
+        buffer.putInt(POS_CRC, crc(buffer));
+        return registro;
+    }
+
+    private static long centimos(BigDecimal cantidad) {
+        try {
+            return cantidad.setScale(DomainConstants.ESCALA_IMPORTE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("La cantidad no cabe en el registro del diario", e);
+        }
+    }
+
+    private static void escribirTexto(ByteBuffer buffer, int posicion, int maximo, String texto, String campo) {
+        if (texto == null) {
+            buffer.putShort(posicion, (short) -1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maximo) {
+            throw new IllegalArgumentException(campo + " no cabe en el registro del diario (máximo "
+                    + maximo + " bytes)");
+        }
+        buffer.putShort(posicion, (short) bytes.length);
+        buffer.put(posicion + Short.BYTES, bytes);
+    }
+
+    private static String leerTexto(ByteBuffer datos, int posicion) {
+        short longitud = datos.getShort(posicion);
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        datos.get(posicion + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * CRC32C del registro sin contar el propio campo del CRC
+     */
+    private static int crc(ByteBuffer registro) {
+        CRC32C crc = new CRC32C();
+        crc.update(registro.slice(POS_CLASE, TAMANO_REGISTRO - POS_CLASE));
+        return (int) crc.getValue();
+    }
+}
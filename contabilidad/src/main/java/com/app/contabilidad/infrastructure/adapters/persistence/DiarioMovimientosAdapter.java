@@ -0,0 +1,638 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.application.constants.ApplicationConstants;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.exceptions.ConflictoVersionException;
+import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Adaptador de persistencia alternativo a MovimientoRepositoryAdapter que guarda los movimientos
+ * en un diario de solo añadir (DiarioMovimientos) en lugar de JPA + H2. Se activa con el perfil
+ * "diario", que además desactiva el DataSource y todo lo que depende de él.
+ * Las consultas se resuelven en memoria: un índice ordenado por (fecha, id) para páginas y rangos,
+ * los agregados (mes, categoría, tipo) para los totales y un índice de búsqueda de texto como el
+ * del adaptador JPA. Las filas se leen del diario al devolverlas.
+ * Una tarea periódica compacta el diario cuando tiene más registros muertos que vivos.
+ */
+@Component
+@Profile(InfrastructureConstants.PERFIL_DIARIO)
+public class DiarioMovimientosAdapter implements MovimientoRepositoryPort, DisposableBean {
+    private static final int BLOQUE_RECORRIDO = 1000;
+    private static final System.Logger LOG = System.getLogger(DiarioMovimientosAdapter.class.getName());
+
+    private final DiarioMovimientos diario;
+    private final boolean sincronizar;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableSet<Orden> porFecha = new TreeSet<>();
+    private final Map<ClaveAgregado, Agregado> agregados = new HashMap<>();
+    private final Set<String> categorias = new LinkedHashSet<>();
+    private final ScheduledExecutorService compactador;
+    private IndiceBusqueda indiceBusqueda;
+
+    public DiarioMovimientosAdapter(@Value("${contabilidad.diario.directorio:./data/diario}") String directorio,
+                                    @Value("${contabilidad.diario.registros-por-segmento:16384}") int registrosPorSegmento,
+                                    @Value("${contabilidad.diario.sincronizar:true}") boolean sincronizar,
+                                    @Value("${contabilidad.diario.compactacion-ms:600000}") long intervaloCompactacion)
+            throws IOException {
+        this.diario = DiarioMovimientos.abrir(Path.of(directorio), registrosPorSegmento);
+        this.sincronizar = sincronizar;
+        reconstruirIndices();
+        if (intervaloCompactacion > 0) {
+            compactador = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("diario-compactacion").daemon().factory());
+            compactador.scheduleWithFixedDelay(this::compactarSiProcede, intervaloCompactacion,
+                    intervaloCompactacion, TimeUnit.MILLISECONDS);
+        } else {
+            compactador = null;
+        }
+    }
+
+    @Override
+    public Movimiento guardar(Movimiento movimiento) {
+        lock.writeLock().lock();
+        try {
+            diario.escribir(List.of(movimiento), sincronizar);
+            Movimiento guardado = diario.leer(movimiento.getId()).orElseThrow();
+            indexar(guardado);
+            indiceBusqueda.indexar(paraBusqueda(guardado));
+            return guardado;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int guardarTodos(List<Movimiento> movimientos) {
+        lock.writeLock().lock();
+        try {
+            // Un solo force para todo el lote
+            diario.escribir(movimientos, sincronizar);
+            List<MovimientoEntity> entidades = new ArrayList<>(movimientos.size());
+            for (Movimiento movimiento : movimientos) {
+                Movimiento guardado = diario.leer(movimiento.getId()).orElseThrow();
+                movimiento.setVersion(guardado.getVersion());
+                indexar(guardado);
+                entidades.add(paraBusqueda(guardado));
+            }
+            indiceBusqueda.indexarTodos(entidades);
+            return movimientos.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Movimiento> obtenerPorId(Long id) {
+        lock.readLock().lock();
+        try {
+            return diario.leer(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Movimiento> obtenerTodos() {
+        return filtrar(porFecha, movimiento -> true);
+    }
+
+    @Override
+    public void recorrerTodos(Consumer<Movimiento> consumidor) {
+        // Se lee por bloques para no bloquear las escrituras mientras el consumidor procesa
+        Orden ultimo = null;
+        while (true) {
+            List<Movimiento> bloque = new ArrayList<>(BLOQUE_RECORRIDO);
+            lock.readLock().lock();
+            try {
+                NavigableSet<Orden> pendientes = ultimo == null ? porFecha : porFecha.tailSet(ultimo, false);
+                for (Orden orden : pendientes) {
+                    if (bloque.size() == BLOQUE_RECORRIDO) {
+                        break;
+                    }
+                    diario.leer(orden.id()).ifPresent(bloque::add);
+                    ultimo = orden;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (bloque.isEmpty()) {
+                return;
+            }
+            bloque.forEach(consumidor);
+        }
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(CursorMovimiento despuesDe, int limite) {
+        return obtenerPagina(new FiltroMovimientos(), despuesDe, limite);
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(FiltroMovimientos filtro, CursorMovimiento despuesDe, int limite) {
+        lock.readLock().lock();
+        try {
+            // Se empieza en la posición más antigua de entre el cursor (excluido) y el final del rango (incluido)
+            Orden inicio = filtro.getHasta() == null ? null : new Orden(filtro.getHasta(), Long.MAX_VALUE);
+            boolean incluido = true;
+            if (despuesDe != null) {
+                Orden cursor = new Orden(despuesDe.getFecha(), despuesDe.getId());
+                if (inicio == null || cursor.compareTo(inicio) < 0) {
+                    inicio = cursor;
+                    incluido = false;
+                }
+            }
+            NavigableSet<Orden> descendente = inicio == null
+                    ? porFecha.descendingSet()
+                    : porFecha.headSet(inicio, incluido).descendingSet();
+            List<Movimiento> movimientos = new ArrayList<>(limite);
+            boolean haySiguiente = false;
+            for (Orden orden : descendente) {
+                if (filtro.getDesde() != null && orden.fecha().isBefore(filtro.getDesde())) {
+                    break;
+                }
+                Movimiento movimiento = diario.leer(orden.id()).orElseThrow();
+                if (!filtro.cumple(movimiento)) {
+                    continue;
+                }
+                if (movimientos.size() == limite) {
+                    haySiguiente = true;
+                    break;
+                }
+                movimientos.add(movimiento);
+            }
+            CursorMovimiento siguiente = haySiguiente ? CursorMovimiento.de(movimientos.get(movimientos.size() - 1)) : null;
+            return new PaginaMovimientos(movimientos, siguiente);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ActualizacionMovimiento actualizar(Movimiento movimiento) {
+        if (movimiento.getVersion() == null) {
+            throw new IllegalArgumentException(DomainConstants.VERSION_REQUERIDA);
+        }
+        lock.writeLock().lock();
+        try {
+            Optional<Movimiento> guardado = movimiento.getId() == null ? Optional.empty() : diario.leer(movimiento.getId());
+            Movimiento anterior = guardado.orElseThrow(() -> new IllegalArgumentException(DomainConstants.MOVIMIENTO_NO_EXISTE));
+            // Bajo el cerrojo de escritura la comprobación y la escritura son atómicas
+            if (!movimiento.getVersion().equals(anterior.getVersion())) {
+                throw new ConflictoVersionException(movimiento.getId());
+            }
+            diario.escribir(List.of(movimiento), sincronizar);
+            desindexar(anterior);
+            Movimiento actualizado = diario.leer(movimiento.getId()).orElseThrow();
+            indexar(actualizado);
+            indiceBusqueda.indexar(paraBusqueda(actualizado));
+            return new ActualizacionMovimiento(anterior, actualizado);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            Optional<Movimiento> anterior = diario.leer(id);
+            if (anterior.isPresent() && diario.borrar(id, sincronizar)) {
+                desindexar(anterior.get());
+                indiceBusqueda.eliminar(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Movimiento> eliminar(FiltroMovimientos filtro) {
+        lock.writeLock().lock();
+        try {
+            List<Movimiento> eliminados = seleccionar(filtro);
+            for (Movimiento movimiento : eliminados) {
+                diario.borrar(movimiento.getId(), false);
+                desindexar(movimiento);
+                indiceBusqueda.eliminar(movimiento.getId());
+            }
+            // Un solo force para todas las bajas
+            if (sincronizar && !eliminados.isEmpty()) {
+                diario.forzar();
+            }
+            return eliminados;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ActualizacionMovimiento> recategorizar(FiltroMovimientos filtro, String categoria) {
+        return actualizarMasivo(filtro, movimiento -> movimiento.setCategoria(categoria));
+    }
+
+    @Override
+    public List<ActualizacionMovimiento> desplazarFechas(FiltroMovimientos filtro, int dias) {
+        return actualizarMasivo(filtro, movimiento -> movimiento.setFecha(movimiento.getFecha().plusDays(dias)));
+    }
+
+    /**
+     * Reescribe en un solo lote los movimientos que cumplen el filtro tras aplicarles el cambio.
+     * La descripción y las notas no cambian, así que el índice de búsqueda se queda como está.
+     */
+    private List<ActualizacionMovimiento> actualizarMasivo(FiltroMovimientos filtro, Consumer<Movimiento> cambio) {
+        lock.writeLock().lock();
+        try {
+            List<Movimiento> anteriores = seleccionar(filtro);
+            List<Movimiento> nuevos = new ArrayList<>(anteriores.size());
+            for (Movimiento anterior : anteriores) {
+                Movimiento nuevo = new Movimiento(anterior.getId(), anterior.getDescripcion(), anterior.getCantidad(),
+                        anterior.getTipo(), anterior.getFecha(), anterior.getCategoria(), anterior.getNotas(), null);
+                cambio.accept(nuevo);
+                nuevos.add(nuevo);
+            }
+            diario.escribir(nuevos, sincronizar);
+            List<ActualizacionMovimiento> actualizaciones = new ArrayList<>(anteriores.size());
+            for (Movimiento anterior : anteriores) {
+                desindexar(anterior);
+                Movimiento actualizado = diario.leer(anterior.getId()).orElseThrow();
+                indexar(actualizado);
+                actualizaciones.add(new ActualizacionMovimiento(anterior, actualizado));
+            }
+            return actualizaciones;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Movimientos vigentes que cumplen el filtro: leyendo sus ids si los trae o recorriendo su rango de fechas
+     */
+    private List<Movimiento> seleccionar(FiltroMovimientos filtro) {
+        if (filtro.getIds() != null) {
+            List<Movimiento> movimientos = new ArrayList<>(filtro.getIds().size());
+            for (Long id : filtro.getIds()) {
+                diario.leer(id).filter(filtro::cumple).ifPresent(movimientos::add);
+            }
+            return movimientos;
+        }
+        NavigableSet<Orden> rango = porFecha;
+        if (filtro.getDesde() != null) {
+            rango = rango.tailSet(new Orden(filtro.getDesde(), Long.MIN_VALUE), true);
+        }
+        if (filtro.getHasta() != null) {
+            rango = rango.headSet(new Orden(filtro.getHasta(), Long.MAX_VALUE), true);
+        }
+        return filtrar(rango, filtro::cumple);
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorTipo(Movimiento.TipoMovimiento tipo) {
+        return filtrar(porFecha, movimiento -> movimiento.getTipo() == tipo);
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorCategoria(String categoria) {
+        return filtrar(porFecha, movimiento -> movimiento.getCategoria().equals(categoria));
+    }
+
+    @Override
+    public List<Movimiento> obtenerPorRango(LocalDate desde, LocalDate hasta,
+                                            Movimiento.TipoMovimiento tipo, String categoria) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Orden> rango = porFecha.subSet(new Orden(desde, Long.MIN_VALUE), true,
+                    new Orden(hasta, Long.MAX_VALUE), true);
+            return filtrar(rango, movimiento -> (tipo == null || movimiento.getTipo() == tipo)
+                    && (categoria == null || movimiento.getCategoria().equals(categoria)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ResultadoBusqueda buscar(String texto, int pagina, int tamano) {
+        lock.readLock().lock();
+        try {
+            IndiceBusqueda.Resultado resultado = indiceBusqueda.buscar(texto, pagina, tamano);
+            List<ResultadoBusqueda.Coincidencia> coincidencias = new ArrayList<>(resultado.ids().length);
+            for (int i = 0; i < resultado.ids().length; i++) {
+                Optional<Movimiento> movimiento = diario.leer(resultado.ids()[i]);
+                if (movimiento.isPresent()) {
+                    coincidencias.add(new ResultadoBusqueda.Coincidencia(movimiento.get(), resultado.puntuaciones()[i]));
+                }
+            }
+            return new ResultadoBusqueda(coincidencias, resultado.total());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> obtenerCategorias() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(categorias);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales() {
+        lock.readLock().lock();
+        try {
+            TotalesMovimientos totales = new TotalesMovimientos();
+            agregados.forEach((clave, agregado) -> acumular(totales, clave.tipo(), agregado));
+            return totales;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales(FiltroMovimientos filtro) {
+        lock.readLock().lock();
+        try {
+            TotalesMovimientos totales = new TotalesMovimientos();
+            if (filtro.abarcaMesesCompletos()) {
+                // Meses completos: basta con los agregados en memoria
+                YearMonth desde = filtro.getDesde() == null ? null : YearMonth.from(filtro.getDesde());
+                YearMonth hasta = filtro.getHasta() == null ? null : YearMonth.from(filtro.getHasta());
+                agregados.forEach((clave, agregado) -> {
+                    if ((filtro.getCategoria() == null || filtro.getCategoria().equals(clave.categoria()))
+                            && (filtro.getTipo() == null || filtro.getTipo() == clave.tipo())
+                            && (desde == null || !clave.mes().isBefore(desde))
+                            && (hasta == null || !clave.mes().isAfter(hasta))) {
+                        acumular(totales, clave.tipo(), agregado);
+                    }
+                });
+                return totales;
+            }
+            NavigableSet<Orden> rango = porFecha;
+            if (filtro.getDesde() != null) {
+                rango = rango.tailSet(new Orden(filtro.getDesde(), Long.MIN_VALUE), true);
+            }
+            if (filtro.getHasta() != null) {
+                rango = rango.headSet(new Orden(filtro.getHasta(), Long.MAX_VALUE), true);
+            }
+            Map<Movimiento.TipoMovimiento, Agregado> porTipo = new HashMap<>();
+            for (Orden orden : rango) {
+                Movimiento movimiento = diario.leer(orden.id()).orElseThrow();
+                if (filtro.cumple(movimiento)) {
+                    porTipo.computeIfAbsent(movimiento.getTipo(), tipo -> new Agregado()).sumar(movimiento.getCantidad(), 1);
+                }
+            }
+            porTipo.forEach((tipo, agregado) -> acumular(totales, tipo, agregado));
+            return totales;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes() {
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, TotalesMovimientos> totalesPorMes = new TreeMap<>();
+            agregados.forEach((clave, agregado) -> acumular(
+                    totalesPorMes.computeIfAbsent(clave.mes(), mes -> new TotalesMovimientos()), clave.tipo(), agregado));
+            return new LinkedHashMap<>(totalesPorMes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoria(int anioDesde, int anioHasta) {
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, Map<String, TotalesMovimientos>> totalesPorMes = new TreeMap<>();
+            agregados.forEach((clave, agregado) -> {
+                int anio = clave.mes().getYear();
+                if (anio >= anioDesde && anio <= anioHasta) {
+                    acumular(totalesPorMes.computeIfAbsent(clave.mes(), mes -> new TreeMap<>())
+                            .computeIfAbsent(clave.categoria(), categoria -> new TotalesMovimientos()), clave.tipo(), agregado);
+                }
+            });
+            return new LinkedHashMap<>(totalesPorMes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, BigDecimal> obtenerTotalesPorCategoria(Movimiento.TipoMovimiento tipo) {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> centimos = new LinkedHashMap<>();
+            agregados.forEach((clave, agregado) -> {
+                if (clave.tipo() == tipo) {
+                    centimos.merge(clave.categoria(), agregado.centimos, Math::addExact);
+                }
+            });
+            Map<String, BigDecimal> totales = new LinkedHashMap<>();
+            centimos.forEach((categoria, total) ->
+                    totales.put(categoria, BigDecimal.valueOf(total, DomainConstants.ESCALA_IMPORTE)));
+            return totales;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long obtenerVersion() {
+        lock.readLock().lock();
+        try {
+            return diario.getVersion();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long reconstruirAgregados() {
+        lock.writeLock().lock();
+        try {
+            reconstruirIndices();
+            return agregados.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacta el diario si al menos la mitad de sus registros están muertos y suman un segmento;
+     * devuelve si ha compactado
+     */
+    boolean compactarSiProcede() {
+        lock.writeLock().lock();
+        try {
+            if (diario.getMuertos() <= diario.getVivos() || diario.getMuertos() < diario.getRegistrosPorSegmento()) {
+                return false;
+            }
+            diario.compactar();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Se deja para la siguiente ejecución; una excepción cancelaría la tarea periódica
+            LOG.log(System.Logger.Level.WARNING, "No se pudo compactar el diario de movimientos", e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (compactador != null) {
+            compactador.shutdownNow();
+        }
+        lock.writeLock().lock();
+        try {
+            diario.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vuelve a calcular el índice por fecha, los agregados y el índice de búsqueda desde el diario
+     */
+    private void reconstruirIndices() {
+        porFecha.clear();
+        agregados.clear();
+        categorias.clear();
+        categorias.addAll(List.of(ApplicationConstants.CATEGORIAS_LISTA));
+        List<MovimientoEntity> entidades = new ArrayList<>();
+        diario.recorrer(movimiento -> {
+            indexar(movimiento);
+            entidades.add(paraBusqueda(movimiento));
+        });
+        indiceBusqueda = new IndiceBusqueda(null, null);
+        indiceBusqueda.indexarTodos(entidades);
+    }
+
+    private List<Movimiento> filtrar(NavigableSet<Orden> ordenes, Predicate<Movimiento> filtro) {
+        lock.readLock().lock();
+        try {
+            List<Movimiento> movimientos = new ArrayList<>();
+            for (Orden orden : ordenes) {
+                Movimiento movimiento = diario.leer(orden.id()).orElseThrow();
+                if (filtro.test(movimiento)) {
+                    movimientos.add(movimiento);
+                }
+            }
+            return movimientos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexar(Movimiento movimiento) {
+        porFecha.add(new Orden(movimiento.getFecha(), movimiento.getId()));
+        categorias.add(movimiento.getCategoria());
+        Agregado agregado = agregados.computeIfAbsent(ClaveAgregado.de(movimiento), clave -> new Agregado());
+        agregado.sumar(movimiento.getCantidad(), 1);
+    }
+
+    private void desindexar(Movimiento movimiento) {
+        porFecha.remove(new Orden(movimiento.getFecha(), movimiento.getId()));
+        ClaveAgregado clave = ClaveAgregado.de(movimiento);
+        Agregado agregado = agregados.get(clave);
+        agregado.sumar(movimiento.getCantidad().negate(), -1);
+        if (agregado.cantidad == 0) {
+            agregados.remove(clave);
+        }
+    }
+
+    private static void acumular(TotalesMovimientos totales, Movimiento.TipoMovimiento tipo, Agregado agregado) {
+        if (tipo == Movimiento.TipoMovimiento.GASTO) {
+            totales.setTotalGastos(totales.getTotalGastos().add(agregado.getTotal()));
+            totales.setCantidadGastos(totales.getCantidadGastos() + agregado.cantidad);
+        } else {
+            totales.setTotalBeneficios(totales.getTotalBeneficios().add(agregado.getTotal()));
+            totales.setCantidadBeneficios(totales.getCantidadBeneficios() + agregado.cantidad);
+        }
+    }
+
+    /**
+     * El índice de búsqueda solo usa el id, la descripción y las notas
+     */
+    private static MovimientoEntity paraBusqueda(Movimiento movimiento) {
+        return MovimientoEntity.builder()
+                .id(movimiento.getId())
+                .descripcion(movimiento.getDescripcion())
+                .notas(movimiento.getNotas())
+                .build();
+    }
+
+    /**
+     * Entrada del índice ordenado por (fecha, id)
+     */
+    private record Orden(LocalDate fecha, long id) implements Comparable<Orden> {
+        @Override
+        public int compareTo(Orden otra) {
+            int porFecha = fecha.compareTo(otra.fecha);
+            return porFecha != 0 ? porFecha : Long.compare(id, otra.id);
+        }
+    }
+
+    private record ClaveAgregado(YearMonth mes, String categoria, Movimiento.TipoMovimiento tipo) {
+        static ClaveAgregado de(Movimiento movimiento) {
+            return new ClaveAgregado(YearMonth.from(movimiento.getFecha()), movimiento.getCategoria(), movimiento.getTipo());
+        }
+    }
+
+    /**
+     * Suma en céntimos y número de movimientos de un agregado
+     */
+    private static final class Agregado {
+        private long centimos;
+        private long cantidad;
+
+        void sumar(BigDecimal importe, int movimientos) {
+            // Los importes leídos del diario tienen siempre escala 2
+            centimos = Math.addExact(centimos, importe.unscaledValue().longValueExact());
+            cantidad += movimientos;
+        }
+
+        BigDecimal getTotal() {
+            return BigDecimal.valueOf(centimos, DomainConstants.ESCALA_IMPORTE);
+        }
+    }
+}
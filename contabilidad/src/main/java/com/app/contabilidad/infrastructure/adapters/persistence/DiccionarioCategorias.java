@@ -0,0 +1,173 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.application.constants.ApplicationConstants;
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario en memoria nombre ↔ id de las categorías, cargado una vez al arrancar.
+ * Las categorías nuevas se dan de alta en la transacción de la escritura que las usa, de modo que
+ * un rollback no deja categorías huérfanas; hasta el commit solo las ve esa transacción y después
+ * se publican en el diccionario.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@RequiredArgsConstructor
+public class DiccionarioCategorias implements SmartInitializingSingleton {
+    private final CategoriaJpaRepository categoriaRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, Short> idsPorNombre = new ConcurrentHashMap<>();
+    private volatile String[] nombresPorId = new String[0];
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Da de alta las categorías iniciales que falten (base de datos nueva o migrada)
+        recargar();
+        List<CategoriaEntity> nuevas = Arrays.stream(ApplicationConstants.CATEGORIAS_LISTA)
+                .filter(nombre -> !idsPorNombre.containsKey(nombre))
+                .map(nombre -> CategoriaEntity.builder().nombre(nombre).build())
+                .toList();
+        if (!nuevas.isEmpty()) {
+            categoriaRepository.saveAll(nuevas);
+            recargar();
+        }
+    }
+
+    /**
+     * Vuelve a leer todas las categorías de la base de datos
+     */
+    public synchronized void recargar() {
+        idsPorNombre.clear();
+        nombresPorId = new String[0];
+        categoriaRepository.findAll().forEach(categoria -> registrar(categoria.getId(), categoria.getNombre()));
+    }
+
+    /**
+     * Id de una categoría existente (o creada en la transacción en curso), o null si no existe
+     */
+    public Short obtenerId(String nombre) {
+        Short id = idsPorNombre.get(nombre);
+        if (id == null) {
+            Map<String, Short> pendientes = pendientes();
+            return pendientes != null ? pendientes.get(nombre) : null;
+        }
+        return id;
+    }
+
+    /**
+     * Id de una categoría, dándola de alta en la transacción en curso si todavía no existe
+     * (o en una propia si se llama fuera de una transacción)
+     */
+    public short obtenerOCrearId(String nombre) {
+        Short id = obtenerId(nombre);
+        if (id != null) {
+            return id;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return new TransactionTemplate(transactionManager).execute(estado -> obtenerOCrearId(nombre));
+        }
+        categoriaRepository.insertarSiNoExiste(nombre);
+        short creada = categoriaRepository.buscarId(nombre);
+        pendientesDeLaTransaccion().put(nombre, creada);
+        return creada;
+    }
+
+    /**
+     * Nombre de una categoría a partir de su id. Si el diccionario aún no la tiene (creada en la
+     * transacción en curso, o confirmada por otra que todavía no la ha publicado) se busca fuera de él.
+     */
+    public String obtenerNombre(short id) {
+        String[] nombres = nombresPorId;
+        if (id >= 0 && id < nombres.length && nombres[id] != null) {
+            return nombres[id];
+        }
+        Map<String, Short> pendientes = pendientes();
+        if (pendientes != null) {
+            for (Map.Entry<String, Short> pendiente : pendientes.entrySet()) {
+                if (pendiente.getValue() == id) {
+                    return pendiente.getKey();
+                }
+            }
+        }
+        CategoriaEntity categoria = categoriaRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Categoría desconocida: " + id));
+        registrar(categoria.getId(), categoria.getNombre());
+        return categoria.getNombre();
+    }
+
+    /**
+     * Nombres de todas las categorías en orden de alta
+     */
+    public List<String> obtenerNombres() {
+        return Arrays.stream(nombresPorId).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Añade una entrada al diccionario (copia del array para que los lectores no necesiten bloqueo)
+     */
+    synchronized void registrar(short id, String nombre) {
+        String[] nombres = nombresPorId;
+        if (id >= nombres.length) {
+            nombres = Arrays.copyOf(nombres, Math.max(id + 1, nombres.length * 2));
+        } else {
+            nombres = nombres.clone();
+        }
+        nombres[id] = nombre;
+        nombresPorId = nombres;
+        idsPorNombre.put(nombre, id);
+    }
+
+    /**
+     * Categorías creadas en la transacción en curso y todavía sin confirmar, o null si no hay ninguna
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Short> pendientes() {
+        return (Map<String, Short>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Categorías pendientes de la transacción en curso; la primera vez registra la sincronización que las
+     * publica en el diccionario tras el commit (antes que el resto, que puede necesitar sus nombres)
+     */
+    private Map<String, Short> pendientesDeLaTransaccion() {
+        Map<String, Short> pendientes = pendientes();
+        if (pendientes == null) {
+            Map<String, Short> nuevas = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, nuevas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    nuevas.forEach((nombre, id) -> registrar(id, nombre));
+                }
+
+                @Override
+                public void afterCompletion(int estado) {
+                    TransactionSynchronizationManager.unbindResource(DiccionarioCategorias.this);
+                }
+            });
+            pendientes = nuevas;
+        }
+        return pendientes;
+    }
+}
@@ -0,0 +1,478 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre la descripción y las notas de los movimientos.
+ * Cada término apunta a la lista de documentos que lo contienen (números de documento
+ * compactos y frecuencia del término), y las búsquedas se puntúan con BM25.
+ * Se carga al arrancar y el adaptador de persistencia lo mantiene al día tras cada commit. Esos cambios
+ * pueden llegar en otro orden que sus commits, así que cada documento guarda la versión del movimiento
+ * y se descarta cualquier cambio que no sea posterior a ella (o al borrado del movimiento).
+ * Los movimientos eliminados o sustituidos se marcan como borrados y se purgan de las
+ * listas cuando superan la mitad de los documentos.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@RequiredArgsConstructor
+public class IndiceBusqueda implements SmartInitializingSingleton {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int LONGITUD_MINIMA_TERMINO = 2;
+    private static final int PURGA_MINIMA = 1024;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "de", "del", "la", "las", "el", "los", "en", "por", "para", "con", "un", "una", "al", "lo", "se");
+    private static final String SELECT_MOVIMIENTOS = "SELECT id, descripcion, notas, version FROM movimientos";
+    // Versión de los documentos cuyo cambio se aplica sin comprobar el orden
+    private static final long SIN_VERSION = Long.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Garantiza que el esquema ya está creado antes de la carga inicial
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, Postings> terminos = new HashMap<>();
+    // Por número de documento: id y versión del movimiento y número de términos (-1 si está borrado)
+    private long[] idsDocumento = new long[CAPACIDAD_INICIAL];
+    private long[] versiones = new long[CAPACIDAD_INICIAL];
+    private int[] longitudes = new int[CAPACIDAD_INICIAL];
+    private int documentos;
+    private int borrados;
+    private long longitudTotal;
+    private LibroColumnar.IndiceIds documentoPorId = new LibroColumnar.IndiceIds(CAPACIDAD_INICIAL);
+    // Se conservan entre recargas: un cambio retrasado puede llegar también después de una
+    private final BajasRecientes bajas = new BajasRecientes();
+
+    /**
+     * Resultado de una búsqueda: ids de la página pedida, en orden de relevancia, con su
+     * puntuación, y número total de movimientos que coinciden
+     */
+    public record Resultado(long[] ids, double[] puntuaciones, int total) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        cargar();
+    }
+
+    /**
+     * Carga (o recarga) el índice desde la tabla de movimientos
+     */
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            vaciar();
+            jdbcTemplate.query(SELECT_MOVIMIENTOS, rs -> {
+                indexarDocumento(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getDocumentos() {
+        return documentos - borrados;
+    }
+
+    /**
+     * Indexa un movimiento, sustituyendo su versión anterior si ya estaba indexado, salvo que el índice
+     * ya tenga esa versión o una posterior; sin versión se aplica siempre
+     */
+    public void indexar(MovimientoEntity entity) {
+        indexarTodos(List.of(entity));
+    }
+
+    /**
+     * Indexa un lote de movimientos bajo un único bloqueo
+     */
+    public void indexarTodos(List<MovimientoEntity> entidades) {
+        lock.writeLock().lock();
+        try {
+            for (MovimientoEntity entity : entidades) {
+                indexarDocumento(entity.getId(), entity.getDescripcion(), entity.getNotas(),
+                        entity.getVersion() == null ? SIN_VERSION : entity.getVersion());
+            }
+            purgarSiProcede();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un movimiento del índice
+     */
+    public void eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            borrarDocumento(id);
+            purgarSiProcede();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un movimiento borrado con la versión indicada, que se recuerda para descartar los cambios
+     * anteriores que lleguen después
+     */
+    public void eliminar(long id, long version) {
+        lock.writeLock().lock();
+        try {
+            bajas.registrar(id, version);
+            borrarDocumento(id);
+            purgarSiProcede();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los movimientos que contienen alguno de los términos del texto y devuelve la página
+     * indicada (desde 0) ordenada por relevancia BM25; a igual puntuación, primero el id más alto
+     */
+    public Resultado buscar(String texto, int pagina, int tamano) {
+        List<String> consulta = tokenizar(texto).stream().distinct().toList();
+        lock.readLock().lock();
+        try {
+            List<Postings> listas = new ArrayList<>(consulta.size());
+            for (String termino : consulta) {
+                Postings postings = terminos.get(termino);
+                if (postings != null) {
+                    listas.add(postings);
+                }
+            }
+            long desde = (long) pagina * tamano;
+            // Basta con conservar los documentos hasta el final de la página pedida
+            MejoresResultados resultados = new MejoresResultados((int) Math.min(desde + tamano, documentos - borrados));
+            int total = listas.size() == 1 ? puntuarTermino(listas.get(0), resultados)
+                    : puntuarTerminos(listas, resultados);
+            return resultados.pagina((int) Math.min(desde, Integer.MAX_VALUE), total, idsDocumento);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza un texto (minúsculas, sin tildes) y lo divide en términos alfanuméricos,
+     * descartando los demasiado cortos y las palabras vacías más frecuentes
+     */
+    static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return tokens;
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i <= normalizado.length(); i++) {
+            char c = i < normalizado.length() ? normalizado.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                actual.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !actual.isEmpty()) {
+                String token = actual.toString();
+                if (token.length() >= LONGITUD_MINIMA_TERMINO && !PALABRAS_VACIAS.contains(token)) {
+                    tokens.add(token);
+                }
+                actual.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexa un documento si la versión es posterior a la que hay; debe llamarse con el bloqueo de escritura
+     */
+    private void indexarDocumento(long id, String descripcion, String notas, long version) {
+        int actual = documentoPorId.obtener(id);
+        if (version != SIN_VERSION && (bajas.descarta(id, version)
+                || (actual >= 0 && versiones[actual] != SIN_VERSION && versiones[actual] >= version))) {
+            return;
+        }
+        borrarDocumento(id);
+        Map<String, Integer> frecuencias = new LinkedHashMap<>();
+        int longitud = 0;
+        for (String texto : new String[]{descripcion, notas}) {
+            for (String token : tokenizar(texto)) {
+                frecuencias.merge(token, 1, Integer::sum);
+                longitud++;
+            }
+        }
+        if (documentos == idsDocumento.length) {
+            int capacidad = documentos * 2;
+            idsDocumento = Arrays.copyOf(idsDocumento, capacidad);
+            versiones = Arrays.copyOf(versiones, capacidad);
+            longitudes = Arrays.copyOf(longitudes, capacidad);
+        }
+        int documento = documentos++;
+        idsDocumento[documento] = id;
+        versiones[documento] = version;
+        longitudes[documento] = longitud;
+        longitudTotal += longitud;
+        documentoPorId.poner(id, documento);
+        frecuencias.forEach((termino, frecuencia) ->
+                terminos.computeIfAbsent(termino, t -> new Postings()).anadir(documento, frecuencia));
+    }
+
+    private void borrarDocumento(long id) {
+        int documento = documentoPorId.obtener(id);
+        if (documento < 0) {
+            return;
+        }
+        longitudTotal -= longitudes[documento];
+        longitudes[documento] = -1;
+        documentoPorId.eliminar(id);
+        borrados++;
+    }
+
+    private void purgarSiProcede() {
+        if (borrados >= PURGA_MINIMA && borrados * 2 > documentos) {
+            purgar();
+        }
+    }
+
+    /**
+     * Renumera los documentos vivos y reescribe las listas sin los borrados
+     */
+    private void purgar() {
+        int[] nuevoNumero = new int[documentos];
+        int vivos = 0;
+        for (int documento = 0; documento < documentos; documento++) {
+            if (longitudes[documento] >= 0) {
+                nuevoNumero[documento] = vivos;
+                idsDocumento[vivos] = idsDocumento[documento];
+                versiones[vivos] = versiones[documento];
+                longitudes[vivos] = longitudes[documento];
+                documentoPorId.poner(idsDocumento[vivos], vivos);
+                vivos++;
+            } else {
+                nuevoNumero[documento] = -1;
+            }
+        }
+        documentos = vivos;
+        borrados = 0;
+        terminos.values().removeIf(postings -> postings.renumerar(nuevoNumero) == 0);
+    }
+
+    private void vaciar() {
+        terminos = new HashMap<>();
+        idsDocumento = new long[CAPACIDAD_INICIAL];
+        versiones = new long[CAPACIDAD_INICIAL];
+        longitudes = new int[CAPACIDAD_INICIAL];
+        documentos = 0;
+        borrados = 0;
+        longitudTotal = 0;
+        documentoPorId = new LibroColumnar.IndiceIds(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Un solo término: las puntuaciones van directas al montículo sin acumulador intermedio
+     */
+    private int puntuarTermino(Postings postings, MejoresResultados resultados) {
+        double idf = idf(postings);
+        double longitudMedia = longitudMedia();
+        int total = 0;
+        for (int i = 0; i < postings.tamano; i++) {
+            int documento = postings.documentos[i];
+            if (longitudes[documento] >= 0) {
+                resultados.ofrecer(documento, bm25(idf, postings.frecuencias[i], longitudes[documento], longitudMedia));
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Varios términos: las puntuaciones se suman por documento en un array denso
+     */
+    private int puntuarTerminos(List<Postings> listas, MejoresResultados resultados) {
+        if (listas.isEmpty()) {
+            return 0;
+        }
+        double longitudMedia = longitudMedia();
+        double[] puntuaciones = new double[documentos];
+        int[] tocados = new int[listas.stream().mapToInt(p -> p.tamano).sum()];
+        int total = 0;
+        for (Postings postings : listas) {
+            double idf = idf(postings);
+            for (int i = 0; i < postings.tamano; i++) {
+                int documento = postings.documentos[i];
+                if (longitudes[documento] < 0) {
+                    continue;
+                }
+                if (puntuaciones[documento] == 0) {
+                    tocados[total++] = documento;
+                }
+                puntuaciones[documento] += bm25(idf, postings.frecuencias[i], longitudes[documento], longitudMedia);
+            }
+        }
+        for (int i = 0; i < total; i++) {
+            resultados.ofrecer(tocados[i], puntuaciones[tocados[i]]);
+        }
+        return total;
+    }
+
+    private double idf(Postings postings) {
+        double n = documentos - borrados;
+        double df = Math.min(postings.tamano, n);
+        return Math.log(1 + (n - df + 0.5) / (df + 0.5));
+    }
+
+    private double longitudMedia() {
+        int vivos = documentos - borrados;
+        return vivos == 0 ? 1 : Math.max(1, (double) longitudTotal / vivos);
+    }
+
+    private static double bm25(double idf, int frecuencia, int longitud, double longitudMedia) {
+        return idf * frecuencia * (K1 + 1) / (frecuencia + K1 * (1 - B + B * longitud / longitudMedia));
+    }
+
+    /**
+     * Lista de documentos de un término con la frecuencia del término en cada uno
+     */
+    private static final class Postings {
+        private int[] documentos = new int[2];
+        private short[] frecuencias = new short[2];
+        private int tamano;
+
+        void anadir(int documento, int frecuencia) {
+            if (tamano == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamano * 2);
+                frecuencias = Arrays.copyOf(frecuencias, tamano * 2);
+            }
+            documentos[tamano] = documento;
+            frecuencias[tamano] = (short) Math.min(frecuencia, Short.MAX_VALUE);
+            tamano++;
+        }
+
+        int renumerar(int[] nuevoNumero) {
+            int vivos = 0;
+            for (int i = 0; i < tamano; i++) {
+                int documento = nuevoNumero[documentos[i]];
+                if (documento >= 0) {
+                    documentos[vivos] = documento;
+                    frecuencias[vivos] = frecuencias[i];
+                    vivos++;
+                }
+            }
+            tamano = vivos;
+            return vivos;
+        }
+    }
+
+    /**
+     * Montículo de mínimos acotado que conserva los k documentos mejor puntuados
+     */
+    private final class MejoresResultados {
+        private final int capacidad;
+        private final int[] documentos;
+        private final double[] puntuaciones;
+        private int tamano;
+
+        MejoresResultados(int capacidad) {
+            this.capacidad = capacidad;
+            this.documentos = new int[capacidad];
+            this.puntuaciones = new double[capacidad];
+        }
+
+        void ofrecer(int documento, double puntuacion) {
+            if (capacidad == 0) {
+                return;
+            }
+            if (tamano < capacidad) {
+                documentos[tamano] = documento;
+                puntuaciones[tamano] = puntuacion;
+                subir(tamano++);
+            } else if (peor(documentos[0], puntuaciones[0], documento, puntuacion)) {
+                documentos[0] = documento;
+                puntuaciones[0] = puntuacion;
+                bajar(0);
+            }
+        }
+
+        Resultado pagina(int desde, int total, long[] ids) {
+            // Extrae del peor al mejor y rellena la página de atrás hacia delante
+            int hasta = tamano;
+            int longitud = Math.max(0, hasta - desde);
+            long[] paginaIds = new long[longitud];
+            double[] paginaPuntuaciones = new double[longitud];
+            for (int posicion = hasta - 1; posicion >= 0; posicion--) {
+                int documento = documentos[0];
+                double puntuacion = puntuaciones[0];
+                tamano--;
+                documentos[0] = documentos[tamano];
+                puntuaciones[0] = puntuaciones[tamano];
+                bajar(0);
+                if (posicion >= desde) {
+                    paginaIds[posicion - desde] = ids[documento];
+                    paginaPuntuaciones[posicion - desde] = puntuacion;
+                }
+            }
+            return new Resultado(paginaIds, paginaPuntuaciones, total);
+        }
+
+        /**
+         * Indica si (documentoA, a) queda por detrás de (documentoB, b) en el orden de resultados
+         */
+        private boolean peor(int documentoA, double a, int documentoB, double b) {
+            return a < b || (a == b && idsDocumento[documentoA] < idsDocumento[documentoB]);
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (!peor(documentos[i], puntuaciones[i], documentos[padre], puntuaciones[padre])) {
+                    return;
+                }
+                intercambiar(i, padre);
+                i = padre;
+            }
+        }
+
+        private void bajar(int i) {
+            while (true) {
+                int menor = i;
+                int izquierdo = 2 * i + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < tamano && peor(documentos[izquierdo], puntuaciones[izquierdo],
+                        documentos[menor], puntuaciones[menor])) {
+                    menor = izquierdo;
+                }
+                if (derecho < tamano && peor(documentos[derecho], puntuaciones[derecho],
+                        documentos[menor], puntuaciones[menor])) {
+                    menor = derecho;
+                }
+                if (menor == i) {
+                    return;
+                }
+                intercambiar(i, menor);
+                i = menor;
+            }
+        }
+
+        private void intercambiar(int i, int j) {
+            int documento = documentos[i];
+            documentos[i] = documentos[j];
+            documentos[j] = documento;
+            double puntuacion = puntuaciones[i];
+            puntuaciones[i] = puntuaciones[j];
+            puntuaciones[j] = puntuacion;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserta lotes de movimientos con sentencias JDBC agrupadas (addBatch/executeBatch),
+ * sin pasar por el contexto de persistencia de Hibernate.
+ * Los identificadores se reservan de movimientos_seq con la misma semántica que el optimizador
+ * pooled de Hibernate (cada valor v cubre los ids v-ALLOCATION_SIZE+1..v), así que no colisionan
+ * con los que asigna JPA en las inserciones individuales.
+ * Participa en la transacción JPA en curso.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@RequiredArgsConstructor
+public class InsercionMasivaMovimientos {
+    private static final String INSERT = "INSERT INTO movimientos "
+            + "(id, descripcion, cantidad, tipo, fecha, categoria_id, notas, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int tamanoLoteJdbc;
+
+    /**
+     * Inserta las entidades asignándoles identificador
+     */
+    public void insertar(List<MovimientoEntity> entidades) {
+        asignarIdentificadores(entidades);
+        jdbcTemplate.batchUpdate(INSERT, entidades, tamanoLoteJdbc, (ps, entity) -> {
+            ps.setLong(1, entity.getId());
+            ps.setString(2, entity.getDescripcion());
+            ps.setBigDecimal(3, entity.getCantidad());
+            ps.setString(4, entity.getTipo().name());
+            ps.setDate(5, Date.valueOf(entity.getFecha()));
+            ps.setShort(6, entity.getCategoriaId());
+            if (entity.getNotas() == null) {
+                ps.setNull(7, Types.VARCHAR);
+            } else {
+                ps.setString(7, entity.getNotas());
+            }
+        });
+    }
+
+    /**
+     * Reserva bloques de la secuencia (una sola consulta por ronda) y reparte sus ids entre las entidades.
+     * El primer valor de la secuencia (1) cubre ids no positivos, que se descartan como hace Hibernate.
+     */
+    private void asignarIdentificadores(List<MovimientoEntity> entidades) {
+        int bloque = MovimientoEntity.ID_ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(entidades.size() + bloque);
+        while (ids.size() < entidades.size()) {
+            int bloques = (entidades.size() - ids.size() + bloque - 1) / bloque;
+            List<Long> valores = jdbcTemplate.queryForList(
+                    "SELECT NEXT VALUE FOR " + MovimientoEntity.ID_SEQUENCE + " FROM SYSTEM_RANGE(1, ?)",
+                    Long.class, bloques);
+            for (long valor : valores) {
+                for (long id = Math.max(1, valor - bloque + 1); id <= valor; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        for (int i = 0; i < entidades.size(); i++) {
+            entidades.get(i).setId(ids.get(i));
+        }
+    }
+}
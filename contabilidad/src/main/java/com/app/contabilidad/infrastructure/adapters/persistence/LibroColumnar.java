@@ -0,0 +1,519 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Copia en memoria del libro de movimientos organizada por columnas de tipos primitivos
+ * (id, día desde la época, céntimos, tipo e id de categoría) para
+ * resolver los totales con bucles sobre arrays en lugar de consultas.
+ * Se carga al arrancar y el adaptador de persistencia la mantiene al día tras cada commit. Esos cambios
+ * pueden llegar en otro orden que sus commits, así que cada fila guarda su versión y se descarta
+ * cualquier cambio que no sea posterior a la versión ya aplicada (o al borrado de la fila).
+ * Las sumas usan aritmética exacta: si desbordan lanzan ArithmeticException y el adaptador
+ * recurre a los agregados de la base de datos.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@ConditionalOnProperty(name = "contabilidad.columnar.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class LibroColumnar implements SmartInitializingSingleton {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int TAMANO_BLOQUE = 65_536;
+    private static final int TIPOS = MovimientoEntity.TipoMovimiento.values().length;
+    private static final String SELECT_MOVIMIENTOS =
+            "SELECT id, fecha, cantidad, tipo, categoria_id, version FROM movimientos";
+    // Versión de las filas cuyo cambio se aplica sin comprobar el orden
+    private static final long SIN_VERSION = Long.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Garantiza que el esquema ya está creado antes de la carga inicial
+    private final EntityManagerFactory entityManagerFactory;
+    private final DiccionarioCategorias diccionarioCategorias;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${contabilidad.columnar.umbral-paralelo:250000}")
+    private int umbralParalelo;
+
+    private int filas;
+    private long[] ids = new long[0];
+    private int[] dias = new int[0];
+    private long[] centimos = new long[0];
+    private byte[] tipos = new byte[0];
+    private short[] categorias = new short[0];
+    private long[] versiones = new long[0];
+    private int diaMinimo = Integer.MAX_VALUE;
+    private int diaMaximo = Integer.MIN_VALUE;
+    private int numeroCategorias;
+    private IndiceIds indice = new IndiceIds(CAPACIDAD_INICIAL);
+    // Se conservan entre recargas: un cambio retrasado puede llegar también después de una
+    private final BajasRecientes bajas = new BajasRecientes();
+    private volatile boolean disponible;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        cargar();
+    }
+
+    /**
+     * Carga (o recarga) todas las columnas desde la tabla de movimientos
+     */
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            disponible = false;
+            vaciar();
+            jdbcTemplate.query(SELECT_MOVIMIENTOS, rs -> {
+                guardarFila(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getBigDecimal(3),
+                        MovimientoEntity.TipoMovimiento.valueOf(rs.getString(4)), rs.getShort(5), rs.getLong(6));
+            });
+            disponible = true;
+        } catch (ArithmeticException e) {
+            // Importe fuera del rango de céntimos en long
+            vaciar();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si la copia está cargada y al día; si no, las lecturas deben ir a la base de datos
+     */
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Inserta o sustituye un movimiento (por id) salvo que la copia ya tenga esa versión o una posterior;
+     * sin versión se aplica siempre
+     */
+    public void guardar(MovimientoEntity entity) {
+        guardarTodos(List.of(entity));
+    }
+
+    /**
+     * Inserta o sustituye un lote de movimientos (por id) bajo un único bloqueo
+     */
+    public void guardarTodos(List<MovimientoEntity> entidades) {
+        lock.writeLock().lock();
+        try {
+            for (MovimientoEntity entity : entidades) {
+                guardarFila(entity.getId(), entity.getFecha(), entity.getCantidad(), entity.getTipo(),
+                        entity.getCategoriaId(), entity.getVersion() == null ? SIN_VERSION : entity.getVersion());
+            }
+        } catch (ArithmeticException e) {
+            disponible = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un movimiento borrado con la versión indicada, que se recuerda para descartar los cambios
+     * anteriores que lleguen después; la última fila ocupa su hueco para mantener las columnas compactas
+     */
+    public void eliminar(long id, long version) {
+        lock.writeLock().lock();
+        try {
+            bajas.registrar(id, version);
+            int posicion = indice.obtener(id);
+            if (posicion < 0) {
+                return;
+            }
+            int ultima = filas - 1;
+            if (posicion != ultima) {
+                ids[posicion] = ids[ultima];
+                dias[posicion] = dias[ultima];
+                centimos[posicion] = centimos[ultima];
+                tipos[posicion] = tipos[ultima];
+                categorias[posicion] = categorias[ultima];
+                versiones[posicion] = versiones[ultima];
+                indice.poner(ids[posicion], posicion);
+            }
+            indice.eliminar(id);
+            filas = ultima;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Totales por tipo
+     */
+    public TotalesMovimientos obtenerTotales() {
+        lock.readLock().lock();
+        try {
+            final byte[] t = tipos;
+            final long[] c = centimos;
+            // Disposición: [céntimos por tipo..., número de movimientos por tipo...]
+            long[] r = agregar(2 * TIPOS, (desde, hasta, parcial) -> {
+                for (int i = desde; i < hasta; i++) {
+                    parcial[t[i]] = Math.addExact(parcial[t[i]], c[i]);
+                    parcial[TIPOS + t[i]]++;
+                }
+            });
+            return aTotales(r, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totales por tipo agrupados por mes, en orden cronológico
+     */
+    public Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes() {
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, TotalesMovimientos> totalesPorMes = new LinkedHashMap<>();
+            if (filas == 0) {
+                return totalesPorMes;
+            }
+            YearMonth primerMes = YearMonth.from(LocalDate.ofEpochDay(diaMinimo));
+            int meses = (int) primerMes.until(YearMonth.from(LocalDate.ofEpochDay(diaMaximo)),
+                    ChronoUnit.MONTHS) + 1;
+            final int[] mesPorDia = mesesPorDia(primerMes, diaMinimo, diaMaximo);
+            final int base = diaMinimo;
+            final int[] d = dias;
+            final byte[] t = tipos;
+            final long[] c = centimos;
+            final int ancho = 2 * TIPOS;
+            // Disposición por mes: [céntimos por tipo..., número de movimientos por tipo...]
+            long[] r = agregar(meses * ancho, (desde, hasta, parcial) -> {
+                for (int i = desde; i < hasta; i++) {
+                    int celda = mesPorDia[d[i] - base] * ancho + t[i];
+                    parcial[celda] = Math.addExact(parcial[celda], c[i]);
+                    parcial[celda + TIPOS]++;
+                }
+            });
+            for (int mes = 0; mes < meses; mes++) {
+                TotalesMovimientos totales = aTotales(r, mes * ancho);
+                if (totales.getCantidadMovimientos() > 0) {
+                    totalesPorMes.put(primerMes.plusMonths(mes), totales);
+                }
+            }
+            return totalesPorMes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totales por tipo de cada categoría y mes de los años indicados, en orden cronológico, en una sola
+     * pasada: cada bloque acumula su matriz mes × categoría × tipo y las parciales se suman al final
+     */
+    public Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoria(int anioDesde, int anioHasta) {
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, Map<String, TotalesMovimientos>> totalesPorMes = new LinkedHashMap<>();
+            int primerDia = (int) Math.max(diaMinimo, LocalDate.of(anioDesde, 1, 1).toEpochDay());
+            int ultimoDia = (int) Math.min(diaMaximo, LocalDate.of(anioHasta, 12, 31).toEpochDay());
+            if (filas == 0 || primerDia > ultimoDia) {
+                return totalesPorMes;
+            }
+            YearMonth primerMes = YearMonth.from(LocalDate.ofEpochDay(primerDia));
+            int meses = (int) primerMes.until(YearMonth.from(LocalDate.ofEpochDay(ultimoDia)), ChronoUnit.MONTHS) + 1;
+            final int[] mesPorDia = mesesPorDia(primerMes, primerDia, ultimoDia);
+            final int base = diaMinimo;
+            final int[] d = dias;
+            final byte[] t = tipos;
+            final short[] k = categorias;
+            final long[] c = centimos;
+            final int ancho = 2 * TIPOS;
+            final int anchoMes = this.numeroCategorias * ancho;
+            // Disposición por mes y categoría: [céntimos por tipo..., número de movimientos por tipo...]
+            long[] r = agregar(meses * anchoMes, (desde, hasta, parcial) -> {
+                for (int i = desde; i < hasta; i++) {
+                    int mes = mesPorDia[d[i] - base];
+                    if (mes >= 0) {
+                        int celda = mes * anchoMes + k[i] * ancho + t[i];
+                        parcial[celda] = Math.addExact(parcial[celda], c[i]);
+                        parcial[celda + TIPOS]++;
+                    }
+                }
+            });
+            for (int mes = 0; mes < meses; mes++) {
+                Map<String, TotalesMovimientos> totalesPorCategoria = new LinkedHashMap<>();
+                for (int categoria = 0; categoria < numeroCategorias; categoria++) {
+                    TotalesMovimientos totales = aTotales(r, mes * anchoMes + categoria * ancho);
+                    if (totales.getCantidadMovimientos() > 0) {
+                        totalesPorCategoria.put(diccionarioCategorias.obtenerNombre((short) categoria), totales);
+                    }
+                }
+                if (!totalesPorCategoria.isEmpty()) {
+                    totalesPorMes.put(primerMes.plusMonths(mes), totalesPorCategoria);
+                }
+            }
+            return totalesPorMes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suma de cantidades de un tipo agrupadas por categoría
+     */
+    public Map<String, BigDecimal> obtenerTotalesPorCategoria(MovimientoEntity.TipoMovimiento tipo) {
+        lock.readLock().lock();
+        try {
+            final byte buscado = (byte) tipo.ordinal();
+            final int numeroCategorias = this.numeroCategorias;
+            final byte[] t = tipos;
+            final short[] k = categorias;
+            final long[] c = centimos;
+            // Disposición: [céntimos por categoría..., número de movimientos por categoría...]
+            long[] r = agregar(2 * numeroCategorias, (desde, hasta, parcial) -> {
+                for (int i = desde; i < hasta; i++) {
+                    if (t[i] == buscado) {
+                        parcial[k[i]] = Math.addExact(parcial[k[i]], c[i]);
+                        parcial[numeroCategorias + k[i]]++;
+                    }
+                }
+            });
+            Map<String, BigDecimal> totales = new LinkedHashMap<>();
+            for (int categoria = 0; categoria < numeroCategorias; categoria++) {
+                if (r[numeroCategorias + categoria] > 0) {
+                    totales.put(diccionarioCategorias.obtenerNombre((short) categoria), aImporte(r[categoria]));
+                }
+            }
+            return totales;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las filas en bloques, en paralelo a partir del umbral configurado, y suma los parciales
+     */
+    private long[] agregar(int ancho, Bloque bloque) {
+        int n = filas;
+        if (n < umbralParalelo) {
+            long[] resultado = new long[ancho];
+            bloque.acumular(0, n, resultado);
+            return resultado;
+        }
+        int bloques = (n + TAMANO_BLOQUE - 1) / TAMANO_BLOQUE;
+        return IntStream.range(0, bloques).parallel()
+                .mapToObj(b -> {
+                    long[] parcial = new long[ancho];
+                    bloque.acumular(b * TAMANO_BLOQUE, Math.min(n, (b + 1) * TAMANO_BLOQUE), parcial);
+                    return parcial;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < ancho; i++) {
+                        a[i] = Math.addExact(a[i], b[i]);
+                    }
+                    return a;
+                })
+                .orElseGet(() -> new long[ancho]);
+    }
+
+    /**
+     * Tabla día → índice de mes (relativo a primerMes) para el rango de días cargado;
+     * los días fuera de [primerDia, ultimoDia] quedan a -1
+     */
+    private int[] mesesPorDia(YearMonth primerMes, int primerDia, int ultimoDia) {
+        int[] mesPorDia = new int[diaMaximo - diaMinimo + 1];
+        if (primerDia > diaMinimo || ultimoDia < diaMaximo) {
+            Arrays.fill(mesPorDia, -1);
+        }
+        YearMonth mes = primerMes;
+        for (int indiceMes = 0, dia = primerDia; dia <= ultimoDia; indiceMes++, mes = mes.plusMonths(1)) {
+            int finMes = (int) Math.min(ultimoDia, mes.atEndOfMonth().toEpochDay());
+            Arrays.fill(mesPorDia, dia - diaMinimo, finMes - diaMinimo + 1, indiceMes);
+            dia = finMes + 1;
+        }
+        return mesPorDia;
+    }
+
+    private TotalesMovimientos aTotales(long[] r, int desde) {
+        int gasto = MovimientoEntity.TipoMovimiento.GASTO.ordinal();
+        int beneficio = MovimientoEntity.TipoMovimiento.BENEFICIO.ordinal();
+        return TotalesMovimientos.builder()
+                .totalGastos(aImporte(r[desde + gasto]))
+                .cantidadGastos(r[desde + TIPOS + gasto])
+                .totalBeneficios(aImporte(r[desde + beneficio]))
+                .cantidadBeneficios(r[desde + TIPOS + beneficio])
+                .build();
+    }
+
+    private BigDecimal aImporte(long valor) {
+        return BigDecimal.valueOf(valor, DomainConstants.ESCALA_IMPORTE);
+    }
+
+    /**
+     * Inserta o sustituye una fila si la versión es posterior a la que hay; debe llamarse con el bloqueo de escritura
+     */
+    private void guardarFila(long id, LocalDate fecha, BigDecimal cantidad, MovimientoEntity.TipoMovimiento tipo,
+                             short categoriaId, long version) {
+        int posicion = indice.obtener(id);
+        if (version != SIN_VERSION && (bajas.descarta(id, version)
+                || (posicion >= 0 && versiones[posicion] != SIN_VERSION && versiones[posicion] >= version))) {
+            return;
+        }
+        if (posicion < 0) {
+            asegurarCapacidad(filas + 1);
+            posicion = filas++;
+            indice.poner(id, posicion);
+        }
+        int dia = (int) fecha.toEpochDay();
+        ids[posicion] = id;
+        dias[posicion] = dia;
+        centimos[posicion] = cantidad.setScale(DomainConstants.ESCALA_IMPORTE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        tipos[posicion] = (byte) tipo.ordinal();
+        categorias[posicion] = categoriaId;
+        versiones[posicion] = version;
+        numeroCategorias = Math.max(numeroCategorias, categoriaId + 1);
+        diaMinimo = Math.min(diaMinimo, dia);
+        diaMaximo = Math.max(diaMaximo, dia);
+    }
+
+    private void asegurarCapacidad(int capacidad) {
+        if (capacidad <= ids.length) {
+            return;
+        }
+        int nueva = Math.max(CAPACIDAD_INICIAL, Math.max(capacidad, ids.length + (ids.length >> 1)));
+        ids = Arrays.copyOf(ids, nueva);
+        dias = Arrays.copyOf(dias, nueva);
+        centimos = Arrays.copyOf(centimos, nueva);
+        tipos = Arrays.copyOf(tipos, nueva);
+        categorias = Arrays.copyOf(categorias, nueva);
+        versiones = Arrays.copyOf(versiones, nueva);
+    }
+
+    private void vaciar() {
+        filas = 0;
+        ids = new long[0];
+        dias = new int[0];
+        centimos = new long[0];
+        tipos = new byte[0];
+        categorias = new short[0];
+        versiones = new long[0];
+        diaMinimo = Integer.MAX_VALUE;
+        diaMaximo = Integer.MIN_VALUE;
+        numeroCategorias = 0;
+        indice = new IndiceIds(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Agregación de un rango de filas [desde, hasta) sobre un array de parciales
+     */
+    @FunctionalInterface
+    private interface Bloque {
+        void acumular(int desde, int hasta, long[] parcial);
+    }
+
+    /**
+     * Índice id → posición con direccionamiento abierto sobre arrays primitivos,
+     * para no crear un objeto por fila. Long.MIN_VALUE marca un hueco libre.
+     */
+    static final class IndiceIds {
+        private static final long LIBRE = Long.MIN_VALUE;
+
+        private long[] claves;
+        private int[] posiciones;
+        private int tamano;
+        private int mascara;
+
+        IndiceIds(int capacidad) {
+            int huecos = Integer.highestOneBit(Math.max(16, capacidad) - 1) << 1;
+            claves = new long[huecos];
+            Arrays.fill(claves, LIBRE);
+            posiciones = new int[huecos];
+            mascara = huecos - 1;
+        }
+
+        int obtener(long id) {
+            for (int i = hueco(id); ; i = (i + 1) & mascara) {
+                if (claves[i] == id) {
+                    return posiciones[i];
+                }
+                if (claves[i] == LIBRE) {
+                    return -1;
+                }
+            }
+        }
+
+        void poner(long id, int posicion) {
+            if ((tamano + 1) * 2 > claves.length) {
+                redimensionar();
+            }
+            int i = hueco(id);
+            while (claves[i] != LIBRE && claves[i] != id) {
+                i = (i + 1) & mascara;
+            }
+            if (claves[i] == LIBRE) {
+                tamano++;
+            }
+            claves[i] = id;
+            posiciones[i] = posicion;
+        }
+
+        void eliminar(long id) {
+            int i = hueco(id);
+            while (claves[i] != id) {
+                if (claves[i] == LIBRE) {
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            // Borrado por desplazamiento hacia atrás: no deja marcas de borrado en la secuencia de sondeo
+            for (int j = (i + 1) & mascara; claves[j] != LIBRE; j = (j + 1) & mascara) {
+                int ideal = hueco(claves[j]);
+                boolean enSuSitio = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+                if (!enSuSitio) {
+                    claves[i] = claves[j];
+                    posiciones[i] = posiciones[j];
+                    i = j;
+                }
+            }
+            claves[i] = LIBRE;
+            tamano--;
+        }
+
+        private void redimensionar() {
+            long[] clavesAnteriores = claves;
+            int[] posicionesAnteriores = posiciones;
+            claves = new long[clavesAnteriores.length * 2];
+            Arrays.fill(claves, LIBRE);
+            posiciones = new int[clavesAnteriores.length * 2];
+            mascara = claves.length - 1;
+            tamano = 0;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (clavesAnteriores[i] != LIBRE) {
+                    poner(clavesAnteriores[i], posicionesAnteriores[i]);
+                }
+            }
+        }
+
+        private int hueco(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+    }
+}
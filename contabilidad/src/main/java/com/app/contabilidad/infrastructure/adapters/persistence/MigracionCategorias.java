@@ -0,0 +1,52 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Migra las bases de datos en las que movimientos.categoria era un texto libre al esquema con
+ * la tabla categorias y la clave ajena numérica movimientos.categoria_id.
+ * Se ejecuta antes de crear la factoría JPA (ver ApplicationConfig), de modo que la actualización
+ * del esquema de Hibernate ya encuentra la estructura nueva. Los agregados mensuales se descartan
+ * y se reconstruyen al arrancar, porque su clave también pasa a ser el id de la categoría.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+public class MigracionCategorias implements InitializingBean {
+    private static final String[] SENTENCIAS = {
+            "CREATE TABLE IF NOT EXISTS categorias (id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "nombre VARCHAR(100) NOT NULL UNIQUE)",
+            "INSERT INTO categorias (nombre) SELECT DISTINCT categoria FROM movimientos "
+                    + "WHERE categoria NOT IN (SELECT nombre FROM categorias)",
+            "ALTER TABLE movimientos ADD COLUMN IF NOT EXISTS categoria_id SMALLINT",
+            "UPDATE movimientos m SET categoria_id = (SELECT c.id FROM categorias c WHERE c.nombre = m.categoria)",
+            "DROP INDEX IF EXISTS idx_movimientos_categoria_fecha",
+            "ALTER TABLE movimientos DROP COLUMN categoria",
+            "ALTER TABLE movimientos ALTER COLUMN categoria_id SET NOT NULL",
+            "DROP TABLE IF EXISTS agregados_mensuales"
+    };
+
+    // Se usa el DataSource directamente: JdbcTemplate depende de la inicialización JPA
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigracionCategorias(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Integer pendiente = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) = 'MOVIMIENTOS' "
+                + "AND UPPER(COLUMN_NAME) = 'CATEGORIA'", Integer.class);
+        if (pendiente != null && pendiente > 0) {
+            for (String sentencia : SENTENCIAS) {
+                jdbcTemplate.execute(sentencia);
+            }
+        }
+    }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,10 +21,22 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "movimientos")
+@Table(name = "movimientos", indexes = {
+        @Index(name = "idx_movimientos_tipo_fecha", columnList = "tipo, fecha"),
+        @Index(name = "idx_movimientos_categoria_id_fecha", columnList = "categoria_id, fecha"),
+        @Index(name = "idx_movimientos_fecha", columnList = "fecha")
+})
 public class MovimientoEntity {
+    /**
+     * Identificadores reservados por cada acceso a la secuencia (optimizador pooled),
+     * lo que permite a Hibernate agrupar las inserciones en lotes JDBC
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+    public static final String ID_SEQUENCE = "movimientos_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -37,12 +52,31 @@ public class MovimientoEntity {
     @Column(nullable = false)
     private LocalDate fecha;
 
-    @Column(nullable = false)
-    private String categoria;
+    /**
+     * Id de la categoría; el nombre se resuelve con DiccionarioCategorias
+     */
+    @Column(name = "categoria_id", nullable = false)
+    private Short categoriaId;
+
+    // Sólo para declarar la clave ajena en el esquema; nunca se carga ni se escribe
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_movimientos_categoria"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CategoriaEntity categoria;
 
     @Column(columnDefinition = "TEXT")
     private String notas;
 
+    /**
+     * Versión para el bloqueo optimista; el valor por defecto la añade a 0 en las filas existentes
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public enum TipoMovimiento {
         GASTO, BENEFICIO
     }
@@ -1,22 +1,134 @@
 package com.app.contabilidad.infrastructure.adapters.persistence;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * Repository de Spring Data JPA para la entidad MovimientoEntity
+ * Repository de Spring Data JPA para la entidad MovimientoEntity.
+ * Los listados y recorridos de agregación devuelven proyecciones sin la columna notas (TEXT);
+ * la entidad completa solo se carga por id, para exportar y para los resultados de búsqueda.
  */
 @Repository
 public interface MovimientoJpaRepository extends JpaRepository<MovimientoEntity, Long> {
     /**
-     * Busca movimientos por tipo
+     * SELECT de la proyección de listados, al que cada consulta añade su WHERE y su ORDER BY
      */
-    List<MovimientoEntity> findByTipo(MovimientoEntity.TipoMovimiento tipo);
+    String SELECT_LISTADO = "SELECT new com.app.contabilidad.infrastructure.adapters.persistence."
+            + "MovimientoJpaRepository$FilaListado(m.id, m.fecha, m.tipo, m.categoriaId, m.cantidad, m.descripcion) "
+            + "FROM MovimientoEntity m";
 
     /**
-     * Busca movimientos por categoría
+     * Busca movimientos por tipo, sin notas
      */
-    List<MovimientoEntity> findByCategoria(String categoria);
+    @Query(SELECT_LISTADO + " WHERE m.tipo = :tipo")
+    List<FilaListado> findByTipo(@Param("tipo") MovimientoEntity.TipoMovimiento tipo);
+
+    /**
+     * Busca movimientos por id de categoría, sin notas
+     */
+    @Query(SELECT_LISTADO + " WHERE m.categoriaId = :categoriaId")
+    List<FilaListado> findByCategoriaId(@Param("categoriaId") Short categoriaId);
+
+    /**
+     * Busca movimientos en un rango de fechas, sin notas (usa idx_movimientos_fecha)
+     */
+    @Query(SELECT_LISTADO + " WHERE m.fecha BETWEEN :desde AND :hasta ORDER BY m.fecha, m.id")
+    List<FilaListado> findByFechaBetween(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Busca movimientos de un tipo en un rango de fechas, sin notas (usa idx_movimientos_tipo_fecha)
+     */
+    @Query(SELECT_LISTADO + " WHERE m.tipo = :tipo AND m.fecha BETWEEN :desde AND :hasta ORDER BY m.fecha, m.id")
+    List<FilaListado> findByTipoAndFechaBetween(@Param("tipo") MovimientoEntity.TipoMovimiento tipo,
+                                                @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Busca movimientos de una categoría en un rango de fechas, sin notas (usa idx_movimientos_categoria_id_fecha)
+     */
+    @Query(SELECT_LISTADO + " WHERE m.categoriaId = :categoriaId AND m.fecha BETWEEN :desde AND :hasta "
+            + "ORDER BY m.fecha, m.id")
+    List<FilaListado> findByCategoriaIdAndFechaBetween(@Param("categoriaId") Short categoriaId,
+                                                       @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Busca movimientos de un tipo y una categoría en un rango de fechas, sin notas
+     * (usa idx_movimientos_categoria_id_fecha)
+     */
+    @Query(SELECT_LISTADO + " WHERE m.tipo = :tipo AND m.categoriaId = :categoriaId "
+            + "AND m.fecha BETWEEN :desde AND :hasta ORDER BY m.fecha, m.id")
+    List<FilaListado> findByTipoAndCategoriaIdAndFechaBetween(@Param("tipo") MovimientoEntity.TipoMovimiento tipo,
+                                                              @Param("categoriaId") Short categoriaId,
+                                                              @Param("desde") LocalDate desde,
+                                                              @Param("hasta") LocalDate hasta);
+
+    /**
+     * Recorre todos los movimientos en orden (fecha, id) leyendo del cursor JDBC por bloques.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT m FROM MovimientoEntity m ORDER BY m.fecha, m.id")
+    Stream<MovimientoEntity> streamTodos();
+
+    /**
+     * Recorre los importes de todos los movimientos (tipo, categoría, fecha y cantidad) en orden (fecha, id).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.app.contabilidad.infrastructure.adapters.persistence."
+            + "MovimientoJpaRepository$FilaImporte(m.tipo, m.categoriaId, m.fecha, m.cantidad) "
+            + "FROM MovimientoEntity m ORDER BY m.fecha, m.id")
+    Stream<FilaImporte> streamImportes();
+
+    /**
+     * Primera página de movimientos en orden (fecha DESC, id DESC), sin notas
+     */
+    @Query(SELECT_LISTADO + " ORDER BY m.fecha DESC, m.id DESC")
+    List<FilaListado> findPrimeraPagina(Limit limit);
+
+    /**
+     * Página de movimientos posteriores al cursor (fecha, id) en orden (fecha DESC, id DESC), sin notas
+     */
+    @Query(SELECT_LISTADO + " WHERE m.fecha < :fecha OR (m.fecha = :fecha AND m.id < :id) "
+            + "ORDER BY m.fecha DESC, m.id DESC")
+    List<FilaListado> findPaginaDespuesDe(@Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    /**
+     * Notas de los movimientos indicados que las tienen, para completar una página leída sin ellas
+     */
+    @Query("SELECT new com.app.contabilidad.infrastructure.adapters.persistence."
+            + "MovimientoJpaRepository$FilaNotas(m.id, m.notas) "
+            + "FROM MovimientoEntity m WHERE m.id IN :ids AND m.notas IS NOT NULL")
+    List<FilaNotas> findNotas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Proyección de los listados: todas las columnas salvo las notas (TEXT), que solo hacen falta
+     * al editar un movimiento
+     */
+    record FilaListado(Long id, LocalDate fecha, MovimientoEntity.TipoMovimiento tipo, Short categoriaId,
+                       BigDecimal cantidad, String descripcion) {
+    }
+
+    /**
+     * Proyección de las agregaciones: solo lo necesario para sumar importes por tipo, categoría y fecha
+     */
+    record FilaImporte(MovimientoEntity.TipoMovimiento tipo, Short categoriaId, LocalDate fecha, BigDecimal cantidad) {
+    }
+
+    /**
+     * Proyección de las notas de un movimiento
+     */
+    record FilaNotas(Long id, String notas) {
+    }
 }
@@ -1,29 +1,130 @@
 package com.app.contabilidad.infrastructure.adapters.persistence;
 
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.AcumuladorImporte;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
 import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.exceptions.ConflictoVersionException;
 import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adaptador de persistencia que implementa el puerto MovimientoRepositoryPort
- * Traduce entre el dominio y JPA
+ * Traduce entre el dominio y JPA; las categorías se guardan por id y sus nombres se
+ * resuelven con DiccionarioCategorias.
+ * Las escrituras mantienen los agregados mensuales en la misma transacción, y las
+ * consultas de totales se resuelven sobre esos agregados.
+ * Si el libro columnar está habilitado, los totales se calculan sobre él y las escrituras
+ * se le aplican tras el commit, igual que al índice de búsqueda de texto; cada cambio lleva la
+ * versión de la fila para que uno que llegue después de otro más reciente no lo deshaga.
+ * Toda escritura incrementa además la versión persistida del libro (VersionLibro).
  */
 @Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
 @RequiredArgsConstructor
 public class MovimientoRepositoryAdapter implements MovimientoRepositoryPort {
+    /**
+     * Edición en una sola sentencia: H2 devuelve con OLD TABLE la fila tal como estaba antes del
+     * UPDATE, que es lo que hay que descontar de los agregados, sin una lectura previa
+     */
+    private static final String ACTUALIZAR = "UPDATE movimientos SET descripcion = :descripcion, "
+            + "cantidad = :cantidad, tipo = :tipo, fecha = :fecha, categoria_id = :categoriaId, notas = :notas, "
+            + "version = version + 1 WHERE id = :id";
+    private static final String COLUMNAS_ANTERIOR =
+            "SELECT id, cantidad, tipo, fecha, categoria_id, descripcion, version FROM OLD TABLE (";
+    // Operaciones masivas: la misma técnica sobre todas las filas que cumplen un filtro
+    private static final String ELIMINAR_MASIVO = "DELETE FROM movimientos";
+    private static final String RECATEGORIZAR_MASIVO =
+            "UPDATE movimientos SET categoria_id = :nuevaCategoriaId, version = version + 1";
+    private static final String DESPLAZAR_FECHAS_MASIVO =
+            "UPDATE movimientos SET fecha = DATEADD(DAY, :dias, fecha), version = version + 1";
+    private static final String ACTUALIZAR_VERSION_DEVOLVIENDO_ANTERIOR =
+            COLUMNAS_ANTERIOR + ACTUALIZAR + " AND version = :version)";
+    private static final String AGREGADOS_DESCUADRADOS = "Los agregados mensuales no cuadran con los movimientos "
+            + "(%d-%02d, %s); reconstrúyelos con POST /movimientos/api/agregados/reconstruir";
+
     private final MovimientoJpaRepository jpaRepository;
+    private final AgregadoMensualJpaRepository agregadoRepository;
+    private final InsercionMasivaMovimientos insercionMasiva;
+    private final EntityManager entityManager;
+    private final DiccionarioCategorias diccionarioCategorias;
+    private final IndiceBusqueda indiceBusqueda;
+    private final VersionLibro versionLibro;
+    private final Optional<LibroColumnar> libroColumnar;
 
     @Override
+    @Transactional
     public Movimiento guardar(Movimiento movimiento) {
         MovimientoEntity entity = toEntity(movimiento);
         MovimientoEntity savedEntity = jpaRepository.save(entity);
+        aplicarAgregado(savedEntity, 1);
+        sincronizarColumnar(libro -> libro.guardar(savedEntity));
+        despuesDelCommit(() -> indiceBusqueda.indexar(savedEntity));
+        incrementarVersion();
         return toDomain(savedEntity);
     }
 
+    @Override
+    @Transactional
+    public int guardarTodos(List<Movimiento> movimientos) {
+        // Inserción JDBC por lotes y un solo ajuste por agregado afectado en lugar de uno por fila
+        Map<AgregadoMensualEntity.Clave, AcumuladorImporte> deltas = new HashMap<>();
+        List<MovimientoEntity> entidades = new ArrayList<>(movimientos.size());
+        for (Movimiento movimiento : movimientos) {
+            MovimientoEntity entity = toEntity(movimiento);
+            entidades.add(entity);
+            acumularDelta(deltas, entity);
+        }
+        insercionMasiva.insertar(entidades);
+        for (int i = 0; i < movimientos.size(); i++) {
+            entidades.get(i).setVersion(0L);
+            movimientos.get(i).setId(entidades.get(i).getId());
+            movimientos.get(i).setVersion(0L);
+        }
+
+        deltas.forEach((clave, delta) -> aplicarDelta(clave.getAnio(), clave.getMes(), clave.getCategoriaId(),
+                clave.getTipo(), delta.getTotal(), delta.getCantidad()));
+        sincronizarColumnar(libro -> libro.guardarTodos(entidades));
+        despuesDelCommit(() -> indiceBusqueda.indexarTodos(entidades));
+        incrementarVersion();
+        return movimientos.size();
+    }
+
     @Override
     public Optional<Movimiento> obtenerPorId(Long id) {
         return jpaRepository.findById(id)
@@ -39,21 +140,258 @@ public class MovimientoRepositoryAdapter implements MovimientoRepositoryPort {
     }
 
     @Override
-    public Movimiento actualizar(Movimiento movimiento) {
-        MovimientoEntity entity = toEntity(movimiento);
-        MovimientoEntity updatedEntity = jpaRepository.save(entity);
-        return toDomain(updatedEntity);
+    @Transactional(readOnly = true)
+    public void recorrerImportes(Consumer<Movimiento> consumidor) {
+        // Proyección sin entidades gestionadas: no hace falta desvincular nada durante el recorrido
+        try (Stream<MovimientoJpaRepository.FilaImporte> filas = jpaRepository.streamImportes()) {
+            filas.forEach(fila -> consumidor.accept(Movimiento.builder()
+                    .tipo(Movimiento.TipoMovimiento.valueOf(fila.tipo().name()))
+                    .categoria(diccionarioCategorias.obtenerNombre(fila.categoriaId()))
+                    .fecha(fila.fecha())
+                    .cantidad(fila.cantidad())
+                    .build()));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerTodos(Consumer<Movimiento> consumidor) {
+        try (Stream<MovimientoEntity> entidades = jpaRepository.streamTodos()) {
+            entidades.forEach(entity -> {
+                consumidor.accept(toDomain(entity));
+                // Se desvincula cada entidad para que el contexto de persistencia no crezca con el recorrido
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    @Override
+    public Map<Long, String> obtenerNotas(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return jpaRepository.findNotas(ids).stream()
+                .collect(Collectors.toMap(MovimientoJpaRepository.FilaNotas::id, MovimientoJpaRepository.FilaNotas::notas));
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(CursorMovimiento despuesDe, int limite) {
+        // Se pide una fila de más para saber si existe una página siguiente
+        Limit limit = Limit.of(limite + 1);
+        List<MovimientoJpaRepository.FilaListado> filas = despuesDe == null
+                ? jpaRepository.findPrimeraPagina(limit)
+                : jpaRepository.findPaginaDespuesDe(despuesDe.getFecha(), despuesDe.getId(), limit);
+
+        return aPagina(filas, limite);
+    }
+
+    /**
+     * Convierte las filas leídas (hasta una de más) en una página con el cursor de la siguiente si la hay
+     */
+    private PaginaMovimientos aPagina(List<MovimientoJpaRepository.FilaListado> filas, int limite) {
+        List<Movimiento> movimientos = filas.stream()
+                .limit(limite)
+                .map(this::toDomain)
+                .toList();
+        CursorMovimiento siguiente = filas.size() > limite
+                ? CursorMovimiento.de(movimientos.get(movimientos.size() - 1))
+                : null;
+        return new PaginaMovimientos(movimientos, siguiente);
+    }
+
+    @Override
+    public PaginaMovimientos obtenerPagina(FiltroMovimientos filtro, CursorMovimiento despuesDe, int limite) {
+        Optional<Condiciones> condiciones = condiciones(filtro, "m", false);
+        if (condiciones.isEmpty()) {
+            return new PaginaMovimientos(List.of(), null);
+        }
+        List<String> clausulas = new ArrayList<>(condiciones.get().clausulas());
+        Map<String, Object> parametros = new HashMap<>(condiciones.get().parametros());
+        if (despuesDe != null) {
+            clausulas.add("(m.fecha < :cursorFecha OR (m.fecha = :cursorFecha AND m.id < :cursorId))");
+            parametros.put("cursorFecha", despuesDe.getFecha());
+            parametros.put("cursorId", despuesDe.getId());
+        }
+        TypedQuery<MovimientoJpaRepository.FilaListado> consulta = entityManager.createQuery(
+                MovimientoJpaRepository.SELECT_LISTADO + new Condiciones(clausulas, parametros).where()
+                        + " ORDER BY m.fecha DESC, m.id DESC", MovimientoJpaRepository.FilaListado.class);
+        parametros.forEach(consulta::setParameter);
+        return aPagina(consulta.setMaxResults(limite + 1).getResultList(), limite);
     }
 
     @Override
+    @Transactional
+    public ActualizacionMovimiento actualizar(Movimiento movimiento) {
+        if (movimiento.getVersion() == null) {
+            throw new IllegalArgumentException(DomainConstants.VERSION_REQUERIDA);
+        }
+        MovimientoEntity actualizado = toEntity(movimiento);
+        // Una sola sentencia escribe la fila (si la versión coincide) y devuelve cómo estaba
+        List<?> filas = entityManager.createNativeQuery(ACTUALIZAR_VERSION_DEVOLVIENDO_ANTERIOR)
+                .setParameter("id", actualizado.getId())
+                .setParameter("descripcion", actualizado.getDescripcion())
+                .setParameter("cantidad", actualizado.getCantidad())
+                .setParameter("tipo", actualizado.getTipo().name())
+                .setParameter("fecha", actualizado.getFecha())
+                .setParameter("categoriaId", actualizado.getCategoriaId())
+                .setParameter("notas", actualizado.getNotas())
+                .setParameter("version", movimiento.getVersion())
+                .getResultList();
+        if (filas.isEmpty()) {
+            // Solo en el caso de fallo se distingue si la fila ya no existe o tiene otra versión
+            if (jpaRepository.existsById(movimiento.getId())) {
+                throw new ConflictoVersionException(movimiento.getId());
+            }
+            throw new IllegalArgumentException(DomainConstants.MOVIMIENTO_NO_EXISTE);
+        }
+        // Una instancia gestionada en esta misma transacción se quedaría con el estado anterior
+        entityManager.detach(entityManager.getReference(MovimientoEntity.class, actualizado.getId()));
+        MovimientoEntity anterior = filaAnterior((Object[]) filas.get(0));
+        actualizado.setVersion(anterior.getVersion() + 1);
+
+        if (mismoAgregado(anterior, actualizado)) {
+            aplicarDelta(actualizado.getFecha().getYear(), actualizado.getFecha().getMonthValue(),
+                    actualizado.getCategoriaId(), actualizado.getTipo(),
+                    actualizado.getCantidad().subtract(anterior.getCantidad()), 0);
+        } else {
+            aplicarAgregado(anterior, -1);
+            aplicarAgregado(actualizado, 1);
+        }
+        sincronizarColumnar(libro -> libro.guardar(actualizado));
+        despuesDelCommit(() -> indiceBusqueda.indexar(actualizado));
+        incrementarVersion();
+        return new ActualizacionMovimiento(toDomain(anterior), toDomain(actualizado));
+    }
+
+    @Override
+    @Transactional
     public void eliminar(Long id) {
-        jpaRepository.deleteById(id);
+        jpaRepository.findById(id).ifPresent(entity -> {
+            jpaRepository.delete(entity);
+            aplicarAgregado(entity, -1);
+            sincronizarColumnar(libro -> libro.eliminar(id, entity.getVersion()));
+            despuesDelCommit(() -> indiceBusqueda.eliminar(id, entity.getVersion()));
+            incrementarVersion();
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<Movimiento> eliminar(FiltroMovimientos filtro) {
+        List<MovimientoEntity> eliminados = modificarDevolviendoAnteriores(ELIMINAR_MASIVO, filtro, Map.of());
+        if (eliminados.isEmpty()) {
+            return List.of();
+        }
+        Map<AgregadoMensualEntity.Clave, AcumuladorImporte> bajas = new HashMap<>();
+        eliminados.forEach(entity -> acumularDelta(bajas, entity));
+        aplicarDeltas(Map.of(), bajas);
+        sincronizarColumnar(libro -> eliminados.forEach(entity -> libro.eliminar(entity.getId(), entity.getVersion())));
+        despuesDelCommit(() -> eliminados.forEach(entity ->
+                indiceBusqueda.eliminar(entity.getId(), entity.getVersion())));
+        incrementarVersion();
+        return eliminados.stream().map(this::toDomain).toList();
+    }
+
+    @Override
+    @Transactional
+    public List<ActualizacionMovimiento> recategorizar(FiltroMovimientos filtro, String categoria) {
+        Short existente = diccionarioCategorias.obtenerId(categoria);
+        if (existente == null && !bloquearCoincidencia(filtro)) {
+            // Una categoría nueva solo se crea si va a tener movimientos: si no, quedaría huérfana en la lista
+            return List.of();
+        }
+        short categoriaId = existente != null ? existente : diccionarioCategorias.obtenerOCrearId(categoria);
+        return actualizarMasivo(RECATEGORIZAR_MASIVO, filtro, Map.of("nuevaCategoriaId", categoriaId),
+                entity -> entity.setCategoriaId(categoriaId));
+    }
+
+    @Override
+    @Transactional
+    public List<ActualizacionMovimiento> desplazarFechas(FiltroMovimientos filtro, int dias) {
+        return actualizarMasivo(DESPLAZAR_FECHAS_MASIVO, filtro, Map.of("dias", dias),
+                entity -> entity.setFecha(entity.getFecha().plusDays(dias)));
+    }
+
+    /**
+     * Aplica un UPDATE masivo y mantiene agregados y libro columnar a partir de las filas anteriores;
+     * el cambio reproduce sobre cada fila anterior lo que la sentencia ha hecho en la tabla.
+     * El índice de búsqueda no cambia porque descripción y notas no se tocan.
+     */
+    private List<ActualizacionMovimiento> actualizarMasivo(String sentencia, FiltroMovimientos filtro,
+                                                           Map<String, Object> parametros,
+                                                           Consumer<MovimientoEntity> cambio) {
+        List<MovimientoEntity> anteriores = modificarDevolviendoAnteriores(sentencia, filtro, parametros);
+        if (anteriores.isEmpty()) {
+            return List.of();
+        }
+        Map<AgregadoMensualEntity.Clave, AcumuladorImporte> bajas = new HashMap<>();
+        Map<AgregadoMensualEntity.Clave, AcumuladorImporte> altas = new HashMap<>();
+        List<MovimientoEntity> actualizados = new ArrayList<>(anteriores.size());
+        List<ActualizacionMovimiento> actualizaciones = new ArrayList<>(anteriores.size());
+        for (MovimientoEntity anterior : anteriores) {
+            MovimientoEntity actualizado = MovimientoEntity.builder()
+                    .id(anterior.getId())
+                    .descripcion(anterior.getDescripcion())
+                    .cantidad(anterior.getCantidad())
+                    .tipo(anterior.getTipo())
+                    .fecha(anterior.getFecha())
+                    .categoriaId(anterior.getCategoriaId())
+                    .version(anterior.getVersion() + 1)
+                    .build();
+            cambio.accept(actualizado);
+            acumularDelta(bajas, anterior);
+            acumularDelta(altas, actualizado);
+            actualizados.add(actualizado);
+            actualizaciones.add(new ActualizacionMovimiento(toDomain(anterior), toDomain(actualizado)));
+        }
+        aplicarDeltas(altas, bajas);
+        sincronizarColumnar(libro -> libro.guardarTodos(actualizados));
+        incrementarVersion();
+        return actualizaciones;
+    }
+
+    /**
+     * Indica si algún movimiento cumple el filtro y bloquea uno de ellos hasta el final de la transacción,
+     * para que el UPDATE posterior tenga al menos esa fila aunque otra transacción borre las demás
+     */
+    private boolean bloquearCoincidencia(FiltroMovimientos filtro) {
+        Optional<Condiciones> condiciones = condicionesSql(filtro);
+        if (condiciones.isEmpty()) {
+            return false;
+        }
+        Query consulta = entityManager.createNativeQuery(
+                "SELECT id FROM movimientos" + condiciones.get().where() + " LIMIT 1 FOR UPDATE");
+        condiciones.get().parametros().forEach(consulta::setParameter);
+        return !consulta.getResultList().isEmpty();
+    }
+
+    /**
+     * Ejecuta un DELETE o UPDATE sobre los movimientos que cumplen el filtro y devuelve las filas tal
+     * como estaban antes (sin notas), todo en una sola sentencia
+     */
+    private List<MovimientoEntity> modificarDevolviendoAnteriores(String sentencia, FiltroMovimientos filtro,
+                                                                  Map<String, Object> parametros) {
+        Optional<Condiciones> condiciones = condicionesSql(filtro);
+        if (condiciones.isEmpty()) {
+            return List.of();
+        }
+        Query consulta = entityManager.createNativeQuery(
+                COLUMNAS_ANTERIOR + sentencia + condiciones.get().where() + ")");
+        condiciones.get().parametros().forEach(consulta::setParameter);
+        parametros.forEach(consulta::setParameter);
+        List<?> filas = consulta.getResultList();
+        // Las entidades gestionadas en esta transacción ya no reflejan la tabla
+        entityManager.clear();
+        List<MovimientoEntity> anteriores = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            anteriores.add(filaAnterior((Object[]) fila));
+        }
+        return anteriores;
     }
 
     @Override
     public List<Movimiento> obtenerPorTipo(Movimiento.TipoMovimiento tipo) {
-        MovimientoEntity.TipoMovimiento tipoEntity = MovimientoEntity.TipoMovimiento.valueOf(tipo.name());
-        return jpaRepository.findByTipo(tipoEntity)
+        return jpaRepository.findByTipo(toEntityTipo(tipo))
                 .stream()
                 .map(this::toDomain)
                 .toList();
@@ -61,38 +399,472 @@ public class MovimientoRepositoryAdapter implements MovimientoRepositoryPort {
 
     @Override
     public List<Movimiento> obtenerPorCategoria(String categoria) {
-        return jpaRepository.findByCategoria(categoria)
+        Short categoriaId = diccionarioCategorias.obtenerId(categoria);
+        if (categoriaId == null) {
+            return List.of();
+        }
+        return jpaRepository.findByCategoriaId(categoriaId)
                 .stream()
                 .map(this::toDomain)
                 .toList();
     }
 
+    @Override
+    public List<Movimiento> obtenerPorRango(LocalDate desde, LocalDate hasta,
+                                            Movimiento.TipoMovimiento tipo, String categoria) {
+        // Una consulta por combinación de filtros para que H2 elija el índice compuesto adecuado
+        Short categoriaId = categoria == null ? null : diccionarioCategorias.obtenerId(categoria);
+        if (categoria != null && categoriaId == null) {
+            return List.of();
+        }
+        List<MovimientoJpaRepository.FilaListado> filas;
+        if (tipo == null && categoria == null) {
+            filas = jpaRepository.findByFechaBetween(desde, hasta);
+        } else if (categoria == null) {
+            filas = jpaRepository.findByTipoAndFechaBetween(toEntityTipo(tipo), desde, hasta);
+        } else if (tipo == null) {
+            filas = jpaRepository.findByCategoriaIdAndFechaBetween(categoriaId, desde, hasta);
+        } else {
+            filas = jpaRepository.findByTipoAndCategoriaIdAndFechaBetween(toEntityTipo(tipo), categoriaId, desde, hasta);
+        }
+        return filas.stream()
+                .map(this::toDomain)
+                .toList();
+    }
+
+    @Override
+    public ResultadoBusqueda buscar(String texto, int pagina, int tamano) {
+        IndiceBusqueda.Resultado resultado = indiceBusqueda.buscar(texto, pagina, tamano);
+        Map<Long, MovimientoEntity> porId = new HashMap<>();
+        List<Long> ids = new ArrayList<>(resultado.ids().length);
+        for (long id : resultado.ids()) {
+            ids.add(id);
+        }
+        jpaRepository.findAllById(ids).forEach(entity -> porId.put(entity.getId(), entity));
+
+        // Se conserva el orden de relevancia del índice
+        List<ResultadoBusqueda.Coincidencia> coincidencias = new ArrayList<>(ids.size());
+        for (int i = 0; i < resultado.ids().length; i++) {
+            MovimientoEntity entity = porId.get(resultado.ids()[i]);
+            if (entity != null) {
+                coincidencias.add(new ResultadoBusqueda.Coincidencia(toDomain(entity), resultado.puntuaciones()[i]));
+            }
+        }
+        return new ResultadoBusqueda(coincidencias, resultado.total());
+    }
+
+    @Override
+    public List<String> obtenerCategorias() {
+        return diccionarioCategorias.obtenerNombres();
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales() {
+        return leerColumnar(LibroColumnar::obtenerTotales, this::obtenerTotalesAgregados);
+    }
+
+    @Override
+    public TotalesMovimientos obtenerTotales(FiltroMovimientos filtro) {
+        // Con meses completos basta con los agregados mensuales; si no, se agrega sobre movimientos con su índice
+        boolean porMeses = filtro.abarcaMesesCompletos();
+        Optional<Condiciones> condiciones = condiciones(filtro, porMeses ? "a" : "m", porMeses);
+        TotalesMovimientos totales = new TotalesMovimientos();
+        if (condiciones.isEmpty()) {
+            return totales;
+        }
+        String jpql = porMeses
+                ? "SELECT a.tipo, SUM(a.total), SUM(a.cantidad) FROM AgregadoMensualEntity a"
+                        + condiciones.get().where() + " GROUP BY a.tipo"
+                : "SELECT m.tipo, SUM(m.cantidad), COUNT(m) FROM MovimientoEntity m"
+                        + condiciones.get().where() + " GROUP BY m.tipo";
+        TypedQuery<Object[]> consulta = entityManager.createQuery(jpql, Object[].class);
+        condiciones.get().parametros().forEach(consulta::setParameter);
+        for (Object[] fila : consulta.getResultList()) {
+            acumular(totales, (MovimientoEntity.TipoMovimiento) fila[0], (BigDecimal) fila[1], ((Number) fila[2]).longValue());
+        }
+        return totales;
+    }
+
+    @Override
+    public Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMes() {
+        return leerColumnar(LibroColumnar::obtenerTotalesPorMes, this::obtenerTotalesPorMesAgregados);
+    }
+
+    @Override
+    public Map<String, BigDecimal> obtenerTotalesPorCategoria(Movimiento.TipoMovimiento tipo) {
+        return leerColumnar(libro -> libro.obtenerTotalesPorCategoria(toEntityTipo(tipo)),
+                () -> obtenerTotalesPorCategoriaAgregados(tipo));
+    }
+
+    @Override
+    public Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoria(int anioDesde, int anioHasta) {
+        return leerColumnar(libro -> libro.obtenerTotalesPorMesYCategoria(anioDesde, anioHasta),
+                () -> obtenerTotalesPorMesYCategoriaAgregados(anioDesde, anioHasta));
+    }
+
+    /**
+     * Totales por tipo a partir de los agregados mensuales
+     */
+    TotalesMovimientos obtenerTotalesAgregados() {
+        TotalesMovimientos totales = new TotalesMovimientos();
+        agregadoRepository.sumarPorTipo().forEach(fila -> acumular(totales, fila));
+        return totales;
+    }
+
     /**
-     * Convierte una entidad JPA a una entidad de dominio
+     * Totales por tipo y mes a partir de los agregados mensuales
      */
-    private Movimiento toDomain(MovimientoEntity entity) {
+    Map<YearMonth, TotalesMovimientos> obtenerTotalesPorMesAgregados() {
+        Map<YearMonth, TotalesMovimientos> totalesPorMes = new LinkedHashMap<>();
+        for (AgregadoMensualJpaRepository.TotalMensualPorTipo fila : agregadoRepository.sumarPorMesYTipo()) {
+            TotalesMovimientos totales = totalesPorMes.computeIfAbsent(
+                    YearMonth.of(fila.getAnio(), fila.getMes()), mes -> new TotalesMovimientos());
+            acumular(totales, fila);
+        }
+        return totalesPorMes;
+    }
+
+    /**
+     * Totales por categoría a partir de los agregados mensuales
+     */
+    Map<String, BigDecimal> obtenerTotalesPorCategoriaAgregados(Movimiento.TipoMovimiento tipo) {
+        Map<String, BigDecimal> totales = new LinkedHashMap<>();
+        agregadoRepository.sumarPorCategoria(toEntityTipo(tipo))
+                .forEach(fila -> totales.put(diccionarioCategorias.obtenerNombre(fila.getCategoriaId()), fila.getTotal()));
+        return totales;
+    }
+
+    /**
+     * Totales por tipo de cada categoría y mes a partir de los agregados mensuales
+     */
+    Map<YearMonth, Map<String, TotalesMovimientos>> obtenerTotalesPorMesYCategoriaAgregados(int anioDesde, int anioHasta) {
+        Map<YearMonth, Map<String, TotalesMovimientos>> totalesPorMes = new LinkedHashMap<>();
+        for (AgregadoMensualJpaRepository.TotalMensualPorCategoria fila : agregadoRepository.obtenerPorAnios(anioDesde, anioHasta)) {
+            TotalesMovimientos totales = totalesPorMes
+                    .computeIfAbsent(YearMonth.of(fila.getAnio(), fila.getMes()), mes -> new LinkedHashMap<>())
+                    .computeIfAbsent(diccionarioCategorias.obtenerNombre(fila.getCategoriaId()), categoria -> new TotalesMovimientos());
+            acumular(totales, fila);
+        }
+        return totalesPorMes;
+    }
+
+    @Override
+    public long obtenerVersion() {
+        return versionLibro.obtener();
+    }
+
+    @Override
+    @Transactional
+    public long reconstruirAgregados() {
+        agregadoRepository.eliminarTodos();
+        sincronizarColumnar(LibroColumnar::cargar);
+        despuesDelCommit(indiceBusqueda::cargar);
+        incrementarVersion();
+        return agregadoRepository.recalcularDesdeMovimientos();
+    }
+
+    /**
+     * Comprueba al arrancar que los agregados cuadran con la tabla de movimientos
+     * (por ejemplo, en una base de datos anterior a los agregados) y los reconstruye si no
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void verificarAgregados() {
+        if (agregadoRepository.contarMovimientos() != jpaRepository.count()) {
+            reconstruirAgregados();
+        }
+    }
+
+    /**
+     * Resuelve una lectura en el libro columnar si está disponible, o en los agregados si no
+     */
+    private <T> T leerColumnar(Function<LibroColumnar, T> lectura, Supplier<T> agregados) {
+        if (libroColumnar.isPresent() && libroColumnar.get().isDisponible()) {
+            try {
+                return lectura.apply(libroColumnar.get());
+            } catch (ArithmeticException e) {
+                // Suma fuera del rango de céntimos en long: los agregados la resuelven en DECIMAL
+            }
+        }
+        return agregados.get();
+    }
+
+    /**
+     * Aplica un cambio al libro columnar cuando la transacción en curso confirma,
+     * para que un rollback no lo deje desalineado con la base de datos
+     */
+    private void sincronizarColumnar(Consumer<LibroColumnar> cambio) {
+        libroColumnar.ifPresent(libro -> despuesDelCommit(() -> cambio.accept(libro)));
+    }
+
+    /**
+     * Incrementa la versión del libro en la transacción en curso y la publica tras el commit
+     */
+    private void incrementarVersion() {
+        long version = versionLibro.incrementar();
+        despuesDelCommit(() -> versionLibro.confirmar(version));
+    }
+
+    /**
+     * Ejecuta una acción cuando la transacción en curso confirma, o en el acto si no hay transacción
+     */
+    private void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Reconstruye el estado anterior de un movimiento a partir de la fila devuelta por OLD TABLE (sin notas)
+     */
+    private static MovimientoEntity filaAnterior(Object[] fila) {
+        return MovimientoEntity.builder()
+                .id(((Number) fila[0]).longValue())
+                .cantidad((BigDecimal) fila[1])
+                .tipo(MovimientoEntity.TipoMovimiento.valueOf((String) fila[2]))
+                .fecha(fila[3] instanceof java.sql.Date fecha ? fecha.toLocalDate() : (LocalDate) fila[3])
+                .categoriaId(((Number) fila[4]).shortValue())
+                .descripcion((String) fila[5])
+                .version(((Number) fila[6]).longValue())
+                .build();
+    }
+
+    /**
+     * Indica si dos estados de un movimiento cuentan en el mismo agregado (año-mes, categoría, tipo)
+     */
+    private static boolean mismoAgregado(MovimientoEntity anterior, MovimientoEntity actualizado) {
+        return YearMonth.from(anterior.getFecha()).equals(YearMonth.from(actualizado.getFecha()))
+                && anterior.getCategoriaId().equals(actualizado.getCategoriaId())
+                && anterior.getTipo() == actualizado.getTipo();
+    }
+
+    /**
+     * Suma (signo 1) o resta (signo -1) un movimiento en su agregado (año-mes, categoría, tipo)
+     */
+    private void aplicarAgregado(MovimientoEntity entity, int signo) {
+        BigDecimal total = signo > 0 ? entity.getCantidad() : entity.getCantidad().negate();
+        aplicarDelta(entity.getFecha().getYear(), entity.getFecha().getMonthValue(),
+                entity.getCategoriaId(), entity.getTipo(), total, signo);
+    }
+
+    /**
+     * Suma un delta de importe y número de movimientos a un agregado, creándolo o eliminándolo si hace falta.
+     * Solo un delta con altas puede crear el agregado; si uno que descuenta movimientos no lo encuentra
+     * (o lo dejaría en negativo), los agregados no cuadran con la tabla y la escritura se rechaza.
+     */
+    private void aplicarDelta(int anio, int mes, Short categoriaId, MovimientoEntity.TipoMovimiento tipo,
+                              BigDecimal total, long cantidad) {
+        if (cantidad > 0) {
+            agregadoRepository.sumar(anio, mes, categoriaId, tipo.name(), total, cantidad);
+            return;
+        }
+        if (agregadoRepository.incrementar(anio, mes, categoriaId, tipo, total, cantidad) == 0) {
+            throw new IllegalStateException(String.format(AGREGADOS_DESCUADRADOS, anio, mes, tipo));
+        }
+        if (cantidad < 0) {
+            agregadoRepository.eliminarSiVacio(anio, mes, categoriaId, tipo);
+        }
+    }
+
+    /**
+     * Acumula en memoria la contribución de un movimiento a su agregado
+     */
+    private void acumularDelta(Map<AgregadoMensualEntity.Clave, AcumuladorImporte> deltas, MovimientoEntity entity) {
+        AgregadoMensualEntity.Clave clave = new AgregadoMensualEntity.Clave(entity.getFecha().getYear(),
+                entity.getFecha().getMonthValue(), entity.getCategoriaId(), entity.getTipo());
+        deltas.computeIfAbsent(clave, c -> new AcumuladorImporte()).sumar(entity.getCantidad());
+    }
+
+    /**
+     * Aplica la diferencia entre las altas y las bajas acumuladas con un solo ajuste por agregado;
+     * los agregados en los que se compensan no se tocan
+     */
+    private void aplicarDeltas(Map<AgregadoMensualEntity.Clave, AcumuladorImporte> altas,
+                               Map<AgregadoMensualEntity.Clave, AcumuladorImporte> bajas) {
+        Set<AgregadoMensualEntity.Clave> claves = new HashSet<>(altas.keySet());
+        claves.addAll(bajas.keySet());
+        AcumuladorImporte vacio = new AcumuladorImporte();
+        for (AgregadoMensualEntity.Clave clave : claves) {
+            AcumuladorImporte alta = altas.getOrDefault(clave, vacio);
+            AcumuladorImporte baja = bajas.getOrDefault(clave, vacio);
+            BigDecimal total = alta.getTotal().subtract(baja.getTotal());
+            long cantidad = alta.getCantidad() - baja.getCantidad();
+            if (cantidad != 0 || total.signum() != 0) {
+                aplicarDelta(clave.getAnio(), clave.getMes(), clave.getCategoriaId(), clave.getTipo(), total, cantidad);
+            }
+        }
+    }
+
+    /**
+     * Vuelca una fila agregada por tipo en los totales de dominio
+     */
+    private void acumular(TotalesMovimientos totales, AgregadoMensualJpaRepository.TotalPorTipo fila) {
+        acumular(totales, fila.getTipo(), fila.getTotal(), fila.getCantidad());
+    }
+
+    private void acumular(TotalesMovimientos totales, MovimientoEntity.TipoMovimiento tipo, BigDecimal total, long cantidad) {
+        if (tipo == MovimientoEntity.TipoMovimiento.GASTO) {
+            totales.setTotalGastos(total);
+            totales.setCantidadGastos(cantidad);
+        } else {
+            totales.setTotalBeneficios(total);
+            totales.setCantidadBeneficios(cantidad);
+        }
+    }
+
+    /**
+     * Condiciones JPQL de un filtro sobre movimientos (alias con campo fecha) o sobre agregados mensuales
+     * (porMeses, con campos anio y mes). Solo se incluyen los criterios presentes, para que H2 elija el índice
+     * compuesto adecuado. Vacío si la categoría no existe, en cuyo caso ningún movimiento cumple el filtro.
+     */
+    private Optional<Condiciones> condiciones(FiltroMovimientos filtro, String alias, boolean porMeses) {
+        List<String> clausulas = new ArrayList<>();
+        Map<String, Object> parametros = new HashMap<>();
+        if (filtro.getIds() != null) {
+            if (filtro.getIds().isEmpty()) {
+                return Optional.empty();
+            }
+            clausulas.add(alias + ".id IN :ids");
+            parametros.put("ids", filtro.getIds());
+        }
+        if (filtro.getCategoria() != null) {
+            Short categoriaId = diccionarioCategorias.obtenerId(filtro.getCategoria());
+            if (categoriaId == null) {
+                return Optional.empty();
+            }
+            clausulas.add(alias + ".categoriaId = :categoriaId");
+            parametros.put("categoriaId", categoriaId);
+        }
+        if (filtro.getTipo() != null) {
+            clausulas.add(alias + ".tipo = :tipo");
+            parametros.put("tipo", toEntityTipo(filtro.getTipo()));
+        }
+        if (filtro.getDesde() != null) {
+            if (porMeses) {
+                clausulas.add("(" + alias + ".anio > :anioDesde OR (" + alias + ".anio = :anioDesde AND "
+                        + alias + ".mes >= :mesDesde))");
+                parametros.put("anioDesde", filtro.getDesde().getYear());
+                parametros.put("mesDesde", filtro.getDesde().getMonthValue());
+            } else {
+                clausulas.add(alias + ".fecha >= :desde");
+                parametros.put("desde", filtro.getDesde());
+            }
+        }
+        if (filtro.getHasta() != null) {
+            if (porMeses) {
+                clausulas.add("(" + alias + ".anio < :anioHasta OR (" + alias + ".anio = :anioHasta AND "
+                        + alias + ".mes <= :mesHasta))");
+                parametros.put("anioHasta", filtro.getHasta().getYear());
+                parametros.put("mesHasta", filtro.getHasta().getMonthValue());
+            } else {
+                clausulas.add(alias + ".fecha <= :hasta");
+                parametros.put("hasta", filtro.getHasta());
+            }
+        }
+        return Optional.of(new Condiciones(clausulas, parametros));
+    }
+
+    /**
+     * Condiciones SQL de un filtro sobre la tabla movimientos, para las sentencias nativas de las
+     * operaciones masivas. Vacío si ningún movimiento puede cumplirlo.
+     */
+    private Optional<Condiciones> condicionesSql(FiltroMovimientos filtro) {
+        List<String> clausulas = new ArrayList<>();
+        Map<String, Object> parametros = new HashMap<>();
+        if (filtro.getIds() != null) {
+            if (filtro.getIds().isEmpty()) {
+                return Optional.empty();
+            }
+            clausulas.add("id IN (:ids)");
+            parametros.put("ids", filtro.getIds());
+        }
+        if (filtro.getCategoria() != null) {
+            Short categoriaId = diccionarioCategorias.obtenerId(filtro.getCategoria());
+            if (categoriaId == null) {
+                return Optional.empty();
+            }
+            clausulas.add("categoria_id = :categoriaId");
+            parametros.put("categoriaId", categoriaId);
+        }
+        if (filtro.getTipo() != null) {
+            clausulas.add("tipo = :tipo");
+            parametros.put("tipo", filtro.getTipo().name());
+        }
+        if (filtro.getDesde() != null) {
+            clausulas.add("fecha >= :desde");
+            parametros.put("desde", filtro.getDesde());
+        }
+        if (filtro.getHasta() != null) {
+            clausulas.add("fecha <= :hasta");
+            parametros.put("hasta", filtro.getHasta());
+        }
+        return Optional.of(new Condiciones(clausulas, parametros));
+    }
+
+    /**
+     * Cláusulas WHERE (unidas con AND) y valores de sus parámetros
+     */
+    private record Condiciones(List<String> clausulas, Map<String, Object> parametros) {
+        String where() {
+            return clausulas.isEmpty() ? "" : " WHERE " + String.join(" AND ", clausulas);
+        }
+    }
+
+    /**
+     * Convierte una fila de listado en una entidad de dominio sin notas
+     */
+    private Movimiento toDomain(MovimientoJpaRepository.FilaListado fila) {
+        return Movimiento.builder()
+                .id(fila.id())
+                .descripcion(fila.descripcion())
+                .cantidad(fila.cantidad())
+                .tipo(Movimiento.TipoMovimiento.valueOf(fila.tipo().name()))
+                .fecha(fila.fecha())
+                .categoria(diccionarioCategorias.obtenerNombre(fila.categoriaId()))
+                .build();
+    }
+
+    /**
+     * Convierte una entidad JPA a una entidad de dominio (visible en el paquete para los benchmarks)
+     */
+    Movimiento toDomain(MovimientoEntity entity) {
         return Movimiento.builder()
                 .id(entity.getId())
                 .descripcion(entity.getDescripcion())
                 .cantidad(entity.getCantidad())
                 .tipo(Movimiento.TipoMovimiento.valueOf(entity.getTipo().name()))
                 .fecha(entity.getFecha())
-                .categoria(entity.getCategoria())
+                .categoria(diccionarioCategorias.obtenerNombre(entity.getCategoriaId()))
                 .notas(entity.getNotas())
+                .version(entity.getVersion())
                 .build();
     }
 
     /**
-     * Convierte una entidad de dominio a una entidad JPA
+     * Convierte el tipo de dominio al tipo de la entidad JPA
+     */
+    private MovimientoEntity.TipoMovimiento toEntityTipo(Movimiento.TipoMovimiento tipo) {
+        return MovimientoEntity.TipoMovimiento.valueOf(tipo.name());
+    }
+
+    /**
+     * Convierte una entidad de dominio a una entidad JPA (visible en el paquete para los benchmarks)
      */
-    private MovimientoEntity toEntity(Movimiento domainEntity) {
+    MovimientoEntity toEntity(Movimiento domainEntity) {
         return MovimientoEntity.builder()
                 .id(domainEntity.getId())
                 .descripcion(domainEntity.getDescripcion())
                 .cantidad(domainEntity.getCantidad())
                 .tipo(MovimientoEntity.TipoMovimiento.valueOf(domainEntity.getTipo().name()))
                 .fecha(domainEntity.getFecha())
-                .categoria(domainEntity.getCategoria())
+                .categoriaId(diccionarioCategorias.obtenerOCrearId(domainEntity.getCategoria()))
                 .notas(domainEntity.getNotas())
                 .build();
     }
@@ -0,0 +1,37 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ajusta la secuencia de identificadores de movimientos en bases de datos creadas con la
+ * antigua estrategia IDENTITY, para que los nuevos identificadores no colisionen con los existentes.
+ * Se ejecuta al crear los beans, antes de que el servidor web acepte peticiones.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@RequiredArgsConstructor
+public class SecuenciaMovimientosInicializador implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+    // Garantiza que el esquema (tabla y secuencia) ya está creado
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long maximoId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM movimientos", Long.class);
+        Long siguienteValor = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)",
+                Long.class, MovimientoEntity.ID_SEQUENCE);
+
+        // Con el optimizador pooled, cada valor de la secuencia cubre los ALLOCATION_SIZE identificadores anteriores
+        long minimoSeguro = maximoId + MovimientoEntity.ID_ALLOCATION_SIZE + 1;
+        if (maximoId > 0 && siguienteValor != null && siguienteValor < minimoSeguro) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + MovimientoEntity.ID_SEQUENCE + " RESTART WITH " + minimoSeguro);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichero de segmento del diario de movimientos: un número fijo de registros de tamaño fijo,
+ * proyectado en memoria. Los registros se añaden al final y no se reescriben nunca.
+ * Un hueco a ceros marca el final de los registros escritos.
+ */
+final class SegmentoDiario implements AutoCloseable {
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".seg";
+
+    private final int numero;
+    private final Path ruta;
+    private final FileChannel canal;
+    private final MappedByteBuffer datos;
+    private final int capacidad;
+    private int usados;
+    // Primer registro escrito desde el último force, o -1 si no hay nada pendiente
+    private int pendienteDesde = -1;
+
+    private SegmentoDiario(int numero, Path ruta, FileChannel canal, MappedByteBuffer datos, int capacidad) {
+        this.numero = numero;
+        this.ruta = ruta;
+        this.canal = canal;
+        this.datos = datos;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Abre (o crea, con el tamaño completo) el segmento indicado del directorio
+     */
+    static SegmentoDiario abrir(Path directorio, int numero, int capacidad) throws IOException {
+        Path ruta = directorio.resolve(String.format("%s%06d%s", PREFIJO, numero, EXTENSION));
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long bytes = (long) capacidad * DiarioMovimientos.TAMANO_REGISTRO;
+        if (canal.size() > bytes) {
+            // Las posiciones del índice suponen que ningún segmento supera la capacidad configurada
+            canal.close();
+            throw new IllegalStateException("El segmento " + ruta.getFileName()
+                    + " tiene más registros de los configurados por segmento");
+        }
+        MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        return new SegmentoDiario(numero, ruta, canal, datos, capacidad);
+    }
+
+    /**
+     * Números de los segmentos presentes en el directorio, en orden
+     */
+    static int[] numerosEn(Path directorio) throws IOException {
+        try (var ficheros = Files.list(directorio)) {
+            return ficheros.map(fichero -> fichero.getFileName().toString())
+                    .filter(nombre -> nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION))
+                    .mapToInt(nombre -> Integer.parseInt(
+                            nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    int getNumero() {
+        return numero;
+    }
+
+    int getCapacidad() {
+        return capacidad;
+    }
+
+    int getUsados() {
+        return usados;
+    }
+
+    void setUsados(int usados) {
+        this.usados = usados;
+    }
+
+    boolean isLleno() {
+        return usados == capacidad;
+    }
+
+    /**
+     * Buffer de los datos; los accesos deben ser absolutos (sin mover la posición)
+     */
+    MappedByteBuffer getDatos() {
+        return datos;
+    }
+
+    /**
+     * Copia un registro ya codificado en el siguiente hueco libre y devuelve su número
+     */
+    int anadir(byte[] registro) {
+        int numeroRegistro = usados++;
+        datos.put(numeroRegistro * DiarioMovimientos.TAMANO_REGISTRO, registro);
+        if (pendienteDesde < 0) {
+            pendienteDesde = numeroRegistro;
+        }
+        return numeroRegistro;
+    }
+
+    /**
+     * Borra un registro (a ceros), para descartar uno incompleto tras una caída
+     */
+    void vaciar(int numeroRegistro) {
+        datos.put(numeroRegistro * DiarioMovimientos.TAMANO_REGISTRO, new byte[DiarioMovimientos.TAMANO_REGISTRO]);
+    }
+
+    /**
+     * Lleva a disco los registros añadidos desde la última vez
+     */
+    void forzar() {
+        if (pendienteDesde >= 0) {
+            datos.force(pendienteDesde * DiarioMovimientos.TAMANO_REGISTRO,
+                    (usados - pendienteDesde) * DiarioMovimientos.TAMANO_REGISTRO);
+            pendienteDesde = -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Cierra el segmento y borra su fichero
+     */
+    void borrar() throws IOException {
+        close();
+        Files.deleteIfExists(ruta);
+    }
+}
@@ -0,0 +1,65 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión persistida del libro de movimientos. Cada escritura la incrementa en su misma
+ * transacción, así que sobrevive a los reinicios y nunca retrocede; la última versión
+ * confirmada se guarda además en memoria para leerla sin ir a la base de datos.
+ * Al crear la fila se parte de la hora actual en milisegundos, de modo que una base de datos
+ * nueva no repite versiones que un cliente pudiera conservar de la anterior.
+ */
+@Component
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
+@RequiredArgsConstructor
+public class VersionLibro implements SmartInitializingSingleton {
+    private static final String SELECT = "SELECT version FROM version_libro WHERE id = ?";
+    private static final String INCREMENTAR = "UPDATE version_libro SET version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Garantiza que el esquema (tabla version_libro) ya está creado
+    private final EntityManagerFactory entityManagerFactory;
+    private final AtomicLong confirmada = new AtomicLong();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Integer filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM version_libro WHERE id = ?",
+                Integer.class, VersionLibroEntity.ID_UNICO);
+        if (filas == null || filas == 0) {
+            jdbcTemplate.update("INSERT INTO version_libro (id, version) VALUES (?, ?)",
+                    VersionLibroEntity.ID_UNICO, System.currentTimeMillis());
+        }
+        confirmada.set(jdbcTemplate.queryForObject(SELECT, Long.class, VersionLibroEntity.ID_UNICO));
+    }
+
+    /**
+     * Incrementa la versión dentro de la transacción en curso y devuelve la nueva;
+     * la fila queda bloqueada hasta el commit, así que las escrituras concurrentes se ordenan
+     */
+    public long incrementar() {
+        jdbcTemplate.update(INCREMENTAR, VersionLibroEntity.ID_UNICO);
+        return jdbcTemplate.queryForObject(SELECT, Long.class, VersionLibroEntity.ID_UNICO);
+    }
+
+    /**
+     * Da por confirmada una versión (tras el commit de la transacción que la generó)
+     */
+    public void confirmar(long version) {
+        confirmada.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Última versión confirmada
+     */
+    public long obtener() {
+        return confirmada.get();
+    }
+}
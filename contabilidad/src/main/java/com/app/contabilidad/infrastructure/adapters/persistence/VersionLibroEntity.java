@@ -0,0 +1,26 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad JPA con la versión del libro: una sola fila cuyo número crece con cada escritura.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "version_libro")
+public class VersionLibroEntity {
+    public static final int ID_UNICO = 1;
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -0,0 +1,171 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import com.app.contabilidad.domain.entities.CambioMovimiento;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptador que publica los cambios de totales a los clientes suscritos por Server-Sent Events.
+ * Cada suscriptor tiene un buffer acotado y un hilo virtual propio que lo vacía hacia su conexión,
+ * de modo que publicar nunca bloquea a quien escribe. Si un cliente lento llena su buffer, se
+ * descartan los cambios pendientes y se le envía un evento de resincronización para que vuelva
+ * a leer los totales completos.
+ */
+@Component
+public class EmisorCambios implements NotificadorCambiosPort {
+    static final String EVENTO_CAMBIO = "cambio";
+    static final String EVENTO_RESINCRONIZAR = "resincronizar";
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong desbordamientos = new AtomicLong();
+    private final int tamanoBuffer;
+    private final long timeoutMs;
+
+    public EmisorCambios(@Value("${contabilidad.sse.tamano-buffer:256}") int tamanoBuffer,
+                         @Value("${contabilidad.sse.timeout-ms:1800000}") long timeoutMs) {
+        if (tamanoBuffer <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer de eventos debe ser positivo");
+        }
+        this.tamanoBuffer = tamanoBuffer;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Registra un nuevo suscriptor y devuelve su conexión SSE
+     */
+    public SseEmitter suscribir() {
+        return suscribir(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter suscribir(SseEmitter emitter) {
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(error -> suscriptor.cerrar());
+        suscriptores.add(suscriptor);
+        Thread.ofVirtual().name("sse-suscriptor").start(suscriptor::enviar);
+        return emitter;
+    }
+
+    @Override
+    public void publicar(List<CambioMovimiento> cambios) {
+        suscriptores.forEach(suscriptor -> cambios.forEach(suscriptor::encolar));
+    }
+
+    @Override
+    public void resincronizar() {
+        suscriptores.forEach(Suscriptor::encolarResincronizacion);
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    /**
+     * Veces que el buffer de un suscriptor se ha llenado y se le ha pedido resincronizar
+     */
+    public long getDesbordamientos() {
+        return desbordamientos.get();
+    }
+
+    /**
+     * Cierra las conexiones al parar la aplicación; se hace antes del apagado ordenado del
+     * servidor, que de lo contrario esperaría a que los clientes las cerrasen
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void cerrarConexiones() {
+        suscriptores.forEach(suscriptor -> {
+            suscriptor.cerrar();
+            suscriptor.emitter.complete();
+        });
+    }
+
+    /**
+     * Conexión de un cliente con su buffer de eventos pendientes
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final ArrayDeque<CambioMovimiento> pendientes = new ArrayDeque<>();
+        private boolean resincronizar;
+        private boolean cerrado;
+
+        private Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void encolar(CambioMovimiento cambio) {
+            if (resincronizar) {
+                // Ya se le va a pedir que relea todo: los cambios sueltos sobran
+                return;
+            }
+            if (pendientes.size() == tamanoBuffer) {
+                desbordamientos.incrementAndGet();
+                encolarResincronizacion();
+                return;
+            }
+            pendientes.add(cambio);
+            notifyAll();
+        }
+
+        synchronized void encolarResincronizacion() {
+            pendientes.clear();
+            resincronizar = true;
+            notifyAll();
+        }
+
+        synchronized void cerrar() {
+            cerrado = true;
+            suscriptores.remove(this);
+            notifyAll();
+        }
+
+        /**
+         * Bucle del hilo del suscriptor: espera eventos y los escribe en su conexión
+         */
+        void enviar() {
+            try {
+                emitter.send(SseEmitter.event().comment("conectado"));
+                while (true) {
+                    CambioMovimiento cambio;
+                    boolean pedirResincronizacion;
+                    synchronized (this) {
+                        while (!cerrado && !resincronizar && pendientes.isEmpty()) {
+                            wait();
+                        }
+                        if (cerrado) {
+                            return;
+                        }
+                        pedirResincronizacion = resincronizar;
+                        resincronizar = false;
+                        cambio = pedirResincronizacion ? null : pendientes.poll();
+                    }
+                    // La escritura (que puede bloquear con un cliente lento) se hace fuera del monitor
+                    if (pedirResincronizacion) {
+                        emitter.send(SseEmitter.event().name(EVENTO_RESINCRONIZAR).data(""));
+                    } else {
+                        emitter.send(SseEmitter.event().name(EVENTO_CAMBIO).data(cambio, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Conexión cerrada por el cliente
+                cerrar();
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cerrar();
+            }
+        }
+    }
+}
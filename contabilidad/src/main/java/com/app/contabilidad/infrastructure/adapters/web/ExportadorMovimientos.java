@@ -0,0 +1,103 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Component;
+
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.domain.entities.Movimiento;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Escribe el libro completo de movimientos en CSV o NDJSON directamente sobre el flujo de salida,
+ * fila a fila, de modo que la memoria usada no depende del número de movimientos.
+ * El CSV usa las mismas columnas que la importación masiva.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportadorMovimientos {
+    private static final String CABECERA_CSV = "fecha;descripcion;cantidad;tipo;categoria;notas";
+    private static final char SEPARADOR = ';';
+
+    private final GestionarMovimientosUseCase gestionarMovimientosUseCase;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Exporta en CSV separado por ';'
+     */
+    public void escribirCsv(OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(CABECERA_CSV);
+        writer.write('\n');
+        recorrer(m -> {
+            writer.write(m.getFecha().toString());
+            writer.write(SEPARADOR);
+            writer.write(escaparCsv(m.getDescripcion()));
+            writer.write(SEPARADOR);
+            writer.write(m.getCantidad().toPlainString());
+            writer.write(SEPARADOR);
+            writer.write(m.getTipo().name());
+            writer.write(SEPARADOR);
+            writer.write(escaparCsv(m.getCategoria()));
+            writer.write(SEPARADOR);
+            writer.write(escaparCsv(m.getNotas()));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    /**
+     * Exporta en JSON delimitado por saltos de línea (un movimiento por línea)
+     */
+    public void escribirNdjson(OutputStream salida) throws IOException {
+        try (SequenceWriter writer = jsonMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(salida)) {
+            recorrer(writer::write);
+            writer.flush();
+            salida.write('\n');
+        }
+    }
+
+    private void recorrer(EscrituraMovimiento escritura) throws IOException {
+        try {
+            gestionarMovimientosUseCase.recorrerMovimientos(m -> {
+                try {
+                    escritura.escribir(m);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Entrecomilla el campo si contiene el separador, comillas o saltos de línea
+     */
+    private String escaparCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(SEPARADOR) < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface EscrituraMovimiento {
+        void escribir(Movimiento movimiento) throws IOException;
+    }
+}
@@ -0,0 +1,135 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import com.app.contabilidad.infrastructure.adapters.persistence.ContadorConsultas;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Lanza en paralelo, cada una en su propio hilo virtual, las lecturas independientes
+ * que componen una página (totales, desglose por categoría, resumen mensual, página de filas).
+ * Las tareas se agrupan en un ámbito: no sobreviven a él, el primer fallo cancela las
+ * demás y se relanza tal cual, de modo que el controlador lo trata igual que en secuencial.
+ * Con contabilidad.concurrencia.lecturas-paralelas=false se ejecutan una tras otra en el hilo
+ * de la petición.
+ */
+@Component
+public class LecturasConcurrentes implements DisposableBean {
+    private final ExecutorService ejecutor;
+
+    public LecturasConcurrentes(@Value("${contabilidad.concurrencia.lecturas-paralelas:true}") boolean paralelas) {
+        this.ejecutor = paralelas ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * Abre un ámbito en el que lanzar lecturas; debe cerrarse (try-with-resources)
+     */
+    public Ambito abrir() {
+        return new Ambito(ejecutor);
+    }
+
+    @Override
+    public void destroy() {
+        if (ejecutor != null) {
+            ejecutor.close();
+        }
+    }
+
+    /**
+     * Grupo de lecturas lanzadas juntas. Se lanzan con lanzar, se espera a todas con unir
+     * y solo entonces se leen sus resultados.
+     */
+    public static final class Ambito implements AutoCloseable {
+        private final CompletionService<Object> tareas;
+        private final List<Future<Object>> pendientes = new ArrayList<>();
+        private boolean unido;
+
+        private Ambito(ExecutorService ejecutor) {
+            this.tareas = ejecutor == null ? null : new ExecutorCompletionService<>(ejecutor);
+        }
+
+        /**
+         * Lanza una lectura y devuelve un acceso a su resultado, disponible tras unir
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Supplier<T> lanzar(Callable<T> lectura) {
+            if (tareas == null) {
+                // Modo secuencial: se ejecuta ya en el hilo de la petición
+                T valor = ejecutar(lectura);
+                return () -> valor;
+            }
+            // Las consultas de la lectura cuentan para la petición que la lanza
+            Future<Object> tarea = tareas.submit((Callable<Object>) ContadorConsultas.propagar(lectura));
+            pendientes.add(tarea);
+            return () -> {
+                if (!unido) {
+                    throw new IllegalStateException("Hay que unir el ámbito antes de leer sus resultados");
+                }
+                return (T) tarea.resultNow();
+            };
+        }
+
+        /**
+         * Espera a que terminen todas las lecturas; si una falla cancela las demás y relanza su excepción
+         */
+        public void unir() {
+            try {
+                for (int i = 0; i < pendientes.size(); i++) {
+                    Future<Object> terminada = tareas.take();
+                    try {
+                        terminada.get();
+                    } catch (ExecutionException e) {
+                        cancelar();
+                        throw relanzable(e.getCause());
+                    }
+                }
+                unido = true;
+            } catch (InterruptedException e) {
+                cancelar();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Lecturas interrumpidas", e);
+            }
+        }
+
+        /**
+         * Cancela las lecturas que sigan en curso (por ejemplo, si no se llegó a unir)
+         */
+        @Override
+        public void close() {
+            cancelar();
+        }
+
+        private void cancelar() {
+            pendientes.forEach(tarea -> tarea.cancel(true));
+        }
+
+        private static <T> T ejecutar(Callable<T> lectura) {
+            try {
+                return lectura.call();
+            } catch (Exception e) {
+                throw relanzable(e);
+            }
+        }
+
+        private static RuntimeException relanzable(Throwable causa) {
+            if (causa instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(causa);
+        }
+    }
+}
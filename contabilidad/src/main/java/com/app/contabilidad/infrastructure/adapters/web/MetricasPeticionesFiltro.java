@@ -0,0 +1,48 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import com.app.contabilidad.infrastructure.adapters.persistence.ContadorConsultas;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registra cuántos viajes a la base de datos hace cada petición HTTP (contabilidad.http.consultas),
+ * etiquetado por la ruta que la atendió, para localizar las páginas que repiten consultas
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricasPeticionesFiltro extends OncePerRequestFilter {
+    static final String METRICA_CONSULTAS = "contabilidad.http.consultas";
+    private static final String RUTA_DESCONOCIDA = "UNKNOWN";
+
+    private final MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LongAdder consultas = ContadorConsultas.iniciar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ContadorConsultas.terminar();
+            Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRICA_CONSULTAS)
+                    .description("Viajes a la base de datos por petición HTTP")
+                    .baseUnit("consultas")
+                    .tag("uri", ruta != null ? ruta.toString() : RUTA_DESCONOCIDA)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(consultas.sum());
+        }
+    }
+}
@@ -1,25 +1,56 @@
 package com.app.contabilidad.infrastructure.adapters.web;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.app.contabilidad.application.constants.ApplicationConstants;
+import com.app.contabilidad.application.dto.BusquedaMovimientosDTO;
 import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.application.dto.OperacionMasivaDTO;
+import com.app.contabilidad.application.dto.PaginaMovimientosDTO;
+import com.app.contabilidad.application.dto.PivoteCategoriasDTO;
 import com.app.contabilidad.application.dto.ResumenMovimientosDTO;
+import com.app.contabilidad.application.dto.ResultadoImportacionDTO;
+import com.app.contabilidad.application.dto.ResultadoOperacionMasivaDTO;
+import com.app.contabilidad.application.dto.SerieSaldosDTO;
 import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.application.usecases.ImportarMovimientosUseCase;
+import com.app.contabilidad.application.usecases.IngestarMovimientosUseCase;
 import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
 import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.exceptions.ConflictoVersionException;
+import com.app.contabilidad.domain.exceptions.IngestaSaturadaException;
+import com.app.contabilidad.domain.exceptions.IngestaSinConfirmarException;
 import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -31,20 +62,39 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MovimientosController {
     private final GestionarMovimientosUseCase gestionarMovimientosUseCase;
+    private final ImportarMovimientosUseCase importarMovimientosUseCase;
+    private final ExportadorMovimientos exportadorMovimientos;
+    private final LecturasConcurrentes lecturasConcurrentes;
+    private final EmisorCambios emisorCambios;
+    // Solo con contabilidad.ingesta.habilitada=true
+    private final Optional<IngestarMovimientosUseCase> ingestarMovimientosUseCase;
 
     /**
-     * Muestra la página principal con el listado de movimientos
+     * Muestra la página principal con una página del listado de movimientos (más recientes primero)
      */
     @GetMapping
-    public String listarMovimientos(Model model) {
-        List<Movimiento> movimientos = gestionarMovimientosUseCase.listarMovimientos();
-        ResumenMovimientosDTO resumen = calcularResumen(movimientos);
+    public String listarMovimientos(@RequestParam(name = InfrastructureConstants.PARAM_CURSOR, required = false) String cursor,
+                                    Model model) {
+        // Página de filas, totales y categorías son independientes: se leen a la vez
+        try (LecturasConcurrentes.Ambito ambito = lecturasConcurrentes.abrir()) {
+            Supplier<PaginaMovimientosDTO> pagina = ambito.lanzar(() -> gestionarMovimientosUseCase.listarPagina(cursor, null));
+            Supplier<ResumenMovimientosDTO> resumen = ambito.lanzar(gestionarMovimientosUseCase::obtenerResumen);
+            Supplier<List<String>> categorias = ambito.lanzar(this::obtenerCategorias);
+            ambito.unir();
 
-        model.addAttribute(ApplicationConstants.ATTR_MOVIMIENTOS, movimientos);
-        model.addAttribute(ApplicationConstants.ATTR_RESUMEN, resumen);
+            model.addAttribute(ApplicationConstants.ATTR_MOVIMIENTOS, pagina.get().getMovimientos());
+            // Saldo a fecha de cada fila: depende de la página, pero sale del índice en memoria
+            model.addAttribute(ApplicationConstants.ATTR_SALDOS, gestionarMovimientosUseCase.obtenerSaldosA(
+                    pagina.get().getMovimientos().stream().map(Movimiento::getFecha).toList()));
+            model.addAttribute(ApplicationConstants.ATTR_SIGUIENTE_CURSOR, pagina.get().getSiguiente());
+            model.addAttribute(ApplicationConstants.ATTR_RESUMEN, resumen.get());
+            // Añadimos las categorías al modelo para poder filtrar desde la vista
+            model.addAttribute(ApplicationConstants.ATTR_CATEGORIAS, categorias.get());
+        } catch (IllegalArgumentException e) {
+            return InfrastructureConstants.REDIRECT_MOVIMIENTOS;
+        }
+        model.addAttribute(ApplicationConstants.ATTR_CURSOR_ACTUAL, cursor);
         model.addAttribute(ApplicationConstants.ATTR_NUEVO, new CrearMovimientoDTO());
-        // Añadimos las categorías al modelo para poder filtrar desde la vista
-        model.addAttribute(ApplicationConstants.ATTR_CATEGORIAS, obtenerCategorias());
 
         return InfrastructureConstants.VIEW_LISTA;
     }
@@ -66,7 +116,7 @@ public class MovimientosController {
     @PostMapping
     public String crearMovimiento(@ModelAttribute CrearMovimientoDTO dto, RedirectAttributes redirectAttributes) {
         try {
-            gestionarMovimientosUseCase.crearMovimiento(dto);
+            crear(dto);
             redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_MENSAJE, DomainConstants.MOVIMIENTO_CREADO);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_ERROR, DomainConstants.ERROR_CREAR_MOVIMIENTO + e.getMessage());
@@ -96,6 +146,7 @@ public class MovimientosController {
                 .build();
 
         model.addAttribute(ApplicationConstants.ATTR_ID, id);
+        model.addAttribute(ApplicationConstants.ATTR_VERSION, m.getVersion());
         model.addAttribute(ApplicationConstants.ATTR_MOVIMIENTO, dto);
         model.addAttribute(ApplicationConstants.ATTR_TIPOS_MOVIMIENTO, Movimiento.TipoMovimiento.values());
         model.addAttribute(ApplicationConstants.ATTR_CATEGORIAS, obtenerCategorias());
@@ -103,13 +154,20 @@ public class MovimientosController {
     }
 
     /**
-     * Actualiza un movimiento
+     * Actualiza un movimiento si nadie lo ha modificado desde que se abrió el formulario (la versión
+     * viaja en un campo oculto); si no, vuelve al formulario con los datos actuales.
+     * Sin versión la petición se rechaza con 400: no hay edición sin comprobar la versión.
      */
     @PostMapping(InfrastructureConstants.ENDPOINT_EDITAR)
-    public String actualizarMovimiento(@PathVariable Long id, @ModelAttribute CrearMovimientoDTO dto, RedirectAttributes redirectAttributes) {
+    public String actualizarMovimiento(@PathVariable Long id, @ModelAttribute CrearMovimientoDTO dto,
+                                       @RequestParam Long version,
+                                       RedirectAttributes redirectAttributes) {
         try {
-            gestionarMovimientosUseCase.actualizarMovimiento(id, dto);
+            gestionarMovimientosUseCase.actualizarMovimiento(id, dto, version);
             redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_MENSAJE, DomainConstants.MOVIMIENTO_ACTUALIZADO);
+        } catch (ConflictoVersionException e) {
+            redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_ERROR, DomainConstants.MOVIMIENTO_MODIFICADO);
+            return InfrastructureConstants.REDIRECT_EDITAR;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_ERROR, DomainConstants.ERROR_ACTUALIZAR_MOVIMIENTO + e.getMessage());
         }
@@ -131,15 +189,42 @@ public class MovimientosController {
     }
 
     /**
-     * Muestra los movimientos filtrados por categoría
+     * Aplica una operación masiva a los movimientos marcados en el listado
+     */
+    @PostMapping(InfrastructureConstants.ENDPOINT_MASIVO)
+    public String operacionMasiva(@ModelAttribute OperacionMasivaDTO dto, RedirectAttributes redirectAttributes) {
+        try {
+            ResultadoOperacionMasivaDTO resultado = gestionarMovimientosUseCase.ejecutarOperacionMasiva(dto);
+            redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_MENSAJE,
+                    String.format(DomainConstants.OPERACION_MASIVA_APLICADA, resultado.getAfectados()));
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute(ApplicationConstants.ATTR_ERROR, DomainConstants.ERROR_OPERACION_MASIVA + e.getMessage());
+        }
+        return InfrastructureConstants.REDIRECT_MOVIMIENTOS;
+    }
+
+    /**
+     * Muestra una página de los movimientos de una categoría con los totales de esa categoría
      */
     @GetMapping(InfrastructureConstants.ENDPOINT_CATEGORIA)
-    public String listarPorCategoria(@PathVariable String categoria, Model model) {
-        List<Movimiento> movimientos = gestionarMovimientosUseCase.obtenerMovimientosPorCategoria(categoria);
-        ResumenMovimientosDTO resumen = calcularResumen(movimientos);
+    public String listarPorCategoria(@PathVariable String categoria,
+                                     @RequestParam(name = InfrastructureConstants.PARAM_CURSOR, required = false) String cursor,
+                                     Model model) {
+        FiltroMovimientos filtro = FiltroMovimientos.deCategoria(categoria);
+        // Una consulta agregada de la categoría y una página de sus filas, a la vez
+        try (LecturasConcurrentes.Ambito ambito = lecturasConcurrentes.abrir()) {
+            Supplier<PaginaMovimientosDTO> pagina = ambito.lanzar(() ->
+                    gestionarMovimientosUseCase.listarPagina(filtro, cursor, null));
+            Supplier<ResumenMovimientosDTO> resumen = ambito.lanzar(() -> gestionarMovimientosUseCase.obtenerResumen(filtro));
+            ambito.unir();
 
-        model.addAttribute(ApplicationConstants.ATTR_MOVIMIENTOS, movimientos);
-        model.addAttribute(ApplicationConstants.ATTR_RESUMEN, resumen);
+            model.addAttribute(ApplicationConstants.ATTR_MOVIMIENTOS, pagina.get().getMovimientos());
+            model.addAttribute(ApplicationConstants.ATTR_SIGUIENTE_CURSOR, pagina.get().getSiguiente());
+            model.addAttribute(ApplicationConstants.ATTR_RESUMEN, resumen.get());
+        } catch (IllegalArgumentException e) {
+            return InfrastructureConstants.REDIRECT_MOVIMIENTOS;
+        }
+        model.addAttribute(ApplicationConstants.ATTR_CURSOR_ACTUAL, cursor);
         model.addAttribute(ApplicationConstants.ATTR_CATEGORIA_ACTUAL, categoria);
 
         return InfrastructureConstants.VIEW_LISTA_CATEGORIA;
@@ -159,41 +244,43 @@ public class MovimientosController {
      */
     @GetMapping(InfrastructureConstants.ENDPOINT_RESUMEN_MENSUAL)
     public String mostrarResumenMensual(Model model) {
-        List<com.app.contabilidad.application.dto.ResumenMensualDTO> resumenes = gestionarMovimientosUseCase.obtenerResumenPorMes();
-        
-        // Calcular totales globales
-        java.math.BigDecimal totalGastos = resumenes.stream()
-                .map(r -> r.getTotalGastos())
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-        
-        java.math.BigDecimal totalBeneficios = resumenes.stream()
-                .map(r -> r.getTotalBeneficios())
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-        
-        java.math.BigDecimal balance = totalBeneficios.subtract(totalGastos);
-        
-        long totalMovimientos = resumenes.stream()
-                .mapToLong(r -> r.getTotalMovimientos())
-                .sum();
-        
-        model.addAttribute(ApplicationConstants.ATTR_RESUMENES_MENSUALES, resumenes);
-        model.addAttribute("totalGastosGlobal", totalGastos);
-        model.addAttribute("totalBeneficiosGlobal", totalBeneficios);
-        model.addAttribute("balanceGlobal", balance);
-        model.addAttribute("totalMovimientosGlobal", totalMovimientos);
+        // Resumen por meses y totales globales se leen a la vez
+        try (LecturasConcurrentes.Ambito ambito = lecturasConcurrentes.abrir()) {
+            Supplier<List<com.app.contabilidad.application.dto.ResumenMensualDTO>> resumenes =
+                    ambito.lanzar(gestionarMovimientosUseCase::obtenerResumenPorMes);
+            Supplier<ResumenMovimientosDTO> global = ambito.lanzar(gestionarMovimientosUseCase::obtenerResumen);
+            ambito.unir();
+
+            model.addAttribute(ApplicationConstants.ATTR_RESUMENES_MENSUALES, resumenes.get());
+            model.addAttribute("totalGastosGlobal", global.get().getTotalGastos());
+            model.addAttribute("totalBeneficiosGlobal", global.get().getTotalBeneficios());
+            model.addAttribute("balanceGlobal", global.get().getBalance());
+            model.addAttribute("totalMovimientosGlobal", global.get().getCantidadMovimientos());
+        }
         
         return InfrastructureConstants.VIEW_RESUMEN_MENSUAL;
     }
 
     /**
-     * Endpoint REST que devuelve totales por categoría para gastos (JSON)
+     * Endpoint REST que devuelve totales por categoría para gastos (JSON).
+     * Lleva como ETag la versión del libro y responde 304 si el cliente ya la tiene.
      */
     @GetMapping(InfrastructureConstants.API_ENDPOINT_ESTADISTICAS)
     @ResponseBody
-    public java.util.List<com.app.contabilidad.application.dto.CategoriaEstadisticaDTO> apiEstadisticas() {
-        var totales = gestionarMovimientosUseCase.obtenerTotalesPorCategoria(com.app.contabilidad.domain.entities.Movimiento.TipoMovimiento.GASTO);
-
-        java.math.BigDecimal totalBeneficios = gestionarMovimientosUseCase.calcularTotalBeneficios();
+    public java.util.List<com.app.contabilidad.application.dto.CategoriaEstadisticaDTO> apiEstadisticas(WebRequest request) {
+        if (sinCambios(request)) {
+            return null;
+        }
+        java.util.Map<String, java.math.BigDecimal> totales;
+        java.math.BigDecimal totalBeneficios;
+        try (LecturasConcurrentes.Ambito ambito = lecturasConcurrentes.abrir()) {
+            Supplier<java.util.Map<String, java.math.BigDecimal>> porCategoria = ambito.lanzar(() ->
+                    gestionarMovimientosUseCase.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO));
+            Supplier<java.math.BigDecimal> beneficios = ambito.lanzar(gestionarMovimientosUseCase::calcularTotalBeneficios);
+            ambito.unir();
+            totales = porCategoria.get();
+            totalBeneficios = beneficios.get();
+        }
 
         java.util.List<com.app.contabilidad.application.dto.CategoriaEstadisticaDTO> lista = new java.util.ArrayList<>();
         totales.forEach((cat, val) -> {
@@ -210,14 +297,172 @@ public class MovimientosController {
     }
 
     /**
-     * Endpoint REST que devuelve el resumen mensual (JSON)
+     * Endpoint REST que devuelve el resumen mensual (JSON), con el mismo ETag que las estadísticas
      */
     @GetMapping(InfrastructureConstants.API_ENDPOINT_RESUMEN_MENSUAL)
     @ResponseBody
-    public java.util.List<com.app.contabilidad.application.dto.ResumenMensualDTO> apiResumenMensual() {
+    public java.util.List<com.app.contabilidad.application.dto.ResumenMensualDTO> apiResumenMensual(WebRequest request) {
+        if (sinCambios(request)) {
+            return null;
+        }
         return gestionarMovimientosUseCase.obtenerResumenPorMes();
     }
 
+    /**
+     * Endpoint REST que devuelve una página de movimientos por cursor (JSON)
+     */
+    @GetMapping(InfrastructureConstants.API_ENDPOINT_MOVIMIENTOS)
+    @ResponseBody
+    public ResponseEntity<PaginaMovimientosDTO> apiMovimientos(
+            @RequestParam(name = InfrastructureConstants.PARAM_CURSOR, required = false) String cursor,
+            @RequestParam(name = InfrastructureConstants.PARAM_LIMITE, required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(gestionarMovimientosUseCase.listarPaginaConNotas(cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint REST que crea un movimiento y lo devuelve con su id (JSON, 201) una vez confirmado.
+     * Con la cola de ingesta llena responde 503 con Retry-After para que el cliente reduzca el ritmo.
+     * Si se agota la espera con el alta ya en un lote responde 202 sin cuerpo: puede acabar guardándose,
+     * así que el cliente debe comprobar el listado antes de repetirla.
+     */
+    @PostMapping(InfrastructureConstants.API_ENDPOINT_MOVIMIENTOS)
+    @ResponseBody
+    public ResponseEntity<Movimiento> apiCrearMovimiento(@RequestBody CrearMovimientoDTO dto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(crear(dto));
+        } catch (IngestaSaturadaException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, InfrastructureConstants.REINTENTO_INGESTA_SEGUNDOS)
+                    .build();
+        } catch (IngestaSinConfirmarException e) {
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint REST que busca movimientos por texto y devuelve una página ordenada por relevancia (JSON)
+     */
+    @GetMapping(InfrastructureConstants.API_ENDPOINT_BUSCAR)
+    @ResponseBody
+    public ResponseEntity<BusquedaMovimientosDTO> apiBuscar(
+            @RequestParam(name = InfrastructureConstants.PARAM_CONSULTA) String consulta,
+            @RequestParam(name = InfrastructureConstants.PARAM_PAGINA, required = false) Integer pagina,
+            @RequestParam(name = InfrastructureConstants.PARAM_LIMITE, required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(gestionarMovimientosUseCase.buscar(consulta, pagina, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint REST con la serie diaria del saldo acumulado entre dos fechas ISO (JSON)
+     */
+    @GetMapping(InfrastructureConstants.API_ENDPOINT_SALDOS)
+    @ResponseBody
+    public ResponseEntity<SerieSaldosDTO> apiSaldos(
+            @RequestParam(name = InfrastructureConstants.PARAM_DESDE, required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(name = InfrastructureConstants.PARAM_HASTA, required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            return ResponseEntity.ok(gestionarMovimientosUseCase.obtenerSerieSaldos(desde, hasta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint REST con la tabla dinámica de gastos y beneficios por categoría y mes entre dos años (JSON),
+     * con el mismo ETag que las estadísticas
+     */
+    @GetMapping(InfrastructureConstants.API_ENDPOINT_PIVOTE)
+    @ResponseBody
+    public ResponseEntity<PivoteCategoriasDTO> apiPivote(
+            @RequestParam(name = InfrastructureConstants.PARAM_DESDE, required = false) Integer desde,
+            @RequestParam(name = InfrastructureConstants.PARAM_HASTA, required = false) Integer hasta,
+            WebRequest request) {
+        if (sinCambios(request)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(gestionarMovimientosUseCase.obtenerPivoteCategorias(desde, hasta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Flujo Server-Sent Events con la variación de los totales tras cada alta, edición o borrado
+     * (evento "cambio") o el aviso de que hay que releerlos completos (evento "resincronizar")
+     */
+    @GetMapping(path = InfrastructureConstants.API_ENDPOINT_CAMBIOS, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter apiCambios() {
+        return emisorCambios.suscribir();
+    }
+
+    /**
+     * Endpoint REST que recalcula los agregados de totales desde los movimientos (JSON)
+     */
+    @PostMapping(InfrastructureConstants.API_ENDPOINT_RECONSTRUIR_AGREGADOS)
+    @ResponseBody
+    public java.util.Map<String, Long> apiReconstruirAgregados() {
+        return java.util.Map.of("agregados", gestionarMovimientosUseCase.reconstruirAgregados());
+    }
+
+    /**
+     * Endpoint REST que elimina, recategoriza o desplaza en una sola transacción los movimientos de una
+     * lista de ids y/o un filtro (JSON con el número de movimientos afectados)
+     */
+    @PostMapping(InfrastructureConstants.API_ENDPOINT_MASIVO)
+    @ResponseBody
+    public ResponseEntity<ResultadoOperacionMasivaDTO> apiOperacionMasiva(@RequestBody OperacionMasivaDTO dto) {
+        try {
+            return ResponseEntity.ok(gestionarMovimientosUseCase.ejecutarOperacionMasiva(dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint REST que importa movimientos desde un CSV subido como multipart (JSON con el resultado por filas)
+     */
+    @PostMapping(InfrastructureConstants.API_ENDPOINT_IMPORTAR)
+    @ResponseBody
+    public ResponseEntity<ResultadoImportacionDTO> apiImportar(
+            @RequestPart(InfrastructureConstants.PARAM_ARCHIVO) MultipartFile archivo) throws IOException {
+        ResultadoImportacionDTO resultado = importarMovimientosUseCase.importarCsv(
+                new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8));
+        return ResponseEntity.ok(resultado);
+    }
+
+    /**
+     * Exporta el libro completo de movimientos en CSV o NDJSON escribiendo directamente en la respuesta
+     */
+    @GetMapping(InfrastructureConstants.API_ENDPOINT_EXPORTAR)
+    public void apiExportar(@RequestParam(name = InfrastructureConstants.PARAM_FORMATO,
+                                          defaultValue = InfrastructureConstants.FORMATO_CSV) String formato,
+                            HttpServletResponse response) throws IOException {
+        if (InfrastructureConstants.FORMATO_CSV.equalsIgnoreCase(formato)) {
+            response.setContentType(InfrastructureConstants.CONTENT_TYPE_CSV);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=movimientos.csv");
+            exportadorMovimientos.escribirCsv(response.getOutputStream());
+        } else if (InfrastructureConstants.FORMATO_NDJSON.equalsIgnoreCase(formato)) {
+            response.setContentType(InfrastructureConstants.CONTENT_TYPE_NDJSON);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=movimientos.ndjson");
+            exportadorMovimientos.escribirNdjson(response.getOutputStream());
+        } else {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Formato no soportado: " + formato);
+        }
+    }
+
     /**
      * Página de inicio que redirige al listado de movimientos
      */
@@ -227,26 +472,26 @@ public class MovimientosController {
     }
 
     /**
-     * Calcula el resumen de movimientos
+     * Compara el If-None-Match de la petición con la versión del libro, que se usa como ETag fuerte.
+     * Si coinciden deja la respuesta en 304 sin llegar a consultar nada; si no, añade el ETag.
      */
-    private ResumenMovimientosDTO calcularResumen(List<Movimiento> movimientos) {
-        long gastos = movimientos.stream().filter(m -> m.getTipo() == Movimiento.TipoMovimiento.GASTO).count();
-        long beneficios = movimientos.stream().filter(m -> m.getTipo() == Movimiento.TipoMovimiento.BENEFICIO).count();
+    private boolean sinCambios(WebRequest request) {
+        return request.checkNotModified(String.valueOf(gestionarMovimientosUseCase.obtenerVersionLibro()));
+    }
 
-        return ResumenMovimientosDTO.builder()
-                .totalGastos(gestionarMovimientosUseCase.calcularTotalGastos())
-                .totalBeneficios(gestionarMovimientosUseCase.calcularTotalBeneficios())
-                .balance(gestionarMovimientosUseCase.calcularBalance())
-                .cantidadMovimientos((long) movimientos.size())
-                .cantidadGastos(gastos)
-                .cantidadBeneficios(beneficios)
-                .build();
+    /**
+     * Da de alta el movimiento a través de la cola de ingesta si está habilitada, o directamente si no
+     */
+    private Movimiento crear(CrearMovimientoDTO dto) {
+        return ingestarMovimientosUseCase.isPresent()
+                ? ingestarMovimientosUseCase.get().crearMovimiento(dto)
+                : gestionarMovimientosUseCase.crearMovimiento(dto);
     }
 
     /**
      * Obtiene las categorías disponibles
      */
     private List<String> obtenerCategorias() {
-        return List.of(ApplicationConstants.CATEGORIAS_LISTA);
+        return gestionarMovimientosUseCase.listarCategorias();
     }
 }
@@ -1,8 +1,16 @@
 package com.app.contabilidad.infrastructure.config;
 
 import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
 import com.app.contabilidad.domain.services.MovimientoService;
+import com.app.contabilidad.application.cache.CacheVersionada;
 import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.application.usecases.ImportarMovimientosUseCase;
+import com.app.contabilidad.application.usecases.IngestarMovimientosUseCase;
+import com.app.contabilidad.infrastructure.adapters.persistence.MigracionCategorias;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jpa.autoconfigure.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,13 +20,53 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ApplicationConfig {
 
+    /**
+     * La migración de esquema debe ejecutarse antes de que Hibernate actualice el esquema
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor migracionesAntesDeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor(MigracionCategorias.class);
+    }
+
     @Bean
     public MovimientoService movimientoService(MovimientoRepositoryPort repository) {
         return new MovimientoService(repository);
     }
 
     @Bean
-    public GestionarMovimientosUseCase gestionarMovimientosUseCase(MovimientoService movimientoService) {
-        return new GestionarMovimientosUseCase(movimientoService);
+    public CacheVersionada cacheResultados(MovimientoService movimientoService,
+                                           @Value("${contabilidad.cache.tamano-maximo:256}") int tamanoMaximo) {
+        // Las entradas se ligan a la versión del libro, que es también el ETag de las respuestas
+        return new CacheVersionada(tamanoMaximo, movimientoService::obtenerVersion);
+    }
+
+    @Bean
+    public GestionarMovimientosUseCase gestionarMovimientosUseCase(MovimientoService movimientoService,
+                                                                   CacheVersionada cacheResultados,
+                                                                   NotificadorCambiosPort notificadorCambios) {
+        return new GestionarMovimientosUseCase(movimientoService, cacheResultados, notificadorCambios);
+    }
+
+    @Bean
+    public ImportarMovimientosUseCase importarMovimientosUseCase(MovimientoService movimientoService,
+                                                                 CacheVersionada cacheResultados,
+                                                                 NotificadorCambiosPort notificadorCambios,
+                                                                 @Value("${contabilidad.importacion.tamano-lote:5000}") int tamanoLote) {
+        return new ImportarMovimientosUseCase(movimientoService, cacheResultados, notificadorCambios, tamanoLote);
+    }
+
+    /**
+     * Ingesta por lotes de las altas sueltas; al parar la aplicación se vuelcan las que queden en la cola
+     */
+    @Bean
+    @ConditionalOnProperty(name = "contabilidad.ingesta.habilitada", havingValue = "true")
+    public IngestarMovimientosUseCase ingestarMovimientosUseCase(GestionarMovimientosUseCase gestionarMovimientosUseCase,
+                                                                 @Value("${contabilidad.ingesta.capacidad:10000}") int capacidad,
+                                                                 @Value("${contabilidad.ingesta.tamano-lote:500}") int tamanoLote,
+                                                                 @Value("${contabilidad.ingesta.espera-maxima-ms:5}") long esperaMaximaMs,
+                                                                 @Value("${contabilidad.ingesta.espera-encolar-ms:1000}") long esperaEncolarMs,
+                                                                 @Value("${contabilidad.ingesta.espera-confirmacion-ms:10000}") long esperaConfirmacionMs) {
+        return new IngestarMovimientosUseCase(gestionarMovimientosUseCase, capacidad, tamanoLote,
+                esperaMaximaMs, esperaEncolarMs, esperaConfirmacionMs);
     }
 }
@@ -1,14 +1,17 @@
 package com.app.contabilidad.infrastructure.config;
 
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 /**
  * Registra el servlet de la consola H2 en /h2-console/* usando la clase
  * compatible con Jakarta Servlet API si está disponible en el classpath.
  */
 @Configuration
+@Profile(InfrastructureConstants.SIN_PERFIL_DIARIO)
 public class H2ConsoleConfig {
 
     @Bean
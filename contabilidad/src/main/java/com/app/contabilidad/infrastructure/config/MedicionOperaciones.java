@@ -0,0 +1,162 @@
+package com.app.contabilidad.infrastructure.config;
+
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.ResultadoBusqueda;
+import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Mide con Micrometer cada operación de MovimientoRepositoryPort y cada método público de
+ * GestionarMovimientosUseCase: un temporizador por operación (contabilidad.repositorio y
+ * contabilidad.casos-uso, con la etiqueta operacion) y, para las operaciones del puerto que
+ * devuelven movimientos, un histograma de cuántas filas materializa cada llamada
+ * (contabilidad.repositorio.filas).
+ * Se aplica como un advisor más sobre los beans (si ya son un proxy transaccional, se añade a él).
+ */
+public class MedicionOperaciones extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    static final String METRICA_REPOSITORIO = "contabilidad.repositorio";
+    static final String METRICA_CASOS_USO = "contabilidad.casos-uso";
+    static final String METRICA_FILAS = "contabilidad.repositorio.filas";
+    private static final String SIN_EXCEPCION = "none";
+
+    public MedicionOperaciones(ObjectProvider<MeterRegistry> registry) {
+        this.advisor = new DefaultPointcutAdvisor(new OperacionesMedidas(), new Medidor(registry));
+        // Se mide por fuera de la transacción, incluyendo el commit
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+
+    /**
+     * Selecciona las operaciones del puerto y los métodos públicos del caso de uso
+     */
+    private static final class OperacionesMedidas extends StaticMethodMatcherPointcut {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            if (MovimientoRepositoryPort.class.isAssignableFrom(targetClass)) {
+                return ClassUtils.hasMethod(MovimientoRepositoryPort.class, method);
+            }
+            return GestionarMovimientosUseCase.class.isAssignableFrom(targetClass)
+                    && Modifier.isPublic(method.getModifiers())
+                    && method.getDeclaringClass() == GestionarMovimientosUseCase.class;
+        }
+    }
+
+    private static final class Medidor implements MethodInterceptor {
+        private final ObjectProvider<MeterRegistry> registryProvider;
+        // Medidores de las llamadas sin excepción, que son casi todas: se evita buscarlos en el registro cada vez
+        private final Map<Method, Timer> temporizadores = new ConcurrentHashMap<>();
+        private final Map<Method, DistributionSummary> filas = new ConcurrentHashMap<>();
+        private volatile MeterRegistry registry;
+
+        private Medidor(ObjectProvider<MeterRegistry> registryProvider) {
+            this.registryProvider = registryProvider;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry meterRegistry = registry();
+            Method metodo = invocation.getMethod();
+            boolean puerto = ClassUtils.hasMethod(MovimientoRepositoryPort.class, metodo);
+            LongAdder recorridas = puerto ? contarRecorrido(invocation) : null;
+
+            Timer.Sample muestra = Timer.start(meterRegistry);
+            Object resultado;
+            try {
+                resultado = invocation.proceed();
+            } catch (Throwable e) {
+                muestra.stop(temporizador(meterRegistry, metodo, puerto, e.getClass().getSimpleName()));
+                throw e;
+            }
+            muestra.stop(temporizadores.computeIfAbsent(metodo,
+                    m -> temporizador(meterRegistry, m, puerto, SIN_EXCEPCION)));
+
+            if (puerto) {
+                long materializadas = recorridas != null ? recorridas.sum() : contarFilas(resultado);
+                if (materializadas >= 0) {
+                    filas.computeIfAbsent(metodo, m -> DistributionSummary.builder(METRICA_FILAS)
+                                    .description("Filas materializadas por llamada al puerto de movimientos")
+                                    .baseUnit("filas")
+                                    .tag("operacion", m.getName())
+                                    .publishPercentileHistogram()
+                                    .register(meterRegistry))
+                            .record(materializadas);
+                }
+            }
+            return resultado;
+        }
+
+        private MeterRegistry registry() {
+            MeterRegistry actual = registry;
+            if (actual == null) {
+                // Se resuelve en la primera llamada: los post-procesadores se crean antes que el registro
+                actual = registryProvider.getObject();
+                registry = actual;
+            }
+            return actual;
+        }
+
+        private static Timer temporizador(MeterRegistry registry, Method metodo, boolean puerto, String excepcion) {
+            return Timer.builder(puerto ? METRICA_REPOSITORIO : METRICA_CASOS_USO)
+                    .description(puerto ? "Duración de las operaciones del puerto de movimientos"
+                            : "Duración de los casos de uso de movimientos")
+                    .tag("operacion", metodo.getName())
+                    .tag("exception", excepcion)
+                    .register(registry);
+        }
+
+        /**
+         * Si la operación entrega los movimientos a un consumidor, lo envuelve para contarlos
+         */
+        @SuppressWarnings("unchecked")
+        private static LongAdder contarRecorrido(MethodInvocation invocation) {
+            Object[] argumentos = invocation.getArguments();
+            for (int i = 0; i < argumentos.length; i++) {
+                if (argumentos[i] instanceof Consumer<?> consumidor) {
+                    LongAdder contador = new LongAdder();
+                    Consumer<Movimiento> original = (Consumer<Movimiento>) consumidor;
+                    argumentos[i] = (Consumer<Movimiento>) movimiento -> {
+                        contador.increment();
+                        original.accept(movimiento);
+                    };
+                    return contador;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Número de movimientos que devuelve una operación, o -1 si no devuelve filas
+         * (totales, contadores o escrituras sin resultado)
+         */
+        private static long contarFilas(Object resultado) {
+            return switch (resultado) {
+                case Collection<?> coleccion -> coleccion.size();
+                case Optional<?> opcional -> opcional.isPresent() ? 1 : 0;
+                case Movimiento ignorado -> 1;
+                case PaginaMovimientos pagina -> pagina.getMovimientos().size();
+                case ResultadoBusqueda busqueda -> busqueda.getCoincidencias().size();
+                case null, default -> -1;
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.app.contabilidad.infrastructure.config;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.usecases.IngestarMovimientosUseCase;
+import com.app.contabilidad.infrastructure.adapters.persistence.ContadorConsultas;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Registra en Micrometer (expuesto por Actuator) las métricas de la aplicación
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Temporizadores de las operaciones del puerto y de los casos de uso, e histograma de filas
+     */
+    @Bean
+    public static MedicionOperaciones medicionOperaciones(ObjectProvider<MeterRegistry> registry) {
+        return new MedicionOperaciones(registry);
+    }
+
+    /**
+     * Envuelve el DataSource para contar los viajes a la base de datos de cada petición HTTP
+     */
+    @Bean
+    public static BeanPostProcessor contadorConsultasDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? ContadorConsultas.envolver(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheResultadosMetricas(CacheVersionada cacheResultados) {
+        return registry -> {
+            FunctionCounter.builder("contabilidad.cache.aciertos", cacheResultados, CacheVersionada::getAciertos)
+                    .description("Lecturas servidas desde la caché de resultados")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.cache.fallos", cacheResultados, CacheVersionada::getFallos)
+                    .description("Lecturas que tuvieron que recalcularse")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.cache.expulsiones", cacheResultados, CacheVersionada::getExpulsiones)
+                    .description("Entradas expulsadas por superar el tamaño máximo")
+                    .register(registry);
+            Gauge.builder("contabilidad.cache.tamano", cacheResultados, CacheVersionada::getTamano)
+                    .description("Entradas actualmente en la caché de resultados")
+                    .register(registry);
+            Gauge.builder("contabilidad.datos.version", cacheResultados, CacheVersionada::getVersion)
+                    .description("Versión de los datos (se incrementa en cada escritura)")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Métricas de la cola de ingesta, si está habilitada. La duración de cada volcado es la del caso
+     * de uso crearMovimientos (contabilidad.casos-uso) y su tamaño, el histograma de filas de guardarTodos.
+     */
+    @Bean
+    public MeterBinder ingestaMetricas(ObjectProvider<IngestarMovimientosUseCase> ingesta) {
+        return registry -> ingesta.ifAvailable(ingestar -> {
+            Gauge.builder("contabilidad.ingesta.pendientes", ingestar, IngestarMovimientosUseCase::getPendientes)
+                    .description("Altas encoladas pendientes de volcar")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.ingesta.lotes", ingestar, IngestarMovimientosUseCase::getLotes)
+                    .description("Lotes volcados a la base de datos")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.ingesta.guardados", ingestar, IngestarMovimientosUseCase::getGuardados)
+                    .description("Altas guardadas y confirmadas")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.ingesta.fallidos", ingestar, IngestarMovimientosUseCase::getFallidos)
+                    .description("Altas encoladas que no pudieron guardarse")
+                    .register(registry);
+            FunctionCounter.builder("contabilidad.ingesta.rechazados", ingestar, IngestarMovimientosUseCase::getRechazados)
+                    .description("Altas rechazadas por tener la cola llena")
+                    .register(registry);
+        });
+    }
+}
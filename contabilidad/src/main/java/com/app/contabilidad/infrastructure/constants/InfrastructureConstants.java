@@ -22,10 +22,23 @@ public final class InfrastructureConstants {
     public static final String ENDPOINT_ESTADISTICAS = "/estadisticas";
     public static final String ENDPOINT_RESUMEN_MENSUAL = "/resumen";
     public static final String ENDPOINT_INICIO = "/inicio";
+    public static final String ENDPOINT_MASIVO = "/masivo";
 
     // Endpoints API
     public static final String API_ENDPOINT_ESTADISTICAS = "/api/estadisticas";
     public static final String API_ENDPOINT_RESUMEN_MENSUAL = "/api/resumen";
+    public static final String API_ENDPOINT_MOVIMIENTOS = "/api/movimientos";
+    public static final String API_ENDPOINT_RECONSTRUIR_AGREGADOS = "/api/agregados/reconstruir";
+    public static final String API_ENDPOINT_IMPORTAR = "/api/importar";
+    public static final String API_ENDPOINT_EXPORTAR = "/api/exportar";
+    public static final String API_ENDPOINT_BUSCAR = "/api/buscar";
+    public static final String API_ENDPOINT_CAMBIOS = "/api/cambios";
+    public static final String API_ENDPOINT_SALDOS = "/api/saldos";
+    public static final String API_ENDPOINT_PIVOTE = "/api/pivote";
+    public static final String API_ENDPOINT_MASIVO = "/api/masivo";
+
+    // Segundos que se sugiere esperar (Retry-After) cuando la cola de ingesta está llena
+    public static final String REINTENTO_INGESTA_SEGUNDOS = "1";
 
     // Nombres de vistas (templates)
     public static final String VIEW_LISTA = "movimientos/lista";
@@ -37,11 +50,27 @@ public final class InfrastructureConstants {
 
     // Redirecciones
     public static final String REDIRECT_MOVIMIENTOS = "redirect:/movimientos";
+    // El {id} se expande con la variable de ruta de la petición en curso
+    public static final String REDIRECT_EDITAR = "redirect:/movimientos/{id}/editar";
     public static final String REDIRECT_INICIO = "redirect:/movimientos";
 
     // Parámetros de request
     public static final String PARAM_ID = "id";
     public static final String PARAM_CATEGORIA = "categoria";
+    public static final String PARAM_CURSOR = "after";
+    public static final String PARAM_LIMITE = "limit";
+    public static final String PARAM_CONSULTA = "q";
+    public static final String PARAM_PAGINA = "page";
+    public static final String PARAM_ARCHIVO = "archivo";
+    public static final String PARAM_FORMATO = "formato";
+    public static final String PARAM_DESDE = "desde";
+    public static final String PARAM_HASTA = "hasta";
+
+    // Formatos de exportación
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+    public static final String CONTENT_TYPE_CSV = "text/csv;charset=UTF-8";
+    public static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
 
     // Emojis y símbolos
     public static final String EMOJI_EDITAR = "✏️ Editar";
@@ -56,6 +85,11 @@ public final class InfrastructureConstants {
     public static final String EMOJI_HOGAR = "🏠 Hogar";
     public static final String EMOJI_OTROS = "📋 Otros";
 
+    // Perfiles de Spring
+    // Almacena los movimientos en el diario de segmentos en lugar de JPA + H2
+    public static final String PERFIL_DIARIO = "diario";
+    public static final String SIN_PERFIL_DIARIO = "!" + PERFIL_DIARIO;
+
     // Mensajes de confirmación
     public static final String CONFIRM_ELIMINAR = "¿Seguro que deseas eliminar este movimiento?";
 }
@@ -0,0 +1,41 @@
+package com.app.contabilidad.application.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class CacheVersionadaTest {
+
+	@Test
+	void reutilizaElValorHastaQueSeInvalida() {
+		CacheVersionada cache = new CacheVersionada(4);
+		AtomicInteger calculos = new AtomicInteger();
+
+		assertThat(cache.obtener("totales", calculos::incrementAndGet)).isEqualTo(1);
+		assertThat(cache.obtener("totales", calculos::incrementAndGet)).isEqualTo(1);
+		cache.invalidar();
+		assertThat(cache.obtener("totales", calculos::incrementAndGet)).isEqualTo(2);
+
+		assertThat(cache.getAciertos()).isEqualTo(1);
+		assertThat(cache.getFallos()).isEqualTo(2);
+		assertThat(cache.getVersion()).isEqualTo(1);
+	}
+
+	@Test
+	void expulsaLaEntradaMenosUsadaAlSuperarElTamano() {
+		CacheVersionada cache = new CacheVersionada(2);
+
+		cache.obtener("a", () -> "A");
+		cache.obtener("b", () -> "B");
+		cache.obtener("a", () -> "A2");
+		cache.obtener("c", () -> "C");
+
+		assertThat(cache.getTamano()).isEqualTo(2);
+		assertThat(cache.getExpulsiones()).isEqualTo(1);
+		assertThat(cache.obtener("a", () -> "A3")).isEqualTo("A");
+		assertThat(cache.obtener("b", () -> "B2")).isEqualTo("B2");
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.app.contabilidad.application.usecases;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CambioMovimiento;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
+import com.app.contabilidad.domain.services.MovimientoService;
+
+class GestionarMovimientosUseCaseTest {
+
+	private final MovimientoService movimientoService = mock(MovimientoService.class);
+	private final NotificadorCambiosPort notificadorCambios = mock(NotificadorCambiosPort.class);
+	private final GestionarMovimientosUseCase useCase =
+			new GestionarMovimientosUseCase(movimientoService, new CacheVersionada(8), notificadorCambios);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void publicaLoQueUnaEdicionDescuentaYLoQueSuma() {
+		Movimiento anterior = movimiento(7L, "12.40", LocalDate.of(2025, 1, 30), "Alimentación");
+		when(movimientoService.actualizarMovimiento(any()))
+				.thenAnswer(invocacion -> new ActualizacionMovimiento(anterior, invocacion.getArgument(0)));
+
+		useCase.actualizarMovimiento(7L, new CrearMovimientoDTO("Mercadona", new BigDecimal("15.00"), "gasto",
+				LocalDate.of(2025, 2, 2), "Hogar", null), 0L);
+
+		ArgumentCaptor<List<CambioMovimiento>> cambios = ArgumentCaptor.forClass(List.class);
+		verify(notificadorCambios).publicar(cambios.capture());
+		assertThat(cambios.getValue())
+				.extracting(CambioMovimiento::getMes, CambioMovimiento::getCategoria, CambioMovimiento::getCantidad)
+				.containsExactly(
+						tuple(YearMonth.of(2025, 1), "Alimentación", -1),
+						tuple(YearMonth.of(2025, 2), "Hogar", 1));
+		assertThat(cambios.getValue().get(0).getImporte()).isEqualByComparingTo("-12.40");
+		assertThat(cambios.getValue().get(1).getImporte()).isEqualByComparingTo("15.00");
+	}
+
+	@Test
+	void publicaLaBajaAlEliminar() {
+		when(movimientoService.obtenerMovimiento(3L))
+				.thenReturn(Optional.of(movimiento(3L, "60.00", LocalDate.of(2025, 2, 3), "Transporte")));
+
+		useCase.eliminarMovimiento(3L);
+
+		verify(movimientoService).eliminarMovimiento(3L);
+		verify(notificadorCambios).publicar(List.of(new CambioMovimiento(YearMonth.of(2025, 2), "Transporte",
+				Movimiento.TipoMovimiento.GASTO, new BigDecimal("-60.00"), -1)));
+	}
+
+	private Movimiento movimiento(Long id, String cantidad, LocalDate fecha, String categoria) {
+		return Movimiento.builder()
+				.id(id)
+				.descripcion("Movimiento " + id)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(fecha)
+				.categoria(categoria)
+				.build();
+	}
+}
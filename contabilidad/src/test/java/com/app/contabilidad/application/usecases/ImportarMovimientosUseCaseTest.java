@@ -0,0 +1,66 @@
+package com.app.contabilidad.application.usecases;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.dto.ResultadoImportacionDTO;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
+import com.app.contabilidad.domain.services.MovimientoService;
+
+class ImportarMovimientosUseCaseTest {
+
+	private final MovimientoService movimientoService = mock(MovimientoService.class);
+	private final CacheVersionada cache = new CacheVersionada(8);
+	private final NotificadorCambiosPort notificadorCambios = mock(NotificadorCambiosPort.class);
+	private final List<Movimiento> guardados = new ArrayList<>();
+
+	@Test
+	void importaEnLotesEInformaLasFilasNoValidas() throws Exception {
+		when(movimientoService.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			List<Movimiento> lote = invocacion.getArgument(0);
+			guardados.addAll(lote);
+			return lote.size();
+		});
+		ImportarMovimientosUseCase useCase = new ImportarMovimientosUseCase(movimientoService, cache, notificadorCambios, 2);
+
+		String csv = """
+				fecha;descripcion;cantidad;tipo;categoria;notas
+				2025-01-02;Mercadona;-45,30;;Alimentación;
+				31/01/2025;Nómina;1.500,00;;Otros;enero
+				2025-02-30;Fecha imposible;10;GASTO;Hogar;
+				2025-02-03;"Luz; febrero";60.10;GASTO;Servicios;
+				2025-02-04;Sin cantidad;0;GASTO;Hogar;
+				""";
+		ResultadoImportacionDTO resultado = useCase.importarCsv(new StringReader(csv));
+
+		assertThat(resultado.getFilasProcesadas()).isEqualTo(5);
+		assertThat(resultado.getImportadas()).isEqualTo(3);
+		assertThat(resultado.getRechazadas()).isEqualTo(2);
+		assertThat(resultado.getErrores()).extracting(ResultadoImportacionDTO.ErrorFila::getFila).containsExactly(4L, 6L);
+		verify(movimientoService, times(2)).crearMovimientos(anyList());
+
+		assertThat(guardados).extracting(Movimiento::getTipo).containsExactly(
+				Movimiento.TipoMovimiento.GASTO, Movimiento.TipoMovimiento.BENEFICIO, Movimiento.TipoMovimiento.GASTO);
+		assertThat(guardados.get(0).getCantidad()).isEqualByComparingTo(new BigDecimal("45.30"));
+		assertThat(guardados.get(1).getFecha()).isEqualTo(LocalDate.of(2025, 1, 31));
+		assertThat(guardados.get(2).getDescripcion()).isEqualTo("Luz; febrero");
+		// La caché se invalida tras cada lote guardado; la resincronización se avisa una sola vez
+		assertThat(cache.getVersion()).isEqualTo(2);
+		verify(notificadorCambios).resincronizar();
+	}
+
+}
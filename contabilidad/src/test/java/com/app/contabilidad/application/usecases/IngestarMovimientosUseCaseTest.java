@@ -0,0 +1,148 @@
+package com.app.contabilidad.application.usecases;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.exceptions.IngestaSaturadaException;
+import com.app.contabilidad.domain.exceptions.IngestaSinConfirmarException;
+
+class IngestarMovimientosUseCaseTest {
+
+	private final GestionarMovimientosUseCase gestionarMovimientosUseCase = mock(GestionarMovimientosUseCase.class);
+	private final List<Integer> tamanosLote = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicLong ultimoId = new AtomicLong();
+
+	@Test
+	void agrupaLasAltasEnLotesYConfirmaCadaUnaConSuId() throws Exception {
+		when(gestionarMovimientosUseCase.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			List<Movimiento> lote = invocacion.getArgument(0);
+			if (lote.stream().anyMatch(m -> m.getDescripcion().equals("Rechazado"))) {
+				throw new IllegalArgumentException("Descripción no admitida");
+			}
+			tamanosLote.add(lote.size());
+			lote.forEach(m -> m.setId(ultimoId.incrementAndGet()));
+			return lote.size();
+		});
+
+		List<CompletableFuture<Movimiento>> confirmaciones = new ArrayList<>();
+		CompletableFuture<Movimiento> rechazada;
+		try (IngestarMovimientosUseCase ingesta = new IngestarMovimientosUseCase(gestionarMovimientosUseCase,
+				1000, 50, 200, 0, 5000)) {
+			for (int i = 0; i < 120; i++) {
+				confirmaciones.add(ingesta.encolar(movimiento("Alta " + i)));
+			}
+			rechazada = ingesta.encolar(movimiento("Rechazado"));
+			for (CompletableFuture<Movimiento> confirmacion : confirmaciones) {
+				assertThat(confirmacion.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+			}
+			assertThatThrownBy(() -> rechazada.get(5, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(IllegalArgumentException.class);
+
+			assertThat(ingesta.getGuardados()).isEqualTo(120);
+			assertThat(ingesta.getFallidos()).isEqualTo(1);
+			assertThatThrownBy(() -> ingesta.encolar(movimiento(" ")))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		// Las 120 altas caben en 3 lotes; el del rechazado se repite alta por alta
+		assertThat(tamanosLote.stream().mapToInt(Integer::intValue).sum()).isEqualTo(120);
+		assertThat(tamanosLote.subList(0, 2)).containsExactly(50, 50);
+		assertThat(confirmaciones.stream().map(c -> c.join().getId()).distinct()).hasSize(120);
+	}
+
+	@Test
+	void rechazaLasAltasConLaColaLlenaYVuelcaLasPendientesAlCerrar() throws Exception {
+		CountDownLatch volcando = new CountDownLatch(1);
+		CountDownLatch continuar = new CountDownLatch(1);
+		when(gestionarMovimientosUseCase.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			volcando.countDown();
+			continuar.await();
+			List<Movimiento> lote = invocacion.getArgument(0);
+			tamanosLote.add(lote.size());
+			return lote.size();
+		});
+
+		IngestarMovimientosUseCase ingesta = new IngestarMovimientosUseCase(gestionarMovimientosUseCase,
+				2, 10, 0, 10, 5000);
+		CompletableFuture<Movimiento> primera = ingesta.encolar(movimiento("Primera"));
+		assertThat(volcando.await(5, TimeUnit.SECONDS)).isTrue();
+		// Mientras se vuelca la primera, la cola (capacidad 2) se llena
+		ingesta.encolar(movimiento("Segunda"));
+		CompletableFuture<Movimiento> tercera = ingesta.encolar(movimiento("Tercera"));
+		assertThat(ingesta.getPendientes()).isEqualTo(2);
+		assertThatThrownBy(() -> ingesta.encolar(movimiento("Cuarta")))
+				.isInstanceOf(IngestaSaturadaException.class);
+		assertThat(ingesta.getRechazados()).isEqualTo(1);
+
+		continuar.countDown();
+		ingesta.close();
+
+		assertThat(primera).isCompleted();
+		assertThat(tercera).isCompleted();
+		assertThat(tamanosLote).containsExactly(1, 2);
+		assertThatThrownBy(() -> ingesta.encolar(movimiento("Tarde")))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void laEsperaDeLaConfirmacionEstaAcotadaYRetiraLasAltasQueSiguenEnLaCola() throws Exception {
+		CountDownLatch continuar = new CountDownLatch(1);
+		when(gestionarMovimientosUseCase.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			continuar.await();
+			List<Movimiento> lote = invocacion.getArgument(0);
+			tamanosLote.add(lote.size());
+			return lote.size();
+		});
+
+		try (IngestarMovimientosUseCase ingesta = new IngestarMovimientosUseCase(gestionarMovimientosUseCase,
+				10, 10, 0, 10, 200)) {
+			// El volcado de la primera se queda bloqueado: ya está en un lote y no se sabe si se guardará
+			assertThatThrownBy(() -> ingesta.crearMovimiento(dto("Bloqueada")))
+					.isInstanceOf(IngestaSinConfirmarException.class)
+					.hasMessage(DomainConstants.INGESTA_SIN_CONFIRMAR);
+			// La segunda sigue en la cola al agotarse la espera: se retira y se rechaza como saturación
+			assertThatThrownBy(() -> ingesta.crearMovimiento(dto("Retirada")))
+					.isInstanceOf(IngestaSaturadaException.class);
+			assertThat(ingesta.getPendientes()).isZero();
+			assertThat(ingesta.getRechazados()).isEqualTo(1);
+			continuar.countDown();
+		}
+
+		assertThat(tamanosLote).containsExactly(1);
+	}
+
+	private static CrearMovimientoDTO dto(String descripcion) {
+		return new CrearMovimientoDTO(descripcion, new BigDecimal("9.99"), "GASTO", LocalDate.of(2025, 3, 14),
+				"Otros", null);
+	}
+
+	private static Movimiento movimiento(String descripcion) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal("9.99"))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(LocalDate.of(2025, 3, 14))
+				.categoria("Otros")
+				.build();
+	}
+}
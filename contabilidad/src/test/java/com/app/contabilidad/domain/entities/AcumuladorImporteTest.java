@@ -0,0 +1,44 @@
+package com.app.contabilidad.domain.entities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class AcumuladorImporteTest {
+
+	@Test
+	void sumaEnCentimosConResultadoExacto() {
+		AcumuladorImporte acumulador = new AcumuladorImporte();
+
+		acumulador.sumar(new BigDecimal("10.50"));
+		acumulador.sumar(new BigDecimal("0.05"));
+		acumulador.sumar(new BigDecimal("7"));
+
+		assertThat(acumulador.getTotal()).isEqualTo(new BigDecimal("17.55"));
+		assertThat(acumulador.getCantidad()).isEqualTo(3);
+	}
+
+	@Test
+	void pasaABigDecimalSiLaSumaDesborda() {
+		AcumuladorImporte acumulador = new AcumuladorImporte();
+		BigDecimal maximo = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+		acumulador.sumar(maximo);
+		acumulador.sumar(new BigDecimal("0.01"));
+
+		assertThat(acumulador.getTotal()).isEqualByComparingTo(maximo.add(new BigDecimal("0.01")));
+		assertThat(acumulador.getCantidad()).isEqualTo(2);
+	}
+
+	@Test
+	void pasaABigDecimalConFraccionesDeCentimo() {
+		AcumuladorImporte acumulador = new AcumuladorImporte();
+
+		acumulador.sumar(new BigDecimal("1.25"));
+		acumulador.sumar(new BigDecimal("0.005"));
+
+		assertThat(acumulador.getTotal()).isEqualByComparingTo("1.255");
+	}
+}
@@ -0,0 +1,85 @@
+package com.app.contabilidad.domain.entities;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class IndiceSaldosTest {
+
+	@Test
+	void calculaSaldoAFechaYFlujoEntreFechas() {
+		IndiceSaldos indice = new IndiceSaldos();
+		indice.anadir(movimiento("1500.00", Movimiento.TipoMovimiento.BENEFICIO, LocalDate.of(2025, 1, 31)));
+		indice.anadir(movimiento("12.40", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 3)));
+		indice.anadir(movimiento("60.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 3)));
+
+		assertThat(indice.saldoA(LocalDate.of(2025, 1, 30))).isZero();
+		assertThat(indice.saldoA(LocalDate.of(2025, 2, 2))).isEqualTo(150000);
+		assertThat(indice.saldoA(LocalDate.of(2025, 2, 3))).isEqualTo(142760);
+		assertThat(indice.saldoA(LocalDate.of(2099, 1, 1))).isEqualTo(142760);
+		assertThat(indice.flujoEntre(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28))).isEqualTo(-7240);
+		assertThat(indice.saldosDiarios(LocalDate.of(2025, 1, 30), LocalDate.of(2025, 2, 4)))
+				.containsExactly(0, 150000, 150000, 150000, 142760, 142760);
+
+		indice.quitar(movimiento("60.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 3)));
+		assertThat(indice.saldoA(LocalDate.of(2025, 2, 3))).isEqualTo(148760);
+	}
+
+	@Test
+	void coincideConLaSumaExhaustivaAunqueCrezcaHaciaAmbosLados() {
+		SplittableRandom random = new SplittableRandom(19);
+		IndiceSaldos indice = new IndiceSaldos();
+		LocalDate base = LocalDate.of(2025, 6, 1);
+		List<LocalDate> dias = new ArrayList<>();
+		List<Long> importes = new ArrayList<>();
+
+		for (int i = 0; i < 5000; i++) {
+			// Fechas cada vez más alejadas para que el intervalo cubierto crezca por los dos extremos
+			LocalDate dia = base.plusDays(random.nextInt(-(i + 10), i + 10));
+			long centimos = random.nextLong(-500_000, 500_000);
+			indice.sumar(dia, centimos);
+			dias.add(dia);
+			importes.add(centimos);
+
+			if (i % 97 == 0) {
+				LocalDate consulta = base.plusDays(random.nextInt(-6000, 6000));
+				assertThat(indice.saldoA(consulta)).isEqualTo(sumaHasta(dias, importes, consulta));
+			}
+		}
+
+		LocalDate desde = base.minusDays(40);
+		LocalDate hasta = base.plusDays(40);
+		long[] saldos = indice.saldosDiarios(desde, hasta);
+		for (int i = 0; i < saldos.length; i++) {
+			assertThat(saldos[i]).isEqualTo(sumaHasta(dias, importes, desde.plusDays(i)));
+		}
+		assertThat(indice.flujoEntre(desde, hasta))
+				.isEqualTo(sumaHasta(dias, importes, hasta) - sumaHasta(dias, importes, desde.minusDays(1)));
+	}
+
+	private static long sumaHasta(List<LocalDate> dias, List<Long> importes, LocalDate hasta) {
+		long suma = 0;
+		for (int i = 0; i < dias.size(); i++) {
+			if (!dias.get(i).isAfter(hasta)) {
+				suma += importes.get(i);
+			}
+		}
+		return suma;
+	}
+
+	private static Movimiento movimiento(String cantidad, Movimiento.TipoMovimiento tipo, LocalDate fecha) {
+		return Movimiento.builder()
+				.descripcion("Movimiento")
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(tipo)
+				.fecha(fecha)
+				.categoria("Otros")
+				.build();
+	}
+}
@@ -0,0 +1,96 @@
+package com.app.contabilidad.domain.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+
+class MovimientoServiceTest {
+
+	private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+	private final MovimientoRepositoryPort repositorio = mock(MovimientoRepositoryPort.class);
+	private final MovimientoService servicio = new MovimientoService(repositorio);
+
+	@Test
+	void lasEscriturasNoEsperanUnasAOtrasMientrasDuraLaDelRepositorio() throws Exception {
+		CountDownLatch lentaDentro = new CountDownLatch(1);
+		CountDownLatch rapidaTerminada = new CountDownLatch(1);
+		when(repositorio.guardar(any())).thenAnswer(invocacion -> {
+			Movimiento movimiento = invocacion.getArgument(0);
+			if (movimiento.getDescripcion().equals("Lenta")) {
+				lentaDentro.countDown();
+				assertThat(rapidaTerminada.await(5, TimeUnit.SECONDS)).isTrue();
+			}
+			return movimiento;
+		});
+		servicio.calcularSaldosA(List.of(DIA));
+
+		try (ExecutorService ejecutor = Executors.newSingleThreadExecutor()) {
+			Future<Movimiento> lenta = ejecutor.submit(() -> servicio.crearMovimiento(movimiento("Lenta", "10.00")));
+			assertThat(lentaDentro.await(5, TimeUnit.SECONDS)).isTrue();
+			servicio.crearMovimiento(movimiento("Rápida", "5.00"));
+			rapidaTerminada.countDown();
+			lenta.get(5, TimeUnit.SECONDS);
+		}
+
+		assertThat(servicio.calcularSaldosA(List.of(DIA)).get(DIA)).isEqualByComparingTo("-15.00");
+		verify(repositorio, times(1)).recorrerImportes(any());
+	}
+
+	@Test
+	void unIndiceConstruidoMientrasSeEscribeNoSePublicaYSeReconstruye() throws Exception {
+		Movimiento anterior = movimiento("Anterior", "100.00");
+		Movimiento cruzado = movimiento("Cruzado", "30.00");
+		when(repositorio.guardar(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+		AtomicInteger recorridos = new AtomicInteger();
+		doAnswer(invocacion -> {
+			Consumer<Movimiento> consumidor = invocacion.getArgument(0);
+			consumidor.accept(anterior);
+			if (recorridos.incrementAndGet() == 1) {
+				// Una alta que termina mientras se leen los movimientos y que la lectura no llega a ver
+				try (ExecutorService ejecutor = Executors.newSingleThreadExecutor()) {
+					ejecutor.submit(() -> servicio.crearMovimiento(cruzado)).get(5, TimeUnit.SECONDS);
+				}
+			} else {
+				consumidor.accept(cruzado);
+			}
+			return null;
+		}).when(repositorio).recorrerImportes(any());
+
+		assertThat(servicio.calcularSaldosA(List.of(DIA)).get(DIA)).isEqualByComparingTo("-100.00");
+		assertThat(servicio.calcularSaldosA(List.of(DIA)).get(DIA)).isEqualByComparingTo("-130.00");
+		servicio.crearMovimiento(movimiento("Posterior", "20.00"));
+		assertThat(servicio.calcularSaldosA(List.of(DIA)).get(DIA)).isEqualByComparingTo("-150.00");
+		verify(repositorio, times(2)).recorrerImportes(any());
+	}
+
+	private Movimiento movimiento(String descripcion, String cantidad) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(DIA)
+				.categoria("Otros")
+				.build();
+	}
+}
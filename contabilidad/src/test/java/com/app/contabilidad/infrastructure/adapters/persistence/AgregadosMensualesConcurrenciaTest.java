@@ -0,0 +1,82 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:agregados-concurrencia;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class AgregadosMensualesConcurrenciaTest {
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void lasAltasSimultaneasDelPrimerMovimientoDeUnMesCreanUnSoloAgregado() throws Exception {
+		int hilos = 32;
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Movimiento>> altas = new ArrayList<>();
+		try (ExecutorService ejecutor = Executors.newFixedThreadPool(hilos)) {
+			for (int i = 0; i < hilos; i++) {
+				altas.add(ejecutor.submit(() -> {
+					salida.await();
+					return adapter.guardar(movimiento("Simultáneo", LocalDate.of(2031, 5, 1)));
+				}));
+			}
+			salida.countDown();
+		}
+		for (Future<Movimiento> alta : altas) {
+			assertThat(alta.get().getId()).isPositive();
+		}
+
+		String delMes = " FROM agregados_mensuales WHERE anio = 2031 AND mes = 5";
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*)" + delMes, Integer.class)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT SUM(cantidad)" + delMes, Integer.class)).isEqualTo(hilos);
+		assertThat(jdbcTemplate.queryForObject("SELECT SUM(total)" + delMes, BigDecimal.class))
+				.isEqualByComparingTo("320.00");
+	}
+
+	@Test
+	void unaBajaSinAgregadoQueDescontarSeRechazaYNoBorraElMovimiento() {
+		Movimiento guardado = adapter.guardar(movimiento("Descuadrado", LocalDate.of(2032, 7, 1)));
+		jdbcTemplate.update("DELETE FROM agregados_mensuales WHERE anio = 2032 AND mes = 7");
+
+		assertThatThrownBy(() -> adapter.eliminar(guardado.getId()))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("2032-07");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos WHERE id = ?", Integer.class,
+				guardado.getId())).isEqualTo(1);
+
+		adapter.reconstruirAgregados();
+		adapter.eliminar(guardado.getId());
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM agregados_mensuales WHERE anio = 2032",
+				Integer.class)).isZero();
+	}
+
+	private Movimiento movimiento(String descripcion, LocalDate fecha) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal("10.00"))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(fecha)
+				.categoria("Otros")
+				.build();
+	}
+}
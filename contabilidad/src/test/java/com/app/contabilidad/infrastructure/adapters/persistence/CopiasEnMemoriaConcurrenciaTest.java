@@ -0,0 +1,140 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:copias-concurrencia;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"contabilidad.columnar.habilitado=true"
+})
+class CopiasEnMemoriaConcurrenciaTest {
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private LibroColumnar libroColumnar;
+
+	@Autowired
+	private IndiceBusqueda indiceBusqueda;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void unaEdicionQueLlegaTardeAlLibroColumnarNoDeshaceLaPosterior() throws Exception {
+		Movimiento guardado = adapter.guardar(movimiento("Alquiler", "100.00", LocalDate.of(2040, 1, 15)));
+
+		editarConCambiosRetrasados(copia(guardado, "150.00"), () -> adapter.actualizar(copia(guardado, "200.00", 1L)));
+
+		assertThat(adapter.obtenerPorId(guardado.getId())).get().extracting(Movimiento::getCantidad)
+				.isEqualTo(new BigDecimal("200.00"));
+		assertThat(libroColumnar.obtenerTotalesPorMes().get(YearMonth.of(2040, 1)).getTotalGastos())
+				.isEqualByComparingTo("200.00");
+	}
+
+	@Test
+	void unaEdicionQueLlegaTardeAlLibroColumnarNoDevuelveUnMovimientoBorrado() throws Exception {
+		Movimiento guardado = adapter.guardar(movimiento("Seguro", "80.00", LocalDate.of(2040, 2, 3)));
+
+		editarConCambiosRetrasados(copia(guardado, "90.00"), () -> adapter.eliminar(guardado.getId()));
+
+		assertThat(adapter.obtenerPorId(guardado.getId())).isEmpty();
+		assertThat(libroColumnar.obtenerTotalesPorMes()).doesNotContainKey(YearMonth.of(2040, 2));
+		libroColumnar.cargar();
+		assertThat(libroColumnar.obtenerTotalesPorMes()).doesNotContainKey(YearMonth.of(2040, 2));
+	}
+
+	@Test
+	void unaEdicionQueLlegaTardeAlIndiceNoDeshaceLaPosterior() throws Exception {
+		Movimiento guardado = adapter.guardar(movimiento("Zapateria", "30.00", LocalDate.of(2040, 3, 9)));
+
+		editarConCambiosRetrasados(conDescripcion(guardado, "Ferreteria", guardado.getVersion()),
+				() -> adapter.actualizar(conDescripcion(guardado, "Floristeria", 1L)));
+
+		assertThat(indiceBusqueda.buscar("Floristeria", 0, 10).ids()).containsExactly(guardado.getId());
+		assertThat(indiceBusqueda.buscar("Ferreteria", 0, 10).ids()).isEmpty();
+	}
+
+	@Test
+	void unaEdicionQueLlegaTardeAlIndiceNoDevuelveUnMovimientoBorrado() throws Exception {
+		Movimiento guardado = adapter.guardar(movimiento("Relojeria", "45.00", LocalDate.of(2040, 4, 21)));
+
+		editarConCambiosRetrasados(conDescripcion(guardado, "Joyeria", guardado.getVersion()),
+				() -> adapter.eliminar(guardado.getId()));
+
+		assertThat(indiceBusqueda.buscar("Joyeria", 0, 10).ids()).isEmpty();
+		assertThat(indiceBusqueda.buscar("Relojeria", 0, 10).ids()).isEmpty();
+	}
+
+	/**
+	 * Confirma la edición en otro hilo y retiene sus cambios tras el commit mientras se ejecuta la
+	 * escritura siguiente, de modo que llegan a las copias en memoria después de los de esta
+	 */
+	private void editarConCambiosRetrasados(Movimiento edicion, Runnable siguiente) throws Exception {
+		CountDownLatch confirmada = new CountDownLatch(1);
+		CountDownLatch siguienteAplicada = new CountDownLatch(1);
+		try (ExecutorService ejecutor = Executors.newSingleThreadExecutor()) {
+			Future<?> retrasada = ejecutor.submit(() -> transactionTemplate.executeWithoutResult(estado -> {
+				// Registrada antes que las del adaptador, se ejecuta antes que ellas tras el commit
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCommit() {
+						confirmada.countDown();
+						try {
+							assertThat(siguienteAplicada.await(5, TimeUnit.SECONDS)).isTrue();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+				adapter.actualizar(edicion);
+			}));
+			assertThat(confirmada.await(5, TimeUnit.SECONDS)).isTrue();
+			siguiente.run();
+			siguienteAplicada.countDown();
+			retrasada.get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	private static Movimiento copia(Movimiento movimiento, String cantidad) {
+		return copia(movimiento, cantidad, movimiento.getVersion());
+	}
+
+	private static Movimiento copia(Movimiento movimiento, String cantidad, Long version) {
+		return new Movimiento(movimiento.getId(), movimiento.getDescripcion(), new BigDecimal(cantidad),
+				movimiento.getTipo(), movimiento.getFecha(), movimiento.getCategoria(), movimiento.getNotas(), version);
+	}
+
+	private static Movimiento conDescripcion(Movimiento movimiento, String descripcion, Long version) {
+		return new Movimiento(movimiento.getId(), descripcion, movimiento.getCantidad(), movimiento.getTipo(),
+				movimiento.getFecha(), movimiento.getCategoria(), movimiento.getNotas(), version);
+	}
+
+	private static Movimiento movimiento(String descripcion, String cantidad, LocalDate fecha) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(fecha)
+				.categoria("Vivienda")
+				.build();
+	}
+}
@@ -0,0 +1,261 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.exceptions.ConflictoVersionException;
+
+class DiarioMovimientosAdapterTest {
+
+	@TempDir
+	private Path directorio;
+
+	@Test
+	void recuperaElEstadoAlReabrirElDiario() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(1024);
+		Movimiento mercadona = adapter.guardar(movimiento("Mercadona", "12.40", Movimiento.TipoMovimiento.GASTO,
+				LocalDate.of(2025, 3, 4), "Alimentación", "compra semanal"));
+		adapter.guardarTodos(List.of(
+				movimiento("Nómina", "1500", Movimiento.TipoMovimiento.BENEFICIO, LocalDate.of(2025, 3, 31), "Otros", null),
+				movimiento("Gasolina", "60.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 4, 2), "Transporte", null),
+				movimiento("Cine", "9.50", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 4, 5), "Ocio", null)));
+		mercadona.setCantidad(new BigDecimal("15.10"));
+		adapter.actualizar(mercadona);
+		Long cine = adapter.buscar("cine", 0, 10).getCoincidencias().get(0).getMovimiento().getId();
+		adapter.eliminar(cine);
+		long version = adapter.obtenerVersion();
+		adapter.destroy();
+
+		DiarioMovimientosAdapter reabierto = abrir(1024);
+		assertThat(reabierto.obtenerVersion()).isEqualTo(version);
+		assertThat(reabierto.obtenerPorId(mercadona.getId())).get()
+				.extracting(Movimiento::getCantidad, Movimiento::getNotas)
+				.containsExactly(new BigDecimal("15.10"), "compra semanal");
+		assertThat(reabierto.obtenerPorId(cine)).isEmpty();
+
+		TotalesMovimientos totales = reabierto.obtenerTotales();
+		assertThat(totales.getTotalGastos()).isEqualByComparingTo("75.10");
+		assertThat(totales.getTotalBeneficios()).isEqualByComparingTo("1500");
+		assertThat(totales.getCantidadMovimientos()).isEqualTo(3);
+		assertThat(reabierto.obtenerTotalesPorMes()).containsOnlyKeys(YearMonth.of(2025, 3), YearMonth.of(2025, 4));
+		assertThat(reabierto.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO))
+				.containsOnlyKeys("Alimentación", "Transporte");
+		assertThat(reabierto.obtenerTotalesPorMesYCategoria(2025, 2025).get(YearMonth.of(2025, 4)))
+				.containsOnlyKeys("Transporte");
+		assertThat(reabierto.obtenerTotalesPorMesYCategoria(2026, 2030)).isEmpty();
+		assertThat(reabierto.buscar("semanal", 0, 10).getTotal()).isEqualTo(1);
+		assertThat(reabierto.buscar("cine", 0, 10).getTotal()).isZero();
+
+		// Los ids nuevos siguen tras el último escrito, aunque estuviera borrado
+		assertThat(reabierto.guardar(movimiento("Farmacia", "8.20", Movimiento.TipoMovimiento.GASTO,
+				LocalDate.of(2025, 4, 6), "Salud", null)).getId()).isGreaterThan(cine);
+		reabierto.destroy();
+	}
+
+	@Test
+	void paginaYFiltraEnOrdenDeFechaEId() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(4);
+		List<Movimiento> movimientos = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			movimientos.add(movimiento("Movimiento " + i, "1.00",
+					i % 2 == 0 ? Movimiento.TipoMovimiento.GASTO : Movimiento.TipoMovimiento.BENEFICIO,
+					LocalDate.of(2025, 1, 1 + i / 2), i % 3 == 0 ? "Hogar" : "Ocio", null));
+		}
+		adapter.guardarTodos(movimientos);
+
+		List<Long> recorridos = new ArrayList<>();
+		CursorMovimiento cursor = null;
+		do {
+			PaginaMovimientos pagina = adapter.obtenerPagina(cursor, 3);
+			pagina.getMovimientos().forEach(movimiento -> recorridos.add(movimiento.getId()));
+			cursor = pagina.getSiguiente();
+		} while (cursor != null);
+		assertThat(recorridos).containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+
+		assertThat(adapter.obtenerPorRango(LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 3),
+				Movimiento.TipoMovimiento.GASTO, null))
+				.extracting(Movimiento::getId).containsExactly(3L, 5L);
+		assertThat(adapter.obtenerPorCategoria("Hogar")).extracting(Movimiento::getId).containsExactly(1L, 4L, 7L, 10L);
+		FiltroMovimientos hogar = FiltroMovimientos.builder().categoria("Hogar").hasta(LocalDate.of(2025, 1, 4)).build();
+		List<Long> filtrados = new ArrayList<>();
+		cursor = null;
+		do {
+			PaginaMovimientos pagina = adapter.obtenerPagina(hogar, cursor, 1);
+			pagina.getMovimientos().forEach(movimiento -> filtrados.add(movimiento.getId()));
+			cursor = pagina.getSiguiente();
+		} while (cursor != null);
+		assertThat(filtrados).containsExactly(7L, 4L, 1L);
+		TotalesMovimientos totalesHogar = adapter.obtenerTotales(FiltroMovimientos.deCategoria("Hogar"));
+		assertThat(totalesHogar.getCantidadGastos()).isEqualTo(2);
+		assertThat(totalesHogar.getTotalBeneficios()).isEqualByComparingTo("2.00");
+		TotalesMovimientos totalesRango = adapter.obtenerTotales(FiltroMovimientos.builder().categoria("Hogar")
+				.desde(LocalDate.of(2025, 1, 2)).hasta(LocalDate.of(2025, 1, 4)).build());
+		assertThat(totalesRango.getCantidadGastos()).isEqualTo(1);
+		assertThat(totalesRango.getCantidadBeneficios()).isEqualTo(1);
+		List<Long> todos = new ArrayList<>();
+		adapter.recorrerTodos(movimiento -> todos.add(movimiento.getId()));
+		assertThat(todos).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		adapter.destroy();
+	}
+
+	@Test
+	void descartaElUltimoRegistroSiQuedoAMedioEscribir() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(1024);
+		for (int i = 0; i < 3; i++) {
+			adapter.guardar(movimiento("Movimiento " + i, "10.00", Movimiento.TipoMovimiento.GASTO,
+					LocalDate.of(2025, 5, 1 + i), "Hogar", null));
+		}
+		adapter.destroy();
+
+		// Simula una caída a mitad del tercer registro: su suma de control deja de cuadrar
+		try (FileChannel canal = FileChannel.open(unicoSegmento(), StandardOpenOption.WRITE)) {
+			canal.write(ByteBuffer.wrap(new byte[] {0x7F}), 2L * DiarioMovimientos.TAMANO_REGISTRO + 100);
+		}
+
+		DiarioMovimientosAdapter reabierto = abrir(1024);
+		assertThat(reabierto.obtenerTodos()).extracting(Movimiento::getId).containsExactly(1L, 2L);
+		assertThat(reabierto.obtenerTotales().getTotalGastos()).isEqualByComparingTo("20.00");
+		// El hueco del registro descartado se reutiliza
+		assertThat(reabierto.guardar(movimiento("Luz", "45.00", Movimiento.TipoMovimiento.GASTO,
+				LocalDate.of(2025, 5, 9), "Hogar", null)).getId()).isEqualTo(3L);
+		reabierto.destroy();
+		assertThat(abrir(1024).obtenerTodos()).hasSize(3);
+	}
+
+	@Test
+	void compactarConservaLosMovimientosVivosYLiberaSegmentos() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(4);
+		List<Movimiento> movimientos = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			movimientos.add(movimiento("Movimiento " + i, "2.50", Movimiento.TipoMovimiento.GASTO,
+					LocalDate.of(2025, 6, 1 + i), "Hogar", "nota " + i));
+		}
+		adapter.guardarTodos(movimientos);
+		assertThat(adapter.compactarSiProcede()).isFalse();
+		for (long id = 1; id <= 10; id++) {
+			adapter.eliminar(id);
+		}
+		assertThat(segmentos()).hasSize(6);
+
+		long version = adapter.obtenerVersion();
+		assertThat(adapter.compactarSiProcede()).isTrue();
+		assertThat(segmentos()).hasSize(1);
+		assertThat(adapter.obtenerVersion()).isGreaterThan(version);
+		assertThat(adapter.obtenerTodos()).extracting(Movimiento::getId).containsExactly(11L, 12L);
+		assertThat(adapter.buscar("nota", 0, 10).getTotal()).isEqualTo(2);
+		adapter.destroy();
+
+		DiarioMovimientosAdapter reabierto = abrir(4);
+		assertThat(reabierto.obtenerTodos()).extracting(Movimiento::getNotas).containsExactly("nota 10", "nota 11");
+		assertThat(reabierto.obtenerTotales().getTotalGastos()).isEqualByComparingTo("5.00");
+		assertThat(reabierto.guardar(movimiento("Agua", "30.00", Movimiento.TipoMovimiento.GASTO,
+				LocalDate.of(2025, 7, 1), "Hogar", null)).getId()).isEqualTo(13L);
+		reabierto.destroy();
+	}
+
+	@Test
+	void laVersionSobreviveALaCompactacionYRechazaEdicionesAntiguas() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(4);
+		Movimiento luz = adapter.guardar(movimiento("Luz", "40.00", Movimiento.TipoMovimiento.GASTO,
+				LocalDate.of(2025, 5, 3), "Servicios", null));
+		for (int i = 0; i < 3; i++) {
+			adapter.eliminar(adapter.guardar(movimiento("Temporal " + i, "1.00", Movimiento.TipoMovimiento.GASTO,
+					LocalDate.of(2025, 5, 4), "Otros", null)).getId());
+		}
+		assertThat(adapter.compactarSiProcede()).isTrue();
+		assertThat(adapter.obtenerPorId(luz.getId())).get().extracting(Movimiento::getVersion).isEqualTo(luz.getVersion());
+
+		Long versionAbierta = luz.getVersion();
+		luz.setCantidad(new BigDecimal("42.00"));
+		ActualizacionMovimiento actualizacion = adapter.actualizar(luz);
+		assertThat(actualizacion.getAnterior().getCantidad()).isEqualByComparingTo("40.00");
+		assertThat(actualizacion.getActualizado().getVersion()).isGreaterThan(versionAbierta);
+
+		luz.setCantidad(new BigDecimal("99.00"));
+		luz.setVersion(versionAbierta);
+		assertThatThrownBy(() -> adapter.actualizar(luz)).isInstanceOf(ConflictoVersionException.class);
+		luz.setVersion(null);
+		assertThatThrownBy(() -> adapter.actualizar(luz)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage(DomainConstants.VERSION_REQUERIDA);
+		assertThat(adapter.obtenerTotales().getTotalGastos()).isEqualByComparingTo("42.00");
+		adapter.destroy();
+	}
+
+	@Test
+	void lasOperacionesMasivasSeReflejanEnTotalesYSobrevivenAlReabrir() throws IOException {
+		DiarioMovimientosAdapter adapter = abrir(4);
+		adapter.guardarTodos(List.of(
+				movimiento("Luz", "40.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 5, 3), "Servicios", "factura"),
+				movimiento("Agua", "20.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 5, 28), "Servicios", null),
+				movimiento("Nómina", "1500", Movimiento.TipoMovimiento.BENEFICIO, LocalDate.of(2025, 5, 30), "Otros", null)));
+		FiltroMovimientos servicios = FiltroMovimientos.deCategoria("Servicios");
+
+		assertThat(adapter.desplazarFechas(servicios, 5)).hasSize(2);
+		assertThat(adapter.recategorizar(FiltroMovimientos.deIds(List.of(1L)), "Hogar")).hasSize(1);
+		assertThat(adapter.obtenerTotalesPorMesYCategoria(2025, 2025).get(YearMonth.of(2025, 6)))
+				.containsOnlyKeys("Servicios");
+		assertThat(adapter.eliminar(FiltroMovimientos.builder().tipo(Movimiento.TipoMovimiento.BENEFICIO).build()))
+				.extracting(Movimiento::getDescripcion).containsExactly("Nómina");
+		adapter.destroy();
+
+		DiarioMovimientosAdapter reabierto = abrir(4);
+		assertThat(reabierto.obtenerTodos())
+				.extracting(Movimiento::getDescripcion, Movimiento::getCategoria, Movimiento::getFecha, Movimiento::getNotas)
+				.containsExactlyInAnyOrder(
+						tuple("Luz", "Hogar", LocalDate.of(2025, 5, 8), "factura"),
+						tuple("Agua", "Servicios", LocalDate.of(2025, 6, 2), null));
+		assertThat(reabierto.obtenerTotales().getCantidadBeneficios()).isZero();
+		reabierto.destroy();
+	}
+
+	private DiarioMovimientosAdapter abrir(int registrosPorSegmento) throws IOException {
+		return new DiarioMovimientosAdapter(directorio.toString(), registrosPorSegmento, false, 0);
+	}
+
+	private List<Path> segmentos() throws IOException {
+		try (var ficheros = Files.list(directorio)) {
+			return ficheros.toList();
+		}
+	}
+
+	private Path unicoSegmento() throws IOException {
+		List<Path> segmentos = segmentos();
+		assertThat(segmentos).hasSize(1);
+		return segmentos.get(0);
+	}
+
+	private static Movimiento movimiento(String descripcion, String cantidad, Movimiento.TipoMovimiento tipo,
+			LocalDate fecha, String categoria, String notas) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(tipo)
+				.fecha(fecha)
+				.categoria(categoria)
+				.notas(notas)
+				.build();
+	}
+}
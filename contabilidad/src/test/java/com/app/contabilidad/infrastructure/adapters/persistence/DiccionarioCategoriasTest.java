@@ -0,0 +1,85 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:diccionario-categorias;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class DiccionarioCategoriasTest {
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private DiccionarioCategorias diccionarioCategorias;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void unaCategoriaNuevaSeRevierteConLaEscrituraQueLaUsa() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+			Movimiento guardado = adapter.guardar(movimiento("Pienso", "Mascotas"));
+			assertThat(guardado.getCategoria()).isEqualTo("Mascotas");
+			assertThat(adapter.obtenerPorCategoria("Mascotas")).hasSize(1);
+			estado.setRollbackOnly();
+		});
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias WHERE nombre = 'Mascotas'",
+				Integer.class)).isZero();
+		assertThat(diccionarioCategorias.obtenerId("Mascotas")).isNull();
+		assertThat(diccionarioCategorias.obtenerNombres()).doesNotContain("Mascotas");
+	}
+
+	@Test
+	void lasAltasSimultaneasDeUnaCategoriaNuevaCompartenElMismoId() throws Exception {
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Movimiento>> altas = new ArrayList<>();
+		try (ExecutorService ejecutor = Executors.newFixedThreadPool(8)) {
+			for (int i = 0; i < 8; i++) {
+				altas.add(ejecutor.submit(() -> {
+					salida.await();
+					return adapter.guardar(movimiento("Clase", "Deporte"));
+				}));
+			}
+			salida.countDown();
+		}
+		for (Future<Movimiento> alta : altas) {
+			assertThat(alta.get().getCategoria()).isEqualTo("Deporte");
+		}
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias WHERE nombre = 'Deporte'",
+				Integer.class)).isEqualTo(1);
+		assertThat(diccionarioCategorias.obtenerNombres()).contains("Deporte");
+		assertThat(adapter.obtenerPorCategoria("Deporte")).hasSize(8);
+	}
+
+	private Movimiento movimiento(String descripcion, String categoria) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal("10.00"))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(LocalDate.of(2025, 3, 1))
+				.categoria(categoria)
+				.build();
+	}
+}
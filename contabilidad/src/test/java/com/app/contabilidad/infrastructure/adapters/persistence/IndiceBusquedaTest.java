@@ -0,0 +1,82 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class IndiceBusquedaTest {
+	private static final String[] PALABRAS = {"mercadona", "gasolina", "farmacia", "cine", "alquiler", "luz", "agua",
+			"seguro", "coche", "fruta", "restaurante", "regalo"};
+
+	@Test
+	void ordenaPorRelevanciaSinDistinguirTildesNiMayusculas() {
+		IndiceBusqueda indice = new IndiceBusqueda(null, null);
+		indice.indexarTodos(List.of(
+				entidad(1, "Cafetería Central", null),
+				entidad(2, "Compra semanal", "pan, leche y café de la cafetería"),
+				entidad(3, "Cafetería", "cafetería del barrio"),
+				entidad(4, "Gasolina", null)));
+
+		IndiceBusqueda.Resultado resultado = indice.buscar("CAFETERIA", 0, 10);
+		assertThat(resultado.total()).isEqualTo(3);
+		assertThat(resultado.ids()).containsExactly(3, 1, 2);
+		assertThat(resultado.puntuaciones()).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+
+		// Varios términos: el documento que los contiene todos queda primero
+		assertThat(indice.buscar("cafetería barrio", 0, 10).ids()).containsExactly(3, 1, 2);
+		assertThat(indice.buscar("café", 0, 10).ids()).containsExactly(2);
+		assertThat(indice.buscar("de la", 0, 10).total()).isZero();
+		assertThat(indice.buscar("hipoteca", 0, 10).ids()).isEmpty();
+	}
+
+	@Test
+	void coincideConUnaBusquedaExhaustivaTrasEscrituras() {
+		SplittableRandom random = new SplittableRandom(11);
+		IndiceBusqueda indice = new IndiceBusqueda(null, null);
+		Map<Long, String> textos = new HashMap<>();
+		for (int i = 0; i < 20_000; i++) {
+			long id = random.nextLong(1, 5_000);
+			if (random.nextInt(3) == 0) {
+				indice.eliminar(id);
+				textos.remove(id);
+			} else {
+				String texto = PALABRAS[random.nextInt(PALABRAS.length)] + " " + PALABRAS[random.nextInt(PALABRAS.length)];
+				indice.indexar(entidad(id, texto, null));
+				textos.put(id, texto);
+			}
+		}
+		assertThat(indice.getDocumentos()).isEqualTo(textos.size());
+
+		for (String palabra : PALABRAS) {
+			List<Long> esperados = textos.entrySet().stream()
+					.filter(e -> e.getValue().contains(palabra))
+					.map(Map.Entry::getKey)
+					.toList();
+			IndiceBusqueda.Resultado primera = indice.buscar(palabra, 0, 100);
+			assertThat(primera.total()).isEqualTo(esperados.size());
+
+			// Recorriendo todas las páginas se obtienen exactamente los esperados, sin repetidos
+			List<Long> encontrados = new ArrayList<>();
+			for (int pagina = 0; pagina * 100 < primera.total(); pagina++) {
+				for (long id : indice.buscar(palabra, pagina, 100).ids()) {
+					encontrados.add(id);
+				}
+			}
+			assertThat(encontrados).containsExactlyInAnyOrderElementsOf(esperados);
+		}
+	}
+
+	private MovimientoEntity entidad(long id, String descripcion, String notas) {
+		return MovimientoEntity.builder()
+				.id(id)
+				.descripcion(descripcion)
+				.notas(notas)
+				.build();
+	}
+}
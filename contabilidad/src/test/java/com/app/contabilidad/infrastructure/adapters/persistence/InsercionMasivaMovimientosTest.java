@@ -0,0 +1,52 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:insercion-masiva;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class InsercionMasivaMovimientosTest {
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void laPrimeraImportacionEnUnaBaseVaciaAsignaIdsPositivos() {
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos", Long.class)).isZero();
+
+		// Más de un bloque de la secuencia: el primero (valor 1) solo aporta el id 1
+		List<Movimiento> lote = new ArrayList<>();
+		for (int i = 0; i < 250; i++) {
+			lote.add(movimiento("Importado " + i, LocalDate.of(2025, 1, 1).plusDays(i)));
+		}
+		adapter.guardarTodos(lote);
+		Movimiento individual = adapter.guardar(movimiento("Manual", LocalDate.of(2025, 12, 31)));
+
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM movimientos", Long.class);
+		assertThat(ids).hasSize(251).doesNotHaveDuplicates().allMatch(id -> id > 0);
+		assertThat(individual.getId()).isPositive();
+	}
+
+	private Movimiento movimiento(String descripcion, LocalDate fecha) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal("10.00"))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(fecha)
+				.categoria("Otros")
+				.build();
+	}
+}
@@ -0,0 +1,162 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:movimientos-columnar;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"contabilidad.columnar.habilitado=true",
+		"contabilidad.columnar.umbral-paralelo=2000"
+})
+class LibroColumnarTest {
+	private static final String[] CATEGORIAS = {"Alimentación", "Transporte", "Hogar", "Salud", "Ocio"};
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private LibroColumnar libroColumnar;
+
+	@Autowired
+	private MovimientoJpaRepository jpaRepository;
+
+	@Autowired
+	private AgregadoMensualJpaRepository agregadoRepository;
+
+	@Autowired
+	private InsercionMasivaMovimientos insercionMasiva;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private DiccionarioCategorias diccionarioCategorias;
+
+	@Autowired
+	private IndiceBusqueda indiceBusqueda;
+
+	@Autowired
+	private VersionLibro versionLibro;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void coincideConLosAgregadosTrasEscrituras() {
+		SplittableRandom random = new SplittableRandom(7);
+		List<Movimiento> lote = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			lote.add(movimientoAleatorio(random, i));
+		}
+		adapter.guardarTodos(lote);
+		Movimiento individual = adapter.guardar(movimientoAleatorio(random, -1));
+		individual.setFecha(LocalDate.of(2019, 6, 15));
+		individual.setCategoria("Regalos");
+		individual.setCantidad(new BigDecimal("321.09"));
+		adapter.actualizar(individual);
+		adapter.obtenerPorRango(LocalDate.of(2022, 3, 1), LocalDate.of(2022, 3, 31))
+				.forEach(m -> adapter.eliminar(m.getId()));
+
+		// Una escritura revertida no debe llegar al libro columnar
+		transactionTemplate.executeWithoutResult(estado -> {
+			adapter.guardar(movimientoAleatorio(random, -2));
+			estado.setRollbackOnly();
+		});
+
+		assertThat(libroColumnar.getFilas()).isEqualTo(jpaRepository.count());
+		comprobarContraAgregados();
+
+		libroColumnar.cargar();
+		assertThat(libroColumnar.getFilas()).isEqualTo(jpaRepository.count());
+		comprobarContraAgregados();
+	}
+
+	@Test
+	void indiceDeIdsCoincideConUnMapa() {
+		SplittableRandom random = new SplittableRandom(3);
+		LibroColumnar.IndiceIds indice = new LibroColumnar.IndiceIds(16);
+		Map<Long, Integer> esperado = new HashMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			long id = random.nextLong(-100, 5_000);
+			if (random.nextBoolean()) {
+				indice.poner(id, i);
+				esperado.put(id, i);
+			} else {
+				indice.eliminar(id);
+				esperado.remove(id);
+			}
+		}
+		for (long id = -100; id < 5_000; id++) {
+			assertThat(indice.obtener(id)).isEqualTo(esperado.getOrDefault(id, -1));
+		}
+	}
+
+	private void comprobarContraAgregados() {
+		MovimientoRepositoryAdapter porAgregados = new MovimientoRepositoryAdapter(jpaRepository, agregadoRepository,
+				insercionMasiva, entityManager, diccionarioCategorias, indiceBusqueda, versionLibro, Optional.empty());
+
+		assertThat(adapter.obtenerTotales())
+				.usingRecursiveComparison()
+				.withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+				.isEqualTo(porAgregados.obtenerTotales());
+		assertThat(adapter.obtenerTotalesPorMes().keySet())
+				.containsExactlyElementsOf(porAgregados.obtenerTotalesPorMes().keySet());
+		assertThat(adapter.obtenerTotalesPorMes())
+				.usingRecursiveComparison()
+				.withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+				.isEqualTo(porAgregados.obtenerTotalesPorMes());
+		for (Movimiento.TipoMovimiento tipo : Movimiento.TipoMovimiento.values()) {
+			assertThat(adapter.obtenerTotalesPorCategoria(tipo))
+					.usingRecursiveComparison()
+					.withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+					.isEqualTo(porAgregados.obtenerTotalesPorCategoria(tipo));
+		}
+		for (int[] anios : new int[][] {{2019, 2023}, {2021, 2021}, {2022, 2023}, {2030, 2031}}) {
+			Map<YearMonth, Map<String, TotalesMovimientos>> pivote = adapter.obtenerTotalesPorMesYCategoria(anios[0], anios[1]);
+			Map<YearMonth, Map<String, TotalesMovimientos>> pivoteAgregados =
+					porAgregados.obtenerTotalesPorMesYCategoria(anios[0], anios[1]);
+			assertThat(pivote.keySet()).containsExactlyElementsOf(pivoteAgregados.keySet())
+					.allMatch(mes -> mes.getYear() >= anios[0] && mes.getYear() <= anios[1]);
+			assertThat(ordenar(pivote))
+					.usingRecursiveComparison()
+					.withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+					.isEqualTo(ordenar(pivoteAgregados));
+		}
+	}
+
+	private static Map<YearMonth, Map<String, TotalesMovimientos>> ordenar(Map<YearMonth, Map<String, TotalesMovimientos>> pivote) {
+		Map<YearMonth, Map<String, TotalesMovimientos>> ordenado = new TreeMap<>();
+		pivote.forEach((mes, porCategoria) -> ordenado.put(mes, new TreeMap<>(porCategoria)));
+		return ordenado;
+	}
+
+	private Movimiento movimientoAleatorio(SplittableRandom random, int numero) {
+		return Movimiento.builder()
+				.descripcion("Movimiento " + numero)
+				.cantidad(BigDecimal.valueOf(random.nextLong(1, 200_000), 2))
+				.tipo(random.nextInt(10) < 7 ? Movimiento.TipoMovimiento.GASTO : Movimiento.TipoMovimiento.BENEFICIO)
+				.fecha(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(4 * 365)))
+				.categoria(CATEGORIAS[random.nextInt(CATEGORIAS.length)])
+				.build();
+	}
+}
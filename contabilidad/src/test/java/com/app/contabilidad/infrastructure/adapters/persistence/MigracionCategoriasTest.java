@@ -0,0 +1,68 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = "spring.datasource.url=" + MigracionCategoriasTest.URL)
+class MigracionCategoriasTest {
+	static final String URL = "jdbc:h2:mem:movimientos-migracion;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	// Base de datos con el esquema anterior (categoría como texto), creada antes de arrancar el contexto
+	static {
+		try (Connection conexion = DriverManager.getConnection(URL, "sa", "");
+				Statement sentencia = conexion.createStatement()) {
+			sentencia.execute("CREATE TABLE movimientos (id BIGINT PRIMARY KEY, descripcion VARCHAR(255) NOT NULL, "
+					+ "cantidad NUMERIC(19,2) NOT NULL, tipo VARCHAR(255) NOT NULL, fecha DATE NOT NULL, "
+					+ "categoria VARCHAR(255) NOT NULL, notas CLOB)");
+			sentencia.execute("CREATE INDEX idx_movimientos_categoria_fecha ON movimientos (categoria, fecha)");
+			sentencia.execute("CREATE TABLE agregados_mensuales (anio INT NOT NULL, mes INT NOT NULL, "
+					+ "categoria VARCHAR(255) NOT NULL, tipo VARCHAR(255) NOT NULL, total NUMERIC(19,2) NOT NULL, "
+					+ "cantidad BIGINT NOT NULL, PRIMARY KEY (anio, mes, categoria, tipo))");
+			sentencia.execute("INSERT INTO movimientos VALUES "
+					+ "(1, 'Pienso', 30.00, 'GASTO', DATE '2025-01-10', 'Mascotas', NULL), "
+					+ "(2, 'Veterinario', 45.50, 'GASTO', DATE '2025-01-20', 'Mascotas', NULL), "
+					+ "(3, 'Mercadona', 12.40, 'GASTO', DATE '2025-02-01', 'Alimentación', 'semana')");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migraLasCategoriasDeTextoAClaveNumerica() {
+		Integer columnasTexto = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+				+ "WHERE UPPER(TABLE_NAME) = 'MOVIMIENTOS' AND UPPER(COLUMN_NAME) = 'CATEGORIA'", Integer.class);
+		assertThat(columnasTexto).isZero();
+
+		assertThat(adapter.obtenerPorCategoria("Mascotas"))
+				.extracting(Movimiento::getDescripcion)
+				.containsExactlyInAnyOrder("Pienso", "Veterinario");
+		assertThat(adapter.obtenerPorId(3L)).get()
+				.extracting(Movimiento::getCategoria)
+				.isEqualTo("Alimentación");
+		assertThat(adapter.obtenerCategorias()).contains("Mascotas", "Alimentación", "Transporte");
+
+		// Los agregados se reconstruyen con la nueva clave al arrancar
+		Map<String, BigDecimal> porCategoria = adapter.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO);
+		assertThat(porCategoria.get("Mascotas")).isEqualByComparingTo("75.50");
+		assertThat(porCategoria.get("Alimentación")).isEqualByComparingTo("12.40");
+	}
+}
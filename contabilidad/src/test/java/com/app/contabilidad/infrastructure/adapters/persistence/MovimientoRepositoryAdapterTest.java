@@ -0,0 +1,321 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.ActualizacionMovimiento;
+import com.app.contabilidad.domain.entities.CursorMovimiento;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.entities.PaginaMovimientos;
+import com.app.contabilidad.domain.entities.TotalesMovimientos;
+import com.app.contabilidad.domain.exceptions.ConflictoVersionException;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:movimientos-adapter;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@Transactional
+class MovimientoRepositoryAdapterTest {
+
+	@Autowired
+	private MovimientoRepositoryAdapter adapter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Movimiento gasolina;
+
+	@BeforeEach
+	void cargarMovimientos() {
+		adapter.guardar(movimiento("Mercadona", "12.40", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2024, 12, 30), "Alimentación"));
+		adapter.guardar(movimiento("Nómina", "1500.00", Movimiento.TipoMovimiento.BENEFICIO, LocalDate.of(2025, 1, 31), "Otros"));
+		gasolina = adapter.guardar(movimiento("Gasolina", "60.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 3), "Transporte"));
+		adapter.guardar(movimiento("Fruta", "8.15", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 10), "Alimentación"));
+	}
+
+	@Test
+	void obtenerPorRangoFiltraPorFechaTipoYCategoria() {
+		LocalDate desde = LocalDate.of(2025, 1, 1);
+		LocalDate hasta = LocalDate.of(2025, 12, 31);
+
+		assertThat(adapter.obtenerPorRango(desde, hasta))
+				.extracting(Movimiento::getDescripcion)
+				.containsExactly("Nómina", "Gasolina", "Fruta");
+		assertThat(adapter.obtenerPorRango(desde, hasta, Movimiento.TipoMovimiento.GASTO, null))
+				.extracting(Movimiento::getDescripcion)
+				.containsExactly("Gasolina", "Fruta");
+		assertThat(adapter.obtenerPorRango(desde, hasta, null, "Alimentación"))
+				.extracting(Movimiento::getDescripcion)
+				.containsExactly("Fruta");
+		assertThat(adapter.obtenerPorRango(desde, hasta, Movimiento.TipoMovimiento.BENEFICIO, "Alimentación"))
+				.isEmpty();
+	}
+
+	@Test
+	void totalesYPaginasFiltradosPorCategoriaTipoYFechas() {
+		TotalesMovimientos alimentacion = adapter.obtenerTotales(FiltroMovimientos.deCategoria("Alimentación"));
+		assertThat(alimentacion.getTotalGastos()).isEqualByComparingTo("20.55");
+		assertThat(alimentacion.getCantidadGastos()).isEqualTo(2);
+		assertThat(alimentacion.getCantidadBeneficios()).isZero();
+
+		// Meses completos: se resuelve con los agregados mensuales
+		TotalesMovimientos alimentacion2025 = adapter.obtenerTotales(FiltroMovimientos.builder().categoria("Alimentación")
+				.desde(LocalDate.of(2025, 1, 1)).hasta(LocalDate.of(2025, 2, 28)).build());
+		assertThat(alimentacion2025.getTotalGastos()).isEqualByComparingTo("8.15");
+		assertThat(alimentacion2025.getCantidadMovimientos()).isEqualTo(1);
+
+		// Rango a mitad de mes: se agrega sobre los movimientos
+		TotalesMovimientos gastosDesde = adapter.obtenerTotales(FiltroMovimientos.builder()
+				.tipo(Movimiento.TipoMovimiento.GASTO).desde(LocalDate.of(2025, 2, 5)).build());
+		assertThat(gastosDesde.getTotalGastos()).isEqualByComparingTo("8.15");
+		assertThat(gastosDesde.getCantidadMovimientos()).isEqualTo(1);
+
+		assertThat(adapter.obtenerTotales(FiltroMovimientos.deCategoria("Inexistente")).getCantidadMovimientos()).isZero();
+
+		PaginaMovimientos primera = adapter.obtenerPagina(FiltroMovimientos.deCategoria("Alimentación"), null, 1);
+		assertThat(primera.getMovimientos()).extracting(Movimiento::getDescripcion).containsExactly("Fruta");
+		PaginaMovimientos segunda = adapter.obtenerPagina(FiltroMovimientos.deCategoria("Alimentación"),
+				primera.getSiguiente(), 1);
+		assertThat(segunda.getMovimientos()).extracting(Movimiento::getDescripcion).containsExactly("Mercadona");
+		assertThat(segunda.haySiguiente()).isFalse();
+		assertThat(adapter.obtenerPagina(FiltroMovimientos.builder().desde(LocalDate.of(2025, 1, 1))
+				.hasta(LocalDate.of(2025, 2, 5)).build(), null, 10).getMovimientos())
+				.extracting(Movimiento::getDescripcion)
+				.containsExactly("Gasolina", "Nómina");
+	}
+
+	@Test
+	void elCursorRecorreTodasLasPaginasSinHuecosNiRepetidosConFechasIguales() {
+		LocalDate mismoDia = LocalDate.of(2025, 3, 15);
+		for (String descripcion : List.of("Cine", "Teatro", "Concierto", "Museo", "Bolos")) {
+			adapter.guardar(movimiento(descripcion, "10.00", Movimiento.TipoMovimiento.GASTO, mismoDia, "Ocio"));
+		}
+		List<Long> esperados = jdbcTemplate.queryForList("SELECT id FROM movimientos ORDER BY fecha DESC, id DESC",
+				Long.class);
+		List<Long> ocio = jdbcTemplate.queryForList(
+				"SELECT m.id FROM movimientos m JOIN categorias c ON c.id = m.categoria_id WHERE c.nombre = 'Ocio' "
+						+ "ORDER BY m.id DESC", Long.class);
+		assertThat(ocio).hasSize(5);
+
+		// Tamaños con última página incompleta y exacta: en ningún caso queda cursor tras ella
+		for (int limite : List.of(2, 3, esperados.size())) {
+			assertThat(recorrerPaginas(cursor -> adapter.obtenerPagina(cursor, limite)))
+					.as("sin filtro, %d por página", limite).isEqualTo(esperados);
+		}
+		for (int limite : List.of(2, 5)) {
+			assertThat(recorrerPaginas(cursor -> adapter.obtenerPagina(FiltroMovimientos.deCategoria("Ocio"), cursor,
+					limite))).as("filtrado, %d por página", limite).isEqualTo(ocio);
+		}
+	}
+
+	/**
+	 * Pide páginas encadenando el cursor hasta que no hay siguiente y devuelve los ids en el orden leído
+	 */
+	private static List<Long> recorrerPaginas(Function<CursorMovimiento, PaginaMovimientos> obtenerPagina) {
+		List<Long> ids = new ArrayList<>();
+		PaginaMovimientos pagina = obtenerPagina.apply(null);
+		ids.addAll(pagina.getMovimientos().stream().map(Movimiento::getId).toList());
+		while (pagina.haySiguiente()) {
+			assertThat(pagina.getMovimientos()).isNotEmpty();
+			pagina = obtenerPagina.apply(pagina.getSiguiente());
+			ids.addAll(pagina.getMovimientos().stream().map(Movimiento::getId).toList());
+		}
+		return ids;
+	}
+
+	@Test
+	void losListadosNoCarganLasNotasYLaLecturaPorIdSi() {
+		Movimiento conNotas = movimiento("Farmacia", "9.90", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 20), "Salud");
+		conNotas.setNotas("receta de la revisión anual");
+		Long id = adapter.guardar(conNotas).getId();
+
+		Movimiento listado = adapter.obtenerPagina(null, 1).getMovimientos().get(0);
+		assertThat(listado.getId()).isEqualTo(id);
+		assertThat(listado).extracting(Movimiento::getDescripcion, Movimiento::getCategoria, Movimiento::getNotas)
+				.containsExactly("Farmacia", "Salud", null);
+		assertThat(adapter.obtenerPorCategoria("Salud")).extracting(Movimiento::getNotas).containsOnlyNulls();
+		assertThat(adapter.obtenerPorId(id)).get().extracting(Movimiento::getNotas)
+				.isEqualTo("receta de la revisión anual");
+
+		List<Movimiento> importes = new ArrayList<>();
+		adapter.recorrerImportes(importes::add);
+		assertThat(importes).hasSize(5).last()
+				.extracting(Movimiento::getFecha, Movimiento::getCantidad, Movimiento::getCategoria)
+				.containsExactly(LocalDate.of(2025, 2, 20), new BigDecimal("9.90"), "Salud");
+	}
+
+	@Test
+	void laEdicionConVersionAntiguaNoSobrescribeLaAnterior() {
+		assertThat(gasolina.getVersion()).isZero();
+		Movimiento primera = copia(gasolina);
+		primera.setCantidad(new BigDecimal("65.00"));
+		primera.setNotas("depósito lleno");
+		ActualizacionMovimiento actualizacion = adapter.actualizar(primera);
+
+		assertThat(actualizacion.getAnterior())
+				.extracting(Movimiento::getCantidad, Movimiento::getCategoria, Movimiento::getVersion)
+				.containsExactly(new BigDecimal("60.00"), "Transporte", 0L);
+		assertThat(actualizacion.getActualizado().getVersion()).isEqualTo(1L);
+		assertThat(adapter.obtenerPorId(gasolina.getId())).get()
+				.extracting(Movimiento::getCantidad, Movimiento::getNotas, Movimiento::getVersion)
+				.containsExactly(new BigDecimal("65.00"), "depósito lleno", 1L);
+
+		// Una segunda edición abierta con la versión 0 ya no se aplica
+		Movimiento segunda = copia(gasolina);
+		segunda.setCategoria("Ocio");
+		assertThatThrownBy(() -> adapter.actualizar(segunda)).isInstanceOf(ConflictoVersionException.class);
+		assertThat(adapter.obtenerPorId(gasolina.getId())).get()
+				.extracting(Movimiento::getCategoria, Movimiento::getVersion)
+				.containsExactly("Transporte", 1L);
+		assertThat(adapter.obtenerTotalesPorMes().get(YearMonth.of(2025, 2)).getTotalGastos())
+				.isEqualByComparingTo("73.15");
+
+		segunda.setId(Long.MAX_VALUE);
+		assertThatThrownBy(() -> adapter.actualizar(segunda)).isInstanceOf(IllegalArgumentException.class);
+
+		// Sin versión no hay forma de saltarse la comprobación
+		Movimiento sinVersion = copia(gasolina);
+		sinVersion.setVersion(null);
+		sinVersion.setCategoria("Ocio");
+		assertThatThrownBy(() -> adapter.actualizar(sinVersion)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessage(DomainConstants.VERSION_REQUERIDA);
+		assertThat(adapter.obtenerPorId(gasolina.getId())).get().extracting(Movimiento::getCategoria).isEqualTo("Transporte");
+	}
+
+	@Test
+	void lasOperacionesMasivasAjustanLosAgregadosYConservanLasNotas() {
+		Movimiento conNotas = movimiento("Farmacia", "9.90", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 20), "Salud");
+		conNotas.setNotas("receta");
+		Long farmacia = adapter.guardar(conNotas).getId();
+		FiltroMovimientos febrero = FiltroMovimientos.builder().tipo(Movimiento.TipoMovimiento.GASTO)
+				.desde(LocalDate.of(2025, 2, 1)).hasta(LocalDate.of(2025, 2, 28)).build();
+
+		List<ActualizacionMovimiento> recategorizados = adapter.recategorizar(febrero, "Varios");
+		assertThat(recategorizados).extracting(a -> a.getAnterior().getCategoria())
+				.containsExactlyInAnyOrder("Transporte", "Alimentación", "Salud");
+		assertThat(recategorizados).extracting(a -> a.getActualizado().getVersion()).containsOnly(1L);
+		assertThat(adapter.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO))
+				.containsOnlyKeys("Alimentación", "Varios");
+
+		List<ActualizacionMovimiento> desplazados = adapter.desplazarFechas(FiltroMovimientos.deCategoria("Varios"), 20);
+		assertThat(desplazados).extracting(a -> a.getActualizado().getFecha())
+				.containsExactlyInAnyOrder(LocalDate.of(2025, 2, 23), LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 12));
+		assertThat(adapter.obtenerPorId(farmacia)).get()
+				.extracting(Movimiento::getCategoria, Movimiento::getFecha, Movimiento::getNotas, Movimiento::getVersion)
+				.containsExactly("Varios", LocalDate.of(2025, 3, 12), "receta", 2L);
+
+		List<Movimiento> eliminados = adapter.eliminar(FiltroMovimientos.deIds(List.of(gasolina.getId(), farmacia, Long.MAX_VALUE)));
+		assertThat(eliminados).extracting(Movimiento::getId).containsExactlyInAnyOrder(gasolina.getId(), farmacia);
+		assertThat(adapter.obtenerPorId(farmacia)).isEmpty();
+		assertThat(adapter.eliminar(FiltroMovimientos.deCategoria("Inexistente"))).isEmpty();
+
+		Map<YearMonth, TotalesMovimientos> incremental = adapter.obtenerTotalesPorMes();
+		assertThat(incremental.get(YearMonth.of(2025, 3)).getTotalGastos()).isEqualByComparingTo("8.15");
+		assertThat(incremental).doesNotContainKey(YearMonth.of(2025, 2));
+		adapter.reconstruirAgregados();
+		assertThat(adapter.obtenerTotalesPorMes()).isEqualTo(incremental);
+	}
+
+	@Test
+	void recategorizarSinCoincidenciasNoCreaLaCategoria() {
+		FiltroMovimientos sinMovimientos = FiltroMovimientos.builder()
+				.desde(LocalDate.of(2030, 1, 1)).hasta(LocalDate.of(2030, 12, 31)).build();
+
+		assertThat(adapter.recategorizar(sinMovimientos, "Vacaciones")).isEmpty();
+		assertThat(adapter.recategorizar(FiltroMovimientos.deCategoria("Inexistente"), "Vacaciones")).isEmpty();
+		assertThat(adapter.obtenerCategorias()).doesNotContain("Vacaciones");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias WHERE nombre = 'Vacaciones'",
+				Integer.class)).isZero();
+
+		// Con coincidencias sí se crea, igual que con una categoría existente
+		assertThat(adapter.recategorizar(FiltroMovimientos.deIds(List.of(gasolina.getId())), "Vacaciones")).hasSize(1);
+		assertThat(adapter.obtenerPorId(gasolina.getId())).get().extracting(Movimiento::getCategoria).isEqualTo("Vacaciones");
+		assertThat(adapter.recategorizar(sinMovimientos, "Transporte")).isEmpty();
+	}
+
+	@Test
+	void consultasPorRangoUsanLosIndices() {
+		assertThat(explicar("SELECT * FROM movimientos WHERE fecha BETWEEN DATE '2025-01-01' AND DATE '2025-12-31'"))
+				.containsIgnoringCase("IDX_MOVIMIENTOS_FECHA");
+		assertThat(explicar("SELECT * FROM movimientos WHERE tipo = 'GASTO' "
+				+ "AND fecha BETWEEN DATE '2025-01-01' AND DATE '2025-12-31'"))
+				.containsIgnoringCase("IDX_MOVIMIENTOS_TIPO_FECHA");
+		assertThat(explicar("SELECT * FROM movimientos WHERE categoria_id = 1 "
+				+ "AND fecha BETWEEN DATE '2025-01-01' AND DATE '2025-12-31'"))
+				.containsIgnoringCase("IDX_MOVIMIENTOS_CATEGORIA_ID_FECHA");
+	}
+
+	@Test
+	void agregadosMensualesSeMantienenEnCadaEscritura() {
+		gasolina.setFecha(LocalDate.of(2025, 3, 1));
+		gasolina.setCategoria("Ocio");
+		gasolina.setCantidad(new BigDecimal("45.00"));
+		adapter.actualizar(gasolina);
+		adapter.eliminar(adapter.obtenerPorRango(LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 31)).get(0).getId());
+
+		Map<YearMonth, TotalesMovimientos> porMes = adapter.obtenerTotalesPorMes();
+		assertThat(porMes.keySet()).containsExactly(YearMonth.of(2025, 1), YearMonth.of(2025, 2), YearMonth.of(2025, 3));
+		assertThat(porMes.get(YearMonth.of(2025, 2)).getTotalGastos()).isEqualByComparingTo("8.15");
+		assertThat(porMes.get(YearMonth.of(2025, 3)).getTotalGastos()).isEqualByComparingTo("45.00");
+		assertThat(adapter.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO))
+				.containsOnlyKeys("Alimentación", "Ocio");
+		assertThat(adapter.obtenerTotales().getCantidadMovimientos()).isEqualTo(3);
+
+		Map<YearMonth, TotalesMovimientos> incremental = adapter.obtenerTotalesPorMes();
+		adapter.reconstruirAgregados();
+		assertThat(adapter.obtenerTotalesPorMes()).isEqualTo(incremental);
+	}
+
+	@Test
+	void guardarTodosAsignaIdsQueNoColisionanConLasInsercionesIndividuales() {
+		adapter.guardarTodos(List.of(
+				movimiento("Luz", "70.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 12), "Servicios"),
+				movimiento("Agua", "25.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 14), "Servicios")));
+		Movimiento individual = adapter.guardar(
+				movimiento("Gas", "30.00", Movimiento.TipoMovimiento.GASTO, LocalDate.of(2025, 2, 15), "Servicios"));
+
+		assertThat(adapter.obtenerPorCategoria("Servicios")).extracting(Movimiento::getId)
+				.doesNotHaveDuplicates()
+				.contains(individual.getId())
+				.hasSize(3);
+		assertThat(adapter.obtenerTotalesPorCategoria(Movimiento.TipoMovimiento.GASTO).get("Servicios"))
+				.isEqualByComparingTo("125.00");
+	}
+
+	private String explicar(String sql) {
+		List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+		return String.join("\n", plan);
+	}
+
+	private Movimiento copia(Movimiento movimiento) {
+		return new Movimiento(movimiento.getId(), movimiento.getDescripcion(), movimiento.getCantidad(),
+				movimiento.getTipo(), movimiento.getFecha(), movimiento.getCategoria(), movimiento.getNotas(),
+				movimiento.getVersion());
+	}
+
+	private Movimiento movimiento(String descripcion, String cantidad, Movimiento.TipoMovimiento tipo,
+			LocalDate fecha, String categoria) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(tipo)
+				.fecha(fecha)
+				.categoria(categoria)
+				.build();
+	}
+
+}
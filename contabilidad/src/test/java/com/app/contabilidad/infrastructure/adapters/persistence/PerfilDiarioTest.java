@@ -0,0 +1,57 @@
+package com.app.contabilidad.infrastructure.adapters.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.domain.ports.MovimientoRepositoryPort;
+import com.app.contabilidad.infrastructure.constants.InfrastructureConstants;
+
+@SpringBootTest
+@ActiveProfiles(InfrastructureConstants.PERFIL_DIARIO)
+class PerfilDiarioTest {
+
+	@TempDir
+	private static Path directorio;
+
+	@DynamicPropertySource
+	static void configurarDiario(DynamicPropertyRegistry registry) {
+		registry.add("contabilidad.diario.directorio", directorio::toString);
+	}
+
+	@Autowired
+	private ApplicationContext contexto;
+
+	@Autowired
+	private MovimientoRepositoryPort repository;
+
+	@Autowired
+	private GestionarMovimientosUseCase gestionarMovimientosUseCase;
+
+	@Test
+	void arrancaSinBaseDeDatosYGuardaEnElDiario() {
+		assertThat(repository).isInstanceOf(DiarioMovimientosAdapter.class);
+		assertThat(contexto.getBeanNamesForType(DataSource.class)).isEmpty();
+
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Mercadona", new BigDecimal("12.40"),
+				"GASTO", LocalDate.of(2025, 3, 4), "Alimentación", null));
+
+		assertThat(gestionarMovimientosUseCase.listarMovimientos()).hasSize(1);
+		assertThat(directorio.resolve("diario-000001.seg")).exists();
+	}
+}
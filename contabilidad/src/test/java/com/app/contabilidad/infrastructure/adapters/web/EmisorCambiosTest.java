@@ -0,0 +1,98 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.app.contabilidad.domain.entities.CambioMovimiento;
+import com.app.contabilidad.domain.entities.Movimiento;
+
+class EmisorCambiosTest {
+
+	@Test
+	void unClienteLentoDesbordaSuBufferYRecibeUnaResincronizacion() throws Exception {
+		EmisorCambios emisor = new EmisorCambios(2, 60_000);
+		CountDownLatch clienteLento = new CountDownLatch(1);
+		EmitterGrabador emitter = new EmitterGrabador(clienteLento);
+		emisor.suscribir(emitter);
+
+		// Mientras el primer envío está bloqueado, solo caben dos cambios en el buffer
+		esperarHasta(() -> emitter.enviando);
+		for (int i = 0; i < 5; i++) {
+			emisor.publicar(List.of(cambio(i)));
+		}
+		assertThat(emisor.getDesbordamientos()).isEqualTo(1);
+
+		clienteLento.countDown();
+		esperarHasta(() -> emitter.eventos.size() == 2);
+		emisor.publicar(List.of(cambio(7)));
+		esperarHasta(() -> emitter.eventos.size() == 3);
+
+		assertThat(emitter.eventos.get(0)).contains(":conectado");
+		assertThat(emitter.eventos.get(1)).contains("event:" + EmisorCambios.EVENTO_RESINCRONIZAR);
+		assertThat(emitter.eventos.get(2)).contains("event:" + EmisorCambios.EVENTO_CAMBIO);
+	}
+
+	@Test
+	void seOlvidaDelSuscriptorCuandoSuConexionFalla() throws Exception {
+		EmisorCambios emisor = new EmisorCambios(8, 60_000);
+		emisor.suscribir(new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				throw new IOException("Conexión cerrada");
+			}
+		});
+
+		esperarHasta(() -> emisor.getSuscriptores() == 0);
+		emisor.publicar(List.of(cambio(1)));
+	}
+
+	private void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+		long limite = System.nanoTime() + 5_000_000_000L;
+		while (!condicion.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("Tiempo de espera agotado").isLessThan(limite);
+			Thread.sleep(10);
+		}
+	}
+
+	private CambioMovimiento cambio(int centimos) {
+		return new CambioMovimiento(YearMonth.of(2025, 2), "Hogar", Movimiento.TipoMovimiento.GASTO,
+				BigDecimal.valueOf(centimos, 2), 1);
+	}
+
+	/**
+	 * Conexión que registra los eventos enviados y bloquea el primero hasta que se libera el cerrojo
+	 */
+	private static final class EmitterGrabador extends SseEmitter {
+		private final CountDownLatch liberar;
+		private final List<String> eventos = new CopyOnWriteArrayList<>();
+		private volatile boolean enviando;
+
+		private EmitterGrabador(CountDownLatch liberar) {
+			this.liberar = liberar;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			enviando = true;
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			eventos.add(builder.build().stream()
+					.map(dato -> String.valueOf(dato.getData()))
+					.collect(Collectors.joining()));
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.app.contabilidad.application.cache.CacheVersionada;
+import com.app.contabilidad.application.dto.ResultadoImportacionDTO;
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.application.usecases.ImportarMovimientosUseCase;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.ports.NotificadorCambiosPort;
+import com.app.contabilidad.domain.services.MovimientoService;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class ExportadorMovimientosTest {
+
+	private final GestionarMovimientosUseCase gestionarMovimientosUseCase = mock(GestionarMovimientosUseCase.class);
+	private final MovimientoService movimientoService = mock(MovimientoService.class);
+	private final List<Movimiento> importados = new ArrayList<>();
+
+	@Test
+	void elCsvExportadoSeImportaSinPerderCamposConSaltosDeLineaNiComillas() throws Exception {
+		List<Movimiento> libro = List.of(
+				movimiento("Mercadona", "45.30", Movimiento.TipoMovimiento.GASTO, "Alimentación", null),
+				movimiento("Luz; febrero", "60.10", Movimiento.TipoMovimiento.GASTO, "Servicios",
+						"Factura \"bimestral\"\nPagada con tarjeta"),
+				movimiento("Nómina", "1500.00", Movimiento.TipoMovimiento.BENEFICIO, "Otros", "enero;\n\nextra"));
+		doAnswer(invocacion -> {
+			Consumer<Movimiento> consumidor = invocacion.getArgument(0);
+			libro.forEach(consumidor);
+			return null;
+		}).when(gestionarMovimientosUseCase).recorrerMovimientos(any());
+		when(movimientoService.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			List<Movimiento> lote = invocacion.getArgument(0);
+			importados.addAll(lote);
+			return lote.size();
+		});
+
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		new ExportadorMovimientos(gestionarMovimientosUseCase, JsonMapper.builder().build()).escribirCsv(salida);
+		String csv = salida.toString(StandardCharsets.UTF_8);
+		ResultadoImportacionDTO resultado = new ImportarMovimientosUseCase(movimientoService, new CacheVersionada(8),
+				mock(NotificadorCambiosPort.class), 2).importarCsv(new StringReader(csv));
+
+		assertThat(resultado.getFilasProcesadas()).isEqualTo(3);
+		assertThat(resultado.getRechazadas()).isZero();
+		assertThat(importados).usingRecursiveFieldByFieldElementComparatorIgnoringFields("cantidad")
+				.containsExactlyElementsOf(libro);
+		assertThat(importados).extracting(Movimiento::getCantidad)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("45.30"), new BigDecimal("60.10"), new BigDecimal("1500.00"));
+	}
+
+	@Test
+	void unaFilaConComillasSinCerrarSeRechazaConSuNumeroDeLinea() throws Exception {
+		when(movimientoService.crearMovimientos(anyList())).thenAnswer(invocacion -> {
+			List<Movimiento> lote = invocacion.getArgument(0);
+			importados.addAll(lote);
+			return lote.size();
+		});
+		String csv = """
+				fecha;descripcion;cantidad;tipo;categoria;notas
+				2025-01-02;Mercadona;45,30;GASTO;Alimentación;"dos
+				líneas"
+				2025-01-03;"Sin cerrar;10;GASTO;Otros;
+				""";
+
+		ResultadoImportacionDTO resultado = new ImportarMovimientosUseCase(movimientoService, new CacheVersionada(8),
+				mock(NotificadorCambiosPort.class), 10).importarCsv(new StringReader(csv));
+
+		assertThat(importados).extracting(Movimiento::getNotas).containsExactly("dos\nlíneas");
+		assertThat(resultado.getErrores()).extracting(ResultadoImportacionDTO.ErrorFila::getFila).containsExactly(4L);
+	}
+
+	private Movimiento movimiento(String descripcion, String cantidad, Movimiento.TipoMovimiento tipo,
+			String categoria, String notas) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal(cantidad))
+				.tipo(tipo)
+				.fecha(LocalDate.of(2025, 2, 3))
+				.categoria(categoria)
+				.notas(notas)
+				.build();
+	}
+}
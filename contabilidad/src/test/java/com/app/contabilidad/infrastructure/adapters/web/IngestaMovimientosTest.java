@@ -0,0 +1,94 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.app.contabilidad.application.usecases.IngestarMovimientosUseCase;
+import com.app.contabilidad.domain.constants.DomainConstants;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ingesta-movimientos;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"contabilidad.ingesta.habilitada=true",
+		"contabilidad.ingesta.espera-maxima-ms=50"})
+class IngestaMovimientosTest {
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private IngestarMovimientosUseCase ingestarMovimientosUseCase;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void prepararMockMvc() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+	}
+
+	@Test
+	void lasAltasConcurrentesSeGuardanEnLotesYSeConfirmanYaGuardadas() throws Exception {
+		long lotesAntes = ingestarMovimientosUseCase.getLotes();
+		List<Future<MvcResult>> peticiones = new ArrayList<>();
+		try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 1; i <= 32; i++) {
+				String cuerpo = "{\"descripcion\":\"Banco " + i + "\",\"cantidad\":" + i + ",\"tipo\":\"gasto\","
+						+ "\"fecha\":\"" + LocalDate.of(2036, 3, 1 + i % 28) + "\",\"categoria\":\"Otros\"}";
+				peticiones.add(clientes.submit(() -> mockMvc.perform(post("/movimientos/api/movimientos")
+						.contentType(MediaType.APPLICATION_JSON).content(cuerpo)).andReturn()));
+			}
+		}
+
+		for (Future<MvcResult> peticion : peticiones) {
+			MvcResult resultado = peticion.get();
+			assertThat(resultado.getResponse().getStatus()).isEqualTo(201);
+			// La respuesta llega con la transacción del lote ya confirmada
+			String respuesta = resultado.getResponse().getContentAsString();
+			long id = Long.parseLong(respuesta.replaceAll(".*\"id\":(\\d+).*", "$1"));
+			assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos WHERE id = ?", Integer.class, id))
+					.isEqualTo(1);
+		}
+		assertThat(ingestarMovimientosUseCase.getLotes() - lotesAntes).isLessThan(32);
+		assertThat(jdbcTemplate.queryForObject("SELECT SUM(cantidad) FROM agregados_mensuales WHERE anio = 2036",
+				Integer.class)).isEqualTo(32);
+		assertThat(jdbcTemplate.queryForObject("SELECT SUM(total) FROM agregados_mensuales WHERE anio = 2036",
+				BigDecimal.class)).isEqualByComparingTo("528");
+
+		// El formulario también pasa por la cola
+		MvcResult formulario = mockMvc.perform(post("/movimientos").param("descripcion", "Recibo")
+				.param("cantidad", "5").param("tipo", "GASTO").param("fecha", "2036-04-01")
+				.param("categoria", "Otros")).andReturn();
+		assertThat(formulario.getFlashMap().get("mensaje")).isEqualTo(DomainConstants.MOVIMIENTO_CREADO);
+
+		assertThat(mockMvc.perform(post("/movimientos/api/movimientos").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"descripcion\":\"Sin tipo\",\"cantidad\":3,\"categoria\":\"Otros\"}")).andReturn()
+				.getResponse().getStatus()).isEqualTo(400);
+		assertThat(registry.get("contabilidad.ingesta.pendientes").gauge().value()).isZero();
+		assertThat(registry.get("contabilidad.ingesta.guardados").functionCounter().count()).isGreaterThanOrEqualTo(33);
+	}
+}
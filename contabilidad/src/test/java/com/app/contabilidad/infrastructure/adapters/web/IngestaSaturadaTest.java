@@ -0,0 +1,139 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.app.contabilidad.application.usecases.IngestarMovimientosUseCase;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.Movimiento;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ingesta-saturada;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"contabilidad.ingesta.habilitada=true",
+		"contabilidad.ingesta.capacidad=1",
+		"contabilidad.ingesta.tamano-lote=1",
+		"contabilidad.ingesta.espera-encolar-ms=50",
+		"contabilidad.ingesta.espera-confirmacion-ms=300"})
+class IngestaSaturadaTest {
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private IngestarMovimientosUseCase ingestarMovimientosUseCase;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void conLaColaSaturadaElFormularioVuelveConErrorYLaApiResponde503() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+		CompletableFuture<Movimiento> bloqueada;
+		CompletableFuture<Movimiento> encolada;
+		try (Connection conexion = dataSource.getConnection()) {
+			// Otra transacción retiene la versión del libro: el volcado del primer lote se queda esperando
+			conexion.setAutoCommit(false);
+			try (Statement sentencia = conexion.createStatement()) {
+				sentencia.executeUpdate("UPDATE version_libro SET version = version + 1");
+			}
+			bloqueada = ingestarMovimientosUseCase.encolar(movimiento("Bloqueada"));
+			// Hasta que el volcado no espera al bloqueo, la siguiente alta podría unirse a su lote
+			long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (!volcadoBloqueado() && System.nanoTime() < limite) {
+				Thread.sleep(10);
+			}
+			assertThat(volcadoBloqueado()).isTrue();
+
+			// El alta del formulario entra en la cola, pero no se vuelca antes de agotar la espera
+			MvcResult formulario = mockMvc.perform(post("/movimientos").param("descripcion", "Recibo")
+					.param("cantidad", "5").param("tipo", "GASTO").param("fecha", "2037-01-02")
+					.param("categoria", "Otros")).andReturn();
+			assertThat(formulario.getResponse().getRedirectedUrl()).isEqualTo("/movimientos");
+			assertThat(formulario.getFlashMap().get("error"))
+					.isEqualTo(DomainConstants.ERROR_CREAR_MOVIMIENTO + DomainConstants.INGESTA_SATURADA);
+
+			// Con la cola llena, la API pide al cliente que reintente más tarde
+			encolada = ingestarMovimientosUseCase.encolar(movimiento("Encolada"));
+			MvcResult api = mockMvc.perform(post("/movimientos/api/movimientos").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"descripcion\":\"Banco\",\"cantidad\":3,\"tipo\":\"gasto\",\"fecha\":\"2037-01-03\","
+							+ "\"categoria\":\"Otros\"}")).andReturn();
+			assertThat(api.getResponse().getStatus()).isEqualTo(503);
+			assertThat(api.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+			conexion.rollback();
+		}
+
+		// Al soltar la versión se vuelcan las altas que ya estaban encoladas
+		assertThat(bloqueada.handle((movimiento, error) -> true).get(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(encolada.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+	}
+
+	@Test
+	void unAltaQueYaEstaEnUnLoteSinConfirmarATiempoRespondeAceptadaYSeAcabaGuardando() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+		MvcResult api;
+		try (Connection conexion = dataSource.getConnection()) {
+			conexion.setAutoCommit(false);
+			try (Statement sentencia = conexion.createStatement()) {
+				sentencia.executeUpdate("UPDATE version_libro SET version = version + 1");
+			}
+			// El volcado saca el alta de la cola y se queda esperando al bloqueo hasta agotar la espera
+			api = mockMvc.perform(post("/movimientos/api/movimientos").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"descripcion\":\"En vuelo\",\"cantidad\":4,\"tipo\":\"gasto\",\"fecha\":\"2037-02-01\","
+							+ "\"categoria\":\"Otros\"}")).andReturn();
+			assertThat(volcadoBloqueado()).isTrue();
+			conexion.rollback();
+		}
+
+		assertThat(api.getResponse().getStatus()).isEqualTo(202);
+		assertThat(api.getResponse().getContentAsString()).isEmpty();
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (contarEnVuelo() == 0 && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		assertThat(contarEnVuelo()).isEqualTo(1);
+	}
+
+	private int contarEnVuelo() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos WHERE descripcion = 'En vuelo'",
+				Integer.class);
+	}
+
+	private boolean volcadoBloqueado() {
+		return jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Integer.class) > 0;
+	}
+
+	private static Movimiento movimiento(String descripcion) {
+		return Movimiento.builder()
+				.descripcion(descripcion)
+				.cantidad(new BigDecimal("7.00"))
+				.tipo(Movimiento.TipoMovimiento.GASTO)
+				.fecha(LocalDate.of(2037, 1, 1))
+				.categoria("Otros")
+				.build();
+	}
+}
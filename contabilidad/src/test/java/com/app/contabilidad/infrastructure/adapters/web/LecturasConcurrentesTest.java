@@ -0,0 +1,77 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class LecturasConcurrentesTest {
+
+	@Test
+	void ejecutaLasLecturasALaVezEnHilosVirtuales() throws Exception {
+		LecturasConcurrentes lecturas = new LecturasConcurrentes(true);
+		// Cada lectura espera a la otra: solo terminan si se ejecutan a la vez
+		CountDownLatch ambas = new CountDownLatch(2);
+		try (LecturasConcurrentes.Ambito ambito = lecturas.abrir()) {
+			Supplier<Boolean> primera = ambito.lanzar(() -> {
+				ambas.countDown();
+				return ambas.await(5, TimeUnit.SECONDS) && Thread.currentThread().isVirtual();
+			});
+			Supplier<Boolean> segunda = ambito.lanzar(() -> {
+				ambas.countDown();
+				return ambas.await(5, TimeUnit.SECONDS) && Thread.currentThread().isVirtual();
+			});
+			assertThatThrownBy(primera::get).isInstanceOf(IllegalStateException.class);
+			ambito.unir();
+
+			assertThat(primera.get()).isTrue();
+			assertThat(segunda.get()).isTrue();
+		} finally {
+			lecturas.destroy();
+		}
+	}
+
+	@Test
+	void elPrimerFalloCancelaLasDemasYSeRelanzaTalCual() throws Exception {
+		LecturasConcurrentes lecturas = new LecturasConcurrentes(true);
+		CountDownLatch cancelada = new CountDownLatch(1);
+		try (LecturasConcurrentes.Ambito ambito = lecturas.abrir()) {
+			ambito.lanzar(() -> {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					cancelada.countDown();
+				}
+				return null;
+			});
+			ambito.lanzar(() -> {
+				throw new IllegalArgumentException("Cursor no válido");
+			});
+
+			assertThatThrownBy(ambito::unir)
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessage("Cursor no válido");
+			assertThat(cancelada.await(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			lecturas.destroy();
+		}
+	}
+
+	@Test
+	void enModoSecuencialEjecutaEnElHiloDeLaPeticion() {
+		LecturasConcurrentes lecturas = new LecturasConcurrentes(false);
+		Thread peticion = Thread.currentThread();
+		try (LecturasConcurrentes.Ambito ambito = lecturas.abrir()) {
+			Supplier<Thread> hilo = ambito.lanzar(Thread::currentThread);
+			ambito.unir();
+			assertThat(hilo.get()).isSameAs(peticion);
+		}
+		assertThatThrownBy(() -> lecturas.abrir().lanzar(() -> {
+			throw new IllegalArgumentException("Cursor no válido");
+		})).isInstanceOf(IllegalArgumentException.class);
+	}
+}
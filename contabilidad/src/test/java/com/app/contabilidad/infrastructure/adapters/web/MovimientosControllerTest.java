@@ -0,0 +1,328 @@
+package com.app.contabilidad.infrastructure.adapters.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.app.contabilidad.application.dto.CrearMovimientoDTO;
+import com.app.contabilidad.application.dto.PivoteCategoriasDTO;
+import com.app.contabilidad.application.dto.ResumenMovimientosDTO;
+import com.app.contabilidad.application.dto.SerieSaldosDTO;
+import com.app.contabilidad.application.usecases.GestionarMovimientosUseCase;
+import com.app.contabilidad.domain.constants.DomainConstants;
+import com.app.contabilidad.domain.entities.FiltroMovimientos;
+import com.app.contabilidad.domain.entities.Movimiento;
+import com.app.contabilidad.domain.services.MovimientoService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:movimientos-controller;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class MovimientosControllerTest {
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private GestionarMovimientosUseCase gestionarMovimientosUseCase;
+
+	@Autowired
+	private MovimientoService movimientoService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MetricasPeticionesFiltro metricasPeticionesFiltro;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void prepararMockMvc() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(contexto).addFilters(metricasPeticionesFiltro).build();
+	}
+
+	@Test
+	void lasApisDeTotalesRespondenNoModificadoMientrasNoCambiaElLibro() throws Exception {
+		MvcResult primera = mockMvc.perform(get("/movimientos/api/resumen")).andReturn();
+		String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(primera.getResponse().getStatus()).isEqualTo(200);
+		assertThat(etag).matches("\"\\d+\"");
+
+		// La versión es la persistida en la base de datos
+		Long persistida = jdbcTemplate.queryForObject("SELECT version FROM version_libro", Long.class);
+		assertThat(etag).isEqualTo("\"" + persistida + "\"");
+
+		for (String ruta : new String[] {"/movimientos/api/resumen", "/movimientos/api/estadisticas"}) {
+			MvcResult repetida = mockMvc.perform(get(ruta).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+			assertThat(repetida.getResponse().getStatus()).isEqualTo(304);
+			assertThat(repetida.getResponse().getContentAsString()).isEmpty();
+		}
+
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Mercadona", new BigDecimal("12.40"),
+				"GASTO", LocalDate.of(2025, 3, 4), "Alimentación", null));
+
+		MvcResult trasEscritura = mockMvc.perform(get("/movimientos/api/resumen").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andReturn();
+		assertThat(trasEscritura.getResponse().getStatus()).isEqualTo(200);
+		assertThat(trasEscritura.getResponse().getContentAsString()).contains("2025-03");
+		String nuevoEtag = trasEscritura.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(Long.parseLong(nuevoEtag.replace("\"", ""))).isGreaterThan(persistida);
+	}
+
+	@Test
+	void unaEscrituraConfirmadaAntesDeInvalidarLaCacheNoSeSirveConElEtagNuevo() throws Exception {
+		MvcResult primera = mockMvc.perform(get("/movimientos/api/resumen")).andReturn();
+		String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(primera.getResponse().getContentAsString()).doesNotContain("2034-05");
+
+		// El servicio confirma la escritura (y la versión del libro) sin pasar por la invalidación del caso de uso,
+		// como ocurre entre el commit y el cache.invalidar() posterior, o entre el ETag y la lectura de la caché
+		long versionComprobada = gestionarMovimientosUseCase.obtenerVersionLibro();
+		movimientoService.crearMovimiento(Movimiento.builder().descripcion("Alquiler").cantidad(new BigDecimal("700.00"))
+				.tipo(Movimiento.TipoMovimiento.GASTO).fecha(LocalDate.of(2034, 5, 1)).categoria("Vivienda").build());
+		assertThat(gestionarMovimientosUseCase.obtenerResumenPorMes())
+				.anySatisfy(resumen -> assertThat(resumen.getMes()).isEqualTo("2034-05"));
+		assertThat(gestionarMovimientosUseCase.obtenerVersionLibro()).isGreaterThan(versionComprobada);
+
+		MvcResult trasEscritura = mockMvc.perform(get("/movimientos/api/resumen").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andReturn();
+		assertThat(trasEscritura.getResponse().getStatus()).isEqualTo(200);
+		assertThat(trasEscritura.getResponse().getContentAsString()).contains("2034-05");
+		String nuevoEtag = trasEscritura.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(mockMvc.perform(get("/movimientos/api/resumen").header(HttpHeaders.IF_NONE_MATCH, nuevoEtag))
+				.andReturn().getResponse().getStatus()).isEqualTo(304);
+	}
+
+	@Test
+	void seMidenLasOperacionesYLosViajesALaBaseDeDatosDeCadaPeticion() throws Exception {
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Nómina", new BigDecimal("1500.00"),
+				"BENEFICIO", LocalDate.of(2025, 1, 31), "Otros", null));
+
+		assertThat(mockMvc.perform(get("/movimientos")).andReturn().getResponse().getStatus()).isEqualTo(200);
+
+		assertThat(registry.get("contabilidad.casos-uso").tag("operacion", "listarPagina").timer().count())
+				.isGreaterThanOrEqualTo(1);
+		assertThat(registry.get("contabilidad.repositorio").tag("operacion", "obtenerPagina").timer().count())
+				.isGreaterThanOrEqualTo(1);
+		assertThat(registry.get("contabilidad.repositorio.filas").tag("operacion", "obtenerPagina").summary().max())
+				.isGreaterThanOrEqualTo(1);
+
+		// Cuenta también las consultas de las lecturas lanzadas en paralelo desde la petición
+		DistributionSummary consultas = registry.get("contabilidad.http.consultas").tag("uri", "/movimientos").summary();
+		assertThat(consultas.count()).isEqualTo(1);
+		assertThat(consultas.totalAmount()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void laPaginaDeCategoriaMuestraLosTotalesDeLaCategoriaConUnaConsultaAgregada() throws Exception {
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Semillas", new BigDecimal("4.50"),
+				"GASTO", LocalDate.of(2025, 4, 2), "Jardín", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Maceta", new BigDecimal("15.00"),
+				"GASTO", LocalDate.of(2025, 4, 9), "Jardín", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Venta de esquejes", new BigDecimal("8.00"),
+				"BENEFICIO", LocalDate.of(2025, 5, 1), "Jardín", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Nómina", new BigDecimal("1500.00"),
+				"BENEFICIO", LocalDate.of(2025, 5, 31), "Otros", null));
+
+		MvcResult respuesta = mockMvc.perform(get("/movimientos/categoria/Jardín")).andReturn();
+		assertThat(respuesta.getResponse().getStatus()).isEqualTo(200);
+		Map<String, Object> modelo = respuesta.getModelAndView().getModel();
+		ResumenMovimientosDTO resumen = (ResumenMovimientosDTO) modelo.get("resumen");
+		assertThat(resumen.getTotalGastos()).isEqualByComparingTo("19.50");
+		assertThat(resumen.getTotalBeneficios()).isEqualByComparingTo("8.00");
+		assertThat(resumen.getCantidadMovimientos()).isEqualTo(3);
+		assertThat((List<?>) modelo.get("movimientos")).hasSize(3);
+		assertThat(modelo.get("siguienteCursor")).isNull();
+
+		// Una consulta agregada de la categoría y una página de filas
+		DistributionSummary consultas = registry.get("contabilidad.http.consultas")
+				.tag("uri", "/movimientos/categoria/{categoria}").summary();
+		assertThat(consultas.max()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void laSerieDeSaldosSigueLasAltasEdicionesYBajas() throws Exception {
+		LocalDate desde = LocalDate.of(2031, 1, 1);
+		LocalDate hasta = LocalDate.of(2031, 1, 10);
+		// La primera consulta construye el índice; las escrituras siguientes lo actualizan
+		BigDecimal inicial = gestionarMovimientosUseCase.obtenerSerieSaldos(desde, hasta).getSaldoInicial();
+
+		Movimiento alta = gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Devolución",
+				new BigDecimal("100.00"), "BENEFICIO", LocalDate.of(2031, 1, 3), "Otros", null));
+		assertThat(saldos(desde, hasta)).containsExactly(0, 0, 100, 100, 100, 100, 100, 100, 100, 100);
+
+		gestionarMovimientosUseCase.actualizarMovimiento(alta.getId(), new CrearMovimientoDTO("Devolución",
+				new BigDecimal("40.00"), "GASTO", LocalDate.of(2031, 1, 5), "Otros", null), alta.getVersion());
+		SerieSaldosDTO serie = gestionarMovimientosUseCase.obtenerSerieSaldos(desde, hasta);
+		assertThat(saldos(desde, hasta)).containsExactly(0, 0, 0, 0, -40, -40, -40, -40, -40, -40);
+		assertThat(serie.getFlujo()).isEqualByComparingTo("-40");
+		assertThat(serie.getDias().get(4).getFlujo()).isEqualByComparingTo("-40");
+		assertThat(serie.getSaldoFinal()).isEqualByComparingTo(inicial.subtract(new BigDecimal("40")));
+		assertThat(gestionarMovimientosUseCase.obtenerSaldosA(List.of(LocalDate.of(2031, 1, 5))))
+				.containsEntry(LocalDate.of(2031, 1, 5), serie.getSaldoFinal());
+
+		gestionarMovimientosUseCase.eliminarMovimiento(alta.getId());
+		assertThat(saldos(desde, hasta)).containsOnly(0);
+
+		MvcResult respuesta = mockMvc.perform(get("/movimientos/api/saldos").param("desde", "2031-01-01")
+				.param("hasta", "2031-01-10")).andReturn();
+		assertThat(respuesta.getResponse().getStatus()).isEqualTo(200);
+		assertThat(respuesta.getResponse().getContentAsString()).contains("\"saldoFinal\"", "\"2031-01-10\"");
+		assertThat(mockMvc.perform(get("/movimientos/api/saldos").param("desde", "2031-01-10")
+				.param("hasta", "2031-01-01")).andReturn().getResponse().getStatus()).isEqualTo(400);
+		assertThat(mockMvc.perform(get("/movimientos/api/saldos").param("desde", "2000-01-01")
+				.param("hasta", "2031-01-01")).andReturn().getResponse().getStatus()).isEqualTo(400);
+	}
+
+	@Test
+	void elPivoteRepartePorCategoriaYMesYSeRecalculaTrasEscribir() throws Exception {
+		assertThat(gestionarMovimientosUseCase.obtenerPivoteCategorias(2032, 2032).getCategorias()).isEmpty();
+
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Mercadona", new BigDecimal("12.40"),
+				"GASTO", LocalDate.of(2032, 3, 4), "Alimentación", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Mercadona", new BigDecimal("7.60"),
+				"GASTO", LocalDate.of(2032, 3, 20), "Alimentación", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Nómina", new BigDecimal("1500.00"),
+				"BENEFICIO", LocalDate.of(2032, 11, 30), "Salario", null));
+
+		PivoteCategoriasDTO pivote = gestionarMovimientosUseCase.obtenerPivoteCategorias(2032, 2032);
+		assertThat(pivote.getMeses()).hasSize(12).startsWith("2032-01").endsWith("2032-12");
+		assertThat(pivote.getCategorias()).extracting(PivoteCategoriasDTO.FilaCategoria::getCategoria)
+				.containsExactly("Alimentación", "Salario");
+		PivoteCategoriasDTO.FilaCategoria alimentacion = pivote.getCategorias().get(0);
+		assertThat(alimentacion.getGastos().get(2)).isEqualByComparingTo("20.00");
+		assertThat(alimentacion.getTotalGastos()).isEqualByComparingTo("20.00");
+		assertThat(alimentacion.getCantidadMovimientos()).isEqualTo(2);
+		assertThat(pivote.getCategorias().get(1).getBeneficios().get(10)).isEqualByComparingTo("1500.00");
+		assertThat(pivote.getGastosPorMes().get(2)).isEqualByComparingTo("20.00");
+		assertThat(pivote.getBeneficiosPorMes().get(2)).isEqualByComparingTo("0");
+
+		MvcResult respuesta = mockMvc.perform(get("/movimientos/api/pivote").param("desde", "2032")
+				.param("hasta", "2032")).andReturn();
+		assertThat(respuesta.getResponse().getStatus()).isEqualTo(200);
+		assertThat(respuesta.getResponse().getContentAsString()).contains("\"Salario\"", "\"2032-11\"");
+		assertThat(mockMvc.perform(get("/movimientos/api/pivote").param("desde", "2033")
+				.param("hasta", "2032")).andReturn().getResponse().getStatus()).isEqualTo(400);
+		assertThat(mockMvc.perform(get("/movimientos/api/pivote").param("desde", "2000")
+				.param("hasta", "2032")).andReturn().getResponse().getStatus()).isEqualTo(400);
+	}
+
+	@Test
+	void unaEdicionConElFormularioDesfasadoVuelveAlFormularioSinSobrescribir() throws Exception {
+		Movimiento alta = gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Seguro coche",
+				new BigDecimal("300.00"), "GASTO", LocalDate.of(2033, 5, 10), "Transporte", "póliza anual"));
+		assertThat(mockMvc.perform(get("/movimientos/" + alta.getId() + "/editar")).andReturn()
+				.getResponse().getContentAsString()).contains("name=\"version\" value=\"0\"");
+
+		MvcResult primera = mockMvc.perform(editar(alta.getId(), "310.00", 0L)).andReturn();
+		assertThat(primera.getResponse().getRedirectedUrl()).isEqualTo("/movimientos");
+		assertThat(primera.getFlashMap().get("mensaje")).isEqualTo(DomainConstants.MOVIMIENTO_ACTUALIZADO);
+
+		// Otra pestaña abierta antes de la primera edición sigue enviando la versión 0
+		MvcResult segunda = mockMvc.perform(editar(alta.getId(), "999.00", 0L)).andReturn();
+		assertThat(segunda.getResponse().getRedirectedUrl()).isEqualTo("/movimientos/" + alta.getId() + "/editar");
+		assertThat(segunda.getFlashMap().get("error")).isEqualTo(DomainConstants.MOVIMIENTO_MODIFICADO);
+		// Sin versión no hay edición: 400 y el movimiento no cambia
+		assertThat(mockMvc.perform(editar(alta.getId(), "555.00", null)).andReturn().getResponse().getStatus())
+				.isEqualTo(400);
+		assertThat(gestionarMovimientosUseCase.obtenerMovimiento(alta.getId())).get()
+				.extracting(Movimiento::getCantidad, Movimiento::getNotas, Movimiento::getVersion)
+				.containsExactly(new BigDecimal("310.00"), "póliza anual", 1L);
+		assertThat(gestionarMovimientosUseCase.obtenerResumen(FiltroMovimientos.builder()
+				.desde(LocalDate.of(2033, 5, 1)).hasta(LocalDate.of(2033, 5, 31)).build()).getTotalGastos())
+				.isEqualByComparingTo("310.00");
+	}
+
+	@Test
+	void laApiDePaginasDevuelveLasNotasQueElListadoNoLee() throws Exception {
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Sin nota", new BigDecimal("5.00"),
+				"GASTO", LocalDate.of(2099, 12, 30), "Otros", null));
+		gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Con nota", new BigDecimal("7.00"),
+				"GASTO", LocalDate.of(2099, 12, 31), "Otros", "ticket en el cajón"));
+
+		String pagina = mockMvc.perform(get("/movimientos/api/movimientos").param("limit", "2")).andReturn()
+				.getResponse().getContentAsString();
+		assertThat(pagina).containsSubsequence("\"descripcion\":\"Con nota\"", "\"notas\":\"ticket en el cajón\"",
+				"\"descripcion\":\"Sin nota\"", "\"notas\":null");
+		assertThat(gestionarMovimientosUseCase.listarPagina(null, 2).getMovimientos())
+				.extracting(Movimiento::getNotas).containsOnlyNulls();
+	}
+
+	@Test
+	void lasOperacionesMasivasSeAplicanEnUnaTransaccionYMantienenLosSaldos() throws Exception {
+		LocalDate desde = LocalDate.of(2034, 1, 1);
+		LocalDate hasta = LocalDate.of(2034, 1, 10);
+		gestionarMovimientosUseCase.obtenerSerieSaldos(desde, hasta);
+		List<Long> ids = new ArrayList<>();
+		for (int dia = 1; dia <= 3; dia++) {
+			ids.add(gestionarMovimientosUseCase.crearMovimiento(new CrearMovimientoDTO("Importado " + dia,
+					new BigDecimal("10.00"), "GASTO", LocalDate.of(2034, 1, dia), "Otros", null)).getId());
+		}
+
+		MvcResult desplazar = mockMvc.perform(post("/movimientos/api/masivo").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"operacion\":\"desplazar-fechas\",\"categoria\":\"Otros\",\"desde\":\"2034-01-01\","
+						+ "\"hasta\":\"2034-01-31\",\"dias\":2}")).andReturn();
+		assertThat(desplazar.getResponse().getStatus()).isEqualTo(200);
+		assertThat(desplazar.getResponse().getContentAsString()).contains("\"afectados\":3");
+		assertThat(saldos(desde, hasta)).containsExactly(0, 0, -10, -20, -30, -30, -30, -30, -30, -30);
+
+		// Formulario del listado: las casillas marcadas llegan como ids
+		MvcResult eliminar = mockMvc.perform(post("/movimientos/masivo").param("operacion", "eliminar")
+				.param("ids", String.valueOf(ids.get(0)), String.valueOf(ids.get(1)))).andReturn();
+		assertThat(eliminar.getResponse().getRedirectedUrl()).isEqualTo("/movimientos");
+		assertThat(eliminar.getFlashMap().get("mensaje"))
+				.isEqualTo(String.format(DomainConstants.OPERACION_MASIVA_APLICADA, 2));
+		assertThat(saldos(desde, hasta)).containsExactly(0, 0, 0, 0, -10, -10, -10, -10, -10, -10);
+		assertThat(gestionarMovimientosUseCase.obtenerResumen(FiltroMovimientos.builder()
+				.desde(desde).hasta(LocalDate.of(2034, 1, 31)).build()).getCantidadMovimientos()).isEqualTo(1);
+
+		assertThat(mockMvc.perform(post("/movimientos/api/masivo").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"operacion\":\"eliminar\"}")).andReturn().getResponse().getStatus()).isEqualTo(400);
+		assertThat(mockMvc.perform(post("/movimientos/api/masivo").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"operacion\":\"desplazar-fechas\",\"ids\":[1],\"dias\":0}")).andReturn()
+				.getResponse().getStatus()).isEqualTo(400);
+	}
+
+	private MockHttpServletRequestBuilder editar(Long id, String cantidad, Long version) {
+		MockHttpServletRequestBuilder peticion = post("/movimientos/" + id + "/editar")
+				.param("descripcion", "Seguro coche")
+				.param("cantidad", cantidad)
+				.param("tipo", "GASTO")
+				.param("fecha", "2033-05-10")
+				.param("categoria", "Transporte")
+				.param("notas", "póliza anual");
+		return version == null ? peticion : peticion.param("version", String.valueOf(version));
+	}
+
+	/**
+	 * Saldos diarios del rango relativos al saldo previo, en euros enteros
+	 */
+	private List<Integer> saldos(LocalDate desde, LocalDate hasta) {
+		SerieSaldosDTO serie = gestionarMovimientosUseCase.obtenerSerieSaldos(desde, hasta);
+		return serie.getDias().stream()
+				.map(dia -> dia.getSaldo().subtract(serie.getSaldoInicial()).intValueExact())
+				.toList();
+	}
+}